@@ -1,5 +1,6 @@
 package app.ospreyplan.backend.audit;
 
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
 import org.springframework.web.bind.annotation.*;
 import java.util.UUID;
 
@@ -8,13 +9,16 @@ import java.util.UUID;
 public class DegreeAuditController {
 
     private final DegreeAuditService degreeAuditService;
+    private final PlannerWriteBuffer writeBuffer;
 
-    public DegreeAuditController(DegreeAuditService degreeAuditService) {
+    public DegreeAuditController(DegreeAuditService degreeAuditService, PlannerWriteBuffer writeBuffer) {
         this.degreeAuditService = degreeAuditService;
+        this.writeBuffer = writeBuffer;
     }
 
     @GetMapping("/{userId}")
     public DegreeAuditResponse getAudit(@PathVariable UUID userId) {
+        writeBuffer.flush(userId);
         return degreeAuditService.audit(userId);
     }
 }
@@ -47,9 +47,21 @@ public class DegreeAuditService {
             return new DegreeAuditResponse(null, Collections.emptyList());
         }
 
-        List<DegreeRequirement> requirements = degreeRequirementRepository.findByDegreeCodeOrderByPriorityAsc(degreeCode);
+        List<DegreeRequirement> requirements = requirementsFor(degreeCode);
         List<PlannedCourse> allPlannedCourses = plannedCourseRepository.findByPlannedSemester_UserIdOrderByCreatedAtAsc(userId);
 
+        return audit(degreeCode, requirements, allPlannedCourses);
+    }
+
+    public List<DegreeRequirement> requirementsFor(String degreeCode) {
+        return degreeRequirementRepository.findByDegreeCodeOrderByPriorityAsc(degreeCode);
+    }
+
+    /**
+     * Audits an already loaded plan, so callers that have the user's courses in hand (e.g. the dashboard) don't
+     * read them again. {@code allPlannedCourses} should be in creation order.
+     */
+    public DegreeAuditResponse audit(String degreeCode, List<DegreeRequirement> requirements, List<PlannedCourse> allPlannedCourses) {
         // Deduplicate courses: Keep only one instance of each (Subject + Number), preferring higher credits
         Map<String, PlannedCourse> uniqueCoursesMap = new HashMap<>();
         for (PlannedCourse pc : allPlannedCourses) {
@@ -65,14 +77,19 @@ public class DegreeAuditService {
         }
         List<PlannedCourse> plannedCourses = new ArrayList<>(uniqueCoursesMap.values());
 
-        // Map PlannedCourse to Course details
+        // Map PlannedCourse to Course details, loading all of them at once instead of one query per course
+        Set<CourseId> courseIds = plannedCourses.stream()
+                .map(pc -> new CourseId(pc.getSubject(), pc.getCourseNumber()))
+                .collect(Collectors.toSet());
+        Map<CourseId, Course> coursesById = courseRepository.findAllByCourseIds(courseIds).stream()
+                .collect(Collectors.toMap(Course::getCourseId, c -> c));
+
         Map<UUID, Course> courseDetailsMap = new HashMap<>();
         for (PlannedCourse pc : plannedCourses) {
-            CourseId courseId = new CourseId();
-            courseId.setSubject(pc.getSubject());
-            courseId.setCourseNumber(pc.getCourseNumber());
-            
-            courseRepository.findById(courseId).ifPresent(c -> courseDetailsMap.put(pc.getId(), c));
+            Course course = coursesById.get(new CourseId(pc.getSubject(), pc.getCourseNumber()));
+            if (course != null) {
+                courseDetailsMap.put(pc.getId(), course);
+            }
         }
 
         // Initialize results
@@ -1,10 +1,15 @@
 package app.ospreyplan.backend.audit;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
 @Table(name = "degree_requirements")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "reference-degree-requirements")
 public class DegreeRequirement {
     @Id
     private String id;
@@ -20,7 +25,10 @@ public class DegreeRequirement {
 
     private Short priority;
 
+    // On a cold cache, a degree's requirements get their criteria in one query instead of one each
     @OneToMany(mappedBy = "degreeRequirement", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "reference-degree-requirement-criteria")
     private List<RequirementCriteria> criteria;
 
     public String getId() {
@@ -1,8 +1,18 @@
 package app.ospreyplan.backend.audit;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.List;
 
 public interface DegreeRequirementRepository extends JpaRepository<DegreeRequirement, String> {
+    String BY_DEGREE_REGION = "reference-degree-requirements-by-degree";
+
+    // Served from the query cache; the requirements themselves come from the entity region
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = BY_DEGREE_REGION)
+    })
     List<DegreeRequirement> findByDegreeCodeOrderByPriorityAsc(String degreeCode);
 }
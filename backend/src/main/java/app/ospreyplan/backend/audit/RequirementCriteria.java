@@ -1,10 +1,14 @@
 package app.ospreyplan.backend.audit;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.UUID;
 
 @Entity
 @Table(name = "requirement_criteria")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "reference-requirement-criteria")
 public class RequirementCriteria {
     @Id
     @GeneratedValue
@@ -1,10 +1,16 @@
 package app.ospreyplan.backend.auth;
 
-import app.ospreyplan.backend.planner.semester.PlannedSemester;
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
 import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
-import app.ospreyplan.backend.planner.course.PlannedCourse;
-import app.ospreyplan.backend.usersettings.UserSettings;
-import app.ospreyplan.backend.usersettings.UserSettingsRepository;
+import app.ospreyplan.backend.auth.demo.DemoAccountPool;
+import app.ospreyplan.backend.auth.outbox.AuthOutbox;
+import app.ospreyplan.backend.auth.demo.DemoAccountProvisioner;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import app.ospreyplan.backend.planner.sync.PlanSyncService;
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import app.ospreyplan.backend.security.SupabaseAuthFilter;
+import app.ospreyplan.backend.security.SupabaseTokenVerifier;
+import app.ospreyplan.backend.usersettings.UserSettingsService;
 import com.fasterxml.jackson.databind.JsonNode;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
@@ -27,8 +34,6 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Set;
@@ -65,17 +70,29 @@ public class AuthController
     private static final String REFRESH_COOKIE_NAME = "sb-refresh-token";
     private static final String UNAUTHORIZED_MESSAGE = "Unauthorized";
 
-    private final UserSettingsRepository userSettingsRepository;
+    private final UserSettingsService userSettingsService;
     private final PlannedSemesterRepository plannedSemesterRepository;
+    private final PlanHistoryService planHistoryService;
+    private final PlanSyncService planSyncService;
+    private final PlannerWriteBuffer writeBuffer;
     private final PlatformTransactionManager transactionManager;
-    private final org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
+    private final DemoAccountPool demoAccountPool;
+    private final SupabaseTokenVerifier tokenVerifier;
+    private final AuthOutbox authOutbox;
+    private final RestTemplate supabaseClient;
 
-    public AuthController(UserSettingsRepository userSettingsRepository, PlannedSemesterRepository plannedSemesterRepository, PlatformTransactionManager transactionManager, org.springframework.jdbc.core.JdbcTemplate jdbcTemplate)
+    public AuthController(UserSettingsService userSettingsService, PlannedSemesterRepository plannedSemesterRepository, PlanHistoryService planHistoryService, PlanSyncService planSyncService, PlannerWriteBuffer writeBuffer, PlatformTransactionManager transactionManager, DemoAccountPool demoAccountPool, SupabaseTokenVerifier tokenVerifier, AuthOutbox authOutbox, RestTemplate supabaseClient)
     {
-        this.userSettingsRepository = userSettingsRepository;
+        this.userSettingsService = userSettingsService;
         this.plannedSemesterRepository = plannedSemesterRepository;
+        this.planHistoryService = planHistoryService;
+        this.planSyncService = planSyncService;
+        this.writeBuffer = writeBuffer;
         this.transactionManager = transactionManager;
-        this.jdbcTemplate = jdbcTemplate;
+        this.demoAccountPool = demoAccountPool;
+        this.tokenVerifier = tokenVerifier;
+        this.authOutbox = authOutbox;
+        this.supabaseClient = supabaseClient;
     }
 
     // Supabase project base URL (https://<project-id>.supabase.co)
@@ -131,49 +148,17 @@ public class AuthController
     @PostMapping("/demo-login")
     public ResponseEntity<Map<String, Object>> demoLogin(HttpServletRequest request) {
         
-        // Lazily ensure DB constraints are compatible with the demo mode
+        // 1. Claim a pre-provisioned demo user (settings and starter plan already exist)
+        UUID demoUserId;
         try {
-             jdbcTemplate.execute("ALTER TABLE public.users DROP CONSTRAINT IF EXISTS users_id_fkey");
+             demoUserId = demoAccountPool.claim();
         } catch (Exception e) {
-             logger.warn("Could not modify database constraints. Demo login might fail if 'users_id_fkey' still exists.", e);
-        }
-        
-        UUID demoUserId = UUID.randomUUID();
-        String demoEmail = "demo-" + demoUserId + "@demo.app";
-
-        // 1. Create UserSettings
-        UserSettings user = new UserSettings();
-        user.setId(demoUserId);
-        user.setEmail(demoEmail);
-        user.setFullName("Demo User");
-        user.setDegree("bs-computer-science"); // Pre-select degree
-        user.setStartYear(java.time.Year.now().getValue());
-        user.setProfilePictureUrl("https://ui-avatars.com/api/?name=Demo+User&background=random");
-        try {
-             userSettingsRepository.save(user);
-        } catch (Exception e) {
-             logger.error("Failed to save demo user", e);
+             logger.error("Failed to create demo user", e);
              return ResponseEntity.status(500).body(Map.of("error", "Failed to create demo user"));
         }
+        String demoEmail = DemoAccountProvisioner.emailFor(demoUserId);
 
-        // 2. Preload Planner Data (Semesters & Courses)
-        // We'll add 2 planned semesters for Year 1
-        createDemoSemester(demoUserId, "Fall " + user.getStartYear(), 
-            List.of(
-                createCourse("CSCI", 2101, 4),  // Programming I
-                createCourse("MATH", 2215, 5),  // Calc I
-                createCourse("GAH", 2126, 4)    // General Arts
-            )
-        );
-        
-        createDemoSemester(demoUserId, "Spring " + (user.getStartYear() + 1), 
-            List.of(
-                createCourse("CSCI", 2102, 4),  // Programming II
-                createCourse("MATH", 2216, 5)   // Calc II
-            )
-        );
-
-        // 3. Issue Token
+        // 2. Issue Token
         String accessToken = Jwts.builder()
                 .setSubject(demoUserId.toString())
                 .claim("email", demoEmail)
@@ -186,7 +171,7 @@ public class AuthController
         // Refresh token (just another jwt or uuid)
         String refreshToken = UUID.randomUUID().toString();
 
-       // 4. Set Cookies
+       // 3. Set Cookies
         boolean secureCookie = backendBaseUrl != null && backendBaseUrl.startsWith("https://");
 
         boolean isLocalhost = backendBaseUrl != null && (backendBaseUrl.contains("localhost") || backendBaseUrl.contains("127.0.0.1"));
@@ -205,8 +190,6 @@ public class AuthController
         ResponseCookie refreshCookie = ResponseCookie.from(REFRESH_COOKIE_NAME, refreshToken).httpOnly(true)
                 .secure(secureCookie).sameSite("Lax").path("/").domain(domainToSet).build();
 
-        logger.info("Setting Cookies: Access={}, Refresh={}", accessCookie.toString(), refreshCookie.toString());
-
         HttpHeaders setCookieHeaders = new HttpHeaders();
         setCookieHeaders.add(HttpHeaders.SET_COOKIE, accessCookie.toString());
         setCookieHeaders.add(HttpHeaders.SET_COOKIE, refreshCookie.toString());
@@ -214,28 +197,6 @@ public class AuthController
         return new ResponseEntity<>(Map.of("status", "ok"), setCookieHeaders, HttpStatus.OK);
     }
 
-    private void createDemoSemester(UUID userId, String title, List<PlannedCourse> courses) {
-        PlannedSemester semester = new PlannedSemester();
-        semester.setUserId(userId);
-        semester.setTitle(title);
-        
-        // Link courses
-        for(PlannedCourse c : courses) {
-            c.setPlannedSemester(semester);
-        }
-        semester.setPlannedCourses(courses);
-
-        plannedSemesterRepository.save(semester);
-    }
-    
-    private PlannedCourse createCourse(String subject, int number, int credits) {
-        PlannedCourse c = new PlannedCourse();
-        c.setSubject(subject);
-        c.setCourseNumber(number);
-        c.setCredits(credits);
-        return c;
-    }
-
     /**
      * Receives the authorization {@code code} from Supabase and redirects the user agent to the frontend callback
      * route, where the SPA completes the exchange.
@@ -309,7 +270,7 @@ public class AuthController
             logger.debug("Request URL: {}", url);
 
             // Execute request against Supabase token endpoint
-            ResponseEntity<String> response = new RestTemplate().postForEntity(url, requestEntity, String.class);
+            ResponseEntity<String> response = supabaseClient.postForEntity(url, requestEntity, String.class);
 
             if (!response.getStatusCode().is2xxSuccessful())
             {
@@ -339,7 +300,7 @@ public class AuthController
             HttpEntity<Void> userRequest = new HttpEntity<>(userHeaders);
 
             // Fetch the user from Supabase
-            ResponseEntity<String> userResponse = new RestTemplate().exchange(supabaseProjectUrl + "/auth/v1/user",
+            ResponseEntity<String> userResponse = supabaseClient.exchange(supabaseProjectUrl + "/auth/v1/user",
                     HttpMethod.GET, userRequest, String.class);
 
             // If the user fetch fails, block the sign-in
@@ -407,8 +368,11 @@ public class AuthController
      * Logs out the current user by clearing auth cookies.
      */
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, Object>> logout(HttpServletResponse response)
+    public ResponseEntity<Map<String, Object>> logout(HttpServletResponse response,
+            @CookieValue(value = ACCESS_COOKIE_NAME, required = false) String accessToken)
     {
+        tokenVerifier.invalidate(accessToken);
+
         boolean secureCookie = backendBaseUrl != null && backendBaseUrl.startsWith("https://");
         boolean isLocalhost = backendBaseUrl != null && (backendBaseUrl.contains("localhost") || backendBaseUrl.contains("127.0.0.1"));
         String domainToSet = (isLocalhost || cookieDomain == null || cookieDomain.isBlank() || "localhost".equals(cookieDomain)) ? null : cookieDomain;
@@ -442,99 +406,43 @@ public class AuthController
      * Deletes the user account and all associated data.
      */
     @DeleteMapping("/me")
-    public ResponseEntity<Map<String, Object>> deleteAccount(HttpServletRequest request, HttpServletResponse response)
+    public ResponseEntity<Map<String, Object>> deleteAccount(@AuthenticationPrincipal AuthenticatedUser user)
     {
-        // 1. Get access token
-        String accessToken = null;
-        if (request.getCookies() != null)
-        {
-            for (jakarta.servlet.http.Cookie c : request.getCookies())
-            {
-                if (ACCESS_COOKIE_NAME.equals(c.getName()))
-                {
-                    accessToken = c.getValue();
-                    break;
-                }
-            }
-        }
-
-        if (accessToken == null || accessToken.isEmpty())
+        // 1. The auth filter has already verified the access token
+        if (user == null)
         {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of(ERROR_KEY, UNAUTHORIZED_MESSAGE));
         }
 
-        UUID userId = null;
-        try
-        {
-            // 2. Validate with Supabase
-            // Verify current token works and get ID
-            String idStr = null;
-            
-            try {
-                HttpHeaders userHeaders = new HttpHeaders();
-                userHeaders.setBearerAuth(accessToken);
-                userHeaders.set(APIKEY_HEADER, supabaseApiKey);
-                HttpEntity<Void> userRequest = new HttpEntity<>(userHeaders);
-
-                ResponseEntity<String> userResponse = new RestTemplate().exchange(
-                        supabaseProjectUrl + "/auth/v1/user", HttpMethod.GET, userRequest, String.class);
-
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode userJson = mapper.readTree(Optional.ofNullable(userResponse.getBody()).orElse("{}"));
-                idStr = userJson.path("id").asText(null);
-            } catch (Exception ex) {
-                // If token is invalid/expired/deleted, try to trust the token's sub claim if it verifies against our secret
-                try {
-                     var claims = Jwts.parserBuilder()
-                        .setSigningKey(supabaseJwtSecret.getBytes(StandardCharsets.UTF_8))
-                        .build()
-                        .parseClaimsJws(accessToken)
-                        .getBody();
-                     idStr = claims.getSubject();
-                     logger.warn("Supabase user fetch failed (user likely already deleted). Using ID from JWT: {}", idStr);
-                } catch (Exception jwtEx) {
-                     logger.warn("Token check failed completely: {}", ex.getMessage());
-                }
-            }
-
-            if (idStr == null)
-            {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of(ERROR_KEY, "Invalid token or user not found"));
-            }
-            userId = UUID.fromString(idStr);
-        }
-        catch (Exception e)
-        {
-            logger.error("Delete account failed during verification", e);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of(ERROR_KEY, UNAUTHORIZED_MESSAGE));
-        }
+        UUID userId = user.userId();
 
-        // 3. Delete local data
+        // 2. Delete local data
         logger.info("Deleting account for user {}", userId);
         try
         {
             UUID finalUserId = userId;
             // Execute DB deletions in a separate, short-lived transaction
             new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Buffered planner writes must not land after the account is gone
+                writeBuffer.discard(finalUserId);
+
                 // Delete planner data (courses first, then semesters)
                 plannedSemesterRepository.deleteCoursesByUserId(finalUserId);
                 plannedSemesterRepository.deleteSemestersByUserId(finalUserId);
+                planHistoryService.deleteHistory(finalUserId);
+                planSyncService.deleteSyncState(finalUserId);
 
                 // Delete user settings
-                userSettingsRepository.deleteByUserId(finalUserId);
-            });
+                userSettingsService.deleteSettings(finalUserId);
 
-            // 5. Delete from Supabase Auth
-            // Use try-catch to ensure we don't fail the whole request if this part fails
-            // Executed OUTSIDE the DB transaction to prevent connection leaks
-            try {
-                deleteSupabaseUser(userId.toString());
-            } catch (Exception ex) {
-                logger.error("Supabase deletion failed (user might be deleted locally only): {}", ex.getMessage());
-            }
+                // 3. Queue the Supabase Auth deletion in the same transaction; the outbox worker delivers it
+                // with retries, so the request doesn't wait on (or lose) the remote call
+                if (!user.demo())
+                {
+                    authOutbox.enqueueUserDeletion(finalUserId);
+                }
+            });
         }
         catch (Exception e)
         {
@@ -577,75 +485,30 @@ public class AuthController
      * Returns the current Supabase user payload if the access token is valid.
      */
     @GetMapping("/me")
-    public ResponseEntity<JsonNode> me(HttpServletRequest request)
+    public ResponseEntity<JsonNode> me(@AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request)
     {
-        // Read access token from cookie
-        String accessToken = null;
-        if (request.getCookies() != null)
+        ObjectMapper mapper = new ObjectMapper();
+        if (user == null && request.getAttribute(SupabaseAuthFilter.AUTH_PROVIDER_UNAVAILABLE_ATTRIBUTE) != null)
         {
-            for (jakarta.servlet.http.Cookie c : request.getCookies())
-            {
-                if (ACCESS_COOKIE_NAME.equals(c.getName()))
-                {
-                    accessToken = c.getValue();
-                    break;
-                }
-            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(mapper.createObjectNode().put(ERROR_KEY, "Authentication provider unavailable"));
         }
-
-        if (accessToken == null || accessToken.isEmpty())
+        if (user == null)
         {
-            ObjectMapper mapper = new ObjectMapper();
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(mapper.createObjectNode().put(ERROR_KEY, UNAUTHORIZED_MESSAGE));
         }
 
-        // 1. Check for Demo User (local verification)
-        try {
-             var claims = Jwts.parserBuilder()
-                .setSigningKey(supabaseJwtSecret.getBytes(StandardCharsets.UTF_8))
-                .build()
-                .parseClaimsJws(accessToken)
-                .getBody();
-             String email = claims.get("email", String.class);
-             if(email != null && email.endsWith("@demo.app")) {
-                 ObjectMapper mapper = new ObjectMapper();
-                 var node = mapper.createObjectNode();
-                 node.put("id", claims.getSubject());
-                 node.put("email", email);
-                 return ResponseEntity.ok(node);
-             }
-        } catch (Exception e) {
-             // Not a valid self-signed token or not a demo user; proceed to Supabase verification
-        }
-
-        try
-        {
-            HttpHeaders userHeaders = new HttpHeaders();
-            userHeaders.setBearerAuth(accessToken);
-            userHeaders.set(APIKEY_HEADER, supabaseApiKey);
-            HttpEntity<Void> userRequest = new HttpEntity<>(userHeaders);
-
-            ResponseEntity<String> userResponse = new RestTemplate().exchange(
-                    supabaseProjectUrl + "/auth/v1/user", HttpMethod.GET, userRequest, String.class);
-
-            if (!userResponse.getStatusCode().is2xxSuccessful())
-            {
-                ObjectMapper mapper = new ObjectMapper();
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(mapper.createObjectNode().put(ERROR_KEY, UNAUTHORIZED_MESSAGE));
-            }
-
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode userJson = mapper.readTree(Optional.ofNullable(userResponse.getBody()).orElse("{}"));
-            return ResponseEntity.ok(userJson);
-        }
-        catch (Exception e)
+        // Answered from the verified token's claims; the frontend tells demo users apart by the missing user_metadata
+        var node = mapper.createObjectNode();
+        node.put("id", user.userId().toString());
+        node.put("email", user.email());
+        if (!user.demo())
         {
-            ObjectMapper mapper = new ObjectMapper();
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(mapper.createObjectNode().put(ERROR_KEY, UNAUTHORIZED_MESSAGE));
+            node.set("user_metadata", mapper.valueToTree(user.userMetadata()));
         }
+        return ResponseEntity.ok(node);
     }
 
     /**
@@ -670,41 +533,4 @@ public class AuthController
         String domain = email.substring(at + 1).toLowerCase();
         return allowedDomainSet.contains(domain);
     }
-
-    private void deleteSupabaseUser(String userId)
-    {
-        try
-        {
-            // Create a custom JWT with service_role privileges
-            Map<String, Object> claims = new HashMap<>();
-            claims.put("role", "service_role");
-            claims.put("iss", "supabase");
-            
-            String token = Jwts.builder()
-                    .setClaims(claims)
-                    .setIssuedAt(new Date())
-                    .setExpiration(new Date(System.currentTimeMillis() + 60000)) // 1 min expiry
-                    .signWith(Keys.hmacShaKeyFor(supabaseJwtSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
-                    .compact();
-
-            String url = supabaseProjectUrl + "/auth/v1/admin/users/" + userId;
-            HttpHeaders headers = new HttpHeaders();
-            
-            // Supabase Admin API expects 'apikey' (can be anon key) AND 'Authorization: Bearer <service_role_token>'
-            headers.set("apikey", supabaseApiKey);
-            headers.setBearerAuth(token);
-            
-            HttpEntity<Void> request = new HttpEntity<>(headers);
-            
-            new RestTemplate().exchange(url, HttpMethod.DELETE, request, Void.class);
-            logger.info("Deleted Supabase user {}", userId);
-        }
-        catch (Exception e) 
-        {
-            logger.error("Failed to delete Supabase user {}", userId, e);
-            // We do NOT throw here, as local data is already deleted. 
-            // Logging the error is sufficient; user cannot log in anyway as they are deleted locally.
-            // (Ideally we should ensure consistency, but Supabase user without local data is harmless)
-        }
-    }
 }
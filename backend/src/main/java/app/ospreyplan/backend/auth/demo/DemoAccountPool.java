@@ -0,0 +1,183 @@
+package app.ospreyplan.backend.auth.demo;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Year;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a pool of ready-made demo accounts so demo login is a single-row claim instead of creating a user and a
+ * plan on the request path. Claims use {@code FOR UPDATE SKIP LOCKED}, so concurrent logins take different rows
+ * without waiting on each other. The pool is topped up in the background with batched inserts after claims drain it
+ * below half, on a fixed schedule, and at startup.
+ *
+ * If the pool is empty (or {@code demo_accounts} does not exist yet), an account is provisioned on the spot.
+ *
+ * Configuration properties:
+ * - `demo.pool.enabled` – maintain the pool (default true)
+ * - `demo.pool.size` – unclaimed accounts to keep ready (default 50)
+ * - `demo.pool.batch-size` – accounts created per refill transaction (default 25)
+ * - `demo.pool.refill-interval-ms` – period of the scheduled top-up (default 60000)
+ */
+@Component
+public class DemoAccountPool
+{
+    private static final Logger logger = LoggerFactory.getLogger(DemoAccountPool.class);
+
+    private static final String CLAIM_SQL = """
+            UPDATE demo_accounts SET claimed_at = now()
+            WHERE user_id = (SELECT user_id FROM demo_accounts
+                             WHERE claimed_at IS NULL AND start_year = ?
+                             ORDER BY created_at
+                             LIMIT 1
+                             FOR UPDATE SKIP LOCKED)
+            RETURNING user_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DemoAccountProvisioner provisioner;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+    private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("demo-pool-refill").daemon().factory());
+    private final AtomicBoolean refillQueued = new AtomicBoolean();
+
+    private final Counter claimedCounter;
+    private final Counter provisionedOnDemandCounter;
+
+    @Value("${demo.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${demo.pool.size:50}")
+    private int poolSize;
+
+    @Value("${demo.pool.batch-size:25}")
+    private int batchSize;
+
+    public DemoAccountPool(JdbcTemplate jdbcTemplate, DemoAccountProvisioner provisioner,
+            ObjectProvider<ReplicaRouter> replicaRouter, MeterRegistry meterRegistry)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.provisioner = provisioner;
+        this.replicaRouter = replicaRouter;
+        this.claimedCounter = Counter.builder("demo.accounts.claimed")
+                .description("Demo logins served from the pre-provisioned pool")
+                .register(meterRegistry);
+        this.provisionedOnDemandCounter = Counter.builder("demo.accounts.provisioned_on_demand")
+                .description("Demo logins that had to create their account because the pool was empty")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the ID of a demo user, with its plan, that nobody else has been given.
+     */
+    public UUID claim()
+    {
+        int startYear = Year.now().getValue();
+
+        if (enabled)
+        {
+            try
+            {
+                List<UUID> claimed = jdbcTemplate.queryForList(CLAIM_SQL, UUID.class, startYear);
+                if (!claimed.isEmpty())
+                {
+                    claimedCounter.increment();
+                    requestRefill();
+                    return handOut(claimed.get(0));
+                }
+            }
+            catch (Exception e)
+            {
+                logger.warn("Could not claim a pooled demo account: {}", e.getMessage());
+            }
+            requestRefill();
+        }
+
+        provisionedOnDemandCounter.increment();
+        return handOut(provisioner.provision(1, startYear, false).get(0));
+    }
+
+    private UUID handOut(UUID userId)
+    {
+        // Demo login reads the plan right after the claim, before a session exists that would mark the write
+        replicaRouter.ifAvailable(router -> router.recordWrite(userId));
+        return userId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillOnStartup()
+    {
+        requestRefill();
+    }
+
+    @Scheduled(fixedDelayString = "${demo.pool.refill-interval-ms:60000}")
+    public void scheduledRefill()
+    {
+        requestRefill();
+    }
+
+    private void requestRefill()
+    {
+        // Coalesce refill requests; one queued refill tops the pool up completely
+        if (enabled && refillQueued.compareAndSet(false, true))
+        {
+            refillExecutor.execute(() ->
+            {
+                refillQueued.set(false);
+                refill();
+            });
+        }
+    }
+
+    void refill()
+    {
+        int startYear = Year.now().getValue();
+        try
+        {
+            Integer available = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM demo_accounts WHERE claimed_at IS NULL AND start_year = ?",
+                    Integer.class, startYear);
+            int missing = poolSize - (available == null ? 0 : available);
+
+            // Only refill once the pool is at most half full, so claims don't trigger a tiny batch each time
+            if (missing < Math.max(1, poolSize / 2))
+            {
+                return;
+            }
+
+            while (missing > 0)
+            {
+                int batch = Math.min(batchSize, missing);
+                provisioner.provision(batch, startYear, true);
+                missing -= batch;
+            }
+            logger.debug("Demo account pool refilled to {}", poolSize);
+        }
+        catch (Exception e)
+        {
+            logger.warn("Could not refill the demo account pool: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        refillExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package app.ospreyplan.backend.auth.demo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates demo users together with their starter plan, any number at a time, with one JDBC batch per table.
+ */
+@Component
+public class DemoAccountProvisioner
+{
+    static final String EMAIL_DOMAIN = "@demo.app";
+    private static final String DEGREE = "bs-computer-science";
+    private static final String AVATAR_URL = "https://ui-avatars.com/api/?name=Demo+User&background=random";
+
+    private record DemoCourse(String subject, int number, int credits)
+    {
+    }
+
+    private record DemoSemester(String term, int yearOffset, List<DemoCourse> courses)
+    {
+    }
+
+    // Two planned semesters for Year 1
+    private static final List<DemoSemester> DEMO_PLAN = List.of(
+            new DemoSemester("Fall", 0, List.of(
+                    new DemoCourse("CSCI", 2101, 4),  // Programming I
+                    new DemoCourse("MATH", 2215, 5),  // Calc I
+                    new DemoCourse("GAH", 2126, 4))), // General Arts
+            new DemoSemester("Spring", 1, List.of(
+                    new DemoCourse("CSCI", 2102, 4),  // Programming II
+                    new DemoCourse("MATH", 2216, 5)))); // Calc II
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DemoAccountProvisioner(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static String emailFor(UUID userId)
+    {
+        return "demo-" + userId + EMAIL_DOMAIN;
+    }
+
+    /**
+     * Creates {@code count} demo users with their plans in one transaction.
+     *
+     * @param pooled whether to register the accounts in {@code demo_accounts} for later claiming
+     * @return the new user IDs
+     */
+    public List<UUID> provision(int count, int startYear, boolean pooled)
+    {
+        List<UUID> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            userIds.add(UUID.randomUUID());
+        }
+
+        List<Object[]> semesterRows = new ArrayList<>();
+        List<Object[]> courseRows = new ArrayList<>();
+        Instant now = Instant.now();
+        for (UUID userId : userIds)
+        {
+            int position = 0;
+            for (DemoSemester semester : DEMO_PLAN)
+            {
+                UUID semesterId = UUID.randomUUID();
+                semesterRows.add(new Object[] { semesterId, userId,
+                        semester.term() + " " + (startYear + semester.yearOffset()) });
+                for (DemoCourse course : semester.courses())
+                {
+                    // Distinct created_at values keep the planner's course order
+                    courseRows.add(new Object[] { UUID.randomUUID(), semesterId, course.subject(), course.number(),
+                            course.credits(), Timestamp.from(now.plusNanos(1000L * position++)) });
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+        {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO users (id, email, full_name, degree, start_year, profile_picture_url, created_at, updated_at)
+                    VALUES (?, ?, 'Demo User', ?, ?, ?, now(), now())
+                    """, userIds.stream()
+                    .map(id -> new Object[] { id, emailFor(id), DEGREE, startYear, AVATAR_URL })
+                    .toList());
+            jdbcTemplate.batchUpdate("INSERT INTO planned_semesters (id, user_id, title) VALUES (?, ?, ?)",
+                    semesterRows);
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO planned_courses (id, semester_id, subject, course_number, credits, created_at)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, courseRows);
+
+            if (pooled)
+            {
+                jdbcTemplate.batchUpdate("INSERT INTO demo_accounts (user_id, start_year) VALUES (?, ?)",
+                        userIds.stream().map(id -> new Object[] { id, startYear }).toList());
+            }
+        });
+
+        return userIds;
+    }
+}
@@ -0,0 +1,203 @@
+package app.ospreyplan.backend.auth.demo;
+
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
+import app.ospreyplan.backend.planner.sync.PlanSyncService;
+import app.ospreyplan.backend.usersettings.UserSettingsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deletes demo users whose session has expired, with everything they own. Each run removes at most
+ * {@code max-batches} batches of {@code batch-size} users, each batch in its own short transaction of set-based
+ * deletes, so the job never holds locks on many rows at once and a large backlog is worked off over several runs.
+ *
+ * A demo user counts as expired once its token lifetime has passed since it was handed out (claimed from the pool,
+ * or created for accounts made on demand). Unclaimed pool accounts are kept unless they were made for a past year.
+ *
+ * Configuration properties (all under `demo.sweeper.`):
+ * - `enabled` – run the sweeper (default true)
+ * - `interval-ms` – delay between runs (default 900000)
+ * - `batch-size` – users deleted per transaction (default 200)
+ * - `max-batches` – batches per run (default 50)
+ * - `pause-ms` – pause between batches (default 100)
+ */
+@Component
+public class DemoAccountSweeper
+{
+    private static final Logger logger = LoggerFactory.getLogger(DemoAccountSweeper.class);
+
+    // Demo tokens are issued for 24 hours by AuthController.demoLogin
+    static final Duration SESSION_LIFETIME = Duration.ofHours(24);
+
+    private static final String FIND_EXPIRED_SQL = """
+            SELECT u.id FROM users u
+            LEFT JOIN demo_accounts d ON d.user_id = u.id
+            WHERE u.email LIKE '%@demo.app'
+              AND CASE WHEN d.user_id IS NULL THEN u.created_at < ?
+                       WHEN d.claimed_at IS NOT NULL THEN d.claimed_at < ?
+                       ELSE d.start_year < ?
+                  END
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlannedSemesterRepository semesterRepository;
+    private final UserSettingsService userSettingsService;
+    private final PlanHistoryService historyService;
+    private final PlanSyncService syncService;
+    private final PlannerWriteBuffer writeBuffer;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer runTimer;
+    private final Counter usersPurged;
+    private final Counter semestersPurged;
+    private final Counter coursesPurged;
+
+    @Value("${demo.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${demo.sweeper.batch-size:200}")
+    private int batchSize;
+
+    @Value("${demo.sweeper.max-batches:50}")
+    private int maxBatches;
+
+    @Value("${demo.sweeper.pause-ms:100}")
+    private long pauseMs;
+
+    public DemoAccountSweeper(JdbcTemplate jdbcTemplate, PlannedSemesterRepository semesterRepository,
+            UserSettingsService userSettingsService, PlanHistoryService historyService,
+            PlanSyncService syncService, PlannerWriteBuffer writeBuffer, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.semesterRepository = semesterRepository;
+        this.userSettingsService = userSettingsService;
+        this.historyService = historyService;
+        this.syncService = syncService;
+        this.writeBuffer = writeBuffer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.runTimer = Timer.builder("demo.sweeper.duration")
+                .description("Time spent per demo sweeper run")
+                .register(meterRegistry);
+        this.usersPurged = purgedCounter(meterRegistry, "users");
+        this.semestersPurged = purgedCounter(meterRegistry, "planned_semesters");
+        this.coursesPurged = purgedCounter(meterRegistry, "planned_courses");
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table)
+    {
+        return Counter.builder("demo.sweeper.rows.purged")
+                .description("Rows deleted by the demo sweeper")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${demo.sweeper.interval-ms:900000}", initialDelayString = "${demo.sweeper.initial-delay-ms:60000}")
+    public void sweep()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        int purged = runTimer.record(this::purgeExpired);
+        if (purged > 0)
+        {
+            logger.info("Demo sweeper removed {} expired demo users", purged);
+        }
+    }
+
+    int purgeExpired()
+    {
+        Instant cutoff = Instant.now().minus(SESSION_LIFETIME);
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++)
+        {
+            List<UUID> userIds;
+            try
+            {
+                userIds = findExpired(cutoff);
+            }
+            catch (Exception e)
+            {
+                logger.warn("Demo sweeper could not look up expired users: {}", e.getMessage());
+                break;
+            }
+
+            if (userIds.isEmpty())
+            {
+                break;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> deleteBatch(userIds));
+            total += userIds.size();
+
+            if (userIds.size() < batchSize || !pause())
+            {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Up to one batch of demo users whose session ended before the cutoff.
+     */
+    List<UUID> findExpired(Instant cutoff)
+    {
+        Timestamp timestamp = Timestamp.from(cutoff);
+        return jdbcTemplate.queryForList(FIND_EXPIRED_SQL, UUID.class, timestamp, timestamp, Year.now().getValue(),
+                batchSize);
+    }
+
+    private void deleteBatch(List<UUID> userIds)
+    {
+        // Buffered planner writes must not land after their owners are gone
+        userIds.forEach(writeBuffer::discard);
+
+        coursesPurged.increment(semesterRepository.deleteCoursesByUserIdIn(userIds));
+        semestersPurged.increment(semesterRepository.deleteSemestersByUserIdIn(userIds));
+        historyService.deleteHistory(userIds);
+        syncService.deleteSyncState(userIds);
+        usersPurged.increment(userSettingsService.deleteSettings(userIds));
+
+        Object[] ids = userIds.toArray();
+        jdbcTemplate.update("DELETE FROM demo_accounts WHERE user_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)));
+    }
+
+    private boolean pause()
+    {
+        try
+        {
+            Thread.sleep(pauseMs);
+            return true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package app.ospreyplan.backend.auth.demo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepares the schema for demo accounts once at startup. Demo users have no row in {@code auth.users}, so the
+ * foreign key from {@code public.users} must not exist. The constraint is looked up first because
+ * {@code ALTER TABLE ... DROP CONSTRAINT IF EXISTS} takes an exclusive lock on the table even when there is nothing
+ * to drop.
+ */
+@Component
+public class DemoSchemaInitializer implements ApplicationRunner
+{
+    private static final Logger logger = LoggerFactory.getLogger(DemoSchemaInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DemoSchemaInitializer(JdbcTemplate jdbcTemplate)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args)
+    {
+        try
+        {
+            Boolean exists = jdbcTemplate.queryForObject("""
+                    SELECT EXISTS (SELECT 1 FROM pg_constraint
+                                   WHERE conname = 'users_id_fkey' AND conrelid = 'public.users'::regclass)
+                    """, Boolean.class);
+
+            if (Boolean.TRUE.equals(exists))
+            {
+                jdbcTemplate.execute("ALTER TABLE public.users DROP CONSTRAINT IF EXISTS users_id_fkey");
+                logger.info("Dropped users_id_fkey so demo accounts can be created");
+            }
+        }
+        catch (Exception e)
+        {
+            logger.warn("Could not prepare the database for demo accounts. Demo login might fail if 'users_id_fkey' still exists.", e);
+        }
+    }
+}
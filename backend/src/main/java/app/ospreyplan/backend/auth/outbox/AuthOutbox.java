@@ -0,0 +1,171 @@
+package app.ospreyplan.backend.auth.outbox;
+
+import app.ospreyplan.backend.supabase.SupabaseAdminClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transactional outbox for auth-provider calls that must follow a local change (see {@code V5__auth_outbox.sql}).
+ *
+ * {@link #enqueueUserDeletion(UUID)} joins the caller's transaction, so the outbox row commits or rolls back with
+ * the local deletion and a remote deletion can't be lost or sent for a change that never happened. The worker leases
+ * due rows with {@code FOR UPDATE SKIP LOCKED} (safe with several instances), calls the provider outside any
+ * transaction, and then marks each row done or reschedules it with exponential backoff and jitter. Rows are retried
+ * until they succeed, including rows of a kind this version doesn't know (written by a newer one during a rolling
+ * deploy). Completed rows are kept as an audit trail for `retention-days` and then purged.
+ *
+ * Configuration properties (all under `auth.outbox.`):
+ * - `poll-interval-ms` – delay between drain runs (default 5000)
+ * - `batch-size` – rows leased per run (default 20)
+ * - `lease-seconds` – how long a leased row is hidden from other workers (default 60)
+ * - `max-backoff-seconds` – upper bound of the retry delay (default 3600)
+ * - `retention-days` – how long completed rows are kept (default 30)
+ * - `purge-interval-ms` – delay between purges of expired completed rows (default 3600000)
+ */
+@Component
+public class AuthOutbox
+{
+    private static final Logger logger = LoggerFactory.getLogger(AuthOutbox.class);
+
+    static final String DELETE_USER = "DELETE_USER";
+
+    private static final String LEASE_SQL = """
+            UPDATE auth_outbox SET next_attempt_at = now() + make_interval(secs => ?)
+            WHERE id IN (SELECT id FROM auth_outbox
+                         WHERE completed_at IS NULL AND next_attempt_at <= now()
+                         ORDER BY next_attempt_at
+                         LIMIT ?
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING id, kind, user_id, attempts
+            """;
+
+    private record Entry(long id, String kind, UUID userId, int attempts)
+    {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SupabaseAdminClient adminClient;
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+
+    @Value("${auth.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${auth.outbox.lease-seconds:60}")
+    private int leaseSeconds;
+
+    @Value("${auth.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${auth.outbox.retention-days:30}")
+    private int retentionDays;
+
+    public AuthOutbox(JdbcTemplate jdbcTemplate, SupabaseAdminClient adminClient, MeterRegistry meterRegistry)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.adminClient = adminClient;
+        this.completedCounter = Counter.builder("auth.outbox.attempts")
+                .description("Auth outbox deliveries")
+                .tag("outcome", "completed")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.outbox.attempts")
+                .description("Auth outbox deliveries")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void enqueueUserDeletion(UUID userId)
+    {
+        jdbcTemplate.update("INSERT INTO auth_outbox (kind, user_id) VALUES (?, ?)", DELETE_USER, userId);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.poll-interval-ms:5000}")
+    public void drain()
+    {
+        List<Entry> entries;
+        try
+        {
+            entries = jdbcTemplate.query(LEASE_SQL, (rs, i) -> new Entry(rs.getLong("id"), rs.getString("kind"),
+                    rs.getObject("user_id", UUID.class), rs.getInt("attempts")), leaseSeconds, batchSize);
+        }
+        catch (Exception e)
+        {
+            logger.warn("Could not read the auth outbox: {}", e.getMessage());
+            return;
+        }
+
+        for (Entry entry : entries)
+        {
+            deliver(entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.outbox.purge-interval-ms:3600000}", initialDelayString = "${auth.outbox.purge-initial-delay-ms:60000}")
+    public void purgeCompleted()
+    {
+        try
+        {
+            int purged = jdbcTemplate.update(
+                    "DELETE FROM auth_outbox WHERE completed_at < now() - make_interval(days => ?)", retentionDays);
+            if (purged > 0)
+            {
+                logger.info("Purged {} completed auth outbox entries older than {} days", purged, retentionDays);
+            }
+        }
+        catch (Exception e)
+        {
+            logger.warn("Could not purge the auth outbox: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(Entry entry)
+    {
+        try
+        {
+            switch (entry.kind())
+            {
+                case DELETE_USER -> adminClient.deleteUser(entry.userId());
+                default -> throw new IllegalStateException("Unknown auth outbox entry kind: " + entry.kind());
+            }
+
+            jdbcTemplate.update("UPDATE auth_outbox SET completed_at = now(), attempts = attempts + 1, last_error = NULL WHERE id = ?",
+                    entry.id());
+            completedCounter.increment();
+            logger.info("Deleted Supabase user {}", entry.userId());
+        }
+        catch (Exception e)
+        {
+            int attempts = entry.attempts() + 1;
+            long delaySeconds = backoffSeconds(attempts);
+            jdbcTemplate.update("""
+                    UPDATE auth_outbox
+                    SET attempts = ?, last_error = ?, next_attempt_at = now() + make_interval(secs => ?)
+                    WHERE id = ?
+                    """, attempts, String.valueOf(e.getMessage()), delaySeconds, entry.id());
+            failedCounter.increment();
+            logger.warn("Auth outbox entry {} ({} for user {}) failed on attempt {}; retrying in {}s: {}",
+                    entry.id(), entry.kind(), entry.userId(), attempts, delaySeconds, e.getMessage());
+        }
+    }
+
+    long backoffSeconds(int attempts)
+    {
+        // Exponential from 5s, capped, with +/-20% jitter so retries from many rows spread out
+        long base = Math.min(maxBackoffSeconds, 5L << Math.min(attempts - 1, 20));
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.max(1, Math.round(base * jitter));
+    }
+}
@@ -0,0 +1,214 @@
+package app.ospreyplan.backend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Keeps in-memory caches coherent across backend instances using Postgres {@code LISTEN/NOTIFY}.
+ *
+ * Triggers on the cached tables (see {@code V6__cache_invalidation.sql}; {@code V11} dropped the ones on the plan
+ * tables, which nothing caches) publish {@code <table>:<key>} on the {@code cache_invalidation} channel when their
+ * transaction commits, on whichever instance (or script) made the change. This bus listens on a dedicated connection
+ * opened outside the Hikari pool, because a listening connection must stay checked out for the lifetime of the
+ * application, and hands each notification to the {@link CacheInvalidationListener}s registered for that table.
+ *
+ * Notifications sent while the connection is down are lost, so after every (re)connect, including the first, all
+ * listeners flush completely. The connection is checked with a heartbeat query and reopened with exponential
+ * backoff.
+ *
+ * Configuration properties (all under `cache.invalidation.`):
+ * - `enabled` – listen for invalidations (default true)
+ * - `poll-ms` – how long one wait for notifications blocks (default 500)
+ * - `heartbeat-ms` – interval of the liveness query on the listening connection (default 30000)
+ * - `max-backoff-ms` – upper bound of the reconnect delay (default 30000)
+ */
+@Component
+public class CacheInvalidationBus
+{
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "cache_invalidation";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final List<CacheInvalidationListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final Counter fullFlushes;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread thread;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.poll-ms:500}")
+    private int pollMs;
+
+    @Value("${cache.invalidation.heartbeat-ms:30000}")
+    private long heartbeatMs;
+
+    @Value("${cache.invalidation.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    public CacheInvalidationBus(DataSourceProperties dataSourceProperties, List<CacheInvalidationListener> listeners,
+            MeterRegistry meterRegistry)
+    {
+        this.dataSourceProperties = dataSourceProperties;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.fullFlushes = Counter.builder("cache.invalidation.full_flushes")
+                .description("Complete cache flushes after the invalidation listener (re)connected")
+                .register(meterRegistry);
+        Gauge.builder("cache.invalidation.connected", this, bus -> bus.connected ? 1 : 0)
+                .description("Whether this instance is currently receiving cache invalidations")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        if (!enabled || listeners.isEmpty())
+        {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("cache-invalidation-listener").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        running = false;
+        if (thread != null)
+        {
+            thread.interrupt();
+        }
+    }
+
+    private void run()
+    {
+        long backoffMs = 500;
+        while (running)
+        {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword()))
+            {
+                try (Statement statement = connection.createStatement())
+                {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                backoffMs = 500;
+
+                // Anything published before LISTEN took effect was missed
+                flushAll();
+                listen(connection);
+            }
+            catch (SQLException e)
+            {
+                if (!running)
+                {
+                    return;
+                }
+                logger.warn("Cache invalidation listener lost its connection; retrying in {} ms: {}", backoffMs, e.getMessage());
+            }
+            finally
+            {
+                connected = false;
+            }
+
+            try
+            {
+                Thread.sleep(backoffMs);
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+            backoffMs = Math.min(maxBackoffMs, backoffMs * 2);
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException
+    {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long nextHeartbeat = System.currentTimeMillis() + heartbeatMs;
+
+        while (running)
+        {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+            if (notifications != null)
+            {
+                for (PGNotification notification : notifications)
+                {
+                    dispatch(notification.getParameter());
+                }
+            }
+
+            if (System.currentTimeMillis() >= nextHeartbeat)
+            {
+                // A half-open TCP connection never fails a wait for notifications; a query does
+                try (Statement statement = connection.createStatement())
+                {
+                    statement.execute("SELECT 1");
+                }
+                nextHeartbeat = System.currentTimeMillis() + heartbeatMs;
+            }
+        }
+    }
+
+    void dispatch(String payload)
+    {
+        int separator = payload.indexOf(':');
+        if (separator <= 0)
+        {
+            logger.warn("Ignoring malformed cache invalidation '{}'", payload);
+            return;
+        }
+        String table = payload.substring(0, separator);
+        String key = payload.substring(separator + 1);
+
+        meterRegistry.counter("cache.invalidation.notifications", "table", table).increment();
+        for (CacheInvalidationListener listener : listeners)
+        {
+            if (listener.tables().contains(table))
+            {
+                try
+                {
+                    listener.invalidate(table, key);
+                }
+                catch (RuntimeException e)
+                {
+                    logger.warn("Cache invalidation of {} failed; flushing that cache: {}", payload, e.getMessage());
+                    listener.invalidateAll();
+                }
+            }
+        }
+    }
+
+    private void flushAll()
+    {
+        for (CacheInvalidationListener listener : listeners)
+        {
+            listener.invalidateAll();
+        }
+        fullFlushes.increment();
+    }
+}
@@ -0,0 +1,26 @@
+package app.ospreyplan.backend.cache;
+
+import java.util.Set;
+
+/**
+ * An in-memory cache that must drop entries when rows change in the database, on this instance or any other.
+ * Implementations are picked up by {@link CacheInvalidationBus}.
+ */
+public interface CacheInvalidationListener
+{
+    /**
+     * Tables whose changes affect this cache.
+     */
+    Set<String> tables();
+
+    /**
+     * Rows changed in {@code table}. {@code key} is the affected user's ID for per-user tables, or {@code "*"} when
+     * the whole table should be considered changed.
+     */
+    void invalidate(String table, String key);
+
+    /**
+     * Drops everything; called when notifications may have been missed.
+     */
+    void invalidateAll();
+}
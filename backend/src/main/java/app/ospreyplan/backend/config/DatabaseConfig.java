@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.sql.DataSource;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,9 +30,9 @@ public class DatabaseConfig
     @Scheduled(fixedRate = 300000) // 5 minutes
     public void logConnectionPoolStatus()
     {
-        if (dataSource instanceof HikariDataSource)
+        HikariDataSource hikariDataSource = primaryPool(dataSource);
+        if (hikariDataSource != null)
         {
-            HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
             try
             {
                 logger.info("Connection Pool Status - Active: {}, Idle: {}, Waiting: {}, Total: {}",
@@ -53,9 +54,9 @@ public class DatabaseConfig
     @Scheduled(fixedRate = 900000) // 15 minutes
     public void logDetailedPoolMetrics()
     {
-        if (dataSource instanceof HikariDataSource)
+        HikariDataSource hikariDataSource = primaryPool(dataSource);
+        if (hikariDataSource != null)
         {
-            HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
             try
             {
                 var poolMXBean = hikariDataSource.getHikariPoolMXBean();
@@ -87,6 +88,21 @@ public class DatabaseConfig
         }
     }
 
+    /**
+     * The primary pool, also when the data source is wrapped for replica routing; null for non-Hikari data sources
+     */
+    public static HikariDataSource primaryPool(DataSource dataSource)
+    {
+        try
+        {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        }
+        catch (SQLException e)
+        {
+            return null;
+        }
+    }
+
     @RestController
     public static class ConnectionPoolController
     {
@@ -101,9 +117,9 @@ public class DatabaseConfig
         {
             Map<String, Object> status = new HashMap<>();
             
-            if (dataSource instanceof HikariDataSource)
+            HikariDataSource hikariDataSource = primaryPool(dataSource);
+            if (hikariDataSource != null)
             {
-                HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
                 try
                 {
                     var poolMXBean = hikariDataSource.getHikariPoolMXBean();
@@ -0,0 +1,125 @@
+package app.ospreyplan.backend.config;
+
+import app.ospreyplan.backend.audit.DegreeRequirement;
+import app.ospreyplan.backend.audit.DegreeRequirementRepository;
+import app.ospreyplan.backend.audit.RequirementCriteria;
+import app.ospreyplan.backend.cache.CacheInvalidationListener;
+import app.ospreyplan.backend.courses.Course;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Second-level cache regions for reference data (courses, degree requirements and their criteria, and the
+ * per-degree requirement query). The regions themselves are declared in {@code hibernate-cache.conf}; this class
+ * evicts them when the reference tables change outside Hibernate (seed reloads announce that through the
+ * {@link app.ospreyplan.backend.cache.CacheInvalidationBus}) and reports their statistics.
+ */
+@Component
+public class ReferenceDataCache implements CacheInvalidationListener
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    private static final String CRITERIA_ROLE = DegreeRequirement.class.getName() + ".criteria";
+
+    static final List<String> DOMAIN_REGIONS = List.of("reference-courses", "reference-degree-requirements",
+            "reference-degree-requirement-criteria", "reference-requirement-criteria");
+
+    private final SessionFactory sessionFactory;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory)
+    {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public void evictAll()
+    {
+        evictCourses();
+        evictRequirements();
+        logger.info("Evicted reference data from the second-level cache");
+    }
+
+    public void evictCourses()
+    {
+        sessionFactory.getCache().evictEntityData(Course.class);
+    }
+
+    public void evictRequirements()
+    {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(DegreeRequirement.class);
+        cache.evictEntityData(RequirementCriteria.class);
+        cache.evictCollectionData(CRITERIA_ROLE);
+        cache.evictQueryRegion(DegreeRequirementRepository.BY_DEGREE_REGION);
+    }
+
+    @Override
+    public Set<String> tables()
+    {
+        return Set.of("courses", "degree_requirements", "requirement_criteria");
+    }
+
+    @Override
+    public void invalidate(String table, String key)
+    {
+        if ("courses".equals(table))
+        {
+            evictCourses();
+        }
+        else
+        {
+            evictRequirements();
+        }
+        logger.info("Evicted cached {} after a change in the database", table);
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        evictAll();
+    }
+
+    public Map<String, Object> statistics()
+    {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : DOMAIN_REGIONS)
+        {
+            regions.put(region, describe(statistics.getDomainDataRegionStatistics(region)));
+        }
+        regions.put(DegreeRequirementRepository.BY_DEGREE_REGION,
+                describe(statistics.getQueryRegionStatistics(DegreeRequirementRepository.BY_DEGREE_REGION)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static Map<String, Object> describe(CacheRegionStatistics region)
+    {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (region == null)
+        {
+            return stats;
+        }
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", region.getPutCount());
+        stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("entries", region.getElementCountInMemory());
+        return stats;
+    }
+}
@@ -0,0 +1,49 @@
+package app.ospreyplan.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * {@code /actuator/referencedata}: GET returns the reference-data cache statistics, DELETE evicts the reference
+ * regions (run it after reloading courses or degree requirements). Eviction requires {@code ?key=} to match
+ * `reference-data.admin-key` and is disabled while that key is empty.
+ */
+@Component
+@Endpoint(id = "referencedata")
+public class ReferenceDataEndpoint
+{
+    private final ReferenceDataCache cache;
+    private final String adminKey;
+
+    public ReferenceDataEndpoint(ReferenceDataCache cache, @Value("${reference-data.admin-key:}") String adminKey)
+    {
+        this.cache = cache;
+        this.adminKey = adminKey;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics()
+    {
+        return cache.statistics();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> evict(@Nullable String key)
+    {
+        if (adminKey.isBlank() || key == null
+                || !MessageDigest.isEqual(adminKey.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8)))
+        {
+            return Map.of("evicted", false, "reason", "missing or wrong key");
+        }
+        cache.evictAll();
+        return Map.of("evicted", true);
+    }
+}
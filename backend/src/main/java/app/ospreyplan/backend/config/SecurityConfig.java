@@ -7,6 +7,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import app.ospreyplan.backend.security.SupabaseAuthFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -35,7 +36,16 @@ public class SecurityConfig
                             .requestMatchers("/auth/**").permitAll()
                             .anyRequest().authenticated())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .exceptionHandling(e -> e.authenticationEntryPoint((req, res, ex) -> res.sendError(401)))
+                .exceptionHandling(e -> e.authenticationEntryPoint((req, res, ex) -> {
+                    if (req.getAttribute(SupabaseAuthFilter.AUTH_PROVIDER_UNAVAILABLE_ATTRIBUTE) != null)
+                    {
+                        // The session may be fine; the auth provider just could not confirm it in time
+                        res.setHeader(HttpHeaders.RETRY_AFTER, "5");
+                        res.sendError(503, "Authentication provider unavailable");
+                        return;
+                    }
+                    res.sendError(401);
+                }))
                 .formLogin(AbstractHttpConfigurer::disable)
                 .addFilterBefore(supabaseAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
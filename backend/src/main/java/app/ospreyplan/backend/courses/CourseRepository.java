@@ -2,7 +2,7 @@ package app.ospreyplan.backend.courses;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface CourseRepository extends JpaRepository<Course, CourseId>
+public interface CourseRepository extends JpaRepository<Course, CourseId>, CourseRepositoryCustom
 {
-    
+
 }
@@ -0,0 +1,14 @@
+package app.ospreyplan.backend.courses;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CourseRepositoryCustom
+{
+    /**
+     * Loads many courses at once: cached courses come from the second-level cache, the rest in one batched query.
+     * Unknown IDs are left out of the result. {@code findAllById} can't do this, since with a composite ID it falls
+     * back to one lookup per course.
+     */
+    List<Course> findAllByCourseIds(Collection<CourseId> courseIds);
+}
@@ -0,0 +1,31 @@
+package app.ospreyplan.backend.courses;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class CourseRepositoryCustomImpl implements CourseRepositoryCustom
+{
+    private final EntityManager entityManager;
+
+    CourseRepositoryCustomImpl(EntityManager entityManager)
+    {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Course> findAllByCourseIds(Collection<CourseId> courseIds)
+    {
+        if (courseIds.isEmpty())
+        {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Course.class)
+                .enableOrderedReturn(false)
+                .multiLoad(new ArrayList<>(courseIds));
+    }
+}
@@ -0,0 +1,33 @@
+package app.ospreyplan.backend.dashboard;
+
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Single endpoint for the planner's first load, replacing separate calls to {@code /auth/me}, {@code /api/settings},
+ * {@code /api/semesters/user/{id}} and {@code /api/audit/{id}} (one authentication instead of four).
+ */
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController
+{
+    private final DashboardService service;
+    private final PlannerWriteBuffer writeBuffer;
+
+    public DashboardController(DashboardService service, PlannerWriteBuffer writeBuffer)
+    {
+        this.service = service;
+        this.writeBuffer = writeBuffer;
+    }
+
+    @GetMapping
+    public DashboardResponse getDashboard(@AuthenticationPrincipal AuthenticatedUser user)
+    {
+        writeBuffer.flush(user.userId());
+        return service.load(user);
+    }
+}
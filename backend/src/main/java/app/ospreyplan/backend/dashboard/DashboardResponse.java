@@ -0,0 +1,17 @@
+package app.ospreyplan.backend.dashboard;
+
+import app.ospreyplan.backend.audit.DegreeAuditResponse;
+import app.ospreyplan.backend.planner.semester.PlannedSemester;
+import app.ospreyplan.backend.usersettings.UserSettingsDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the planner needs on first load: the signed-in user (same shape as {@code /auth/me}), their settings,
+ * their semesters with courses and the degree audit of that plan.
+ */
+public record DashboardResponse(Map<String, Object> user, UserSettingsDTO settings, List<PlannedSemester> semesters,
+        DegreeAuditResponse audit)
+{
+}
@@ -0,0 +1,193 @@
+package app.ospreyplan.backend.dashboard;
+
+import app.ospreyplan.backend.audit.DegreeAuditResponse;
+import app.ospreyplan.backend.audit.DegreeAuditService;
+import app.ospreyplan.backend.audit.DegreeRequirement;
+import app.ospreyplan.backend.observability.RequestScopeTaskDecorator;
+import app.ospreyplan.backend.planner.course.PlannedCourse;
+import app.ospreyplan.backend.planner.semester.PlannedSemester;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import app.ospreyplan.backend.usersettings.UserSettingsService;
+import app.ospreyplan.backend.usersettings.UserSettingsService.VersionedSettings;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Assembles the dashboard for one user with independent reads running concurrently on virtual threads:
+ *
+ * - settings (usually answered from {@link UserSettingsService}'s cache) and the semesters with their courses start
+ *   together;
+ * - the degree requirements are read as soon as the settings name the degree;
+ * - the audit runs once both the requirements and the semesters are in, on the courses already loaded for the
+ *   planner instead of reading the plan a second time.
+ *
+ * Each database read runs in its own read-only transaction on its thread, so a dashboard request holds up to three
+ * pooled connections briefly rather than one for the whole sequence. When the request fails (timeout, interrupt or
+ * an error in any part), every part is cancelled: parts not yet started never run and threads still working are
+ * interrupted, so no read keeps a connection for a response nobody will see.
+ *
+ * Configuration properties:
+ * - `dashboard.timeout-ms` – how long to wait for all parts before failing the request (default 10000)
+ */
+@Service
+public class DashboardService
+{
+    private final UserSettingsService settingsService;
+    private final PlannedSemesterRepository semesterRepository;
+    private final DegreeAuditService auditService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long timeoutMs;
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final RequestScopeTaskDecorator requestScope;
+
+    public DashboardService(UserSettingsService settingsService, PlannedSemesterRepository semesterRepository,
+            DegreeAuditService auditService, PlatformTransactionManager transactionManager,
+            RequestScopeTaskDecorator requestScope, @Value("${dashboard.timeout-ms:10000}") long timeoutMs)
+    {
+        this.settingsService = settingsService;
+        this.semesterRepository = semesterRepository;
+        this.auditService = auditService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.timeoutMs = timeoutMs;
+        this.requestScope = requestScope;
+    }
+
+    public DashboardResponse load(AuthenticatedUser user)
+    {
+        UUID userId = user.userId();
+        // CompletableFuture.cancel does not interrupt the thread running a part, so the tasks are tracked to be
+        // cancelled through their own futures. Each task carries the caller's security context, so replica routing
+        // can apply read-your-writes, and the request's statement count and Server-Timing
+        Queue<Future<?>> running = new ConcurrentLinkedQueue<>();
+        Executor executor = new DelegatingSecurityContextExecutor(
+                task -> running.add(virtualThreads.submit(requestScope.decorate(task))));
+
+        CompletableFuture<VersionedSettings> settings = CompletableFuture.supplyAsync(
+                () -> settingsService.getUserSettings(userId), executor);
+        CompletableFuture<List<PlannedSemester>> semesters = CompletableFuture.supplyAsync(
+                () -> readOnlyTransaction.execute(status -> loadSemesters(userId)), executor);
+        CompletableFuture<List<DegreeRequirement>> requirements = settings.thenApplyAsync(
+                s -> s.degree() == null ? List.<DegreeRequirement>of()
+                        : readOnlyTransaction.execute(status -> auditService.requirementsFor(s.degree())), executor);
+        CompletableFuture<DegreeAuditResponse> audit = requirements.thenCombineAsync(semesters,
+                (reqs, plan) -> audit(settings.join().degree(), reqs, plan), executor);
+
+        // allOf waits for every part even after one failed; the first failure ends the wait instead
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        for (CompletableFuture<?> part : List.of(settings, semesters, requirements, audit))
+        {
+            part.whenComplete((result, error) -> {
+                if (error != null)
+                {
+                    failed.completeExceptionally(error);
+                }
+            });
+        }
+
+        try
+        {
+            CompletableFuture.anyOf(CompletableFuture.allOf(settings, semesters, audit), failed)
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            cancel(running, settings, semesters, requirements, audit);
+            throw new IllegalStateException("Interrupted while loading the dashboard", e);
+        }
+        catch (TimeoutException e)
+        {
+            cancel(running, settings, semesters, requirements, audit);
+            throw new IllegalStateException("Loading the dashboard took longer than " + timeoutMs + " ms", e);
+        }
+        catch (ExecutionException e)
+        {
+            cancel(running, settings, semesters, requirements, audit);
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to load the dashboard", e.getCause());
+        }
+
+        return new DashboardResponse(userJson(user), settings.join().toDto(), semesters.join(), audit.join());
+    }
+
+    @PreDestroy
+    void shutdown()
+    {
+        virtualThreads.shutdownNow();
+    }
+
+    /**
+     * Cancels the stages first, so that no dependent part starts afterwards, then interrupts the tasks still running.
+     */
+    private static void cancel(Queue<Future<?>> running, CompletableFuture<?>... parts)
+    {
+        for (CompletableFuture<?> part : parts)
+        {
+            part.cancel(true);
+        }
+        running.forEach(task -> task.cancel(true));
+    }
+
+    private List<PlannedSemester> loadSemesters(UUID userId)
+    {
+        List<PlannedSemester> semesters = semesterRepository.findByUserId(userId);
+        // The semesters leave this transaction; load their courses while the session is still open
+        semesters.forEach(semester -> Hibernate.initialize(semester.getPlannedCourses()));
+        return semesters;
+    }
+
+    private DegreeAuditResponse audit(String degreeCode, List<DegreeRequirement> requirements, List<PlannedSemester> plan)
+    {
+        if (degreeCode == null)
+        {
+            return new DegreeAuditResponse(null, Collections.emptyList());
+        }
+
+        List<PlannedCourse> courses = plan.stream()
+                .flatMap(semester -> semester.getPlannedCourses().stream())
+                .sorted(Comparator.comparing(PlannedCourse::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        return readOnlyTransaction.execute(status -> auditService.audit(degreeCode, requirements, courses));
+    }
+
+    private static Map<String, Object> userJson(AuthenticatedUser user)
+    {
+        // Same fields as /auth/me; demo users have no user_metadata
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", user.userId().toString());
+        json.put("email", user.email());
+        if (!user.demo())
+        {
+            json.put("user_metadata", user.userMetadata());
+        }
+        return json;
+    }
+}
@@ -0,0 +1,173 @@
+package app.ospreyplan.backend.datasource;
+
+import app.ospreyplan.backend.config.DatabaseConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load with 503 and Retry-After while the primary connection pool is saturated, so a rush fails a few requests
+ * fast instead of letting every request queue for a connection until the 30 second timeout.
+ *
+ * The pool counts as saturated when more than `max-pending` threads wait for a connection (read live from the pool,
+ * plus those queued in the {@link JdbcConcurrencyLimiter} in virtual-thread mode) or when acquiring a connection took longer than `max-acquire-ms` on average over the last sample interval (from
+ * the pool's {@code hikaricp.connections.acquire} timer). Only endpoints that never take a connection are
+ * exempt. Runs after the security filter chain so rejected responses still carry CORS headers.
+ *
+ * Configuration properties (all under `admission.`):
+ * - `enabled` – shed load at all (default true)
+ * - `max-pending` – waiting threads above which requests are rejected (default 10)
+ * - `max-acquire-ms` – mean acquire time above which requests are rejected (default 500)
+ * - `sample-interval-ms` – window over which the mean acquire time is taken (default 1000)
+ * - `retry-after-seconds` – value of the Retry-After header (default 2)
+ * - `exempt-paths` – comma-separated Ant patterns never rejected
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class AdmissionControlFilter extends OncePerRequestFilter
+{
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private final HikariDataSource pool;
+    private final JdbcConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxPending;
+    private final long maxAcquireNanos;
+    private final long sampleIntervalNanos;
+    private final String retryAfterSeconds;
+    private final List<String> exemptPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final AtomicBoolean sampling = new AtomicBoolean();
+    private volatile long lastSampleAt = System.nanoTime();
+    private volatile long lastAcquireCount;
+    private volatile double lastAcquireTotalNanos;
+    private volatile double recentAcquireNanos;
+
+    public AdmissionControlFilter(DataSource dataSource, ObjectProvider<JdbcConcurrencyLimiter> limiter,
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.max-pending:10}") int maxPending,
+            @Value("${admission.max-acquire-ms:500}") long maxAcquireMs,
+            @Value("${admission.sample-interval-ms:1000}") long sampleIntervalMs,
+            @Value("${admission.retry-after-seconds:2}") int retryAfterSeconds,
+            @Value("${admission.exempt-paths:/actuator/**,/api/health/**,/auth/me,/auth/logout}") List<String> exemptPaths)
+    {
+        this.pool = DatabaseConfig.primaryPool(dataSource);
+        this.limiter = limiter.getIfAvailable();
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled && pool != null;
+        this.maxPending = maxPending;
+        this.maxAcquireNanos = TimeUnit.MILLISECONDS.toNanos(maxAcquireMs);
+        this.sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(sampleIntervalMs);
+        this.retryAfterSeconds = Integer.toString(retryAfterSeconds);
+        this.exemptPaths = exemptPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        if (!enabled)
+        {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return exemptPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern.trim(), path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        String reason = overloadReason();
+        if (reason == null)
+        {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("admission.rejected", "reason", reason).increment();
+        logger.debug("Rejecting {} {}: connection pool saturated ({})", request.getMethod(), request.getRequestURI(), reason);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.sendError(503, "Server busy");
+    }
+
+    /**
+     * Why the pool can't take another request right now, or null if it can.
+     */
+    String overloadReason()
+    {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null)
+        {
+            // Pool not started yet
+            return null;
+        }
+        int pending = mxBean.getThreadsAwaitingConnection() + (limiter != null ? limiter.waiting() : 0);
+        if (pending > maxPending)
+        {
+            return "pending";
+        }
+
+        sampleAcquireTime();
+        return recentAcquireNanos > maxAcquireNanos ? "acquire-time" : null;
+    }
+
+    /**
+     * Updates the mean acquire time over the last interval. Runs on the request thread at most once per interval;
+     * concurrent requests keep using the previous value.
+     */
+    private void sampleAcquireTime()
+    {
+        long now = System.nanoTime();
+        if (now - lastSampleAt < sampleIntervalNanos || !sampling.compareAndSet(false, true))
+        {
+            return;
+        }
+        try
+        {
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool.getPoolName()).timer();
+            if (acquire == null)
+            {
+                return;
+            }
+            long count = acquire.count();
+            double total = acquire.totalTime(TimeUnit.NANOSECONDS);
+            long acquired = count - lastAcquireCount;
+            // An idle interval says nothing new about the pool; keep the previous reading until connections move again
+            if (acquired > 0)
+            {
+                recentAcquireNanos = (total - lastAcquireTotalNanos) / acquired;
+            }
+            lastAcquireCount = count;
+            lastAcquireTotalNanos = total;
+        }
+        finally
+        {
+            lastSampleAt = now;
+            sampling.set(false);
+        }
+    }
+}
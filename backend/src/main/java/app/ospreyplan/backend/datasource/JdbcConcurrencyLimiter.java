@@ -0,0 +1,160 @@
+package app.ospreyplan.backend.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps how many connections the application holds at once and queues the rest in arrival order, for virtual-thread
+ * mode (see {@link VirtualThreadConfig}). With a thread per request there is no thread pool left to bound concurrency,
+ * so thousands of requests can block on the connection pool at once; the limiter keeps that queue outside Hikari,
+ * bounds the wait well below Hikari's connection timeout and makes the queue length visible.
+ *
+ * A permit is taken when a connection is obtained and returned when it is closed. Each pool gets its own limiter
+ * (see {@link #forPool(String, int)}), so the primary's limit never caps reads served by a replica. Metrics, tagged
+ * with the pool name: {@code jdbc.limiter.active} and {@code jdbc.limiter.waiting} gauges and a
+ * {@code jdbc.limiter.timeouts} counter.
+ */
+public class JdbcConcurrencyLimiter implements MeterBinder
+{
+    private final String pool;
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+    private final Semaphore permits;
+    private Counter timeouts;
+
+    public JdbcConcurrencyLimiter(int maxConcurrent, long acquireTimeoutMs)
+    {
+        this("primary", maxConcurrent, acquireTimeoutMs);
+    }
+
+    public JdbcConcurrencyLimiter(String pool, int maxConcurrent, long acquireTimeoutMs)
+    {
+        this.pool = pool;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Threads currently waiting for a permit.
+     */
+    public int waiting()
+    {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * A separate limiter for another pool, with the same acquire timeout.
+     */
+    public JdbcConcurrencyLimiter forPool(String pool, int maxConcurrent)
+    {
+        return new JdbcConcurrencyLimiter(pool, maxConcurrent, acquireTimeoutMs);
+    }
+
+    public DataSource limit(DataSource dataSource)
+    {
+        return new DelegatingDataSource(dataSource)
+        {
+            @Override
+            public Connection getConnection() throws SQLException
+            {
+                acquire();
+                try
+                {
+                    return releasingOnClose(super.getConnection());
+                }
+                catch (SQLException | RuntimeException e)
+                {
+                    permits.release();
+                    throw e;
+                }
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException
+            {
+                acquire();
+                try
+                {
+                    return releasingOnClose(super.getConnection(username, password));
+                }
+                catch (SQLException | RuntimeException e)
+                {
+                    permits.release();
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private void acquire() throws SQLException
+    {
+        try
+        {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS))
+            {
+                if (timeouts != null)
+                {
+                    timeouts.increment();
+                }
+                throw new SQLTransientConnectionException("No JDBC permit for pool " + pool + " within "
+                        + acquireTimeoutMs + " ms (" + maxConcurrent + " in use)");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a JDBC permit", e);
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection)
+    {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true))
+                    {
+                        permits.release();
+                    }
+                    try
+                    {
+                        return method.invoke(connection, args);
+                    }
+                    catch (InvocationTargetException e)
+                    {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("jdbc.limiter.active", permits, p -> maxConcurrent - p.availablePermits())
+                .tag("pool", pool)
+                .description("Connections held under the JDBC concurrency limit")
+                .register(registry);
+        Gauge.builder("jdbc.limiter.waiting", permits, Semaphore::getQueueLength)
+                .tag("pool", pool)
+                .description("Threads queued for a JDBC permit")
+                .register(registry);
+        timeouts = Counter.builder("jdbc.limiter.timeouts")
+                .tag("pool", pool)
+                .description("Connection requests that gave up waiting for a permit")
+                .register(registry);
+    }
+}
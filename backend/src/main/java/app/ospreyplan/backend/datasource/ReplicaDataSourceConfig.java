@@ -0,0 +1,129 @@
+package app.ospreyplan.backend.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to read replicas. Only active when `datasource.replicas.urls` is set; otherwise
+ * Spring Boot's single data source is used unchanged.
+ *
+ * The application's {@link DataSource} becomes a {@link LazyConnectionDataSourceProxy} over the primary pool. The
+ * proxy takes the physical connection at the first statement, after the transaction manager has marked the
+ * connection read-only, and read-only connections come from {@link ReplicaRouter} instead of the primary. That
+ * covers {@code @Transactional(readOnly = true)}, read-only {@code TransactionTemplate}s and Spring Data's read
+ * methods, which run read-only by default. Each pool (primary and every replica) reports its own Hikari metrics,
+ * tagged with its pool name.
+ *
+ * Configuration properties (all under `datasource.replicas.`):
+ * - `urls` – comma-separated JDBC URLs of the replicas (default empty: routing off)
+ * - `username`, `password` – replica credentials (default: the primary's)
+ * - `maximum-pool-size` – connections per replica pool (default 15)
+ * - `max-concurrent` – in virtual-thread mode, connections held at once per replica pool, enforced by that pool's
+ *   own {@link JdbcConcurrencyLimiter} (default: `maximum-pool-size`); the primary keeps `jdbc.limiter.max-concurrent`
+ * - `fallback-to-primary` – serve reads from the primary when no replica is healthy (default true)
+ * - `max-lag-ms` – replicas lagging more than this are taken out of rotation (default 5000)
+ * - `read-your-writes-ms` – minimum time a user's reads stay on the primary after they wrote; the measured lag is
+ *   added on top (default 2000)
+ * - `health-check-interval-ms` – interval of the lag probe (default 5000)
+ * - `connection-timeout-ms` – how long a read waits for a replica connection before trying the next one; kept short
+ *   so a replica that stops answering fails over quickly (default 1000)
+ * - `lag-query` – probe returning the lag in ms; `SELECT 0` only checks that a connection works (default: Postgres
+ *   replay lag)
+ *
+ * A replica joins the rotation after its first successful probe, which runs right after startup.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig
+{
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties)
+    {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRouter replicaRouter(HikariDataSource primaryDataSource, DataSourceProperties properties,
+            MeterRegistry meterRegistry, ObjectProvider<JdbcConcurrencyLimiter> limiter,
+            @Value("${datasource.replicas.urls}") String urls,
+            @Value("${datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${datasource.replicas.maximum-pool-size:15}") int maximumPoolSize,
+            @Value("${datasource.replicas.max-concurrent:${datasource.replicas.maximum-pool-size:15}}") int maxConcurrent,
+            @Value("${datasource.replicas.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${datasource.replicas.fallback-to-primary:true}") boolean fallbackToPrimary,
+            @Value("${datasource.replicas.max-lag-ms:5000}") long maxLagMs,
+            @Value("${datasource.replicas.read-your-writes-ms:2000}") long readYourWritesMs,
+            @Value("${datasource.replicas.lag-query:}") String lagQuery)
+    {
+        JdbcConcurrencyLimiter primaryLimiter = limiter.getIfAvailable();
+        List<ReplicaRouter.Replica> replicas = new ArrayList<>();
+        List<String> jdbcUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < jdbcUrls.size(); i++)
+        {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(jdbcUrls.get(i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setConnectionTimeout(connectionTimeoutMs);
+            config.setReadOnly(true);
+            // A replica that is down at startup must not stop the application; it joins once the probe succeeds
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            DataSource replica = new HikariDataSource(config);
+            if (primaryLimiter != null)
+            {
+                JdbcConcurrencyLimiter replicaLimiter = primaryLimiter.forPool(config.getPoolName(), maxConcurrent);
+                replicaLimiter.bindTo(meterRegistry);
+                replica = replicaLimiter.limit(replica);
+            }
+            replicas.add(new ReplicaRouter.Replica(config.getPoolName(), replica));
+        }
+
+        return new ReplicaRouter(limited(primaryDataSource, limiter), replicas, meterRegistry, fallbackToPrimary, maxLagMs,
+                readYourWritesMs, lagQuery);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRouter replicaRouter,
+            ObjectProvider<JdbcConcurrencyLimiter> limiter)
+    {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                replicaRouter.trackingWrites(limited(primaryDataSource, limiter)));
+        dataSource.setReadOnlyDataSource(replicaRouter);
+        return dataSource;
+    }
+
+    /**
+     * The primary pool behind the virtual-thread mode's limiter, if that mode is on. Writes and reads that fall back
+     * to the primary share the one limiter, since they share the pool.
+     */
+    private static DataSource limited(HikariDataSource primaryDataSource, ObjectProvider<JdbcConcurrencyLimiter> limiter)
+    {
+        JdbcConcurrencyLimiter primaryLimiter = limiter.getIfAvailable();
+        return primaryLimiter != null ? primaryLimiter.limit(primaryDataSource) : primaryDataSource;
+    }
+}
@@ -0,0 +1,241 @@
+package app.ospreyplan.backend.datasource;
+
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read-only side of the routing data source (see {@link ReplicaDataSourceConfig}): hands out connections to
+ * healthy replicas in turn.
+ *
+ * Reads fall back to the primary when:
+ * - the signed-in user wrote recently (read-your-writes). The window is a fixed minimum plus the replication lag
+ *   currently measured on the replicas, and starts when the write transaction takes its connection;
+ * - no replica is healthy. A replica is unhealthy until its first successful lag probe, and again when it fails
+ *   the probe or a connection attempt, or lags more than the allowed maximum. This fallback can be turned off, in which case such reads fail.
+ *
+ * Writes are recorded through {@link #trackingWrites(DataSource)}, which wraps the primary, and through
+ * {@link #recordWrite(UUID)} by writers that act for a user who is not the one signed in (buffered planner flushes,
+ * template instantiation, plan imports and demo account claims). The read-your-writes state
+ * lives on this instance only; a user whose next request lands on another instance within the window may read from
+ * a replica there.
+ */
+public class ReplicaRouter extends AbstractDataSource implements AutoCloseable
+{
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    /**
+     * Replication delay in ms; 0 when the replica has replayed everything it received (an idle primary otherwise
+     * makes the replay timestamp look old), and 0 on a server that isn't a replica at all.
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    static final class Replica
+    {
+        private final String name;
+        private final DataSource dataSource;
+        // Out of rotation until the first successful probe, so an unreachable replica never serves a read
+        private volatile boolean healthy;
+        private volatile long lagMs;
+
+        Replica(String name, DataSource dataSource)
+        {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final MeterRegistry meterRegistry;
+    private final boolean fallbackToPrimary;
+    private final long maxLagMs;
+    private final long readYourWritesMs;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<UUID, Long> primaryUntil;
+
+    ReplicaRouter(DataSource primary, List<Replica> replicas, MeterRegistry meterRegistry, boolean fallbackToPrimary,
+            long maxLagMs, long readYourWritesMs, String lagQuery)
+    {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.meterRegistry = meterRegistry;
+        this.fallbackToPrimary = fallbackToPrimary;
+        this.maxLagMs = maxLagMs;
+        this.readYourWritesMs = readYourWritesMs;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? LAG_QUERY : lagQuery;
+        this.primaryUntil = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMs + maxLagMs))
+                .build();
+
+        for (Replica replica : replicas)
+        {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Replication lag measured by the last probe")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether read-only transactions are routed to this replica")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        UUID userId = AuthenticatedUser.current().map(AuthenticatedUser::userId).orElse(null);
+        if (userId != null && wroteRecently(userId))
+        {
+            return primary("read-your-writes");
+        }
+
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++)
+        {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy)
+            {
+                continue;
+            }
+            try
+            {
+                Connection connection = replica.dataSource.getConnection();
+                meterRegistry.counter("datasource.reads.routed", "target", replica.name, "reason", "read-only").increment();
+                return connection;
+            }
+            catch (SQLException e)
+            {
+                replica.healthy = false;
+                logger.warn("Read replica {} is unavailable, taking it out of rotation: {}", replica.name, e.getMessage());
+            }
+        }
+
+        if (!fallbackToPrimary)
+        {
+            throw new SQLException("No healthy read replica available");
+        }
+        return primary("no-healthy-replica");
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        throw new SQLException("ReplicaRouter does not support per-call credentials");
+    }
+
+    /**
+     * Wraps the primary so that every connection taken for a read-write transaction marks the signed-in user as a
+     * recent writer.
+     */
+    DataSource trackingWrites(DataSource primaryDataSource)
+    {
+        return new DelegatingDataSource(primaryDataSource)
+        {
+            @Override
+            public Connection getConnection() throws SQLException
+            {
+                AuthenticatedUser.current().ifPresent(user -> recordWrite(user.userId()));
+                return super.getConnection();
+            }
+        };
+    }
+
+    /**
+     * Marks the user as a recent writer. {@link #trackingWrites(DataSource)} does this for the signed-in user; code
+     * that writes a plan on someone else's behalf, or outside a request, calls it for the plan's owner.
+     */
+    public void recordWrite(UUID userId)
+    {
+        primaryUntil.put(userId, System.currentTimeMillis() + readYourWritesMs + currentLagMs());
+    }
+
+    boolean wroteRecently(UUID userId)
+    {
+        Long until = primaryUntil.getIfPresent(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval-ms:5000}")
+    public void probeReplicas()
+    {
+        for (Replica replica : replicas)
+        {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(lagQuery))
+            {
+                replica.lagMs = rs.next() ? Math.round(rs.getDouble(1)) : 0;
+                replica.healthy = replica.lagMs <= maxLagMs;
+            }
+            catch (SQLException e)
+            {
+                replica.healthy = false;
+                logger.debug("Lag probe on replica {} failed: {}", replica.name, e.getMessage());
+            }
+
+            if (wasHealthy != replica.healthy)
+            {
+                logger.info("Read replica {} is now {} (lag {} ms)", replica.name, replica.healthy ? "in rotation" : "out of rotation",
+                        replica.lagMs);
+            }
+        }
+    }
+
+    private long currentLagMs()
+    {
+        long lag = 0;
+        for (Replica replica : replicas)
+        {
+            if (replica.healthy)
+            {
+                lag = Math.max(lag, replica.lagMs);
+            }
+        }
+        return lag;
+    }
+
+    private Connection primary(String reason) throws SQLException
+    {
+        meterRegistry.counter("datasource.reads.routed", "target", "primary", "reason", reason).increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        for (Replica replica : replicas)
+        {
+            // Unwraps the concurrency limiter in virtual-thread mode
+            if (replica.dataSource.isWrapperFor(AutoCloseable.class))
+            {
+                replica.dataSource.unwrap(AutoCloseable.class).close();
+            }
+        }
+    }
+}
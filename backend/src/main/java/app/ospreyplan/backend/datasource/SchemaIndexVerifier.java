@@ -0,0 +1,90 @@
+package app.ospreyplan.backend.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Checks at startup that the indexes the hot queries rely on (see V7__query_indexes.sql) exist and are valid. A
+ * table recreated by hand without them still works, just with sequential scans that nobody notices until production
+ * slows down, so a missing index stops the application by default.
+ *
+ * Configuration properties:
+ * - `schema.index-check.enabled` – run the check (default true)
+ * - `schema.index-check.fail-on-missing` – refuse to start when an index is missing; otherwise only log (default true)
+ */
+@Component
+public class SchemaIndexVerifier implements ApplicationRunner
+{
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    static final Set<String> REQUIRED_INDEXES = Set.of(
+            "planned_semesters_user_created_idx",
+            "planned_courses_semester_created_idx",
+            "degree_requirements_degree_priority_idx",
+            "requirement_criteria_requirement_covering_idx",
+            "users_demo_created_idx");
+
+    // An index left INVALID by a failed build is ignored by the planner, so it counts as missing
+    private static final String VALID_INDEXES_SQL = """
+            SELECT c.relname FROM pg_index i
+            JOIN pg_class c ON c.oid = i.indexrelid
+            JOIN pg_namespace n ON n.oid = c.relnamespace
+            WHERE n.nspname = 'public' AND i.indisvalid AND c.relname = ANY(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final boolean failOnMissing;
+
+    public SchemaIndexVerifier(JdbcTemplate jdbcTemplate,
+            @Value("${schema.index-check.enabled:true}") boolean enabled,
+            @Value("${schema.index-check.fail-on-missing:true}") boolean failOnMissing)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.failOnMissing = failOnMissing;
+    }
+
+    @Override
+    public void run(ApplicationArguments args)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        Set<String> missing = missingIndexes();
+        if (missing.isEmpty())
+        {
+            logger.info("All {} required indexes are present", REQUIRED_INDEXES.size());
+            return;
+        }
+
+        String message = "Missing or invalid indexes: " + String.join(", ", missing)
+                + " (see db/migration/V7__query_indexes.sql)";
+        if (failOnMissing)
+        {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    Set<String> missingIndexes()
+    {
+        List<String> present = jdbcTemplate.queryForList(VALID_INDEXES_SQL, String.class,
+                (Object) REQUIRED_INDEXES.toArray(String[]::new));
+        Set<String> missing = new TreeSet<>(REQUIRED_INDEXES);
+        present.forEach(missing::remove);
+        return missing;
+    }
+}
@@ -0,0 +1,79 @@
+package app.ospreyplan.backend.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Virtual-thread mode, switched on with `spring.threads.virtual.enabled` (env `VIRTUAL_THREADS`). Spring Boot then
+ * runs Tomcat requests, {@code @Scheduled} jobs, {@code @Async} work and async MVC requests (streamed exports) on
+ * virtual threads. The application's own executors (dashboard reads, Supabase bulkhead) use virtual threads in both
+ * modes, and the cache invalidation listener keeps its dedicated platform thread.
+ *
+ * In this mode the primary pool is wrapped in a {@link JdbcConcurrencyLimiter}. With replica routing on, the routing
+ * proxy itself is left alone: {@link ReplicaDataSourceConfig} limits the primary pool with this limiter and gives
+ * every replica pool a limiter of its own (`datasource.replicas.max-concurrent`), so reads served by replicas don't
+ * count against the primary's limit.
+ *
+ * Configuration properties:
+ * - `jdbc.limiter.enabled` – limit JDBC concurrency in virtual-thread mode (default true)
+ * - `jdbc.limiter.max-concurrent` – connections held at once on the primary (default: the primary pool's maximum
+ *   size)
+ * - `jdbc.limiter.acquire-timeout-ms` – how long to queue for a permit before failing (default 5000)
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "jdbc.limiter.enabled", matchIfMissing = true)
+public class VirtualThreadConfig
+{
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public JdbcConcurrencyLimiter jdbcConcurrencyLimiter(
+            @Value("${jdbc.limiter.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${jdbc.limiter.acquire-timeout-ms:5000}") long acquireTimeoutMs)
+    {
+        return new JdbcConcurrencyLimiter(maxConcurrent, acquireTimeoutMs);
+    }
+
+    @Bean
+    public static BeanPostProcessor jdbcConcurrencyLimiterPostProcessor(ObjectProvider<JdbcConcurrencyLimiter> limiter,
+            ObjectProvider<ReplicaRouter> replicaRouter)
+    {
+        return new LimiterPostProcessor(limiter, replicaRouter);
+    }
+
+    /**
+     * Ordered so that it wraps the data source before Server-Timing's {@code TimedDataSource} does, which then counts
+     * the wait for a permit as database time.
+     */
+    private record LimiterPostProcessor(ObjectProvider<JdbcConcurrencyLimiter> limiter,
+            ObjectProvider<ReplicaRouter> replicaRouter) implements BeanPostProcessor, Ordered
+    {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName)
+        {
+            // The routing proxy already limits each of its pools separately
+            if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                    && replicaRouter.getIfAvailable() == null)
+            {
+                return limiter.getObject().limit(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder()
+        {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package app.ospreyplan.backend.observability;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the submitting thread's {@link SqlStatementCounter} scope and {@link RequestTiming} over to the thread that
+ * runs a task, and removes them again when the task ends. Both are plain thread-locals, so nothing leaks into pooled
+ * or long-lived threads; executors doing work on behalf of a request have to apply this decorator explicitly.
+ */
+@Component
+public class RequestScopeTaskDecorator implements TaskDecorator
+{
+    @Override
+    public Runnable decorate(Runnable runnable)
+    {
+        return SqlStatementCounter.propagate(RequestTiming.propagate(runnable));
+    }
+}
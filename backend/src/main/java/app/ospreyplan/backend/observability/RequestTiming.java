@@ -0,0 +1,131 @@
+package app.ospreyplan.backend.observability;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent per phase of the current request, reported in the {@code Server-Timing} header by
+ * {@link ServerTimingFilter}. Phases are recorded by the code that runs them: {@code SupabaseAuthFilter} for auth,
+ * {@link TimedDataSource} for database work and {@link TimedJacksonHttpMessageConverter} for serialization; whatever
+ * remains of the total is reported as {@code app}.
+ *
+ * Only present while Server-Timing is enabled; otherwise {@link #record} does nothing. Like
+ * {@link SqlStatementCounter}'s scope, the timing follows tasks wrapped by {@link RequestScopeTaskDecorator} onto other
+ * threads, so database time of parallel reads is summed and can exceed the request's wall-clock time.
+ */
+public final class RequestTiming
+{
+    public enum Phase
+    {
+        AUTH("auth", "Authentication"),
+        DB("db", "Database"),
+        SERIALIZATION("serialization", "JSON serialization");
+
+        private final String metricName;
+        private final String description;
+
+        Phase(String metricName, String description)
+        {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> current = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<Phase, LongAdder> phases = new EnumMap<>(Phase.class);
+
+    private RequestTiming()
+    {
+        for (Phase phase : Phase.values())
+        {
+            phases.put(phase, new LongAdder());
+        }
+    }
+
+    static RequestTiming start()
+    {
+        RequestTiming timing = new RequestTiming();
+        current.set(timing);
+        return timing;
+    }
+
+    static void end()
+    {
+        current.remove();
+    }
+
+    static RequestTiming current()
+    {
+        return current.get();
+    }
+
+    /**
+     * Runs the task with the calling thread's request timing, if any, on whichever thread executes it.
+     */
+    static Runnable propagate(Runnable task)
+    {
+        RequestTiming timing = current.get();
+        if (timing == null)
+        {
+            return task;
+        }
+        return () -> {
+            RequestTiming previous = current.get();
+            current.set(timing);
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                if (previous == null)
+                {
+                    current.remove();
+                }
+                else
+                {
+                    current.set(previous);
+                }
+            }
+        };
+    }
+
+    public static void record(Phase phase, long nanos)
+    {
+        RequestTiming timing = current.get();
+        if (timing != null)
+        {
+            timing.phases.get(phase).add(nanos);
+        }
+    }
+
+    /**
+     * The header value as of now, e.g. {@code auth;dur=0.4;desc="Authentication", ..., total;dur=12.9}.
+     */
+    String headerValue()
+    {
+        long total = System.nanoTime() - startNanos;
+        long accounted = 0;
+        StringJoiner header = new StringJoiner(", ");
+        for (Phase phase : Phase.values())
+        {
+            long nanos = phases.get(phase).sum();
+            accounted += nanos;
+            header.add(entry(phase.metricName, nanos, phase.description));
+        }
+        header.add(entry("app", Math.max(0, total - accounted), "Application logic"));
+        header.add(entry("total", total, null));
+        return header.toString();
+    }
+
+    private static String entry(String name, long nanos, String description)
+    {
+        String entry = name + ";dur=" + String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+        return description == null ? entry : entry + ";desc=\"" + description + "\"";
+    }
+}
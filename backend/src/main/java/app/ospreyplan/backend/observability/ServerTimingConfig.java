@@ -0,0 +1,67 @@
+package app.ospreyplan.backend.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request {@code Server-Timing} header (see {@link ServerTimingFilter}). Off by default: the header reveals how
+ * long authentication and database work take, JSON responses are buffered and every JDBC call is timed (see
+ * {@link TimedDataSource}) while it is on. Nothing is installed when it is off.
+ *
+ * Configuration properties:
+ * - `server-timing.enabled` – add the header to every response (default false)
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig
+{
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public ServerTimingFilter serverTimingFilter(@Value("${frontend.base-url:}") String frontendBaseUrl)
+    {
+        return new ServerTimingFilter(frontendBaseUrl);
+    }
+
+    @Bean
+    public TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper)
+    {
+        return new TimedJacksonHttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor()
+    {
+        return new TimedDataSourcePostProcessor();
+    }
+
+    /**
+     * Wraps the application data source last, outside the JDBC concurrency limiter, so time spent queueing for a
+     * connection counts as database time.
+     */
+    private static final class TimedDataSourcePostProcessor implements BeanPostProcessor, Ordered
+    {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName)
+        {
+            if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource)
+            {
+                return new TimedDataSource(dataSource);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder()
+        {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
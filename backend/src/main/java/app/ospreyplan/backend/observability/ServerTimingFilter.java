@@ -0,0 +1,120 @@
+package app.ospreyplan.backend.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Adds a {@code Server-Timing} header with the request's phases (see {@link RequestTiming}), which browser devtools
+ * show next to each request. The header is set just before the response commits, i.e. when the body is first
+ * written or the response is completed without one. Registered by {@link ServerTimingConfig}, only when enabled.
+ *
+ * The frontend calls the API cross-origin, so {@code Timing-Allow-Origin} names it to let the page's own Resource
+ * Timing API read the values too.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter
+{
+    static final String SERVER_TIMING = "Server-Timing";
+    static final String TIMING_ALLOW_ORIGIN = "Timing-Allow-Origin";
+
+    private final String allowedOrigin;
+
+    public ServerTimingFilter(String allowedOrigin)
+    {
+        this.allowedOrigin = allowedOrigin;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        TimingResponse timingResponse = new TimingResponse(response, RequestTiming.start());
+        try
+        {
+            filterChain.doFilter(request, timingResponse);
+            timingResponse.addTimingHeader();
+        }
+        finally
+        {
+            RequestTiming.end();
+        }
+    }
+
+    private final class TimingResponse extends HttpServletResponseWrapper
+    {
+        private final RequestTiming timing;
+        private boolean headerAdded;
+
+        TimingResponse(HttpServletResponse response, RequestTiming timing)
+        {
+            super(response);
+            this.timing = timing;
+        }
+
+        void addTimingHeader()
+        {
+            if (headerAdded || isCommitted())
+            {
+                return;
+            }
+            headerAdded = true;
+            setHeader(SERVER_TIMING, timing.headerValue());
+            if (allowedOrigin != null && !allowedOrigin.isBlank())
+            {
+                setHeader(TIMING_ALLOW_ORIGIN, allowedOrigin);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException
+        {
+            addTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException
+        {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException
+        {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException
+        {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException
+        {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException
+        {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package app.ospreyplan.backend.observability;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares while a {@link Scope} is open, e.g. for one HTTP request
+ * ({@link SqlStatementMetricsFilter}) or one block of test code. Registered with Hibernate as its statement inspector.
+ *
+ * The open scope belongs to the thread that opened it. Work handed to another thread is counted only when the task
+ * is wrapped by {@link RequestScopeTaskDecorator}, as the dashboard's parallel reads are. Statements issued through
+ * {@code JdbcTemplate} bypass Hibernate and are not counted.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer
+{
+    private static final int MAX_RECORDED_STATEMENTS = 100;
+
+    private static final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    /**
+     * Statements counted since the scope was opened. Scopes nest; a statement counts towards every enclosing scope.
+     */
+    public static final class Scope implements AutoCloseable
+    {
+        private final Scope parent;
+        private final AtomicInteger count = new AtomicInteger();
+        private final List<String> statements = new ArrayList<>();
+
+        private Scope(Scope parent)
+        {
+            this.parent = parent;
+        }
+
+        public int count()
+        {
+            return count.get();
+        }
+
+        /**
+         * The first statements of the scope (at most 100), for diagnosing where a count came from.
+         */
+        public List<String> statements()
+        {
+            synchronized (statements)
+            {
+                return List.copyOf(statements);
+            }
+        }
+
+        private void record(String sql)
+        {
+            count.incrementAndGet();
+            synchronized (statements)
+            {
+                if (statements.size() < MAX_RECORDED_STATEMENTS)
+                {
+                    statements.add(sql);
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            restore(parent);
+        }
+    }
+
+    public static Scope open()
+    {
+        Scope scope = new Scope(current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs the task with the calling thread's open scope, if any, on whichever thread executes it.
+     */
+    static Runnable propagate(Runnable task)
+    {
+        Scope scope = current.get();
+        if (scope == null)
+        {
+            return task;
+        }
+        return () -> {
+            Scope previous = current.get();
+            current.set(scope);
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Scope previous)
+    {
+        if (previous == null)
+        {
+            current.remove();
+        }
+        else
+        {
+            current.set(previous);
+        }
+    }
+
+    @Override
+    public String inspect(String sql)
+    {
+        for (Scope scope = current.get(); scope != null; scope = scope.parent)
+        {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties)
+    {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+}
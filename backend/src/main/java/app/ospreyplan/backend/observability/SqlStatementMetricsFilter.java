@@ -0,0 +1,68 @@
+package app.ospreyplan.backend.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued as the {@code http.server.requests.sql.statements} summary,
+ * tagged with the method and the matched route like {@code http.server.requests}. A request above the warning
+ * threshold is logged with its first statements, which is usually enough to spot an N+1 loop.
+ *
+ * Configuration properties:
+ * - `sql.statements.warn-threshold` – statements per request above which a warning is logged (default 25)
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatementMetricsFilter extends OncePerRequestFilter
+{
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry,
+            @Value("${sql.statements.warn-threshold:25}") int warnThreshold)
+    {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open())
+        {
+            filterChain.doFilter(request, response);
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .description("SQL statements issued through Hibernate per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(scope.count());
+
+            if (scope.count() > warnThreshold)
+            {
+                logger.warn("{} {} issued {} SQL statements (threshold {}); first statements: {}", request.getMethod(), uri,
+                        scope.count(), warnThreshold, scope.statements().stream().limit(5).toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package app.ospreyplan.backend.observability;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the time spent acquiring connections and executing statements to the request's {@code db} phase. Wraps the
+ * application data source (see {@link ServerTimingConfig}), so Hibernate, {@code JdbcTemplate} and plain JDBC are all
+ * counted, each statement once.
+ *
+ * Only {@code execute*} calls are timed; rows fetched later by {@code ResultSet.next()} are not.
+ */
+public class TimedDataSource extends DelegatingDataSource
+{
+    public TimedDataSource(DataSource targetDataSource)
+    {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            return timed(super.getConnection());
+        }
+        finally
+        {
+            RequestTiming.record(RequestTiming.Phase.DB, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            return timed(super.getConnection(username, password));
+        }
+        finally
+        {
+            RequestTiming.record(RequestTiming.Phase.DB, System.nanoTime() - start);
+        }
+    }
+
+    private static Connection timed(Connection connection)
+    {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(method, connection, args);
+                    if (result instanceof CallableStatement statement)
+                    {
+                        return timed(statement, CallableStatement.class);
+                    }
+                    if (result instanceof PreparedStatement statement)
+                    {
+                        return timed(statement, PreparedStatement.class);
+                    }
+                    if (result instanceof Statement statement)
+                    {
+                        return timed(statement, Statement.class);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object timed(Statement statement, Class<? extends Statement> type)
+    {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute"))
+                    {
+                        return invoke(method, statement, args);
+                    }
+                    long start = System.nanoTime();
+                    try
+                    {
+                        return invoke(method, statement, args);
+                    }
+                    finally
+                    {
+                        RequestTiming.record(RequestTiming.Phase.DB, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package app.ospreyplan.backend.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Serializes JSON responses into a buffer before writing them, so the serialization time is known before the
+ * response is committed and can go into the {@code Server-Timing} header. Only buffers while a
+ * {@link RequestTiming} is active.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter
+{
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper)
+    {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException
+    {
+        if (RequestTiming.current() == null)
+        {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        super.writeInternal(object, type, new HttpOutputMessage()
+        {
+            @Override
+            public OutputStream getBody()
+            {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders()
+            {
+                return outputMessage.getHeaders();
+            }
+        });
+        RequestTiming.record(RequestTiming.Phase.SERIALIZATION, System.nanoTime() - start);
+
+        buffer.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,35 @@
+package app.ospreyplan.backend.planner.buffer;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A planner write held in {@link PlannerWriteBuffer} until the next flush. IDs are assigned when the write is
+ * accepted so the client can keep working with them before the row exists.
+ */
+sealed interface BufferedWrite
+{
+    UUID semesterId();
+
+    record CreateSemester(UUID semesterId, String title) implements BufferedWrite
+    {
+    }
+
+    record RenameSemester(UUID semesterId, String previousTitle, String title) implements BufferedWrite
+    {
+    }
+
+    record DeleteSemester(UUID semesterId) implements BufferedWrite
+    {
+    }
+
+    record AddCourse(UUID semesterId, UUID courseId, String subject, Integer courseNumber, Integer credits,
+            OffsetDateTime createdAt) implements BufferedWrite
+    {
+    }
+
+    record RemoveCourse(UUID semesterId, UUID courseId, String subject, Integer courseNumber, Integer credits)
+            implements BufferedWrite
+    {
+    }
+}
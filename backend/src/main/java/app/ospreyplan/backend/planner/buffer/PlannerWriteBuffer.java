@@ -0,0 +1,559 @@
+package app.ospreyplan.backend.planner.buffer;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.AddCourse;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.CreateSemester;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.DeleteSemester;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.RemoveCourse;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.RenameSemester;
+import app.ospreyplan.backend.planner.course.PlannedCourse;
+import app.ospreyplan.backend.planner.course.PlannedCourseRepository;
+import app.ospreyplan.backend.planner.history.CourseState;
+import app.ospreyplan.backend.planner.history.PlanEventPayload;
+import app.ospreyplan.backend.planner.history.PlanEventType;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import app.ospreyplan.backend.planner.semester.PlannedSemester;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in write-behind buffer for planner edits. Writes are validated and acknowledged immediately, held per user for
+ * a short window while redundant writes cancel out (add-then-remove, repeated renames, create-then-delete), and then
+ * written in a single batched transaction.
+ *
+ * Reads of a user's plan and unbuffered writes flush the user's pending writes first, so a user always sees their own
+ * writes in order. Pending writes are flushed when the application shuts down; writes still buffered when the process
+ * dies abruptly are lost, which is why the mode is opt-in per request.
+ *
+ * A failed batch is retried on later flushes. After {@value #MAX_FLUSH_ATTEMPTS} failures its writes are applied one
+ * at a time: a write the database rejects outright is moved to {@code planner_dead_letters} so it cannot hold back the
+ * others, while a write failing transiently stays buffered together with everything after it.
+ *
+ * Configuration properties:
+ * - `planner.write-buffer.enabled` – allows clients to opt in (default false)
+ * - `planner.write-buffer.window-ms` – how long a user's first pending write may wait (default 2000)
+ * - `planner.write-buffer.max-pending` – pending writes per user that force an immediate flush (default 200)
+ */
+@Component
+public class PlannerWriteBuffer
+{
+    private static final Logger logger = LoggerFactory.getLogger(PlannerWriteBuffer.class);
+
+    /**
+     * Request header a client sends with the value {@value #BUFFERED_MODE} to opt in.
+     */
+    public static final String WRITE_MODE_HEADER = "X-Planner-Write-Mode";
+    public static final String BUFFERED_MODE = "buffered";
+
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final Map<UUID, UserWriteBuffer> buffers = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    // Owner of every semester with pending writes, so course writes can be routed without a lookup
+    private final Map<UUID, UUID> semesterOwners = new ConcurrentHashMap<>();
+
+    private final PlannedSemesterRepository semesterRepository;
+    private final PlannedCourseRepository courseRepository;
+    private final PlanHistoryService historyService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+
+    private final Counter acceptedCounter;
+    private final Counter coalescedCounter;
+    private final Counter writtenCounter;
+    private final Counter deadLetteredCounter;
+
+    @Value("${planner.write-buffer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${planner.write-buffer.window-ms:2000}")
+    private long windowMs;
+
+    @Value("${planner.write-buffer.max-pending:200}")
+    private int maxPending;
+
+    public PlannerWriteBuffer(PlannedSemesterRepository semesterRepository, PlannedCourseRepository courseRepository,
+            PlanHistoryService historyService, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, ObjectProvider<ReplicaRouter> replicaRouter, MeterRegistry meterRegistry)
+    {
+        this.semesterRepository = semesterRepository;
+        this.courseRepository = courseRepository;
+        this.historyService = historyService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.replicaRouter = replicaRouter;
+
+        this.acceptedCounter = meterRegistry.counter("planner.write_buffer.writes", "outcome", "accepted");
+        this.coalescedCounter = meterRegistry.counter("planner.write_buffer.writes", "outcome", "coalesced");
+        this.writtenCounter = meterRegistry.counter("planner.write_buffer.writes", "outcome", "written");
+        this.deadLetteredCounter = meterRegistry.counter("planner.write_buffer.writes", "outcome", "dead_lettered");
+    }
+
+    /**
+     * Whether a request carrying the given write-mode header should go through the buffer.
+     */
+    public boolean accepts(String writeMode)
+    {
+        return enabled && BUFFERED_MODE.equalsIgnoreCase(writeMode);
+    }
+
+    public PlannedSemester createSemester(UUID userId, String title)
+    {
+        UUID semesterId = UUID.randomUUID();
+        semesterOwners.put(semesterId, userId);
+        enqueue(userId, new CreateSemester(semesterId, title));
+
+        PlannedSemester semester = new PlannedSemester();
+        semester.setId(semesterId);
+        semester.setUserId(userId);
+        semester.setTitle(title);
+        semester.setPlannedCourses(new ArrayList<>());
+        return semester;
+    }
+
+    public PlannedCourse addCourseToSemester(UUID semesterId, String subject, Integer courseNumber, Integer credits)
+    {
+        UUID userId = resolveOwner(semesterId);
+        UserWriteBuffer buffer = buffer(userId);
+
+        boolean exists = buffer.hasPendingAdd(semesterId, subject, courseNumber)
+                || (!buffer.isCreated(semesterId) && !buffer.hasPendingRemove(semesterId, subject, courseNumber)
+                        && courseRepository.existsByPlannedSemester_IdAndSubjectAndCourseNumber(semesterId, subject, courseNumber));
+        if (exists)
+        {
+            throw new IllegalArgumentException("Course " + subject + " " + courseNumber + " is already in this semester.");
+        }
+
+        UUID courseId = UUID.randomUUID();
+        OffsetDateTime createdAt = OffsetDateTime.now();
+        enqueue(userId, new AddCourse(semesterId, courseId, subject, courseNumber, credits, createdAt));
+
+        PlannedCourse course = new PlannedCourse();
+        course.setId(courseId);
+        course.setSubject(subject);
+        course.setCourseNumber(courseNumber);
+        course.setCredits(credits);
+        course.setCreatedAt(createdAt);
+        return course;
+    }
+
+    public void removeCourseFromSemester(UUID semesterId, UUID courseId)
+    {
+        UUID userId = resolveOwner(semesterId);
+        UserWriteBuffer buffer = buffer(userId);
+
+        AddCourse pendingAdd = buffer.pendingAdd(semesterId, courseId);
+        if (pendingAdd != null)
+        {
+            enqueue(userId, new RemoveCourse(semesterId, courseId, pendingAdd.subject(), pendingAdd.courseNumber(),
+                    pendingAdd.credits()));
+            return;
+        }
+
+        PlannedCourse course = courseRepository.findById(courseId)
+                .filter(c -> !buffer.hasPendingRemove(courseId))
+                .filter(c -> c.getPlannedSemester() != null && semesterId.equals(c.getPlannedSemester().getId()))
+                .orElseThrow(() -> new IllegalArgumentException("Course not found in semester: " + courseId));
+
+        enqueue(userId, new RemoveCourse(semesterId, courseId, course.getSubject(), course.getCourseNumber(),
+                course.getCredits()));
+    }
+
+    public void updateSemesterTitle(UUID semesterId, String title)
+    {
+        UUID userId = resolveOwner(semesterId);
+        UserWriteBuffer buffer = buffer(userId);
+
+        String previousTitle = buffer.pendingTitle(semesterId);
+        if (previousTitle == null)
+        {
+            previousTitle = semesterRepository.findById(semesterId).map(PlannedSemester::getTitle).orElse(null);
+        }
+        enqueue(userId, new RenameSemester(semesterId, previousTitle, title));
+    }
+
+    public void deleteSemester(UUID semesterId)
+    {
+        UUID userId = resolveOwner(semesterId);
+        boolean pendingCreate = buffer(userId).isCreated(semesterId);
+        enqueue(userId, new DeleteSemester(semesterId));
+        if (pendingCreate)
+        {
+            // Create and delete cancelled out, so no flush will ever forget this owner
+            semesterOwners.remove(semesterId);
+        }
+    }
+
+    /**
+     * Writes everything pending for the user and waits for any flush already in progress, so that a subsequent read
+     * sees all of the user's acknowledged writes.
+     */
+    public void flush(UUID userId)
+    {
+        UserWriteBuffer buffer = buffers.get(userId);
+        if (buffer != null)
+        {
+            flush(userId, buffer);
+        }
+    }
+
+    /**
+     * Flushes the pending writes of whoever owns the semester, for unbuffered writes that must see them.
+     */
+    public void flushOwnerOf(UUID semesterId)
+    {
+        if (!enabled || buffers.isEmpty())
+        {
+            return;
+        }
+        UUID owner = semesterOwners.get(semesterId);
+        if (owner == null)
+        {
+            owner = semesterRepository.findById(semesterId).map(PlannedSemester::getUserId).orElse(null);
+        }
+        if (owner != null)
+        {
+            flush(owner);
+        }
+    }
+
+    /**
+     * Drops the user's pending writes without applying them, for accounts that are being deleted. Waits for a flush
+     * already in progress, so nothing of the user's is written after this returns.
+     */
+    public void discard(UUID userId)
+    {
+        UserWriteBuffer buffer = buffers.remove(userId);
+        if (buffer != null)
+        {
+            buffer.flushLock.lock();
+            try
+            {
+                buffer.drain();
+            }
+            finally
+            {
+                buffer.flushLock.unlock();
+            }
+        }
+        failedAttempts.remove(userId);
+        semesterOwners.values().removeIf(userId::equals);
+    }
+
+    @Scheduled(fixedDelayString = "${planner.write-buffer.flush-interval-ms:500}")
+    public void flushDue()
+    {
+        long now = System.nanoTime();
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        buffers.forEach((userId, buffer) -> {
+            if (buffer.isDue(now, windowNanos))
+            {
+                flush(userId, buffer);
+            }
+        });
+    }
+
+    /**
+     * Flushes every user's pending writes, for reads that span many users' plans.
+     */
+    public void flushAll()
+    {
+        buffers.forEach(this::flush);
+    }
+
+    @PreDestroy
+    void flushBeforeShutdown()
+    {
+        if (buffers.isEmpty())
+        {
+            return;
+        }
+        logger.info("Flushing buffered planner writes for {} users before shutdown", buffers.size());
+        flushAll();
+    }
+
+    private void enqueue(UUID userId, BufferedWrite write)
+    {
+        // Enqueue inside compute() so a concurrent flush cannot drop the buffer between lookup and enqueue
+        int[] coalesced = new int[1];
+        UserWriteBuffer buffer = buffers.compute(userId, (k, existing) -> {
+            UserWriteBuffer b = existing != null ? existing : new UserWriteBuffer();
+            coalesced[0] = b.enqueue(write, System.nanoTime());
+            return b;
+        });
+
+        acceptedCounter.increment();
+        coalescedCounter.increment(coalesced[0]);
+
+        if (buffer.size() >= maxPending)
+        {
+            flush(userId, buffer);
+        }
+    }
+
+    /**
+     * Pending writes for the user, or an empty view if there are none. Never registers a new buffer.
+     */
+    private UserWriteBuffer buffer(UUID userId)
+    {
+        UserWriteBuffer buffer = buffers.get(userId);
+        return buffer != null ? buffer : new UserWriteBuffer();
+    }
+
+    private UUID resolveOwner(UUID semesterId)
+    {
+        UUID owner = semesterOwners.get(semesterId);
+        if (owner == null)
+        {
+            owner = semesterRepository.findById(semesterId)
+                    .map(PlannedSemester::getUserId)
+                    .orElseThrow(() -> new IllegalArgumentException("Semester not found: " + semesterId));
+        }
+        if (buffer(owner).isDeleted(semesterId))
+        {
+            throw new IllegalArgumentException("Semester not found: " + semesterId);
+        }
+        return owner;
+    }
+
+    private void flush(UUID userId, UserWriteBuffer buffer)
+    {
+        buffer.flushLock.lock();
+        try
+        {
+            List<BufferedWrite> writes = buffer.drain();
+            if (writes.isEmpty())
+            {
+                return;
+            }
+
+            try
+            {
+                transactionTemplate.executeWithoutResult(status -> write(userId, writes));
+                // Scheduled flushes run without a signed-in user, so the owner's reads are pinned to the primary here
+                replicaRouter.ifAvailable(router -> router.recordWrite(userId));
+                writtenCounter.increment(writes.size());
+                failedAttempts.remove(userId);
+                forgetOwners(writes);
+            }
+            catch (Exception e)
+            {
+                int attempts = failedAttempts.merge(userId, 1, Integer::sum);
+                if (attempts < MAX_FLUSH_ATTEMPTS)
+                {
+                    logger.warn("Flushing {} buffered planner writes for user {} failed (attempt {}), will retry",
+                            writes.size(), userId, attempts, e);
+                    buffer.requeue(writes, System.nanoTime());
+                }
+                else
+                {
+                    logger.warn("Flushing {} buffered planner writes for user {} failed {} times, applying them one at a time",
+                            writes.size(), userId, attempts, e);
+                    failedAttempts.remove(userId);
+                    writeIndividually(userId, buffer, writes);
+                }
+            }
+        }
+        finally
+        {
+            buffer.flushLock.unlock();
+            buffers.computeIfPresent(userId, (k, b) -> b.isEmpty() ? null : b);
+        }
+    }
+
+    /**
+     * Applies the writes of a repeatedly failing batch in order, each in its own transaction. A write the database
+     * rejects is dead-lettered and the rest carry on; a transient failure puts that write and every later one back in
+     * the buffer for the next flush.
+     */
+    private void writeIndividually(UUID userId, UserWriteBuffer buffer, List<BufferedWrite> writes)
+    {
+        for (int i = 0; i < writes.size(); i++)
+        {
+            BufferedWrite write = writes.get(i);
+            try
+            {
+                transactionTemplate.executeWithoutResult(status -> write(userId, List.of(write)));
+                replicaRouter.ifAvailable(router -> router.recordWrite(userId));
+                writtenCounter.increment();
+            }
+            catch (Exception e)
+            {
+                if (isTransient(e) || !deadLetter(userId, write, e))
+                {
+                    logger.warn("Buffered planner write for user {} failed, keeping {} writes buffered",
+                            userId, writes.size() - i, e);
+                    buffer.requeue(writes.subList(i, writes.size()), System.nanoTime());
+                    forgetOwners(writes.subList(0, i));
+                    return;
+                }
+            }
+        }
+        forgetOwners(writes);
+    }
+
+    private static boolean isTransient(Exception e)
+    {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    /**
+     * Keeps a write the database will not accept in {@code planner_dead_letters} for an operator to inspect.
+     *
+     * @return whether the write was stored; if not, the caller keeps it buffered
+     */
+    private boolean deadLetter(UUID userId, BufferedWrite write, Exception cause)
+    {
+        try
+        {
+            jdbcTemplate.update("""
+                    INSERT INTO planner_dead_letters (user_id, kind, semester_id, payload, last_error)
+                    VALUES (?, ?, ?, CAST(? AS jsonb), ?)
+                    """, userId, write.getClass().getSimpleName(), write.semesterId(),
+                    objectMapper.writeValueAsString(write), String.valueOf(cause.getMessage()));
+            deadLetteredCounter.increment();
+            logger.error("Buffered planner write {} for user {} was rejected and moved to planner_dead_letters",
+                    write.getClass().getSimpleName(), userId, cause);
+            return true;
+        }
+        catch (Exception e)
+        {
+            logger.warn("Could not dead-letter buffered planner write for user {}", userId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Semesters created or deleted by writes that have left the buffer no longer need their owner remembered.
+     */
+    private void forgetOwners(List<BufferedWrite> writes)
+    {
+        writes.forEach(w -> {
+            if (w instanceof CreateSemester || w instanceof DeleteSemester)
+            {
+                semesterOwners.remove(w.semesterId());
+            }
+        });
+    }
+
+    /**
+     * Applies coalesced writes grouped by kind. After coalescing, no two writes in a batch depend on each other's
+     * order except that semesters must exist before courses are added to them and courses are gone before their
+     * semester is deleted, which the grouping preserves. History is still recorded in the order the writes were made,
+     * so undo and redo step through a buffered burst the same way as through unbuffered edits.
+     */
+    private void write(UUID userId, List<BufferedWrite> writes)
+    {
+        List<CreateSemester> creates = new ArrayList<>();
+        List<RenameSemester> renames = new ArrayList<>();
+        List<AddCourse> adds = new ArrayList<>();
+        List<RemoveCourse> removes = new ArrayList<>();
+        List<DeleteSemester> deletes = new ArrayList<>();
+
+        for (BufferedWrite write : writes)
+        {
+            switch (write)
+            {
+                case CreateSemester c -> creates.add(c);
+                case RenameSemester r -> renames.add(r);
+                case AddCourse a -> adds.add(a);
+                case RemoveCourse r -> removes.add(r);
+                case DeleteSemester d -> deletes.add(d);
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO planned_semesters (id, user_id, title) VALUES (?, ?, ?)",
+                creates, creates.size(), (ps, c) -> {
+                    ps.setObject(1, c.semesterId());
+                    ps.setObject(2, userId);
+                    ps.setString(3, c.title());
+                });
+        jdbcTemplate.batchUpdate("UPDATE planned_semesters SET title = ? WHERE id = ?",
+                renames, renames.size(), (ps, r) -> {
+                    ps.setString(1, r.title());
+                    ps.setObject(2, r.semesterId());
+                });
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO planned_courses (id, semester_id, subject, course_number, credits, created_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, adds, adds.size(), (ps, a) -> {
+                    ps.setObject(1, a.courseId());
+                    ps.setObject(2, a.semesterId());
+                    ps.setString(3, a.subject());
+                    ps.setObject(4, a.courseNumber());
+                    ps.setObject(5, a.credits());
+                    ps.setTimestamp(6, Timestamp.from(a.createdAt().toInstant()));
+                });
+        jdbcTemplate.batchUpdate("DELETE FROM planned_courses WHERE id = ? AND semester_id = ?",
+                removes, removes.size(), (ps, r) -> {
+                    ps.setObject(1, r.courseId());
+                    ps.setObject(2, r.semesterId());
+                });
+
+        // Deleted semesters are recorded with their courses so the deletion can be undone
+        Map<UUID, PlanEventPayload> deletedSemesters = new HashMap<>();
+        for (DeleteSemester d : deletes)
+        {
+            String title = jdbcTemplate.query("SELECT title FROM planned_semesters WHERE id = ?",
+                    rs -> rs.next() ? rs.getString(1) : null, d.semesterId());
+            List<CourseState> courses = jdbcTemplate.query(
+                    "SELECT id, subject, course_number, credits FROM planned_courses WHERE semester_id = ? ORDER BY created_at",
+                    (rs, i) -> new CourseState(rs.getObject("id", UUID.class), rs.getString("subject"),
+                            rs.getObject("course_number", Integer.class), rs.getObject("credits", Integer.class)),
+                    d.semesterId());
+            deletedSemesters.put(d.semesterId(), PlanEventPayload.semester(d.semesterId(), title, courses));
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM planned_courses WHERE semester_id = ?",
+                deletes, deletes.size(), (ps, d) -> ps.setObject(1, d.semesterId()));
+        jdbcTemplate.batchUpdate("DELETE FROM planned_semesters WHERE id = ?",
+                deletes, deletes.size(), (ps, d) -> ps.setObject(1, d.semesterId()));
+
+        for (BufferedWrite write : writes)
+        {
+            switch (write)
+            {
+                case CreateSemester c -> historyService.record(userId, PlanEventType.SEMESTER_CREATED,
+                        PlanEventPayload.semester(c.semesterId(), c.title(), List.of()));
+                case RenameSemester r -> historyService.record(userId, PlanEventType.SEMESTER_RENAMED,
+                        PlanEventPayload.rename(r.semesterId(), r.previousTitle(), r.title()));
+                case AddCourse a -> historyService.record(userId, PlanEventType.COURSE_ADDED,
+                        PlanEventPayload.course(a.semesterId(), new CourseState(a.courseId(), a.subject(), a.courseNumber(), a.credits())));
+                case RemoveCourse r -> historyService.record(userId, PlanEventType.COURSE_REMOVED,
+                        PlanEventPayload.course(r.semesterId(), new CourseState(r.courseId(), r.subject(), r.courseNumber(), r.credits())));
+                case DeleteSemester d -> historyService.record(userId, PlanEventType.SEMESTER_DELETED,
+                        deletedSemesters.get(d.semesterId()));
+            }
+        }
+    }
+}
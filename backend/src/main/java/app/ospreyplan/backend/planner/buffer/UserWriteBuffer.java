@@ -0,0 +1,198 @@
+package app.ospreyplan.backend.planner.buffer;
+
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.AddCourse;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.CreateSemester;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.DeleteSemester;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.RemoveCourse;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.RenameSemester;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pending writes for a single user. Redundant writes are folded together as they arrive, so a flush only ever sees
+ * the net effect of the burst.
+ */
+class UserWriteBuffer
+{
+    // Held for the whole duration of a flush so readers can wait for in-flight writes to land
+    final ReentrantLock flushLock = new ReentrantLock();
+
+    private final List<BufferedWrite> pending = new ArrayList<>();
+    // Semesters created and deleted within the burst; neither write is pending, but the ID must not be reused
+    private final Set<UUID> cancelledSemesters = new HashSet<>();
+    private long firstEnqueuedAt;
+
+    /**
+     * Adds a write, coalescing it with any pending writes it cancels or supersedes.
+     *
+     * @return how many writes (including this one) no longer need to reach the database
+     */
+    synchronized int enqueue(BufferedWrite write, long now)
+    {
+        if (pending.isEmpty())
+        {
+            firstEnqueuedAt = now;
+        }
+
+        return switch (write)
+        {
+            case RemoveCourse remove -> coalesceRemove(remove);
+            case RenameSemester rename -> coalesceRename(rename);
+            case DeleteSemester delete -> coalesceDelete(delete);
+            default ->
+            {
+                pending.add(write);
+                yield 0;
+            }
+        };
+    }
+
+    synchronized List<BufferedWrite> drain()
+    {
+        List<BufferedWrite> drained = List.copyOf(pending);
+        pending.clear();
+        cancelledSemesters.clear();
+        return drained;
+    }
+
+    /**
+     * Puts writes from a failed flush back in front of anything enqueued since.
+     */
+    synchronized void requeue(List<BufferedWrite> writes, long now)
+    {
+        if (pending.isEmpty())
+        {
+            firstEnqueuedAt = now;
+        }
+        pending.addAll(0, writes);
+    }
+
+    synchronized boolean isEmpty()
+    {
+        return pending.isEmpty();
+    }
+
+    synchronized int size()
+    {
+        return pending.size();
+    }
+
+    synchronized boolean isDue(long now, long windowNanos)
+    {
+        // A burst that cancelled out entirely is still due, so its buffer is drained and dropped
+        return (!pending.isEmpty() || !cancelledSemesters.isEmpty()) && now - firstEnqueuedAt >= windowNanos;
+    }
+
+    synchronized boolean isCreated(UUID semesterId)
+    {
+        return pending.stream().anyMatch(w -> w instanceof CreateSemester && w.semesterId().equals(semesterId));
+    }
+
+    synchronized boolean isDeleted(UUID semesterId)
+    {
+        return cancelledSemesters.contains(semesterId) || pending.stream().anyMatch(w -> w instanceof DeleteSemester && w.semesterId().equals(semesterId));
+    }
+
+    /**
+     * Title the semester will have once pending writes land, or {@code null} if no pending write sets it.
+     */
+    synchronized String pendingTitle(UUID semesterId)
+    {
+        String title = null;
+        for (BufferedWrite w : pending)
+        {
+            if (w instanceof CreateSemester c && c.semesterId().equals(semesterId))
+            {
+                title = c.title();
+            }
+            else if (w instanceof RenameSemester r && r.semesterId().equals(semesterId))
+            {
+                title = r.title();
+            }
+        }
+        return title;
+    }
+
+    synchronized AddCourse pendingAdd(UUID semesterId, UUID courseId)
+    {
+        return pending.stream()
+                .filter(w -> w instanceof AddCourse a && a.semesterId().equals(semesterId) && a.courseId().equals(courseId))
+                .map(AddCourse.class::cast)
+                .findFirst().orElse(null);
+    }
+
+    synchronized boolean hasPendingAdd(UUID semesterId, String subject, Integer courseNumber)
+    {
+        return pending.stream().anyMatch(w -> w instanceof AddCourse a && a.semesterId().equals(semesterId)
+                && a.subject().equals(subject) && a.courseNumber().equals(courseNumber));
+    }
+
+    synchronized boolean hasPendingRemove(UUID courseId)
+    {
+        return pending.stream().anyMatch(w -> w instanceof RemoveCourse r && r.courseId().equals(courseId));
+    }
+
+    synchronized boolean hasPendingRemove(UUID semesterId, String subject, Integer courseNumber)
+    {
+        return pending.stream().anyMatch(w -> w instanceof RemoveCourse r && r.semesterId().equals(semesterId)
+                && r.subject().equals(subject) && r.courseNumber().equals(courseNumber));
+    }
+
+    private int coalesceRemove(RemoveCourse remove)
+    {
+        // Add-then-remove of the same course never needs to touch the database
+        boolean removedAdd = pending.removeIf(w -> w instanceof AddCourse a && a.courseId().equals(remove.courseId()));
+        if (removedAdd)
+        {
+            return 2;
+        }
+        pending.add(remove);
+        return 0;
+    }
+
+    private int coalesceRename(RenameSemester rename)
+    {
+        for (int i = 0; i < pending.size(); i++)
+        {
+            BufferedWrite w = pending.get(i);
+            if (w instanceof CreateSemester c && c.semesterId().equals(rename.semesterId()))
+            {
+                pending.set(i, new CreateSemester(c.semesterId(), rename.title()));
+                return 1;
+            }
+            if (w instanceof RenameSemester r && r.semesterId().equals(rename.semesterId()))
+            {
+                // Keep the title from before the burst so the recorded rename stays undoable
+                pending.set(i, new RenameSemester(r.semesterId(), r.previousTitle(), rename.title()));
+                return 1;
+            }
+        }
+        pending.add(rename);
+        return 0;
+    }
+
+    private int coalesceDelete(DeleteSemester delete)
+    {
+        UUID semesterId = delete.semesterId();
+        boolean created = isCreated(semesterId);
+
+        int before = pending.size();
+        pending.removeIf(w -> Objects.equals(w.semesterId(), semesterId));
+        int dropped = before - pending.size();
+
+        if (created)
+        {
+            // The semester never reached the database, so neither does its deletion
+            cancelledSemesters.add(semesterId);
+            return dropped + 1;
+        }
+        pending.add(delete);
+        return dropped;
+    }
+}
@@ -1,6 +1,9 @@
 package app.ospreyplan.backend.planner.course;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -8,4 +11,10 @@ import java.util.UUID;
 public interface PlannedCourseRepository extends JpaRepository<PlannedCourse, UUID>
 {
     List<PlannedCourse> findByPlannedSemester_UserIdOrderByCreatedAtAsc(UUID userId);
+
+    boolean existsByPlannedSemester_IdAndSubjectAndCourseNumber(UUID semesterId, String subject, Integer courseNumber);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE planned_courses SET semester_id = :semesterId WHERE id = :courseId", nativeQuery = true)
+    void moveToSemester(@Param("courseId") UUID courseId, @Param("semesterId") UUID semesterId);
 }
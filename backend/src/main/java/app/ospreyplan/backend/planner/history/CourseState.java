@@ -0,0 +1,16 @@
+package app.ospreyplan.backend.planner.history;
+
+import app.ospreyplan.backend.planner.course.PlannedCourse;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of a planned course as stored in event payloads and snapshots.
+ */
+public record CourseState(UUID id, String subject, Integer courseNumber, Integer credits)
+{
+    public static CourseState of(PlannedCourse course)
+    {
+        return new CourseState(course.getId(), course.getSubject(), course.getCourseNumber(), course.getCredits());
+    }
+}
@@ -0,0 +1,136 @@
+package app.ospreyplan.backend.planner.history;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One append-only entry in a user's plan change log. Rows are never updated; undo and redo are recorded as new events.
+ */
+@Entity
+@Table(name = "plan_events")
+public class PlanEvent
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // Per-user, gapless position in the user's history (the plan version clients sync against is plan_versions.seq)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    private PlanEventType type;
+
+    @Enumerated(EnumType.STRING)
+    private PlanEventOrigin origin;
+
+    @Column(name = "semester_id")
+    private UUID semesterId;
+
+    @Column(name = "course_id")
+    private UUID courseId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String payload;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public void setId(Long id)
+    {
+        this.id = id;
+    }
+
+    public UUID getUserId()
+    {
+        return userId;
+    }
+
+    public void setUserId(UUID userId)
+    {
+        this.userId = userId;
+    }
+
+    public Long getSeq()
+    {
+        return seq;
+    }
+
+    public void setSeq(Long seq)
+    {
+        this.seq = seq;
+    }
+
+    public PlanEventType getType()
+    {
+        return type;
+    }
+
+    public void setType(PlanEventType type)
+    {
+        this.type = type;
+    }
+
+    public PlanEventOrigin getOrigin()
+    {
+        return origin;
+    }
+
+    public void setOrigin(PlanEventOrigin origin)
+    {
+        this.origin = origin;
+    }
+
+    public UUID getSemesterId()
+    {
+        return semesterId;
+    }
+
+    public void setSemesterId(UUID semesterId)
+    {
+        this.semesterId = semesterId;
+    }
+
+    public UUID getCourseId()
+    {
+        return courseId;
+    }
+
+    public void setCourseId(UUID courseId)
+    {
+        this.courseId = courseId;
+    }
+
+    @JsonRawValue
+    public String getPayload()
+    {
+        return payload;
+    }
+
+    public void setPayload(String payload)
+    {
+        this.payload = payload;
+    }
+
+    public OffsetDateTime getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt)
+    {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,11 @@
+package app.ospreyplan.backend.planner.history;
+
+/**
+ * Why an event was appended: a regular edit from the planner, or an undo/redo of an earlier event.
+ */
+public enum PlanEventOrigin
+{
+    EDIT,
+    UNDO,
+    REDO
+}
@@ -0,0 +1,51 @@
+package app.ospreyplan.backend.planner.history;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JSON body of a plan event. Which fields are set depends on the event type:
+ * - COURSE_ADDED / COURSE_REMOVED: {@code semesterId}, {@code course}
+ * - COURSE_MOVED: {@code semesterId} (source), {@code targetSemesterId}, {@code course}
+ * - SEMESTER_CREATED / SEMESTER_DELETED: {@code semesterId}, {@code title}, {@code courses}
+ * - SEMESTER_RENAMED: {@code semesterId}, {@code previousTitle}, {@code title}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanEventPayload(UUID semesterId, UUID targetSemesterId, CourseState course, String title,
+        String previousTitle, List<CourseState> courses)
+{
+    public static PlanEventPayload course(UUID semesterId, CourseState course)
+    {
+        return new PlanEventPayload(semesterId, null, course, null, null, null);
+    }
+
+    public static PlanEventPayload move(UUID fromSemesterId, UUID toSemesterId, CourseState course)
+    {
+        return new PlanEventPayload(fromSemesterId, toSemesterId, course, null, null, null);
+    }
+
+    public static PlanEventPayload semester(UUID semesterId, String title, List<CourseState> courses)
+    {
+        return new PlanEventPayload(semesterId, null, null, title, null, courses);
+    }
+
+    public static PlanEventPayload rename(UUID semesterId, String previousTitle, String title)
+    {
+        return new PlanEventPayload(semesterId, null, null, title, previousTitle, null);
+    }
+
+    /**
+     * Returns the payload to record alongside {@link PlanEventType#inverse()} when undoing this change.
+     */
+    public PlanEventPayload inverse(PlanEventType type)
+    {
+        return switch (type)
+        {
+            case COURSE_MOVED -> move(targetSemesterId, semesterId, course);
+            case SEMESTER_RENAMED -> rename(semesterId, title, previousTitle);
+            default -> this;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package app.ospreyplan.backend.planner.history;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PlanEventRepository extends JpaRepository<PlanEvent, Long>
+{
+    List<PlanEvent> findByUserIdOrderBySeqDesc(UUID userId, Pageable pageable);
+
+    List<PlanEvent> findByUserIdAndSeqBetweenOrderBySeqAsc(UUID userId, Long fromSeq, Long toSeq);
+
+    Optional<PlanEvent> findFirstByUserIdAndCreatedAtLessThanEqualOrderBySeqDesc(UUID userId, OffsetDateTime at);
+
+    @Modifying
+    @Query("DELETE FROM PlanEvent e WHERE e.userId = :userId")
+    void deleteByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM PlanEvent e WHERE e.userId IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+}
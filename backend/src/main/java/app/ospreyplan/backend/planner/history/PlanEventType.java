@@ -0,0 +1,28 @@
+package app.ospreyplan.backend.planner.history;
+
+/**
+ * Kinds of planner changes recorded in the plan change log. Every type has an inverse so that any recorded change
+ * can be undone by applying the inverse type to the same (or mirrored) payload.
+ */
+public enum PlanEventType
+{
+    COURSE_ADDED,
+    COURSE_REMOVED,
+    COURSE_MOVED,
+    SEMESTER_CREATED,
+    SEMESTER_DELETED,
+    SEMESTER_RENAMED;
+
+    public PlanEventType inverse()
+    {
+        return switch (this)
+        {
+            case COURSE_ADDED -> COURSE_REMOVED;
+            case COURSE_REMOVED -> COURSE_ADDED;
+            case COURSE_MOVED -> COURSE_MOVED;
+            case SEMESTER_CREATED -> SEMESTER_DELETED;
+            case SEMESTER_DELETED -> SEMESTER_CREATED;
+            case SEMESTER_RENAMED -> SEMESTER_RENAMED;
+        };
+    }
+}
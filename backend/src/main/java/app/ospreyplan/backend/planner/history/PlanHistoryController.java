@@ -0,0 +1,55 @@
+package app.ospreyplan.backend.planner.history;
+
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/history")
+public class PlanHistoryController
+{
+    private static final int MAX_HISTORY_PAGE = 500;
+
+    private final PlanHistoryService service;
+    private final PlannerWriteBuffer writeBuffer;
+
+    public PlanHistoryController(PlanHistoryService service, PlannerWriteBuffer writeBuffer)
+    {
+        this.service = service;
+        this.writeBuffer = writeBuffer;
+    }
+
+    @GetMapping("/user/{userId}")
+    public List<PlanEvent> getHistory(@PathVariable UUID userId, @RequestParam(defaultValue = "50") int limit)
+    {
+        writeBuffer.flush(userId);
+        return service.getHistory(userId, Math.max(1, Math.min(limit, MAX_HISTORY_PAGE)));
+    }
+
+    @GetMapping("/user/{userId}/at")
+    public ResponseEntity<List<SemesterState>> getPlanAt(@PathVariable UUID userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime timestamp)
+    {
+        writeBuffer.flush(userId);
+        return ResponseEntity.of(service.getPlanAt(userId, timestamp));
+    }
+
+    @PostMapping("/user/{userId}/undo")
+    public ResponseEntity<PlanEvent> undo(@PathVariable UUID userId)
+    {
+        writeBuffer.flush(userId);
+        return service.undo(userId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @PostMapping("/user/{userId}/redo")
+    public ResponseEntity<PlanEvent> redo(@PathVariable UUID userId)
+    {
+        writeBuffer.flush(userId);
+        return service.redo(userId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,330 @@
+package app.ospreyplan.backend.planner.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains the append-only plan change log. Planner writes record one event each; undo and redo apply the inverse
+ * of an earlier event to the planner tables and append it as a new event, so the log itself is never rewritten.
+ *
+ * A compact snapshot of the whole plan is stored after a user's first event and then every
+ * {@link #SNAPSHOT_INTERVAL} events, which bounds how many events a point-in-time reconstruction has to replay.
+ */
+@Service
+public class PlanHistoryService
+{
+    static final int SNAPSHOT_INTERVAL = 50;
+
+    // Only this many recent events are scanned to rebuild the undo/redo stacks, which also caps undo depth
+    static final int UNDO_WINDOW = 200;
+
+    private static final TypeReference<List<SemesterState>> SEMESTER_LIST = new TypeReference<>() {};
+
+    private final PlanEventRepository eventRepository;
+    private final PlanSnapshotRepository snapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public PlanHistoryService(PlanEventRepository eventRepository, PlanSnapshotRepository snapshotRepository,
+            JdbcTemplate jdbcTemplate, EntityManager entityManager, ObjectMapper objectMapper)
+    {
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records a planner edit. Must run inside the transaction that performed the edit.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public PlanEvent record(UUID userId, PlanEventType type, PlanEventPayload payload)
+    {
+        return append(userId, type, PlanEventOrigin.EDIT, payload);
+    }
+
+    public List<PlanEvent> getHistory(UUID userId, int limit)
+    {
+        return eventRepository.findByUserIdOrderBySeqDesc(userId, PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    public Optional<PlanEvent> undo(UUID userId)
+    {
+        lockHistory(userId);
+        Deque<PlanEvent> undoStack = new ArrayDeque<>();
+        Deque<PlanEvent> redoStack = new ArrayDeque<>();
+        loadStacks(userId, undoStack, redoStack);
+
+        if (undoStack.isEmpty())
+        {
+            return Optional.empty();
+        }
+        return Optional.of(revert(undoStack.pop(), PlanEventOrigin.UNDO));
+    }
+
+    @Transactional
+    public Optional<PlanEvent> redo(UUID userId)
+    {
+        lockHistory(userId);
+        Deque<PlanEvent> undoStack = new ArrayDeque<>();
+        Deque<PlanEvent> redoStack = new ArrayDeque<>();
+        loadStacks(userId, undoStack, redoStack);
+
+        if (redoStack.isEmpty())
+        {
+            return Optional.empty();
+        }
+        // An UNDO event is itself the inverse of the original edit, so reverting it re-applies the edit
+        return Optional.of(revert(redoStack.pop(), PlanEventOrigin.REDO));
+    }
+
+    /**
+     * Rebuilds the user's plan as it stood at {@code at}, starting from the nearest earlier snapshot.
+     *
+     * @return the plan at that moment, or empty if no history had been recorded yet
+     */
+    public Optional<List<SemesterState>> getPlanAt(UUID userId, OffsetDateTime at)
+    {
+        Optional<PlanEvent> last = eventRepository.findFirstByUserIdAndCreatedAtLessThanEqualOrderBySeqDesc(userId, at);
+        if (last.isEmpty())
+        {
+            return Optional.empty();
+        }
+
+        long targetSeq = last.get().getSeq();
+        Optional<PlanSnapshot> snapshot = snapshotRepository.findFirstByUserIdAndSeqLessThanEqualOrderBySeqDesc(userId, targetSeq);
+
+        PlanState state = snapshot.map(s -> PlanState.of(readSemesters(s.getPayload()))).orElseGet(PlanState::new);
+        long fromSeq = snapshot.map(PlanSnapshot::getSeq).orElse(0L) + 1;
+
+        for (PlanEvent event : eventRepository.findByUserIdAndSeqBetweenOrderBySeqAsc(userId, fromSeq, targetSeq))
+        {
+            state.apply(event.getType(), readPayload(event.getPayload()));
+        }
+        return Optional.of(state.toSemesters());
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleteHistory(UUID userId)
+    {
+        eventRepository.deleteByUserId(userId);
+        snapshotRepository.deleteByUserId(userId);
+        jdbcTemplate.update("DELETE FROM plan_event_seqs WHERE user_id = ?", userId);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleteHistory(Collection<UUID> userIds)
+    {
+        eventRepository.deleteByUserIdIn(userIds);
+        snapshotRepository.deleteByUserIdIn(userIds);
+        Object[] ids = userIds.toArray();
+        jdbcTemplate.update("DELETE FROM plan_event_seqs WHERE user_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)));
+    }
+
+    private PlanEvent revert(PlanEvent event, PlanEventOrigin origin)
+    {
+        PlanEventType type = event.getType().inverse();
+        PlanEventPayload payload = readPayload(event.getPayload()).inverse(event.getType());
+
+        applyToDatabase(event.getUserId(), type, payload);
+        return append(event.getUserId(), type, origin, payload);
+    }
+
+    /**
+     * Replays the recent log into undo/redo stacks: edits and redos are undoable, undos are redoable, and a fresh
+     * edit discards anything that could have been redone.
+     */
+    private void loadStacks(UUID userId, Deque<PlanEvent> undoStack, Deque<PlanEvent> redoStack)
+    {
+        List<PlanEvent> recent = new ArrayList<>(eventRepository.findByUserIdOrderBySeqDesc(userId, PageRequest.of(0, UNDO_WINDOW)));
+        Collections.reverse(recent);
+
+        for (PlanEvent event : recent)
+        {
+            switch (event.getOrigin())
+            {
+                case EDIT ->
+                {
+                    undoStack.push(event);
+                    redoStack.clear();
+                }
+                case UNDO ->
+                {
+                    undoStack.poll();
+                    redoStack.push(event);
+                }
+                case REDO ->
+                {
+                    redoStack.poll();
+                    undoStack.push(event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the user's event counter row lock before the undo and redo stacks are read, so concurrent undos and redos
+     * take turns instead of both reverting the same event. {@link #append} takes the same lock anyway.
+     */
+    private void lockHistory(UUID userId)
+    {
+        jdbcTemplate.query("SELECT seq FROM plan_event_seqs WHERE user_id = ? FOR UPDATE", rs -> {}, userId);
+    }
+
+    private PlanEvent append(UUID userId, PlanEventType type, PlanEventOrigin origin, PlanEventPayload payload)
+    {
+        // Row-locks the user's counter until commit, so concurrent edits by the same user take turns
+        long seq = jdbcTemplate.queryForObject("SELECT public.next_plan_event_seq(?)", Long.class, userId);
+
+        PlanEvent event = new PlanEvent();
+        event.setUserId(userId);
+        event.setSeq(seq);
+        event.setType(type);
+        event.setOrigin(origin);
+        event.setSemesterId(payload.semesterId());
+        event.setCourseId(payload.course() != null ? payload.course().id() : null);
+        event.setPayload(write(payload));
+        PlanEvent saved = eventRepository.save(event);
+
+        if (seq == 1 || seq % SNAPSHOT_INTERVAL == 0)
+        {
+            takeSnapshot(userId, seq);
+        }
+        return saved;
+    }
+
+    private void takeSnapshot(UUID userId, long seq)
+    {
+        // Push pending entity changes so the snapshot query sees the edit that was just recorded
+        entityManager.flush();
+
+        PlanSnapshot snapshot = new PlanSnapshot();
+        snapshot.setUserId(userId);
+        snapshot.setSeq(seq);
+        snapshot.setPayload(write(loadCurrentPlan(userId)));
+        snapshotRepository.save(snapshot);
+    }
+
+    private List<SemesterState> loadCurrentPlan(UUID userId)
+    {
+        Map<UUID, String> titles = new LinkedHashMap<>();
+        Map<UUID, List<CourseState>> courses = new LinkedHashMap<>();
+
+        jdbcTemplate.query("""
+                SELECT s.id AS semester_id, s.title, c.id AS course_id, c.subject, c.course_number, c.credits
+                FROM planned_semesters s
+                LEFT JOIN planned_courses c ON c.semester_id = s.id
+                WHERE s.user_id = ?
+                ORDER BY s.created_at, s.id, c.created_at
+                """, rs -> {
+            UUID semesterId = rs.getObject("semester_id", UUID.class);
+            titles.putIfAbsent(semesterId, rs.getString("title"));
+            List<CourseState> semesterCourses = courses.computeIfAbsent(semesterId, k -> new ArrayList<>());
+
+            UUID courseId = rs.getObject("course_id", UUID.class);
+            if (courseId != null)
+            {
+                semesterCourses.add(new CourseState(courseId, rs.getString("subject"),
+                        rs.getObject("course_number", Integer.class), rs.getObject("credits", Integer.class)));
+            }
+        }, userId);
+
+        List<SemesterState> semesters = new ArrayList<>();
+        titles.forEach((id, title) -> semesters.add(new SemesterState(id, title, courses.get(id))));
+        return semesters;
+    }
+
+    private void applyToDatabase(UUID userId, PlanEventType type, PlanEventPayload payload)
+    {
+        switch (type)
+        {
+            case COURSE_ADDED -> insertCourse(payload.semesterId(), payload.course());
+            case COURSE_REMOVED -> jdbcTemplate.update("DELETE FROM planned_courses WHERE id = ?", payload.course().id());
+            case COURSE_MOVED -> jdbcTemplate.update("UPDATE planned_courses SET semester_id = ? WHERE id = ?",
+                    payload.targetSemesterId(), payload.course().id());
+            case SEMESTER_CREATED ->
+            {
+                jdbcTemplate.update("INSERT INTO planned_semesters (id, user_id, title) VALUES (?, ?, ?)",
+                        payload.semesterId(), userId, payload.title());
+                if (payload.courses() != null)
+                {
+                    payload.courses().forEach(c -> insertCourse(payload.semesterId(), c));
+                }
+            }
+            case SEMESTER_DELETED ->
+            {
+                jdbcTemplate.update("DELETE FROM planned_courses WHERE semester_id = ?", payload.semesterId());
+                jdbcTemplate.update("DELETE FROM planned_semesters WHERE id = ?", payload.semesterId());
+            }
+            case SEMESTER_RENAMED -> jdbcTemplate.update("UPDATE planned_semesters SET title = ? WHERE id = ?",
+                    payload.title(), payload.semesterId());
+        }
+    }
+
+    private void insertCourse(UUID semesterId, CourseState course)
+    {
+        // Course IDs are preserved so that later events in the log keep pointing at the same row
+        jdbcTemplate.update("""
+                INSERT INTO planned_courses (id, semester_id, subject, course_number, credits, created_at)
+                VALUES (?, ?, ?, ?, ?, now())
+                """, course.id(), semesterId, course.subject(), course.courseNumber(), course.credits());
+    }
+
+    private PlanEventPayload readPayload(String json)
+    {
+        try
+        {
+            return objectMapper.readValue(json, PlanEventPayload.class);
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new IllegalStateException("Unreadable plan event payload", e);
+        }
+    }
+
+    private List<SemesterState> readSemesters(String json)
+    {
+        try
+        {
+            return objectMapper.readValue(json, SEMESTER_LIST);
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new IllegalStateException("Unreadable plan snapshot", e);
+        }
+    }
+
+    private String write(Object value)
+    {
+        try
+        {
+            return objectMapper.writeValueAsString(value);
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new IllegalStateException("Failed to serialize plan history", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package app.ospreyplan.backend.planner.history;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PlanSnapshotRepository extends JpaRepository<PlanSnapshot, Long>
+{
+    Optional<PlanSnapshot> findFirstByUserIdAndSeqLessThanEqualOrderBySeqDesc(UUID userId, Long seq);
+
+    @Modifying
+    @Query("DELETE FROM PlanSnapshot s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM PlanSnapshot s WHERE s.userId IN :userIds")
+    int deleteByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+}
@@ -0,0 +1,70 @@
+package app.ospreyplan.backend.planner.history;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mutable in-memory plan used to fold a snapshot and the events recorded after it into a point-in-time plan.
+ */
+class PlanState
+{
+    private final Map<UUID, String> titles = new LinkedHashMap<>();
+    private final Map<UUID, Map<UUID, CourseState>> courses = new LinkedHashMap<>();
+
+    static PlanState of(List<SemesterState> semesters)
+    {
+        PlanState state = new PlanState();
+        for (SemesterState semester : semesters)
+        {
+            state.putSemester(semester.id(), semester.title(), semester.courses());
+        }
+        return state;
+    }
+
+    void apply(PlanEventType type, PlanEventPayload payload)
+    {
+        switch (type)
+        {
+            case COURSE_ADDED -> semesterCourses(payload.semesterId()).put(payload.course().id(), payload.course());
+            case COURSE_REMOVED -> semesterCourses(payload.semesterId()).remove(payload.course().id());
+            case COURSE_MOVED ->
+            {
+                CourseState moved = semesterCourses(payload.semesterId()).remove(payload.course().id());
+                semesterCourses(payload.targetSemesterId()).put(payload.course().id(),
+                        moved != null ? moved : payload.course());
+            }
+            case SEMESTER_CREATED -> putSemester(payload.semesterId(), payload.title(), payload.courses());
+            case SEMESTER_DELETED ->
+            {
+                titles.remove(payload.semesterId());
+                courses.remove(payload.semesterId());
+            }
+            case SEMESTER_RENAMED -> titles.put(payload.semesterId(), payload.title());
+        }
+    }
+
+    List<SemesterState> toSemesters()
+    {
+        List<SemesterState> semesters = new ArrayList<>();
+        titles.forEach((id, title) -> semesters.add(new SemesterState(id, title, List.copyOf(semesterCourses(id).values()))));
+        return semesters;
+    }
+
+    private void putSemester(UUID id, String title, List<CourseState> semesterCourses)
+    {
+        titles.put(id, title);
+        Map<UUID, CourseState> byId = semesterCourses(id);
+        if (semesterCourses != null)
+        {
+            semesterCourses.forEach(c -> byId.put(c.id(), c));
+        }
+    }
+
+    private Map<UUID, CourseState> semesterCourses(UUID semesterId)
+    {
+        return courses.computeIfAbsent(semesterId, k -> new LinkedHashMap<>());
+    }
+}
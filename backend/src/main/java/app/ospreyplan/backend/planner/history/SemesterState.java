@@ -0,0 +1,11 @@
+package app.ospreyplan.backend.planner.history;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a planned semester and its courses, used for snapshots and point-in-time reconstruction.
+ */
+public record SemesterState(UUID id, String title, List<CourseState> courses)
+{
+}
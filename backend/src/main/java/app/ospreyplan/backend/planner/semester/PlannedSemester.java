@@ -3,6 +3,7 @@ package app.ospreyplan.backend.planner.semester;
 import app.ospreyplan.backend.planner.course.PlannedCourse;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -26,7 +27,9 @@ public class PlannedSemester
     @Column(name = "updated_at", insertable = false, updatable = false)
     private OffsetDateTime updatedAt;
 
+    // Listing a user's semesters initializes the courses of up to 50 semesters per query instead of one each
     @OneToMany(mappedBy = "plannedSemester", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<PlannedCourse> plannedCourses;
 
@@ -1,57 +1,105 @@
 package app.ospreyplan.backend.planner.semester;
 
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
 import app.ospreyplan.backend.planner.course.PlannedCourse;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Planner endpoints. Requests sending {@code X-Planner-Write-Mode: buffered} have their writes acknowledged
+ * immediately and coalesced by {@link PlannerWriteBuffer} when buffering is enabled.
+ */
 @RestController
 @RequestMapping("/api/semesters")
 public class PlannedSemesterController
 {
     private final PlannedSemesterService service;
+    private final PlannerWriteBuffer writeBuffer;
 
-    public PlannedSemesterController(PlannedSemesterService service)
+    public PlannedSemesterController(PlannedSemesterService service, PlannerWriteBuffer writeBuffer)
     {
         this.service = service;
+        this.writeBuffer = writeBuffer;
     }
 
     @GetMapping("/user/{userId}")
     public List<PlannedSemester> getSemestersByUserId(@PathVariable UUID userId)
     {
+        writeBuffer.flush(userId);
         return service.getSemestersByUserId(userId);
     }
 
     @PostMapping
-    public PlannedSemester createSemester(@RequestParam UUID userId, @RequestParam String title)
+    public PlannedSemester createSemester(@RequestParam UUID userId, @RequestParam String title,
+            @RequestHeader(value = PlannerWriteBuffer.WRITE_MODE_HEADER, required = false) String writeMode)
     {
+        if (writeBuffer.accepts(writeMode))
+        {
+            return writeBuffer.createSemester(userId, title);
+        }
+        writeBuffer.flush(userId);
         return service.createSemester(userId, title);
     }
 
     @PostMapping("/{semesterId}/courses")
-    public PlannedCourse addCourseToSemester(@PathVariable UUID semesterId, @RequestParam String subject, @RequestParam Integer courseNumber, @RequestParam Integer credits)
+    public PlannedCourse addCourseToSemester(@PathVariable UUID semesterId, @RequestParam String subject, @RequestParam Integer courseNumber, @RequestParam Integer credits,
+            @RequestHeader(value = PlannerWriteBuffer.WRITE_MODE_HEADER, required = false) String writeMode)
     {
+        if (writeBuffer.accepts(writeMode))
+        {
+            return writeBuffer.addCourseToSemester(semesterId, subject, courseNumber, credits);
+        }
+        writeBuffer.flushOwnerOf(semesterId);
         return service.addCourseToSemester(semesterId, subject, courseNumber, credits);
     }
 
     @DeleteMapping("/{semesterId}/courses/{courseId}")
     @ResponseStatus(code = org.springframework.http.HttpStatus.NO_CONTENT)
-    public void removeCourseFromSemester(@PathVariable UUID semesterId, @PathVariable UUID courseId)
+    public void removeCourseFromSemester(@PathVariable UUID semesterId, @PathVariable UUID courseId,
+            @RequestHeader(value = PlannerWriteBuffer.WRITE_MODE_HEADER, required = false) String writeMode)
     {
+        if (writeBuffer.accepts(writeMode))
+        {
+            writeBuffer.removeCourseFromSemester(semesterId, courseId);
+            return;
+        }
+        writeBuffer.flushOwnerOf(semesterId);
         service.removeCourseFromSemester(semesterId, courseId);
     }
 
+    @PatchMapping("/{semesterId}/courses/{courseId}")
+    public void moveCourse(@PathVariable UUID semesterId, @PathVariable UUID courseId, @RequestParam UUID targetSemesterId)
+    {
+        writeBuffer.flushOwnerOf(semesterId);
+        service.moveCourse(semesterId, courseId, targetSemesterId);
+    }
+
     @DeleteMapping("/{semesterId}")
     @ResponseStatus(code = org.springframework.http.HttpStatus.NO_CONTENT)
-    public void deleteSemester(@PathVariable UUID semesterId)
+    public void deleteSemester(@PathVariable UUID semesterId,
+            @RequestHeader(value = PlannerWriteBuffer.WRITE_MODE_HEADER, required = false) String writeMode)
     {
+        if (writeBuffer.accepts(writeMode))
+        {
+            writeBuffer.deleteSemester(semesterId);
+            return;
+        }
+        writeBuffer.flushOwnerOf(semesterId);
         service.deleteSemester(semesterId);
     }
 
     @PatchMapping("/{semesterId}")
-    public void updateSemesterTitle(@PathVariable UUID semesterId, @RequestParam String title)
+    public void updateSemesterTitle(@PathVariable UUID semesterId, @RequestParam String title,
+            @RequestHeader(value = PlannerWriteBuffer.WRITE_MODE_HEADER, required = false) String writeMode)
     {
+        if (writeBuffer.accepts(writeMode))
+        {
+            writeBuffer.updateSemesterTitle(semesterId, title);
+            return;
+        }
+        writeBuffer.flushOwnerOf(semesterId);
         service.updateSemesterTitle(semesterId, title);
     }
 }
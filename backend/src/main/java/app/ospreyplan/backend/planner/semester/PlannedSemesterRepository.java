@@ -1,5 +1,6 @@
 package app.ospreyplan.backend.planner.semester;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,4 +20,12 @@ public interface PlannedSemesterRepository extends JpaRepository<PlannedSemester
     @Modifying
     @Query("DELETE FROM PlannedSemester s WHERE s.userId = :userId")
     void deleteSemestersByUserId(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM PlannedCourse c WHERE c.plannedSemester.id IN (SELECT s.id FROM PlannedSemester s WHERE s.userId IN :userIds)")
+    int deleteCoursesByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    @Modifying
+    @Query("DELETE FROM PlannedSemester s WHERE s.userId IN :userIds")
+    int deleteSemestersByUserIdIn(@Param("userIds") Collection<UUID> userIds);
 }
@@ -2,11 +2,16 @@ package app.ospreyplan.backend.planner.semester;
 
 import app.ospreyplan.backend.planner.course.PlannedCourse;
 import app.ospreyplan.backend.planner.course.PlannedCourseRepository;
+import app.ospreyplan.backend.planner.history.CourseState;
+import app.ospreyplan.backend.planner.history.PlanEventPayload;
+import app.ospreyplan.backend.planner.history.PlanEventType;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -14,11 +19,14 @@ public class PlannedSemesterService
 {
     private final PlannedSemesterRepository semesterRepository;
     private final PlannedCourseRepository courseRepository;
+    private final PlanHistoryService historyService;
 
-    public PlannedSemesterService(PlannedSemesterRepository semesterRepository, PlannedCourseRepository courseRepository)
+    public PlannedSemesterService(PlannedSemesterRepository semesterRepository, PlannedCourseRepository courseRepository,
+            PlanHistoryService historyService)
     {
         this.semesterRepository = semesterRepository;
         this.courseRepository = courseRepository;
+        this.historyService = historyService;
     }
 
     public List<PlannedSemester> getSemestersByUserId(UUID userId)
@@ -34,7 +42,11 @@ public class PlannedSemesterService
         semester.setTitle(title);
         semester.setPlannedCourses(new ArrayList<>());
 
-        return semesterRepository.save(semester);
+        PlannedSemester saved = semesterRepository.save(semester);
+        historyService.record(userId, PlanEventType.SEMESTER_CREATED,
+                PlanEventPayload.semester(saved.getId(), title, List.of()));
+
+        return saved;
     }
 
     @Transactional
@@ -59,7 +71,11 @@ public class PlannedSemesterService
 
         semester.getPlannedCourses().add(course);
 
-        return courseRepository.save(course);
+        PlannedCourse saved = courseRepository.save(course);
+        historyService.record(semester.getUserId(), PlanEventType.COURSE_ADDED,
+                PlanEventPayload.course(semesterId, CourseState.of(saved)));
+
+        return saved;
     }
 
     @Transactional
@@ -69,24 +85,62 @@ public class PlannedSemesterService
                 .orElseThrow(() -> new IllegalArgumentException("Semester not found: " + semesterId));
 
         List<PlannedCourse> courses = semester.getPlannedCourses();
-        boolean removed = courses.removeIf(course -> course.getId().equals(courseId));
+        PlannedCourse course = courses.stream()
+                .filter(c -> c.getId().equals(courseId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Course not found in semester: " + courseId));
+
+        courses.remove(course);
+        semesterRepository.save(semester);
+
+        historyService.record(semester.getUserId(), PlanEventType.COURSE_REMOVED,
+                PlanEventPayload.course(semesterId, CourseState.of(course)));
+    }
+
+    @Transactional
+    public void moveCourse(UUID semesterId, UUID courseId, UUID targetSemesterId)
+    {
+        PlannedSemester source = semesterRepository.findById(semesterId)
+                .orElseThrow(() -> new IllegalArgumentException("Semester not found: " + semesterId));
+        PlannedSemester target = semesterRepository.findById(targetSemesterId)
+                .orElseThrow(() -> new IllegalArgumentException("Semester not found: " + targetSemesterId));
 
-        if (!removed)
+        if (!Objects.equals(source.getUserId(), target.getUserId()))
         {
-            throw new IllegalArgumentException("Course not found in semester: " + courseId);
+            throw new IllegalArgumentException("Cannot move a course between different users' plans");
         }
 
-        semesterRepository.save(semester);
+        PlannedCourse course = source.getPlannedCourses().stream()
+                .filter(c -> c.getId().equals(courseId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Course not found in semester: " + courseId));
+
+        boolean exists = target.getPlannedCourses().stream()
+                .anyMatch(pc -> pc.getSubject().equals(course.getSubject()) && pc.getCourseNumber().equals(course.getCourseNumber()));
+
+        if (exists)
+        {
+            throw new IllegalArgumentException("Course " + course.getSubject() + " " + course.getCourseNumber() + " is already in this semester.");
+        }
+
+        // Re-parent with a direct update; removing from the source collection would trigger orphan removal
+        courseRepository.moveToSemester(courseId, targetSemesterId);
+
+        historyService.record(source.getUserId(), PlanEventType.COURSE_MOVED,
+                PlanEventPayload.move(semesterId, targetSemesterId, CourseState.of(course)));
     }
 
     @Transactional
     public void deleteSemester(UUID semesterId)
     {
-        if (!semesterRepository.existsById(semesterId))
-        {
-            throw new IllegalArgumentException("Semester not found: " + semesterId);
-        }
-        semesterRepository.deleteById(semesterId);
+        PlannedSemester semester = semesterRepository.findById(semesterId)
+                .orElseThrow(() -> new IllegalArgumentException("Semester not found: " + semesterId));
+
+        List<CourseState> courses = semester.getPlannedCourses().stream().map(CourseState::of).toList();
+        semesterRepository.delete(semester);
+
+        historyService.record(semester.getUserId(), PlanEventType.SEMESTER_DELETED,
+                PlanEventPayload.semester(semesterId, semester.getTitle(), courses));
     }
 
     @Transactional
@@ -95,7 +149,14 @@ public class PlannedSemesterService
         PlannedSemester semester = semesterRepository.findById(semesterId)
                 .orElseThrow(() -> new IllegalArgumentException("Semester not found: " + semesterId));
 
+        String previousTitle = semester.getTitle();
         semester.setTitle(title);
         semesterRepository.save(semester);
+
+        if (!Objects.equals(previousTitle, title))
+        {
+            historyService.record(semester.getUserId(), PlanEventType.SEMESTER_RENAMED,
+                    PlanEventPayload.rename(semesterId, previousTitle, title));
+        }
     }
 }
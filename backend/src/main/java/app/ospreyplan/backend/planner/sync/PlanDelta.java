@@ -0,0 +1,27 @@
+package app.ospreyplan.backend.planner.sync;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Changes to a user's plan since the version a client last saw.
+ *
+ * @param version            the plan version this delta brings the client up to; send it back as {@code since} next
+ * @param reset              true when the client's version could not be used and the delta contains the whole plan,
+ *                           in which case local state should be replaced rather than patched
+ * @param semesters          semesters created or renamed since the client's version (without their courses)
+ * @param courses            courses added or moved since the client's version
+ * @param deletedSemesterIds semesters deleted since the client's version; their courses are implicitly deleted
+ * @param deletedCourseIds   courses removed since the client's version
+ */
+public record PlanDelta(long version, boolean reset, List<SemesterChange> semesters, List<CourseChange> courses,
+        List<UUID> deletedSemesterIds, List<UUID> deletedCourseIds)
+{
+    public record SemesterChange(UUID id, String title)
+    {
+    }
+
+    public record CourseChange(UUID id, UUID semesterId, String subject, Integer courseNumber, Integer credits)
+    {
+    }
+}
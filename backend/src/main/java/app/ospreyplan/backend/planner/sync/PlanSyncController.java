@@ -0,0 +1,31 @@
+package app.ospreyplan.backend.planner.sync;
+
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/semesters")
+public class PlanSyncController
+{
+    private final PlanSyncService service;
+    private final PlannerWriteBuffer writeBuffer;
+
+    public PlanSyncController(PlanSyncService service, PlannerWriteBuffer writeBuffer)
+    {
+        this.service = service;
+        this.writeBuffer = writeBuffer;
+    }
+
+    /**
+     * Returns the semesters and courses that changed after plan version {@code since}. Clients without a version
+     * send 0 and receive the full plan.
+     */
+    @GetMapping("/user/{userId}/sync")
+    public PlanDelta sync(@PathVariable UUID userId, @RequestParam(defaultValue = "0") long since)
+    {
+        writeBuffer.flush(userId);
+        return service.getChangesSince(userId, since);
+    }
+}
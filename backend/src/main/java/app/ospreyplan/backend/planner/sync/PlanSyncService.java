@@ -0,0 +1,184 @@
+package app.ospreyplan.backend.planner.sync;
+
+import app.ospreyplan.backend.planner.sync.PlanDelta.CourseChange;
+import app.ospreyplan.backend.planner.sync.PlanDelta.SemesterChange;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Computes plan deltas from the per-user change sequence maintained by database triggers (see
+ * {@code V2__plan_sync.sql}). Each planned semester and course row carries the sequence value of its last change,
+ * and deletions leave tombstones, so a delta is three indexed range scans regardless of how large the plan is.
+ *
+ * Tombstones are pruned once they are older than the retention period. A client whose version predates the newest
+ * pruned tombstone of its user could miss that deletion, so it gets a full resync instead of a delta.
+ *
+ * Configuration properties (all under `plan-sync.`):
+ * - `tombstone-retention-days` – how long tombstones are kept (default 30)
+ * - `prune-interval-ms` – delay between pruning runs (default 3600000)
+ * - `prune-batch-size` – tombstones deleted per statement (default 1000)
+ */
+@Service
+public class PlanSyncService
+{
+    private static final Logger logger = LoggerFactory.getLogger(PlanSyncService.class);
+
+    private static final String PRUNE_SQL = """
+            WITH pruned AS (
+                DELETE FROM plan_tombstones
+                WHERE (user_id, seq) IN (SELECT user_id, seq FROM plan_tombstones
+                                         WHERE created_at < now() - make_interval(days => ?)
+                                         LIMIT ?)
+                RETURNING user_id, seq
+            ), horizon AS (
+                SELECT user_id, MAX(seq) AS seq FROM pruned GROUP BY user_id
+            ), raised AS (
+                UPDATE plan_versions v SET pruned_seq = GREATEST(v.pruned_seq, h.seq)
+                FROM horizon h
+                WHERE v.user_id = h.user_id
+            )
+            SELECT COUNT(*) FROM pruned
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final int retentionDays;
+    private final int pruneBatchSize;
+
+    public PlanSyncService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${plan-sync.tombstone-retention-days:30}") int retentionDays,
+            @Value("${plan-sync.prune-batch-size:1000}") int pruneBatchSize)
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.pruneBatchSize = pruneBatchSize;
+
+        // Version, rows and tombstones must come from one snapshot or a concurrent write could be skipped
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    public PlanDelta getChangesSince(UUID userId, long since)
+    {
+        return snapshotTransaction.execute(status -> {
+            long[] versions = jdbcTemplate.query("SELECT seq, pruned_seq FROM plan_versions WHERE user_id = ?",
+                    rs -> rs.next() ? new long[] { rs.getLong("seq"), rs.getLong("pruned_seq") } : new long[] { 0, 0 },
+                    userId);
+            long version = versions[0];
+            long prunedSeq = versions[1];
+
+            // A version from the future (e.g. after the plan was wiped), no version at all, or one older than the
+            // tombstones still kept means a full resync
+            boolean reset = since <= 0 || since > version || since < prunedSeq;
+            if (!reset && since == version)
+            {
+                return new PlanDelta(version, false, List.of(), List.of(), List.of(), List.of());
+            }
+
+            // Rows written before the sequence existed carry change_seq = 0, so a reset starts below that
+            long after = reset ? -1 : since;
+
+            List<SemesterChange> semesters = jdbcTemplate.query("""
+                    SELECT id, title FROM planned_semesters
+                    WHERE user_id = ? AND change_seq > ?
+                    ORDER BY created_at
+                    """, (rs, i) -> new SemesterChange(rs.getObject("id", UUID.class), rs.getString("title")),
+                    userId, after);
+
+            List<CourseChange> courses = jdbcTemplate.query("""
+                    SELECT c.id, c.semester_id, c.subject, c.course_number, c.credits
+                    FROM planned_courses c
+                    JOIN planned_semesters s ON s.id = c.semester_id
+                    WHERE s.user_id = ? AND c.change_seq > ?
+                    ORDER BY c.created_at
+                    """, (rs, i) -> new CourseChange(rs.getObject("id", UUID.class), rs.getObject("semester_id", UUID.class),
+                            rs.getString("subject"), rs.getObject("course_number", Integer.class),
+                            rs.getObject("credits", Integer.class)),
+                    userId, after);
+
+            List<UUID> deletedSemesterIds = new ArrayList<>();
+            List<UUID> deletedCourseIds = new ArrayList<>();
+            if (!reset)
+            {
+                jdbcTemplate.query("SELECT entity_type, entity_id FROM plan_tombstones WHERE user_id = ? AND seq > ?",
+                        rs -> {
+                            UUID id = rs.getObject("entity_id", UUID.class);
+                            if ("SEMESTER".equals(rs.getString("entity_type")))
+                            {
+                                deletedSemesterIds.add(id);
+                            }
+                            else
+                            {
+                                deletedCourseIds.add(id);
+                            }
+                        }, userId, since);
+            }
+
+            return new PlanDelta(version, reset, semesters, courses, deletedSemesterIds, deletedCourseIds);
+        });
+    }
+
+    /**
+     * Deletes tombstones older than the retention period and raises each affected user's resync horizon in the same
+     * statement, so a delta never sees the one without the other.
+     */
+    @Scheduled(fixedDelayString = "${plan-sync.prune-interval-ms:3600000}", initialDelayString = "${plan-sync.prune-initial-delay-ms:60000}")
+    public void pruneTombstones()
+    {
+        try
+        {
+            long total = 0;
+            long pruned;
+            do
+            {
+                pruned = jdbcTemplate.queryForObject(PRUNE_SQL, Long.class, retentionDays, pruneBatchSize);
+                total += pruned;
+            }
+            while (pruned >= pruneBatchSize);
+
+            if (total > 0)
+            {
+                logger.info("Pruned {} plan tombstones older than {} days", total, retentionDays);
+            }
+        }
+        catch (Exception e)
+        {
+            logger.warn("Could not prune plan tombstones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the user's sequence and tombstones. Must run after the user's planner rows have been deleted, since
+     * those deletions add tombstones of their own.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleteSyncState(UUID userId)
+    {
+        jdbcTemplate.update("DELETE FROM plan_tombstones WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM plan_versions WHERE user_id = ?", userId);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleteSyncState(Collection<UUID> userIds)
+    {
+        Object[] ids = userIds.toArray();
+        jdbcTemplate.update("DELETE FROM plan_tombstones WHERE user_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)));
+        jdbcTemplate.update("DELETE FROM plan_versions WHERE user_id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)));
+    }
+}
@@ -0,0 +1,52 @@
+package app.ospreyplan.backend.planner.template;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * A recommended roadmap for a degree. Its semesters and courses live in {@code plan_template_semesters} and
+ * {@code plan_template_courses} and are only ever read set-wise by {@link PlanTemplateService}.
+ */
+@Entity
+@Table(name = "plan_templates")
+public class PlanTemplate
+{
+    @Id
+    private UUID id;
+
+    @Column(name = "degree_code")
+    private String degreeCode;
+
+    private String name;
+
+    public UUID getId()
+    {
+        return id;
+    }
+
+    public void setId(UUID id)
+    {
+        this.id = id;
+    }
+
+    public String getDegreeCode()
+    {
+        return degreeCode;
+    }
+
+    public void setDegreeCode(String degreeCode)
+    {
+        this.degreeCode = degreeCode;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+}
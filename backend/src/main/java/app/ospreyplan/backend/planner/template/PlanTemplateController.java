@@ -0,0 +1,63 @@
+package app.ospreyplan.backend.planner.template;
+
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import app.ospreyplan.backend.planner.semester.PlannedSemester;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterService;
+import app.ospreyplan.backend.usersettings.UserSettings;
+import app.ospreyplan.backend.usersettings.UserSettingsRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Year;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/templates")
+public class PlanTemplateController
+{
+    private final PlanTemplateService service;
+    private final PlannedSemesterService semesterService;
+    private final UserSettingsRepository settingsRepository;
+    private final PlannerWriteBuffer writeBuffer;
+
+    public PlanTemplateController(PlanTemplateService service, PlannedSemesterService semesterService,
+            UserSettingsRepository settingsRepository, PlannerWriteBuffer writeBuffer)
+    {
+        this.service = service;
+        this.semesterService = semesterService;
+        this.settingsRepository = settingsRepository;
+        this.writeBuffer = writeBuffer;
+    }
+
+    @GetMapping
+    public List<PlanTemplate> getTemplates(@RequestParam String degreeCode)
+    {
+        return service.getTemplatesForDegree(degreeCode);
+    }
+
+    /**
+     * Fills an empty plan from a template. {@code startYear} defaults to the user's saved start year.
+     */
+    @PostMapping("/{templateId}/instantiate")
+    public ResponseEntity<List<PlannedSemester>> instantiate(@PathVariable UUID templateId, @RequestParam UUID userId,
+            @RequestParam(required = false) Integer startYear)
+    {
+        if (!service.exists(templateId))
+        {
+            return ResponseEntity.notFound().build();
+        }
+
+        writeBuffer.flush(userId);
+        int year = startYear != null ? startYear : settingsRepository.findById(userId)
+                .map(UserSettings::getStartYear)
+                .orElse(Year.now().getValue());
+
+        if (!service.instantiate(templateId, userId, year))
+        {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(semesterService.getSemestersByUserId(userId));
+    }
+}
@@ -0,0 +1,11 @@
+package app.ospreyplan.backend.planner.template;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PlanTemplateRepository extends JpaRepository<PlanTemplate, UUID>
+{
+    List<PlanTemplate> findByDegreeCodeOrderByNameAsc(String degreeCode);
+}
@@ -0,0 +1,220 @@
+package app.ospreyplan.backend.planner.template;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import app.ospreyplan.backend.planner.history.CourseState;
+import app.ospreyplan.backend.planner.history.PlanEventPayload;
+import app.ospreyplan.backend.planner.history.PlanEventType;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Copies a stored roadmap into users' plans with one set-based INSERT ... SELECT per table, however many semesters
+ * and courses the template has. Instantiating for several users at once sends each statement as a single JDBC batch.
+ *
+ * Semester IDs are derived in the database from a per-instantiation key and the template semester ID, which lets the
+ * course statement find its target semesters without reading back the IDs the first statement generated.
+ */
+@Service
+public class PlanTemplateService
+{
+    // Staggered created_at keeps the template's semester order, as it does for courses below
+    private static final String INSERT_SEMESTERS = """
+            INSERT INTO planned_semesters (id, user_id, title, created_at)
+            SELECT md5(?::text || ts.id::text)::uuid, ?, ts.term || ' ' || (? + ts.year_offset),
+                   now() + make_interval(secs => ts.position * 0.001)
+            FROM plan_template_semesters ts
+            WHERE ts.template_id = ?
+            """;
+
+    // Staggered created_at keeps the template's course order, which the planner uses when listing courses
+    private static final String INSERT_COURSES = """
+            INSERT INTO planned_courses (id, semester_id, subject, course_number, credits, created_at)
+            SELECT gen_random_uuid(), md5(?::text || ts.id::text)::uuid, tc.subject, tc.course_number, tc.credits,
+                   now() + make_interval(secs => ts.position * 0.001 + tc.position * 0.000001)
+            FROM plan_template_semesters ts
+            JOIN plan_template_courses tc ON tc.template_semester_id = ts.id
+            WHERE ts.template_id = ?
+            """;
+
+    // Bumping the plan version takes the same row lock as the stamp trigger on every plan write, so nothing else can
+    // add to these plans until this transaction ends. Locked in user order so overlapping batches cannot deadlock
+    private static final String LOCK_PLANS = """
+            SELECT public.next_plan_seq(t.user_id)
+            FROM (SELECT DISTINCT user_id FROM unnest(?) AS u(user_id) ORDER BY user_id) t
+            """;
+
+    private static final String SELECT_NON_EMPTY = """
+            SELECT DISTINCT user_id FROM planned_semesters WHERE user_id = ANY(?)
+            """;
+
+    // The plans were empty before this transaction, so created_at orders semesters and courses by template position
+    private static final String SELECT_CREATED = """
+            SELECT s.user_id, s.id AS semester_id, s.title, c.id AS course_id, c.subject, c.course_number, c.credits
+            FROM planned_semesters s
+            LEFT JOIN planned_courses c ON c.semester_id = s.id
+            WHERE s.user_id = ANY(?)
+            ORDER BY s.user_id, s.created_at, s.id, c.created_at
+            """;
+
+    /**
+     * A user to instantiate a template for, and the year their first template semester falls in.
+     */
+    public record Target(UUID userId, int startYear)
+    {
+    }
+
+    private final PlanTemplateRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlanHistoryService historyService;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+
+    public PlanTemplateService(PlanTemplateRepository repository, JdbcTemplate jdbcTemplate,
+            PlanHistoryService historyService, ObjectProvider<ReplicaRouter> replicaRouter)
+    {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyService = historyService;
+        this.replicaRouter = replicaRouter;
+    }
+
+    public List<PlanTemplate> getTemplatesForDegree(String degreeCode)
+    {
+        return repository.findByDegreeCodeOrderByNameAsc(degreeCode);
+    }
+
+    public boolean exists(UUID templateId)
+    {
+        return repository.existsById(templateId);
+    }
+
+    /**
+     * Instantiates a template into a user's plan if it is empty, and records the new semesters in the plan history so
+     * the result can be undone like any other edit.
+     *
+     * @return false, leaving the plan untouched, when the user already has semesters
+     */
+    @Transactional
+    public boolean instantiate(UUID templateId, UUID userId, int startYear)
+    {
+        return !instantiateIntoEmptyPlans(templateId, List.of(new Target(userId, startYear))).isEmpty();
+    }
+
+    /**
+     * Instantiates a template for many users with one round trip per statement, skipping users whose plans are not
+     * empty. The new semesters are recorded in each user's plan history, as for a single user.
+     *
+     * @return the users whose plans were filled
+     */
+    @Transactional
+    public List<UUID> instantiate(UUID templateId, List<Target> targets)
+    {
+        return instantiateIntoEmptyPlans(templateId, targets);
+    }
+
+    private List<UUID> instantiateIntoEmptyPlans(UUID templateId, List<Target> requested)
+    {
+        // One target per user; a second one would copy the template into the same plan twice
+        Map<UUID, Target> byUser = new LinkedHashMap<>();
+        requested.forEach(target -> byUser.putIfAbsent(target.userId(), target));
+        if (byUser.isEmpty())
+        {
+            return List.of();
+        }
+
+        UUID[] userIds = byUser.keySet().toArray(UUID[]::new);
+        jdbcTemplate.query(LOCK_PLANS, ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds)),
+                rs -> {});
+        List<UUID> nonEmpty = jdbcTemplate.query(SELECT_NON_EMPTY,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds)),
+                (rs, rowNum) -> rs.getObject("user_id", UUID.class));
+        nonEmpty.forEach(byUser::remove);
+
+        List<Target> targets = List.copyOf(byUser.values());
+        if (targets.isEmpty())
+        {
+            return List.of();
+        }
+
+        insert(templateId, targets);
+        recordCreated(byUser.keySet());
+        // The targets are usually not the signed-in user, so their next reads are pinned to the primary here
+        replicaRouter.ifAvailable(router -> byUser.keySet().forEach(router::recordWrite));
+        return List.copyOf(byUser.keySet());
+    }
+
+    private void insert(UUID templateId, List<Target> targets)
+    {
+        List<UUID> keys = targets.stream().map(t -> UUID.randomUUID()).toList();
+
+        jdbcTemplate.batchUpdate(INSERT_SEMESTERS, new BatchPreparedStatementSetter()
+        {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException
+            {
+                ps.setObject(1, keys.get(i));
+                ps.setObject(2, targets.get(i).userId());
+                ps.setInt(3, targets.get(i).startYear());
+                ps.setObject(4, templateId);
+            }
+
+            @Override
+            public int getBatchSize()
+            {
+                return targets.size();
+            }
+        });
+
+        jdbcTemplate.batchUpdate(INSERT_COURSES, new BatchPreparedStatementSetter()
+        {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException
+            {
+                ps.setObject(1, keys.get(i));
+                ps.setObject(2, templateId);
+            }
+
+            @Override
+            public int getBatchSize()
+            {
+                return targets.size();
+            }
+        });
+    }
+
+    private void recordCreated(Collection<UUID> userIds)
+    {
+        Map<UUID, Map<UUID, String>> titles = new LinkedHashMap<>();
+        Map<UUID, List<CourseState>> courses = new LinkedHashMap<>();
+        UUID[] ids = userIds.toArray(UUID[]::new);
+        jdbcTemplate.query(SELECT_CREATED, ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids)), rs ->
+        {
+            UUID semesterId = rs.getObject("semester_id", UUID.class);
+            titles.computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new LinkedHashMap<>())
+                    .put(semesterId, rs.getString("title"));
+            List<CourseState> semesterCourses = courses.computeIfAbsent(semesterId, id -> new ArrayList<>());
+            UUID courseId = rs.getObject("course_id", UUID.class);
+            if (courseId != null)
+            {
+                semesterCourses.add(new CourseState(courseId, rs.getString("subject"),
+                        rs.getInt("course_number"), rs.getInt("credits")));
+            }
+        });
+
+        titles.forEach((userId, semesters) -> semesters.forEach((semesterId, title) ->
+                historyService.record(userId, PlanEventType.SEMESTER_CREATED,
+                        PlanEventPayload.semester(semesterId, title, courses.get(semesterId)))));
+    }
+}
@@ -0,0 +1,40 @@
+package app.ospreyplan.backend.planner.transfer;
+
+import java.util.Locale;
+
+public enum PlanExportFormat
+{
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    PlanExportFormat(String contentType, String extension)
+    {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType()
+    {
+        return contentType;
+    }
+
+    public String getExtension()
+    {
+        return extension;
+    }
+
+    public static PlanExportFormat parse(String value)
+    {
+        try
+        {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package app.ospreyplan.backend.planner.transfer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * One line of a plan export: a planned course together with its semester and owner. Semesters without courses are
+ * exported as a single row with the course fields left empty.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PlanRow(UUID userId, UUID semesterId, String semesterTitle, UUID courseId, String subject,
+        Integer courseNumber, Integer credits)
+{
+    static final String CSV_HEADER = "user_id,semester_id,semester_title,course_id,subject,course_number,credits";
+
+    String toCsv()
+    {
+        return String.join(",", csv(userId), csv(semesterId), csv(semesterTitle), csv(courseId), csv(subject),
+                csv(courseNumber), csv(credits));
+    }
+
+    private static String csv(Object value)
+    {
+        if (value == null)
+        {
+            return "";
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+        {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,111 @@
+package app.ospreyplan.backend.planner.transfer;
+
+import app.ospreyplan.backend.planner.transfer.PlanTransferService.ImportResult;
+import app.ospreyplan.backend.planner.transfer.PlanTransferService.Scope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Plan export and import. Exports of a single user's plan are open to any signed-in user, like the rest of the
+ * planner API; cohort and full exports and imports also require the {@value #TRANSFER_KEY_HEADER} header to match
+ * `planner.transfer.api-key`, and are disabled while that property is empty.
+ */
+@RestController
+@RequestMapping("/api/transfer")
+public class PlanTransferController
+{
+    public static final String TRANSFER_KEY_HEADER = "X-Transfer-Key";
+
+    private final PlanTransferService service;
+    private final String apiKey;
+
+    public PlanTransferController(PlanTransferService service, @Value("${planner.transfer.api-key:}") String apiKey)
+    {
+        this.service = service;
+        this.apiKey = apiKey;
+    }
+
+    @GetMapping("/export/user/{userId}")
+    public ResponseEntity<StreamingResponseBody> exportUser(@PathVariable UUID userId,
+            @RequestParam(defaultValue = "ndjson") String format)
+    {
+        return stream(Scope.USER, userId, PlanExportFormat.parse(format), "plan-" + userId);
+    }
+
+    @GetMapping("/export/degree/{degree}")
+    public ResponseEntity<StreamingResponseBody> exportDegree(@PathVariable String degree,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = TRANSFER_KEY_HEADER, required = false) String key)
+    {
+        if (!authorized(key))
+        {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return stream(Scope.DEGREE, degree, PlanExportFormat.parse(format), "plans-" + degree.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    @GetMapping("/export/all")
+    public ResponseEntity<StreamingResponseBody> exportAll(@RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = TRANSFER_KEY_HEADER, required = false) String key)
+    {
+        if (!authorized(key))
+        {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return stream(Scope.ALL, null, PlanExportFormat.parse(format), "plans");
+    }
+
+    @PostMapping(value = "/import", consumes = { "application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE })
+    public ResponseEntity<?> importPlans(InputStream body,
+            @RequestHeader(value = TRANSFER_KEY_HEADER, required = false) String key)
+    {
+        if (!authorized(key))
+        {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try
+        {
+            ImportResult result = service.importPlans(body);
+            return ResponseEntity.ok(result);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        catch (DataIntegrityViolationException e)
+        {
+            // e.g. a course whose semester is neither in the file nor in the database
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Import rejected by the database: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Scope scope, Object scopeValue, PlanExportFormat format,
+            String filename)
+    {
+        StreamingResponseBody body = out -> service.export(scope, scopeValue, format, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, format.getContentType() + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    private boolean authorized(String key)
+    {
+        return !apiKey.isBlank() && key != null
+                && MessageDigest.isEqual(apiKey.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,339 @@
+package app.ospreyplan.backend.planner.transfer;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bulk export and import of planner data without going through JPA.
+ *
+ * Exports run one query over {@code planned_semesters} joined with {@code planned_courses} inside a read-only
+ * transaction, so the PostgreSQL driver reads the result through a server-side cursor {@code fetch-size} rows at a
+ * time, and each row is written to the output stream as soon as it is read. Imports read NDJSON line by line and
+ * insert in JDBC batches. Neither direction holds more than one fetch or batch in memory. Buffered planner writes
+ * (see {@link PlannerWriteBuffer}) are flushed before an export starts, so it includes every acknowledged edit.
+ *
+ * Configuration properties:
+ * - `planner.export.fetch-size` – rows fetched per cursor round trip (default 1000)
+ * - `planner.import.batch-size` – rows per JDBC insert batch (default 500)
+ */
+@Service
+public class PlanTransferService
+{
+    private static final String EXPORT_QUERY = """
+            SELECT s.user_id, s.id AS semester_id, s.title, c.id AS course_id, c.subject, c.course_number, c.credits
+            FROM planned_semesters s
+            LEFT JOIN planned_courses c ON c.semester_id = s.id
+            WHERE %s
+            ORDER BY s.user_id, s.created_at, s.id, c.created_at
+            """;
+
+    private static final String INSERT_SEMESTER = """
+            INSERT INTO planned_semesters (id, user_id, title) VALUES (?, ?, ?)
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    // An imported semester ID that already exists must belong to the same user, or its courses would be attached to
+    // someone else's plan
+    private static final String FIND_FOREIGN_SEMESTER = """
+            SELECT s.id FROM planned_semesters s
+            JOIN unnest(?::uuid[], ?::uuid[]) AS r(id, user_id) ON r.id = s.id
+            WHERE s.user_id <> r.user_id
+            LIMIT 1
+            """;
+
+    private static final String INSERT_COURSE = """
+            INSERT INTO planned_courses (id, semester_id, subject, course_number, credits, created_at)
+            VALUES (?, ?, ?, ?, ?, now() + make_interval(secs => ? * 0.000001))
+            ON CONFLICT (id) DO NOTHING
+            """;
+
+    /**
+     * Which users' plans an export covers.
+     */
+    public enum Scope
+    {
+        USER("s.user_id = ?"),
+        DEGREE("s.user_id IN (SELECT u.id FROM users u WHERE u.degree = ?)"),
+        ALL("TRUE");
+
+        private final String predicate;
+
+        Scope(String predicate)
+        {
+            this.predicate = predicate;
+        }
+    }
+
+    /**
+     * Row counts written by an import. Rows whose IDs already existed are skipped rather than overwritten.
+     */
+    public record ImportResult(int semesters, int courses)
+    {
+    }
+
+    private final JdbcTemplate cursorTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlannerWriteBuffer writeBuffer;
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public PlanTransferService(DataSource dataSource, JdbcTemplate jdbcTemplate, PlannerWriteBuffer writeBuffer,
+            ObjectProvider<ReplicaRouter> replicaRouter, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${planner.export.fetch-size:1000}") int fetchSize,
+            @Value("${planner.import.batch-size:500}") int batchSize)
+    {
+        // The driver only uses a cursor when a fetch size is set and auto-commit is off (i.e. inside a transaction)
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeBuffer = writeBuffer;
+        this.replicaRouter = replicaRouter;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(PlanRow.class);
+        this.batchSize = batchSize;
+    }
+
+    public void export(Scope scope, Object scopeValue, PlanExportFormat format, OutputStream out) throws IOException
+    {
+        if (scope == Scope.USER)
+        {
+            writeBuffer.flush((UUID) scopeValue);
+        }
+        else
+        {
+            writeBuffer.flushAll();
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == PlanExportFormat.CSV)
+        {
+            writer.write(PlanRow.CSV_HEADER);
+            writer.write('\n');
+        }
+
+        Object[] args = scope == Scope.ALL ? new Object[0] : new Object[] { scopeValue };
+
+        try
+        {
+            readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(
+                    EXPORT_QUERY.formatted(scope.predicate), rs ->
+                    {
+                        PlanRow row = new PlanRow(rs.getObject("user_id", UUID.class),
+                                rs.getObject("semester_id", UUID.class), rs.getString("title"),
+                                rs.getObject("course_id", UUID.class), rs.getString("subject"),
+                                rs.getObject("course_number", Integer.class), rs.getObject("credits", Integer.class));
+                        try
+                        {
+                            writer.write(format == PlanExportFormat.CSV ? row.toCsv() : rowWriter.writeValueAsString(row));
+                            writer.write('\n');
+                        }
+                        catch (IOException e)
+                        {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, args));
+        }
+        catch (UncheckedIOException e)
+        {
+            // Usually the client went away; rethrowing ends the cursor transaction along with the response
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Imports NDJSON in the export format in one transaction. Rows are inserted with their exported IDs, so importing
+     * the same file twice is harmless; rows without a course ID only create their semester. Plan history is not
+     * recorded for imported rows.
+     *
+     * @throws IllegalArgumentException for a malformed row, or a semester ID that belongs to a different user; nothing
+     *         is imported in either case
+     */
+    public ImportResult importPlans(InputStream in)
+    {
+        return transactionTemplate.execute(status ->
+        {
+            // Semesters of the current batch only; one seen again in a later batch is submitted (and checked) again
+            Map<UUID, UUID> batchSemesterOwners = new HashMap<>();
+            List<PlanRow> semesterBatch = new ArrayList<>(batchSize);
+            List<PlanRow> courseBatch = new ArrayList<>(batchSize);
+            int semesters = 0;
+            int courses = 0;
+            int submittedCourses = 0;
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))
+            {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null)
+                {
+                    lineNumber++;
+                    if (line.isBlank())
+                    {
+                        continue;
+                    }
+
+                    PlanRow row = parse(line, lineNumber);
+                    UUID owner = batchSemesterOwners.putIfAbsent(row.semesterId(), row.userId());
+                    if (owner == null)
+                    {
+                        semesterBatch.add(row);
+                    }
+                    else if (!owner.equals(row.userId()))
+                    {
+                        throw new IllegalArgumentException("Plan row on line " + lineNumber + " puts semester "
+                                + row.semesterId() + " under a second user");
+                    }
+                    if (row.courseId() != null)
+                    {
+                        courseBatch.add(row);
+                    }
+
+                    if (courseBatch.size() >= batchSize || semesterBatch.size() >= batchSize)
+                    {
+                        // Semesters first so the courses' foreign keys resolve
+                        int batchCourses = courseBatch.size();
+                        batchSemesterOwners.clear();
+                        semesters += insertSemesters(semesterBatch);
+                        courses += insertCourses(courseBatch, submittedCourses);
+                        submittedCourses += batchCourses;
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+
+            semesters += insertSemesters(semesterBatch);
+            courses += insertCourses(courseBatch, submittedCourses);
+            return new ImportResult(semesters, courses);
+        });
+    }
+
+    private PlanRow parse(String line, int lineNumber)
+    {
+        PlanRow row;
+        try
+        {
+            row = objectMapper.readValue(line, PlanRow.class);
+        }
+        catch (JsonProcessingException e)
+        {
+            throw new IllegalArgumentException("Invalid plan row on line " + lineNumber + ": " + e.getOriginalMessage());
+        }
+
+        if (row.userId() == null || row.semesterId() == null)
+        {
+            throw new IllegalArgumentException("Plan row on line " + lineNumber + " is missing userId or semesterId");
+        }
+        if (row.courseId() != null && (row.subject() == null || row.courseNumber() == null))
+        {
+            throw new IllegalArgumentException("Plan row on line " + lineNumber + " is missing subject or courseNumber");
+        }
+        return row;
+    }
+
+    private int insertSemesters(List<PlanRow> rows)
+    {
+        if (rows.isEmpty())
+        {
+            return 0;
+        }
+
+        Object[] semesterIds = rows.stream().map(PlanRow::semesterId).toArray();
+        Object[] userIds = rows.stream().map(PlanRow::userId).toArray();
+        List<UUID> foreign = jdbcTemplate.query(FIND_FOREIGN_SEMESTER, ps ->
+        {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", semesterIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", userIds));
+        }, (rs, i) -> rs.getObject(1, UUID.class));
+        if (!foreign.isEmpty())
+        {
+            throw new IllegalArgumentException("Semester " + foreign.get(0) + " belongs to a different user");
+        }
+        // Imported plans belong to other users than the caller, so their owners' reads are pinned to the primary here
+        replicaRouter.ifAvailable(router -> rows.stream().map(PlanRow::userId).distinct().forEach(router::recordWrite));
+
+        int inserted = countInserted(jdbcTemplate.batchUpdate(INSERT_SEMESTER, rows, rows.size(), (ps, row) ->
+        {
+            ps.setObject(1, row.semesterId());
+            ps.setObject(2, row.userId());
+            ps.setString(3, row.semesterTitle());
+        }));
+        rows.clear();
+        return inserted;
+    }
+
+    private int insertCourses(List<PlanRow> rows, int offset)
+    {
+        if (rows.isEmpty())
+        {
+            return 0;
+        }
+
+        // Offsetting created_at keeps the file's course order, which the planner lists courses by
+        int[] position = { offset };
+        int inserted = countInserted(jdbcTemplate.batchUpdate(INSERT_COURSE, rows, rows.size(), (ps, row) ->
+        {
+            ps.setObject(1, row.courseId());
+            ps.setObject(2, row.semesterId());
+            ps.setString(3, row.subject());
+            ps.setObject(4, row.courseNumber());
+            ps.setObject(5, row.credits());
+            ps.setInt(6, position[0]++);
+        }));
+        rows.clear();
+        return inserted;
+    }
+
+    private static int countInserted(int[][] counts)
+    {
+        int total = 0;
+        for (int[] batch : counts)
+        {
+            for (int count : batch)
+            {
+                total += Math.max(count, 0);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,39 @@
+package app.ospreyplan.backend.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The signed-in user, taken from the access token once per request by {@link SupabaseAuthFilter} and stored as the
+ * principal of the request's {@code Authentication}. Controllers receive it with {@code @AuthenticationPrincipal};
+ * nothing downstream should read or parse the token cookie again.
+ *
+ * {@code userMetadata} is the token's {@code user_metadata} claim (name, avatar, ...) and is empty for demo users.
+ */
+public record AuthenticatedUser(UUID userId, String email, boolean demo, Map<String, Object> userMetadata)
+{
+    public AuthenticatedUser
+    {
+        // Claims may hold JSON nulls, which Map.copyOf rejects
+        userMetadata = userMetadata == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(userMetadata));
+    }
+
+    /**
+     * Returns the user authenticated for the current request, if any.
+     */
+    public static Optional<AuthenticatedUser> current()
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user)
+        {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+}
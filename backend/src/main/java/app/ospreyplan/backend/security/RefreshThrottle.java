@@ -0,0 +1,84 @@
+package app.ospreyplan.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Per-client token bucket for refresh-token exchanges, keyed by client address. Behind the platform router that
+ * address is only the client's when `server.forward-headers-strategy` resolves X-Forwarded-For; otherwise every client
+ * shares the router's bucket. Only exchanges that would actually reach the auth provider are counted; refreshes
+ * answered by an in-flight or recent exchange are free.
+ *
+ * Configuration properties:
+ * - `supabase.auth.refresh-per-client-per-minute` – sustained exchanges per client (default 10; the bucket holds as
+ *   many, so a client can also burst that far)
+ */
+@Component
+public class RefreshThrottle
+{
+    private final Cache<String, Bucket> buckets;
+    private final int perMinute;
+    private final Counter throttledCounter;
+
+    public RefreshThrottle(MeterRegistry meterRegistry,
+            @Value("${supabase.auth.refresh-per-client-per-minute:10}") int perMinute)
+    {
+        this.perMinute = perMinute;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(2))
+                .maximumSize(100_000)
+                .build();
+        this.throttledCounter = Counter.builder("auth.refresh.throttled")
+                .description("Refresh-token exchanges refused by the per-client throttle")
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire(String clientKey)
+    {
+        if (clientKey == null || perMinute <= 0)
+        {
+            return true;
+        }
+
+        boolean acquired = buckets.get(clientKey, key -> new Bucket(perMinute)).tryTake(System.nanoTime());
+        if (!acquired)
+        {
+            throttledCounter.increment();
+        }
+        return acquired;
+    }
+
+    private static final class Bucket
+    {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int perMinute)
+        {
+            this.capacity = perMinute;
+            this.tokensPerNano = perMinute / (double) Duration.ofMinutes(1).toNanos();
+            this.tokens = perMinute;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized boolean tryTake(long now)
+        {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens < 1)
+            {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
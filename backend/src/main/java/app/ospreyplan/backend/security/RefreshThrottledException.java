@@ -0,0 +1,15 @@
+package app.ospreyplan.backend.security;
+
+import app.ospreyplan.backend.supabase.AuthProviderUnavailableException;
+
+/**
+ * A refresh-token exchange was refused by {@link RefreshThrottle}. The session itself may be fine, so this is
+ * answered like an unavailable provider (503 with Retry-After) rather than 401, which would sign the user out.
+ */
+public class RefreshThrottledException extends AuthProviderUnavailableException
+{
+    public RefreshThrottledException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package app.ospreyplan.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Short-lived memory of tokens (access or refresh) that were definitively rejected, so a client that keeps sending
+ * a bad token is turned away with a hash lookup instead of another signature check or call to the auth provider.
+ * Only SHA-256 fingerprints are stored. Failures caused by the provider being unreachable are never recorded here.
+ *
+ * Configuration properties:
+ * - `supabase.auth.negative-cache-seconds` – how long a rejection is remembered (default 60)
+ * - `supabase.auth.negative-cache-size` – fingerprints kept (default 50000)
+ */
+@Component
+public class RejectedTokenCache
+{
+    private final Cache<String, Boolean> rejected;
+    private final Counter hitCounter;
+
+    public RejectedTokenCache(MeterRegistry meterRegistry,
+            @Value("${supabase.auth.negative-cache-seconds:60}") long ttlSeconds,
+            @Value("${supabase.auth.negative-cache-size:50000}") long maxSize)
+    {
+        this.rejected = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+        this.hitCounter = Counter.builder("auth.tokens.rejected.cached")
+                .description("Requests turned away because their token was recently rejected")
+                .register(meterRegistry);
+    }
+
+    public boolean isRejected(String token)
+    {
+        if (rejected.getIfPresent(fingerprint(token)) == null)
+        {
+            return false;
+        }
+        hitCounter.increment();
+        return true;
+    }
+
+    public void reject(String token)
+    {
+        rejected.put(fingerprint(token), Boolean.TRUE);
+    }
+
+    static String fingerprint(String token)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
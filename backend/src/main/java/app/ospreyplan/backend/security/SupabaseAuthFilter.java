@@ -4,15 +4,10 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseCookie;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import app.ospreyplan.backend.observability.RequestTiming;
+import app.ospreyplan.backend.security.TokenRefresher.RefreshedSession;
+import app.ospreyplan.backend.supabase.AuthProviderUnavailableException;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.List;
@@ -22,23 +17,26 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import org.springframework.beans.factory.annotation.Value;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import java.nio.charset.StandardCharsets;
 
 @Component
 public class SupabaseAuthFilter extends OncePerRequestFilter
 {
-    private static final String APIKEY_HEADER = "apikey";
     private static final String ACCESS_COOKIE_NAME = "sb-access-token";
     private static final String REFRESH_COOKIE_NAME = "sb-refresh-token";
-    @Value("${supabase.project-url}")
-    String supabaseProjectUrl;
-    @Value("${supabase.anon-key:${supabase.service-role-key}}")
-    String supabaseApiKey;
-    @Value("${supabase.jwt-secret}")
-    String supabaseJwtSecret;
+
+    /**
+     * Request attribute set when the request could not be authenticated because the auth provider was unavailable.
+     */
+    public static final String AUTH_PROVIDER_UNAVAILABLE_ATTRIBUTE = SupabaseAuthFilter.class.getName() + ".UNAVAILABLE";
+
+    private final SupabaseTokenVerifier tokenVerifier;
+    private final TokenRefresher tokenRefresher;
+
+    public SupabaseAuthFilter(SupabaseTokenVerifier tokenVerifier, TokenRefresher tokenRefresher)
+    {
+        this.tokenVerifier = tokenVerifier;
+        this.tokenRefresher = tokenRefresher;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
@@ -50,6 +48,7 @@ public class SupabaseAuthFilter extends OncePerRequestFilter
         String refreshToken = Arrays.stream(cookies).filter(c -> REFRESH_COOKIE_NAME.equals(c.getName()))
                 .map(Cookie::getValue).findFirst().orElse(null);
 
+        long authStart = System.nanoTime();
         if (SecurityContextHolder.getContext().getAuthentication() == null)
         {
             try
@@ -57,93 +56,50 @@ public class SupabaseAuthFilter extends OncePerRequestFilter
                 boolean authenticated = false;
                 if (accessToken != null)
                 {
-                    // Try to validate as a Demo User Token (Self-Signed)
-                    try {
-                         var claims = Jwts.parserBuilder()
-                            .setSigningKey(supabaseJwtSecret.getBytes(StandardCharsets.UTF_8))
-                            .build()
-                            .parseClaimsJws(accessToken)
-                            .getBody();
-                         String email = claims.get("email", String.class);
-                         if (email != null && email.endsWith("@demo.app")) {
-                            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                                    claims.getSubject(), null, List.of());
-                            SecurityContextHolder.getContext().setAuthentication(auth);
-                            authenticated = true;
-                         }
-                    } catch (Exception e) {
-                        // Not a valid demo token, ignore
-                    }
-
-                    // If not demo, try Supabase validation
-                    if (!authenticated) {
-                        try
-                        {
-                            HttpHeaders headers = new HttpHeaders();
-                            headers.setBearerAuth(accessToken);
-                            headers.set(APIKEY_HEADER, supabaseApiKey);
-                            new RestTemplate().exchange(supabaseProjectUrl + "/auth/v1/user", HttpMethod.GET,
-                                    new HttpEntity<>(headers), String.class);
-                            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                                    "supabase-user", null, List.of());
-                            SecurityContextHolder.getContext().setAuthentication(auth);
-                            authenticated = true;
-                        }
-                        catch (Exception e)
-                        {
-                            // Access token invalid or expired; fall through to try refresh token
-                        }
-                    }
+                    authenticated = authenticate(accessToken);
                 }
-                
+
                 if (!authenticated && refreshToken != null)
                 {
-                    // Try to refresh the access token
-                    HttpHeaders refreshHeaders = new HttpHeaders();
-                    refreshHeaders.setContentType(MediaType.APPLICATION_JSON);
-                    refreshHeaders.set(APIKEY_HEADER, supabaseApiKey);
-                    String body = "{\"refresh_token\":\"" + refreshToken + "\"}";
-                    ResponseEntity<String> refreshResponse = new RestTemplate().postForEntity(
-                            supabaseProjectUrl + "/auth/v1/token?grant_type=refresh_token",
-                            new HttpEntity<>(body, refreshHeaders), String.class);
-
-                    if (refreshResponse.getStatusCode().is2xxSuccessful())
+                    // Concurrent requests carrying the same refresh token share one exchange
+                    Optional<RefreshedSession> session = tokenRefresher.refresh(refreshToken, req.getRemoteAddr());
+                    if (session.isPresent())
                     {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode tokenJson = mapper.readTree(refreshResponse.getBody());
-                        String newAccess = tokenJson.path("access_token").asText("");
-                        String newRefresh = tokenJson.path("refresh_token").asText("");
-                        int expiresInSeconds = tokenJson.path("expires_in").asInt(3600);
+                        RefreshedSession refreshed = session.get();
+                        boolean secureCookie = req.getRequestURL().toString().startsWith("https://");
+                        ResponseCookie accessCookie = ResponseCookie.from(ACCESS_COOKIE_NAME, refreshed.accessToken())
+                                .httpOnly(true).secure(secureCookie).sameSite("Lax").path("/")
+                                .maxAge(refreshed.expiresInSeconds()).build();
+                        ResponseCookie refreshCookie = ResponseCookie.from(REFRESH_COOKIE_NAME, refreshed.refreshToken())
+                                .httpOnly(true).secure(secureCookie).sameSite("Lax").path("/").build();
+                        res.addHeader("Set-Cookie", accessCookie.toString());
+                        res.addHeader("Set-Cookie", refreshCookie.toString());
 
-                        if (!newAccess.isEmpty() && !newRefresh.isEmpty())
-                        {
-                            boolean secureCookie = req.getRequestURL().toString().startsWith("https://");
-                            ResponseCookie accessCookie = ResponseCookie.from(ACCESS_COOKIE_NAME, newAccess)
-                                    .httpOnly(true).secure(secureCookie).sameSite("Lax").path("/")
-                                    .maxAge(expiresInSeconds).build();
-                            ResponseCookie refreshCookie = ResponseCookie.from(REFRESH_COOKIE_NAME, newRefresh)
-                                    .httpOnly(true).secure(secureCookie).sameSite("Lax").path("/").build();
-                            res.addHeader("Set-Cookie", accessCookie.toString());
-                            res.addHeader("Set-Cookie", refreshCookie.toString());
-
-                            // Validate new access token and authenticate
-                            HttpHeaders headers2 = new HttpHeaders();
-                            headers2.setBearerAuth(newAccess);
-                            headers2.set(APIKEY_HEADER, supabaseApiKey);
-                            new RestTemplate().exchange(supabaseProjectUrl + "/auth/v1/user", HttpMethod.GET,
-                                    new HttpEntity<>(headers2), String.class);
-                            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                                    "supabase-user", null, List.of());
-                            SecurityContextHolder.getContext().setAuthentication(auth);
-                        }
+                        authenticate(refreshed.accessToken());
                     }
                 }
             }
+            catch (AuthProviderUnavailableException e)
+            {
+                // Leave unauthenticated; SecurityConfig answers 503 instead of 401 so the client keeps its session
+                req.setAttribute(AUTH_PROVIDER_UNAVAILABLE_ATTRIBUTE, Boolean.TRUE);
+            }
             catch (Exception e)
             {
                 // Leave unauthenticated; SecurityConfig will return 401
             }
         }
+        RequestTiming.record(RequestTiming.Phase.AUTH, System.nanoTime() - authStart);
         chain.doFilter(req, res);
     }
+
+    private boolean authenticate(String accessToken)
+    {
+        return tokenVerifier.verify(accessToken).map(verified -> {
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                    verified.user(), null, List.of());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+            return true;
+        }).orElse(false);
+    }
 }
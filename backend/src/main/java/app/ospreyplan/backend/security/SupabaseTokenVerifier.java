@@ -0,0 +1,275 @@
+package app.ospreyplan.backend.security;
+
+import app.ospreyplan.backend.supabase.AuthProviderUnavailableException;
+import app.ospreyplan.backend.supabase.SupabaseBulkhead;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Decides whether an access token is valid without calling the auth provider. Tokens are checked locally against
+ * the project's JWT secret (HS256 signature, expiry, and for Supabase-issued tokens the issuer and audience), and
+ * verified tokens are cached until they expire so repeat requests skip even the signature check. Rejected tokens are
+ * remembered briefly in {@link RejectedTokenCache}.
+ *
+ * Demo tokens are signed by {@code AuthController} with the same secret and carry neither issuer nor audience; they
+ * are recognised by their {@code @demo.app} email as before.
+ *
+ * Configuration properties:
+ * - `supabase.auth.token-cache-size` – verified tokens kept in memory (default 10000)
+ * - `supabase.auth.remote-fallback` – ask {@code /auth/v1/user} about tokens that fail the local signature check,
+ *   e.g. while rotating the secret or for projects using asymmetric keys (default false). The call runs in
+ *   {@link SupabaseBulkhead}.
+ */
+@Component
+public class SupabaseTokenVerifier
+{
+    private static final Logger logger = LoggerFactory.getLogger(SupabaseTokenVerifier.class);
+
+    private static final String AUDIENCE = "authenticated";
+    private static final String DEMO_EMAIL_SUFFIX = "@demo.app";
+    private static final String USER_METADATA_CLAIM = "user_metadata";
+
+    // Remote answers carry no expiry we can trust without verifying, so they are only reused briefly
+    private static final Duration REMOTE_RESULT_TTL = Duration.ofSeconds(60);
+
+    /**
+     * A token that passed verification, with the user it identifies and when it stops being valid.
+     */
+    public record VerifiedToken(AuthenticatedUser user, Instant expiresAt)
+    {
+    }
+
+    private final JwtParser parser;
+    private final String issuer;
+    private final String projectUrl;
+    private final String apiKey;
+    private final boolean remoteFallback;
+    private final Cache<String, VerifiedToken> cache;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final RestTemplate supabaseClient;
+    private final RejectedTokenCache rejectedTokens;
+    private final SupabaseBulkhead bulkhead;
+
+    public SupabaseTokenVerifier(RestTemplate supabaseClient, RejectedTokenCache rejectedTokens,
+            SupabaseBulkhead bulkhead, @Value("${supabase.project-url}") String projectUrl,
+            @Value("${supabase.anon-key:${supabase.service-role-key}}") String apiKey,
+            @Value("${supabase.jwt-secret}") String jwtSecret,
+            @Value("${supabase.auth.token-cache-size:10000}") long cacheSize,
+            @Value("${supabase.auth.remote-fallback:false}") boolean remoteFallback)
+    {
+        this.supabaseClient = supabaseClient;
+        this.rejectedTokens = rejectedTokens;
+        this.bulkhead = bulkhead;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(jwtSecret.getBytes(StandardCharsets.UTF_8))
+                .build();
+        this.projectUrl = projectUrl;
+        this.issuer = projectUrl + "/auth/v1";
+        this.apiKey = apiKey;
+        this.remoteFallback = remoteFallback;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>()
+                {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime)
+                    {
+                        return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime,
+                            long currentDuration)
+                    {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime,
+                            long currentDuration)
+                    {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public Optional<VerifiedToken> verify(String token)
+    {
+        if (token == null || token.isEmpty())
+        {
+            return Optional.empty();
+        }
+
+        VerifiedToken cached = cache.getIfPresent(token);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now()))
+        {
+            return Optional.of(cached);
+        }
+
+        if (rejectedTokens.isRejected(token))
+        {
+            return Optional.empty();
+        }
+
+        Optional<VerifiedToken> verified = verifyLocally(token);
+        verified.ifPresent(v -> cache.put(token, v));
+        return verified;
+    }
+
+    /**
+     * Drops a token from the cache, e.g. on logout.
+     */
+    public void invalidate(String token)
+    {
+        if (token != null)
+        {
+            cache.invalidate(token);
+        }
+    }
+
+    private Optional<VerifiedToken> verifyLocally(String token)
+    {
+        Claims claims;
+        try
+        {
+            claims = parser.parseClaimsJws(token).getBody();
+        }
+        catch (ExpiredJwtException e)
+        {
+            return reject(token);
+        }
+        catch (JwtException | IllegalArgumentException e)
+        {
+            return remoteFallback ? verifyRemotely(token) : reject(token);
+        }
+
+        if (claims.getExpiration() == null || claims.getSubject() == null)
+        {
+            return reject(token);
+        }
+
+        String email = claims.get("email", String.class);
+        boolean demo = email != null && email.endsWith(DEMO_EMAIL_SUFFIX);
+        if (!demo && (!issuer.equals(claims.getIssuer()) || !hasAudience(claims)))
+        {
+            return reject(token);
+        }
+
+        UUID userId = parseUserId(claims.getSubject());
+        if (userId == null)
+        {
+            return reject(token);
+        }
+
+        Map<String, Object> metadata = demo ? Map.of() : asMap(claims.get(USER_METADATA_CLAIM));
+        return Optional.of(new VerifiedToken(new AuthenticatedUser(userId, email, demo, metadata),
+                claims.getExpiration().toInstant()));
+    }
+
+    private Optional<VerifiedToken> reject(String token)
+    {
+        rejectedTokens.reject(token);
+        return Optional.empty();
+    }
+
+    private static UUID parseUserId(String subject)
+    {
+        try
+        {
+            return subject == null ? null : UUID.fromString(subject);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(Object claim)
+    {
+        return claim instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    private static boolean hasAudience(Claims claims)
+    {
+        // Supabase sends "aud" as a string; other issuers may send an array
+        Object audience = claims.get(Claims.AUDIENCE);
+        if (audience instanceof Collection<?> audiences)
+        {
+            return audiences.contains(AUDIENCE);
+        }
+        return AUDIENCE.equals(audience);
+    }
+
+    private Optional<VerifiedToken> verifyRemotely(String token)
+    {
+        try
+        {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(token);
+            headers.set("apikey", apiKey);
+            ResponseEntity<String> response = bulkhead.call(() -> supabaseClient.exchange(
+                    projectUrl + "/auth/v1/user", HttpMethod.GET, new HttpEntity<>(headers), String.class));
+
+            JsonNode user = mapper.readTree(response.getBody());
+            UUID userId = parseUserId(user.path("id").asText(null));
+            if (userId == null)
+            {
+                return reject(token);
+            }
+            Map<String, Object> metadata = mapper.convertValue(user.path(USER_METADATA_CLAIM),
+                    new TypeReference<Map<String, Object>>() {});
+            return Optional.of(new VerifiedToken(
+                    new AuthenticatedUser(userId, user.path("email").asText(null), false, metadata),
+                    Instant.now().plus(REMOTE_RESULT_TTL)));
+        }
+        catch (HttpClientErrorException e)
+        {
+            // The provider answered and refused the token
+            return reject(token);
+        }
+        catch (ResourceAccessException | HttpServerErrorException e)
+        {
+            throw new AuthProviderUnavailableException("Remote token verification failed: " + e.getMessage(), e);
+        }
+        catch (AuthProviderUnavailableException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            logger.debug("Remote token verification failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
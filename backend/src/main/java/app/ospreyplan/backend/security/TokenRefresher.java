@@ -0,0 +1,231 @@
+package app.ospreyplan.backend.security;
+
+import app.ospreyplan.backend.supabase.AuthProviderUnavailableException;
+import app.ospreyplan.backend.supabase.SupabaseBulkhead;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Exchanges refresh tokens for new sessions, at most once per refresh token.
+ *
+ * When an access token expires the browser typically fires several API calls at once, all carrying the same refresh
+ * token. Supabase rotates refresh tokens on use, so only one exchange may happen: the first caller performs it and
+ * concurrent callers wait for its result. The result is also kept for a short grace period, because requests sent
+ * before the browser stored the new cookies still carry the old refresh token.
+ *
+ * Refresh tokens the provider refused are remembered in {@link RejectedTokenCache}, and exchanges are limited per
+ * client by {@link RefreshThrottle}; a throttled exchange throws {@link RefreshThrottledException} rather than
+ * reporting the token as invalid. The exchange itself runs in {@link SupabaseBulkhead}; when the provider cannot
+ * be reached in time, {@link AuthProviderUnavailableException} is thrown to the caller and every waiter.
+ *
+ * Configuration properties:
+ * - `supabase.auth.refresh-grace-seconds` – how long an exchange result is reused (default 30)
+ * - `supabase.bulkhead.deadline-ms` – also bounds how long a waiter waits for the shared exchange (default 4000)
+ */
+@Component
+public class TokenRefresher
+{
+    private static final Logger logger = LoggerFactory.getLogger(TokenRefresher.class);
+
+    /**
+     * The session returned by a successful exchange.
+     */
+    public record RefreshedSession(String accessToken, String refreshToken, int expiresInSeconds)
+    {
+    }
+
+    private final RestTemplate supabaseClient;
+    private final RejectedTokenCache rejectedTokens;
+    private final RefreshThrottle throttle;
+    private final SupabaseBulkhead bulkhead;
+    private final String projectUrl;
+    private final String apiKey;
+    private final long waitTimeoutMs;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, CompletableFuture<Optional<RefreshedSession>>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, RefreshedSession> recent;
+
+    private final Counter exchangeCounter;
+    private final Counter coalescedCounter;
+
+    public TokenRefresher(RestTemplate supabaseClient, RejectedTokenCache rejectedTokens, RefreshThrottle throttle,
+            SupabaseBulkhead bulkhead, MeterRegistry meterRegistry,
+            @Value("${supabase.project-url}") String projectUrl,
+            @Value("${supabase.anon-key:${supabase.service-role-key}}") String apiKey,
+            @Value("${supabase.auth.refresh-grace-seconds:30}") long graceSeconds,
+            @Value("${supabase.bulkhead.deadline-ms:4000}") long waitTimeoutMs)
+    {
+        this.supabaseClient = supabaseClient;
+        this.rejectedTokens = rejectedTokens;
+        this.throttle = throttle;
+        this.bulkhead = bulkhead;
+        this.projectUrl = projectUrl;
+        this.apiKey = apiKey;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.recent = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(graceSeconds))
+                .maximumSize(10_000)
+                .build();
+
+        this.exchangeCounter = Counter.builder("auth.refresh.exchanges")
+                .description("Refresh-token exchanges sent to the auth provider")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("auth.refresh.coalesced")
+                .description("Refresh requests answered by an in-flight or recent exchange")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param clientKey identifies the caller for {@link RefreshThrottle}, e.g. its address
+     */
+    public Optional<RefreshedSession> refresh(String refreshToken, String clientKey)
+    {
+        RefreshedSession cached = recent.getIfPresent(refreshToken);
+        if (cached != null)
+        {
+            coalescedCounter.increment();
+            return Optional.of(cached);
+        }
+        if (rejectedTokens.isRejected(refreshToken))
+        {
+            return Optional.empty();
+        }
+
+        CompletableFuture<Optional<RefreshedSession>> exchange = new CompletableFuture<>();
+        CompletableFuture<Optional<RefreshedSession>> existing = inFlight.putIfAbsent(refreshToken, exchange);
+        if (existing != null)
+        {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+
+        try
+        {
+            // Another exchange may have finished between the cache check and claiming the slot
+            cached = recent.getIfPresent(refreshToken);
+            Optional<RefreshedSession> result;
+            if (cached != null)
+            {
+                result = Optional.of(cached);
+            }
+            else
+            {
+                if (!throttle.tryAcquire(clientKey))
+                {
+                    throw new RefreshThrottledException("Too many token refreshes from " + clientKey);
+                }
+                result = exchange(refreshToken);
+            }
+            result.ifPresent(session -> recent.put(refreshToken, session));
+            exchange.complete(result);
+            return result;
+        }
+        catch (RuntimeException e)
+        {
+            // Waiters see the same failure, e.g. AuthProviderUnavailableException
+            exchange.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            inFlight.remove(refreshToken, exchange);
+        }
+    }
+
+    private Optional<RefreshedSession> await(CompletableFuture<Optional<RefreshedSession>> exchange)
+    {
+        try
+        {
+            return exchange.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new AuthProviderUnavailableException("Interrupted while waiting for a token refresh", e);
+        }
+        catch (TimeoutException e)
+        {
+            throw new AuthProviderUnavailableException("Timed out waiting for a token refresh");
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof AuthProviderUnavailableException unavailable)
+            {
+                throw unavailable;
+            }
+            return Optional.empty();
+        }
+    }
+
+    private Optional<RefreshedSession> exchange(String refreshToken)
+    {
+        exchangeCounter.increment();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("apikey", apiKey);
+        Map<String, String> body = Map.of("refresh_token", refreshToken);
+
+        try
+        {
+            ResponseEntity<String> response = bulkhead.call(() -> supabaseClient.postForEntity(
+                    projectUrl + "/auth/v1/token?grant_type=refresh_token", new HttpEntity<>(body, headers),
+                    String.class));
+
+            JsonNode tokenJson = mapper.readTree(response.getBody());
+            String accessToken = tokenJson.path("access_token").asText("");
+            String newRefreshToken = tokenJson.path("refresh_token").asText("");
+            if (accessToken.isEmpty() || newRefreshToken.isEmpty())
+            {
+                return Optional.empty();
+            }
+            return Optional.of(new RefreshedSession(accessToken, newRefreshToken,
+                    tokenJson.path("expires_in").asInt(3600)));
+        }
+        catch (HttpClientErrorException e)
+        {
+            // Used, revoked or unknown refresh token; asking again would get the same answer
+            rejectedTokens.reject(refreshToken);
+            return Optional.empty();
+        }
+        catch (ResourceAccessException | HttpServerErrorException e)
+        {
+            throw new AuthProviderUnavailableException("Token refresh failed: " + e.getMessage(), e);
+        }
+        catch (AuthProviderUnavailableException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            logger.debug("Refresh token exchange failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
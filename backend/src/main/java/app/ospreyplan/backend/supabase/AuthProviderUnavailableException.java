@@ -0,0 +1,19 @@
+package app.ospreyplan.backend.supabase;
+
+/**
+ * The auth provider could not be consulted in time: the bulkhead was full, the call missed its deadline, or the
+ * provider failed at the network or 5xx level. Requests that needed it are answered with 503 rather than 401, so
+ * clients keep their session and retry instead of signing the user out.
+ */
+public class AuthProviderUnavailableException extends RuntimeException
+{
+    public AuthProviderUnavailableException(String message)
+    {
+        super(message);
+    }
+
+    public AuthProviderUnavailableException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,79 @@
+package app.ospreyplan.backend.supabase;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row the circuit opens and calls
+ * are refused for {@code openMillis}; after that a single probe call is let through, and its outcome closes the
+ * circuit or opens it again. A probe whose outcome is never reported stops blocking further probes after another
+ * {@code openMillis}, so a lost probe cannot keep the circuit open for good.
+ */
+public class CircuitBreaker
+{
+    public enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong(-1);
+    private final AtomicLong probeStartedAt = new AtomicLong(-1);
+
+    public CircuitBreaker(int failureThreshold, long openMillis, Clock clock)
+    {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    public State getState()
+    {
+        long opened = openedAt.get();
+        if (opened < 0)
+        {
+            return State.CLOSED;
+        }
+        return clock.millis() - opened < openMillis ? State.OPEN : State.HALF_OPEN;
+    }
+
+    /**
+     * Returns whether a call may proceed. Every permitted call must be followed by {@link #onSuccess()} or
+     * {@link #onFailure()}.
+     */
+    public boolean tryAcquire()
+    {
+        return switch (getState())
+        {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN ->
+            {
+                long now = clock.millis();
+                long started = probeStartedAt.get();
+                yield (started < 0 || now - started >= openMillis) && probeStartedAt.compareAndSet(started, now);
+            }
+        };
+    }
+
+    public void onSuccess()
+    {
+        consecutiveFailures.set(0);
+        openedAt.set(-1);
+        probeStartedAt.set(-1);
+    }
+
+    public void onFailure()
+    {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (probeStartedAt.getAndSet(-1) >= 0 || failures >= failureThreshold)
+        {
+            openedAt.set(clock.millis());
+        }
+    }
+}
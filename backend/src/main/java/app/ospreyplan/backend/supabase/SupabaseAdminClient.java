@@ -0,0 +1,74 @@
+package app.ospreyplan.backend.supabase;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Calls to the Supabase admin API, authorised with a short-lived service_role token signed with the project secret.
+ */
+@Component
+public class SupabaseAdminClient
+{
+    private final RestTemplate supabaseClient;
+    private final String projectUrl;
+    private final String apiKey;
+    private final String jwtSecret;
+
+    public SupabaseAdminClient(RestTemplate supabaseClient, @Value("${supabase.project-url}") String projectUrl,
+            @Value("${supabase.anon-key:${supabase.service-role-key}}") String apiKey,
+            @Value("${supabase.jwt-secret}") String jwtSecret)
+    {
+        this.supabaseClient = supabaseClient;
+        this.projectUrl = projectUrl;
+        this.apiKey = apiKey;
+        this.jwtSecret = jwtSecret;
+    }
+
+    /**
+     * Deletes the auth user. A user that no longer exists counts as deleted; any other failure is thrown.
+     */
+    public void deleteUser(UUID userId)
+    {
+        HttpHeaders headers = new HttpHeaders();
+        // Supabase Admin API expects 'apikey' (can be anon key) AND 'Authorization: Bearer <service_role_token>'
+        headers.set("apikey", apiKey);
+        headers.setBearerAuth(serviceRoleToken());
+
+        try
+        {
+            supabaseClient.exchange(projectUrl + "/auth/v1/admin/users/" + userId, HttpMethod.DELETE,
+                    new HttpEntity<>(headers), Void.class);
+        }
+        catch (HttpClientErrorException e)
+        {
+            if (e.getStatusCode() != HttpStatus.NOT_FOUND)
+            {
+                throw e;
+            }
+        }
+    }
+
+    private String serviceRoleToken()
+    {
+        return Jwts.builder()
+                .setClaims(Map.of("role", "service_role", "iss", "supabase"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000)) // 1 min expiry
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
@@ -0,0 +1,159 @@
+package app.ospreyplan.backend.supabase;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Isolates outbound auth work (token refresh and remote validation) from request handling. Calls run on virtual
+ * threads, at most {@code max-concurrent} at a time, with at most {@code max-waiting} callers queued behind them;
+ * each caller waits no longer than {@code deadline-ms} for its result. Anything beyond that fails fast with
+ * {@link AuthProviderUnavailableException} instead of holding a Tomcat thread while the provider is slow.
+ *
+ * Configuration properties (all under `supabase.bulkhead.`):
+ * - `max-concurrent` – outbound auth calls in flight (default 20)
+ * - `max-waiting` – callers allowed to queue for a slot (default 50)
+ * - `queue-timeout-ms` – how long a queued caller waits for a slot (default 250)
+ * - `deadline-ms` – total time a caller waits for a result (default 4000)
+ */
+@Component
+public class SupabaseBulkhead
+{
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxWaiting;
+    private final long queueTimeoutMs;
+    private final long deadlineMs;
+
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+
+    public SupabaseBulkhead(MeterRegistry meterRegistry,
+            @Value("${supabase.bulkhead.max-concurrent:20}") int maxConcurrent,
+            @Value("${supabase.bulkhead.max-waiting:50}") int maxWaiting,
+            @Value("${supabase.bulkhead.queue-timeout-ms:250}") long queueTimeoutMs,
+            @Value("${supabase.bulkhead.deadline-ms:4000}") long deadlineMs)
+    {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiting = maxWaiting;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.deadlineMs = deadlineMs;
+
+        this.rejectedCounter = Counter.builder("supabase.bulkhead.rejected")
+                .description("Outbound auth calls refused because the bulkhead was full")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("supabase.bulkhead.timeouts")
+                .description("Outbound auth calls abandoned after missing their deadline")
+                .register(meterRegistry);
+        Gauge.builder("supabase.bulkhead.in_flight", permits, p -> maxConcurrent - p.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("supabase.bulkhead.waiting", waiting, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> task)
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        acquire();
+
+        Future<T> future;
+        try
+        {
+            future = executor.submit(() ->
+            {
+                try
+                {
+                    return task.get();
+                }
+                finally
+                {
+                    permits.release();
+                }
+            });
+        }
+        catch (RuntimeException e)
+        {
+            permits.release();
+            throw e;
+        }
+
+        try
+        {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            // The virtual thread is interrupted; the HTTP client's own timeouts bound it if it ignores that
+            future.cancel(true);
+            timeoutCounter.increment();
+            throw new AuthProviderUnavailableException("Auth provider call missed its " + deadlineMs + " ms deadline");
+        }
+        catch (InterruptedException e)
+        {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthProviderUnavailableException("Interrupted while waiting for the auth provider", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtime)
+            {
+                throw runtime;
+            }
+            throw new AuthProviderUnavailableException("Auth provider call failed", e.getCause());
+        }
+    }
+
+    private void acquire()
+    {
+        if (permits.tryAcquire())
+        {
+            return;
+        }
+
+        if (waiting.incrementAndGet() > maxWaiting)
+        {
+            waiting.decrementAndGet();
+            rejectedCounter.increment();
+            throw new AuthProviderUnavailableException("Auth provider bulkhead is full");
+        }
+
+        try
+        {
+            if (!permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS))
+            {
+                rejectedCounter.increment();
+                throw new AuthProviderUnavailableException("Timed out waiting for an auth provider slot");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new AuthProviderUnavailableException("Interrupted while waiting for an auth provider slot", e);
+        }
+        finally
+        {
+            waiting.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,102 @@
+package app.ospreyplan.backend.supabase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+
+/**
+ * The single outbound HTTP client used for every call to the Supabase auth API.
+ *
+ * Connections are pooled and kept alive between calls, so requests stop paying a TCP and TLS handshake each time.
+ * Every call is bounded: waiting for a pooled connection, connecting and reading a response each have their own
+ * deadline, so a slow provider cannot hold a request thread indefinitely. {@link SupabaseResilienceInterceptor}
+ * adds retries for idempotent calls and a circuit breaker.
+ *
+ * Metrics: pool usage under {@code httpcomponents.httpclient.pool.*} (tag {@code httpclient=supabase}), call
+ * latency under {@code http.client.requests}, plus {@code supabase.client.retries}, {@code supabase.client.rejected}
+ * and {@code supabase.client.circuit.state}.
+ *
+ * Configuration properties (all under `supabase.client.`):
+ * - `max-connections` – pooled connections (default 50)
+ * - `connection-request-timeout-ms` – wait for a pooled connection (default 1000)
+ * - `connect-timeout-ms` – TCP/TLS connect deadline (default 2000)
+ * - `read-timeout-ms` – response deadline; keep it below `supabase.bulkhead.deadline-ms`, after which nobody waits
+ *   for the response (default 3000)
+ * - `max-attempts` – attempts for idempotent calls (default 3)
+ * - `circuit-failure-threshold` – consecutive failures that open the circuit (default 5)
+ * - `circuit-open-ms` – how long the circuit stays open before a probe (default 30000)
+ */
+@Configuration
+public class SupabaseClientConfig
+{
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager supabaseConnectionManager(
+            @Value("${supabase.client.max-connections:50}") int maxConnections,
+            @Value("${supabase.client.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${supabase.client.read-timeout-ms:3000}") long readTimeoutMs,
+            MeterRegistry meterRegistry)
+    {
+        // Every call goes to the same host, so the per-route limit is the pool size
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "supabase").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient supabaseHttpClient(PoolingHttpClientConnectionManager supabaseConnectionManager,
+            @Value("${supabase.client.connection-request-timeout-ms:1000}") long connectionRequestTimeoutMs,
+            @Value("${supabase.client.read-timeout-ms:3000}") long readTimeoutMs)
+    {
+        return HttpClients.custom()
+                .setConnectionManager(supabaseConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                // Retries are decided by SupabaseResilienceInterceptor, which knows which calls are safe to repeat
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate supabaseRestTemplate(RestTemplateBuilder builder, CloseableHttpClient supabaseHttpClient,
+            @Value("${supabase.client.max-attempts:3}") int maxAttempts,
+            @Value("${supabase.client.circuit-failure-threshold:5}") int failureThreshold,
+            @Value("${supabase.client.circuit-open-ms:30000}") long circuitOpenMs,
+            MeterRegistry meterRegistry)
+    {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(failureThreshold, circuitOpenMs, Clock.systemUTC());
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(supabaseHttpClient))
+                .additionalInterceptors(new SupabaseResilienceInterceptor(circuitBreaker, maxAttempts, 100, 1000,
+                        meterRegistry))
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package app.ospreyplan.backend.supabase;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Guards outbound calls to the auth provider with a circuit breaker and retries idempotent calls (GET, HEAD, PUT,
+ * DELETE) that failed with an I/O error or a 502/503/504, backing off with full jitter. Other methods, notably the
+ * token endpoints, are never retried: a refresh token is single-use, so replaying the request could log the user out.
+ *
+ * Must be the last interceptor on the {@code RestTemplate}, since a retry re-executes the rest of the chain.
+ */
+public class SupabaseResilienceInterceptor implements ClientHttpRequestInterceptor
+{
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.PUT,
+            HttpMethod.DELETE);
+
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Counter retryCounter;
+    private final Counter rejectedCounter;
+
+    public SupabaseResilienceInterceptor(CircuitBreaker circuitBreaker, int maxAttempts, long baseBackoffMillis,
+            long maxBackoffMillis, MeterRegistry meterRegistry)
+    {
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+
+        this.retryCounter = Counter.builder("supabase.client.retries")
+                .description("Auth provider calls retried after a transient failure")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("supabase.client.rejected")
+                .description("Auth provider calls refused because the circuit breaker was open")
+                .register(meterRegistry);
+        Gauge.builder("supabase.client.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException
+    {
+        int attempts = IDEMPOTENT_METHODS.contains(request.getMethod()) ? maxAttempts : 1;
+
+        for (int attempt = 1; ; attempt++)
+        {
+            if (!circuitBreaker.tryAcquire())
+            {
+                rejectedCounter.increment();
+                throw new SupabaseUnavailableException("Auth provider circuit is open; refusing " + request.getMethod()
+                        + " " + request.getURI().getPath());
+            }
+
+            ClientHttpResponse response;
+            int status;
+            try
+            {
+                response = execution.execute(request, body);
+                status = response.getStatusCode().value();
+            }
+            catch (IOException e)
+            {
+                circuitBreaker.onFailure();
+                if (attempt >= attempts)
+                {
+                    throw e;
+                }
+                backOff(attempt);
+                continue;
+            }
+            catch (RuntimeException e)
+            {
+                // Not retried, but the acquired call must still be settled or a half-open probe would stay in flight
+                circuitBreaker.onFailure();
+                throw e;
+            }
+
+            if (!isTransientFailure(status))
+            {
+                // 4xx means the provider is up and answered; only server-side trouble counts against the circuit
+                circuitBreaker.onSuccess();
+                return response;
+            }
+
+            circuitBreaker.onFailure();
+            if (attempt >= attempts)
+            {
+                return response;
+            }
+            response.close();
+            backOff(attempt);
+        }
+    }
+
+    private static boolean isTransientFailure(int status)
+    {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Full jitter: a random delay between zero and the exponential backoff for this attempt, capped at the maximum.
+     */
+    long backoffMillis(int attempt)
+    {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void backOff(int attempt) throws IOException
+    {
+        retryCounter.increment();
+        try
+        {
+            Thread.sleep(backoffMillis(attempt));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off from the auth provider");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package app.ospreyplan.backend.supabase;
+
+import java.io.IOException;
+
+/**
+ * Thrown for calls to the auth provider that are refused locally because its circuit breaker is open. Surfaces from
+ * {@code RestTemplate} wrapped in a {@code ResourceAccessException}, like any other I/O failure.
+ */
+public class SupabaseUnavailableException extends IOException
+{
+    public SupabaseUnavailableException(String message)
+    {
+        super(message);
+    }
+}
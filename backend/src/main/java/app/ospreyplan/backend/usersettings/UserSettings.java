@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "users")
@@ -39,6 +40,10 @@ public class UserSettings
     @Column(name = "updated_at")
     private OffsetDateTime updatedAt;
 
+    // Set when updatedAt was assigned explicitly (it doubles as the settings version), so preUpdate() keeps it
+    @Transient
+    private boolean updatedAtAssigned;
+
     public UUID getId()
     {
         return id;
@@ -117,6 +122,7 @@ public class UserSettings
     public void setUpdatedAt(OffsetDateTime updatedAt)
     {
         this.updatedAt = updatedAt;
+        this.updatedAtAssigned = true;
     }
 
     @PrePersist
@@ -127,10 +133,14 @@ public class UserSettings
         if (updatedAt == null) {
             updatedAt = OffsetDateTime.now();
         }
+        updatedAtAssigned = false;
     }
 
     @PreUpdate
     public void preUpdate() {
-        updatedAt = OffsetDateTime.now();
+        if (!updatedAtAssigned) {
+            updatedAt = OffsetDateTime.now();
+        }
+        updatedAtAssigned = false;
     }
 }
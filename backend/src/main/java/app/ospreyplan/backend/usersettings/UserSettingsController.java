@@ -1,6 +1,9 @@
 package app.ospreyplan.backend.usersettings;
 
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import app.ospreyplan.backend.usersettings.UserSettingsService.VersionedSettings;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,7 +11,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.http.CacheControl;
-import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.concurrent.TimeUnit;
 
 @RestController
@@ -23,23 +26,31 @@ public class UserSettingsController
     }
 
     @PutMapping
-    public ResponseEntity<UserSettingsDTO> updateUserSettings(@RequestBody UserSettingsDTO dto, HttpServletRequest request)
+    public ResponseEntity<UserSettingsDTO> updateUserSettings(@RequestBody UserSettingsDTO dto, @AuthenticationPrincipal AuthenticatedUser user)
     {
-        UserSettingsDTO updatedSettingsDto = service.updateSettings(dto, request);
+        VersionedSettings updated = service.updateSettings(user.userId(), dto);
 
-        return ResponseEntity.ok(updatedSettingsDto);
+        return ResponseEntity.ok()
+                .eTag(eTag(updated.version()))
+                .body(updated.toDto());
     }
 
     @GetMapping
-    public ResponseEntity<UserSettingsDTO> getUserSettings(HttpServletRequest request)
+    public ResponseEntity<UserSettingsDTO> getUserSettings(@AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request)
     {
-        UserSettingsDTO retrievedSettingsDto = service.getUserSettings(request);
-
-        String eTag = "\"" + Integer.toHexString(Objects.hash(retrievedSettingsDto.getDegree(), retrievedSettingsDto.getStartYear())) + "\"";
-
         String ifNoneMatch = request.getHeader("If-None-Match");
         CacheControl cache = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
 
+        // Revalidation is answered from the cached version alone, before any database access
+        OptionalLong cachedVersion = service.cachedVersion(user.userId());
+        if (ifNoneMatch != null && cachedVersion.isPresent() && ifNoneMatch.equals(eTag(cachedVersion.getAsLong())))
+        {
+            return ResponseEntity.status(304).eTag(ifNoneMatch).cacheControl(cache).build();
+        }
+
+        VersionedSettings retrievedSettings = service.getUserSettings(user.userId());
+        String eTag = eTag(retrievedSettings.version());
+
         if (ifNoneMatch != null && ifNoneMatch.equals(eTag))
         {
             return ResponseEntity.status(304).eTag(eTag).cacheControl(cache).build();
@@ -48,7 +59,11 @@ public class UserSettingsController
         return ResponseEntity.ok()
                 .eTag(eTag)
                 .cacheControl(cache)
-                .body(retrievedSettingsDto);
+                .body(retrievedSettings.toDto());
     }
 
+    private static String eTag(long version)
+    {
+        return "\"v" + Long.toHexString(version) + "\"";
+    }
 }
@@ -1,5 +1,6 @@
 package app.ospreyplan.backend.usersettings;
 
+import java.util.Collection;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,4 +13,8 @@ public interface UserSettingsRepository extends JpaRepository<UserSettings, UUID
     @Modifying
     @Query("DELETE FROM UserSettings u WHERE u.id = :id")
     void deleteByUserId(@Param("id") UUID id);
+
+    @Modifying
+    @Query("DELETE FROM UserSettings u WHERE u.id IN :ids")
+    int deleteByUserIdIn(@Param("ids") Collection<UUID> ids);
 }
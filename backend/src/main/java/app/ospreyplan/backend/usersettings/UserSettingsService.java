@@ -1,94 +1,172 @@
 package app.ospreyplan.backend.usersettings;
 
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.JwtException;
-import jakarta.servlet.http.HttpServletRequest;
+import app.ospreyplan.backend.cache.CacheInvalidationListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Reads and updates the settings kept on a user's row.
+ *
+ * Settings are read on every page and almost never change, so they are cached per user together with a version: the
+ * row's {@code updated_at} in epoch milliseconds, moved forward on every update. The controller builds the ETag from
+ * the version, so a matching {@code If-None-Match} is answered from the cache without touching the database. Updates
+ * and deletes reach the cache only after their transaction commits. Changes made elsewhere (another instance, a
+ * script) arrive through the {@link app.ospreyplan.backend.cache.CacheInvalidationBus}; the expiry bounds staleness
+ * if the bus is down.
+ *
+ * Configuration properties:
+ * - `settings.cache.size` – maximum number of cached users (default 10000)
+ * - `settings.cache.ttl-seconds` – how long an entry is served before it is reloaded (default 300)
+ */
 @Service
-public class UserSettingsService
+public class UserSettingsService implements CacheInvalidationListener
 {
-    private final UserSettingsRepository repository;
+    /**
+     * A user's settings and the version they were read at.
+     */
+    public record VersionedSettings(String degree, Integer startYear, long version)
+    {
+        public UserSettingsDTO toDto()
+        {
+            UserSettingsDTO dto = new UserSettingsDTO();
+            dto.setDegree(degree);
+            dto.setStartYear(startYear);
+            return dto;
+        }
+    }
 
-    @Value("${supabase.jwt-secret}")
-    private String supabaseJwtSecret;
+    private final UserSettingsRepository repository;
+    private final Cache<UUID, VersionedSettings> cache;
 
-    public UserSettingsService(UserSettingsRepository repository)
+    public UserSettingsService(UserSettingsRepository repository,
+            @Value("${settings.cache.size:10000}") long cacheSize,
+            @Value("${settings.cache.ttl-seconds:300}") long ttlSeconds)
     {
         this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
     }
 
     @Transactional
-    public UserSettingsDTO updateSettings(UserSettingsDTO dto, HttpServletRequest request)
+    public VersionedSettings updateSettings(UUID userId, UserSettingsDTO dto)
     {
-        UUID userId = getCurrentUserId(request);
-
         UserSettings settings = repository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User ID not found"));
 
         settings.setDegree(dto.getDegree());
         settings.setStartYear(dto.getStartYear());
 
+        // The version must move forward even when two updates land in the same millisecond
+        long previous = versionOf(settings);
+        long version = Math.max(System.currentTimeMillis(), previous + 1);
+        settings.setUpdatedAt(OffsetDateTime.ofInstant(Instant.ofEpochMilli(version), ZoneOffset.UTC));
+
         UserSettings saved = repository.save(settings);
 
-        UserSettingsDTO out = new UserSettingsDTO();
-        out.setDegree(saved.getDegree());
-        out.setStartYear(saved.getStartYear());
+        VersionedSettings result = new VersionedSettings(saved.getDegree(), saved.getStartYear(), version);
+        afterCommit(() -> cache.put(userId, result));
+        return result;
+    }
 
-        return out;
+    public VersionedSettings getUserSettings(UUID userId)
+    {
+        return cache.get(userId, this::load);
     }
 
-    public UserSettingsDTO getUserSettings(HttpServletRequest request)
+    /**
+     * Returns the cached settings version for the user, without reading the database.
+     */
+    public OptionalLong cachedVersion(UUID userId)
     {
-        UUID userId = getCurrentUserId(request);
+        VersionedSettings cached = cache.getIfPresent(userId);
+        return cached == null ? OptionalLong.empty() : OptionalLong.of(cached.version());
+    }
 
-        UserSettings settings = repository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User ID not found"));
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void deleteSettings(UUID userId)
+    {
+        repository.deleteByUserId(userId);
+        afterCommit(() -> cache.invalidate(userId));
+    }
 
-        UserSettingsDTO dto = new UserSettingsDTO();
-        dto.setDegree(settings.getDegree());
-        dto.setStartYear(settings.getStartYear());
+    @Transactional(Transactional.TxType.MANDATORY)
+    public int deleteSettings(Collection<UUID> userIds)
+    {
+        int deleted = repository.deleteByUserIdIn(userIds);
+        List<UUID> ids = List.copyOf(userIds);
+        afterCommit(() -> cache.invalidateAll(ids));
+        return deleted;
+    }
 
-        return dto;
+    @Override
+    public Set<String> tables()
+    {
+        return Set.of("users");
     }
 
-    private UUID getCurrentUserId(HttpServletRequest request)
+    @Override
+    public void invalidate(String table, String key)
     {
-        String token = null;
-        if (request.getCookies() != null)
+        if ("*".equals(key))
         {
-            for (jakarta.servlet.http.Cookie c : request.getCookies())
-            {
-                if ("sb-access-token".equals(c.getName()))
-                {
-                    token = c.getValue();
-                    break;
-                }
-            }
+            invalidateAll();
+            return;
         }
+        cache.invalidate(UUID.fromString(key));
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+    private VersionedSettings load(UUID userId)
+    {
+        UserSettings settings = repository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User ID not found"));
 
-        Claims claims;
-        try
+        return new VersionedSettings(settings.getDegree(), settings.getStartYear(), versionOf(settings));
+    }
+
+    private static long versionOf(UserSettings settings)
+    {
+        return settings.getUpdatedAt() == null ? 0 : settings.getUpdatedAt().toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
         {
-            claims = Jwts.parserBuilder()
-                .setSigningKey(supabaseJwtSecret.getBytes(StandardCharsets.UTF_8))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+            action.run();
+            return;
         }
-        catch (JwtException e)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
         {
-            throw new RuntimeException("Invalid or expired token", e);
-        }
-
-        String userIdString = claims.getSubject();
-        return UUID.fromString(userIdString);
+            @Override
+            public void afterCommit()
+            {
+                action.run();
+            }
+        });
     }
 }
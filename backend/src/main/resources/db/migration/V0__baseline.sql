@@ -0,0 +1,68 @@
+-- Tables that predate backend-owned migrations and were created by hand in Supabase. Existing databases are
+-- baselined at version 0 (spring.flyway.baseline-on-migrate), so this script only runs against an empty schema,
+-- e.g. a fresh local or test database.
+
+CREATE TABLE IF NOT EXISTS public.users
+(
+    id                   UUID PRIMARY KEY,
+    full_name            TEXT,
+    email                TEXT,
+    profile_picture_url  TEXT,
+    degree               TEXT,
+    start_year           INTEGER,
+    created_at           TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at           TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS public.planned_semesters
+(
+    id          UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id     UUID        NOT NULL,
+    title       TEXT,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS public.planned_courses
+(
+    id             UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    semester_id    UUID        NOT NULL REFERENCES public.planned_semesters (id) ON DELETE CASCADE,
+    subject        TEXT        NOT NULL,
+    course_number  INTEGER     NOT NULL,
+    credits        INTEGER,
+    created_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS public.courses
+(
+    subject        TEXT    NOT NULL,
+    course_number  INTEGER NOT NULL,
+    name           TEXT,
+    min_credits    INTEGER,
+    max_credits    INTEGER,
+    prerequisite   TEXT,
+    attributes     TEXT[],
+    PRIMARY KEY (subject, course_number)
+);
+
+CREATE TABLE IF NOT EXISTS public.degree_requirements
+(
+    id              TEXT PRIMARY KEY,
+    degree_code     TEXT NOT NULL,
+    category        TEXT,
+    name            TEXT,
+    required_count  SMALLINT,
+    priority        SMALLINT
+);
+
+CREATE TABLE IF NOT EXISTS public.requirement_criteria
+(
+    id              UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    requirement_id  TEXT NOT NULL REFERENCES public.degree_requirements (id) ON DELETE CASCADE,
+    type            TEXT NOT NULL,
+    subject         TEXT,
+    course_number   INTEGER,
+    attribute       TEXT,
+    min_level       INTEGER,
+    group_id        TEXT
+);
@@ -0,0 +1,8 @@
+-- Tombstones only matter to clients that synced before the deletion, so they are pruned after a retention period
+-- (PlanSyncService.pruneTombstones). plan_versions.pruned_seq records the highest pruned tombstone per user: a client
+-- whose version is older than that may have missed a deletion and is sent the whole plan instead of a delta.
+
+ALTER TABLE public.plan_tombstones ADD COLUMN IF NOT EXISTS created_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE public.plan_versions ADD COLUMN IF NOT EXISTS pruned_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS plan_tombstones_created_idx ON public.plan_tombstones (created_at);
@@ -0,0 +1,26 @@
+-- Nothing caches plans in memory, so nothing listens for planned_semesters or planned_courses on the
+-- cache_invalidation channel (the listeners are UserSettingsService for users and ReferenceDataCache for the
+-- reference tables). Their row triggers only added a notification, and for courses a semester lookup, to every plan
+-- write; drop them and the branches of the trigger function that served them.
+
+DROP TRIGGER IF EXISTS planned_semesters_cache_invalidation ON public.planned_semesters;
+DROP TRIGGER IF EXISTS planned_courses_cache_invalidation ON public.planned_courses;
+
+CREATE OR REPLACE FUNCTION public.notify_cache_invalidation() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    changed_key TEXT;
+BEGIN
+    IF TG_LEVEL = 'STATEMENT' THEN
+        changed_key := '*';
+    ELSIF TG_TABLE_NAME = 'users' THEN
+        changed_key := COALESCE(NEW.id, OLD.id)::text;
+    END IF;
+
+    IF changed_key IS NOT NULL THEN
+        PERFORM pg_notify('cache_invalidation', TG_TABLE_NAME || ':' || changed_key);
+    END IF;
+    RETURN NULL;
+END
+$$;
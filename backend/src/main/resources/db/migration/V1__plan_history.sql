@@ -0,0 +1,29 @@
+-- Append-only planner change log and periodic plan snapshots.
+-- Every planner mutation appends one row to plan_events; plan_snapshots holds a compact copy
+-- of the full plan every few events so history can be rebuilt without replaying from the start.
+
+CREATE TABLE IF NOT EXISTS public.plan_events
+(
+    id           BIGSERIAL PRIMARY KEY,
+    user_id      UUID        NOT NULL,
+    seq          BIGINT      NOT NULL,
+    type         TEXT        NOT NULL,
+    origin       TEXT        NOT NULL,
+    semester_id  UUID,
+    course_id    UUID,
+    payload      JSONB       NOT NULL,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT plan_events_user_seq_key UNIQUE (user_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS plan_events_user_created_idx ON public.plan_events (user_id, created_at);
+
+CREATE TABLE IF NOT EXISTS public.plan_snapshots
+(
+    id          BIGSERIAL PRIMARY KEY,
+    user_id     UUID        NOT NULL,
+    seq         BIGINT      NOT NULL,
+    payload     JSONB       NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT plan_snapshots_user_seq_key UNIQUE (user_id, seq)
+);
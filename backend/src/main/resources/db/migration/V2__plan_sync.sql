@@ -0,0 +1,93 @@
+-- Per-user plan change sequence for delta sync.
+-- Every insert/update of a planned semester or course is stamped with the next value of its owner's sequence,
+-- and every delete leaves a tombstone at the next value, so a client holding version N can ask for exactly the
+-- rows that changed after N. Triggers keep this correct for every write path (JPA, JDBC batches, undo/redo).
+
+CREATE TABLE IF NOT EXISTS public.plan_versions
+(
+    user_id  UUID PRIMARY KEY,
+    seq      BIGINT NOT NULL DEFAULT 0
+);
+
+ALTER TABLE public.planned_semesters ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE public.planned_courses ADD COLUMN IF NOT EXISTS change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS public.plan_tombstones
+(
+    user_id      UUID   NOT NULL,
+    seq          BIGINT NOT NULL,
+    entity_type  TEXT   NOT NULL,
+    entity_id    UUID   NOT NULL,
+    PRIMARY KEY (user_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS planned_semesters_user_change_idx ON public.planned_semesters (user_id, change_seq);
+CREATE INDEX IF NOT EXISTS planned_courses_semester_change_idx ON public.planned_courses (semester_id, change_seq);
+
+CREATE OR REPLACE FUNCTION public.next_plan_seq(p_user_id UUID) RETURNS BIGINT AS
+$$
+    INSERT INTO public.plan_versions (user_id, seq) VALUES (p_user_id, 1)
+    ON CONFLICT (user_id) DO UPDATE SET seq = public.plan_versions.seq + 1
+    RETURNING seq;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION public.planned_semesters_stamp() RETURNS trigger AS
+$$
+BEGIN
+    NEW.change_seq := public.next_plan_seq(NEW.user_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.planned_semesters_tombstone() RETURNS trigger AS
+$$
+BEGIN
+    INSERT INTO public.plan_tombstones (user_id, seq, entity_type, entity_id)
+    VALUES (OLD.user_id, public.next_plan_seq(OLD.user_id), 'SEMESTER', OLD.id);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.planned_courses_stamp() RETURNS trigger AS
+$$
+DECLARE
+    owner UUID;
+BEGIN
+    SELECT user_id INTO owner FROM public.planned_semesters WHERE id = NEW.semester_id;
+    IF owner IS NOT NULL THEN
+        NEW.change_seq := public.next_plan_seq(owner);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION public.planned_courses_tombstone() RETURNS trigger AS
+$$
+DECLARE
+    owner UUID;
+BEGIN
+    -- When the semester itself is already gone, its own tombstone covers the course
+    SELECT user_id INTO owner FROM public.planned_semesters WHERE id = OLD.semester_id;
+    IF owner IS NOT NULL THEN
+        INSERT INTO public.plan_tombstones (user_id, seq, entity_type, entity_id)
+        VALUES (owner, public.next_plan_seq(owner), 'COURSE', OLD.id);
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS planned_semesters_stamp ON public.planned_semesters;
+CREATE TRIGGER planned_semesters_stamp BEFORE INSERT OR UPDATE ON public.planned_semesters
+    FOR EACH ROW EXECUTE FUNCTION public.planned_semesters_stamp();
+
+DROP TRIGGER IF EXISTS planned_semesters_tombstone ON public.planned_semesters;
+CREATE TRIGGER planned_semesters_tombstone AFTER DELETE ON public.planned_semesters
+    FOR EACH ROW EXECUTE FUNCTION public.planned_semesters_tombstone();
+
+DROP TRIGGER IF EXISTS planned_courses_stamp ON public.planned_courses;
+CREATE TRIGGER planned_courses_stamp BEFORE INSERT OR UPDATE ON public.planned_courses
+    FOR EACH ROW EXECUTE FUNCTION public.planned_courses_stamp();
+
+DROP TRIGGER IF EXISTS planned_courses_tombstone ON public.planned_courses;
+CREATE TRIGGER planned_courses_tombstone AFTER DELETE ON public.planned_courses
+    FOR EACH ROW EXECUTE FUNCTION public.planned_courses_tombstone();
@@ -0,0 +1,34 @@
+-- Recommended roadmaps per degree, instantiated into a user's plan with set-based INSERT ... SELECT.
+
+CREATE TABLE IF NOT EXISTS public.plan_templates
+(
+    id           UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    degree_code  TEXT        NOT NULL,
+    name         TEXT        NOT NULL,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS plan_templates_degree_idx ON public.plan_templates (degree_code);
+
+-- term + year_offset become the semester title, e.g. ('Spring', 1) -> 'Spring <start year + 1>'
+CREATE TABLE IF NOT EXISTS public.plan_template_semesters
+(
+    id           UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    template_id  UUID    NOT NULL REFERENCES public.plan_templates (id) ON DELETE CASCADE,
+    position     INTEGER NOT NULL,
+    term         TEXT    NOT NULL,
+    year_offset  INTEGER NOT NULL,
+    CONSTRAINT plan_template_semesters_position_key UNIQUE (template_id, position)
+);
+
+CREATE TABLE IF NOT EXISTS public.plan_template_courses
+(
+    id                    UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    template_semester_id  UUID    NOT NULL REFERENCES public.plan_template_semesters (id) ON DELETE CASCADE,
+    position              INTEGER NOT NULL,
+    subject               TEXT    NOT NULL,
+    course_number         INTEGER NOT NULL,
+    credits               INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS plan_template_courses_semester_idx ON public.plan_template_courses (template_semester_id, position);
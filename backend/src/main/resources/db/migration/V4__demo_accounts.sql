@@ -0,0 +1,14 @@
+-- Pool of pre-provisioned demo accounts. Each row points at a users row that already has its demo plan; demo login
+-- claims one with FOR UPDATE SKIP LOCKED so concurrent logins never wait on each other.
+
+CREATE TABLE IF NOT EXISTS public.demo_accounts
+(
+    user_id     UUID PRIMARY KEY,
+    start_year  INTEGER     NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    claimed_at  TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS demo_accounts_unclaimed_idx
+    ON public.demo_accounts (start_year, created_at)
+    WHERE claimed_at IS NULL;
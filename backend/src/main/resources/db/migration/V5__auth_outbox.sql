@@ -0,0 +1,19 @@
+-- Transactional outbox for calls to the auth provider that must follow a local change, e.g. deleting the Supabase
+-- user after the account's rows were deleted. Rows are written in the same transaction as the local change and
+-- drained by a background worker; completed rows are kept for a while as an audit trail.
+
+CREATE TABLE IF NOT EXISTS public.auth_outbox
+(
+    id               BIGSERIAL PRIMARY KEY,
+    kind             TEXT        NOT NULL,
+    user_id          UUID        NOT NULL,
+    attempts         INTEGER     NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_error       TEXT,
+    created_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    completed_at     TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS auth_outbox_pending_idx
+    ON public.auth_outbox (next_attempt_at)
+    WHERE completed_at IS NULL;
@@ -0,0 +1,62 @@
+-- Cache invalidation bus: changes to cached tables are announced on the cache_invalidation channel so every backend
+-- instance can drop its copies (see CacheInvalidationBus). Payloads are '<table>:<key>', where the key is the
+-- affected user's ID for per-user tables and '*' for reference tables, which are reloaded in bulk. Notifications
+-- are delivered on commit and Postgres drops duplicates within a transaction, so a bulk change costs one message
+-- per user or table.
+
+CREATE OR REPLACE FUNCTION public.notify_cache_invalidation() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    changed_key TEXT;
+BEGIN
+    IF TG_LEVEL = 'STATEMENT' THEN
+        changed_key := '*';
+    ELSIF TG_TABLE_NAME = 'users' THEN
+        changed_key := COALESCE(NEW.id, OLD.id)::text;
+    ELSIF TG_TABLE_NAME = 'planned_semesters' THEN
+        changed_key := COALESCE(NEW.user_id, OLD.user_id)::text;
+    ELSIF TG_TABLE_NAME = 'planned_courses' THEN
+        SELECT s.user_id::text INTO changed_key
+        FROM public.planned_semesters s
+        WHERE s.id = COALESCE(NEW.semester_id, OLD.semester_id);
+    END IF;
+
+    -- A course deleted together with its semester has no semester left to look up; the semester's own
+    -- notification covers that user
+    IF changed_key IS NOT NULL THEN
+        PERFORM pg_notify('cache_invalidation', TG_TABLE_NAME || ':' || changed_key);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS users_cache_invalidation ON public.users;
+CREATE TRIGGER users_cache_invalidation
+    AFTER UPDATE OR DELETE ON public.users
+    FOR EACH ROW EXECUTE FUNCTION public.notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS planned_semesters_cache_invalidation ON public.planned_semesters;
+CREATE TRIGGER planned_semesters_cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON public.planned_semesters
+    FOR EACH ROW EXECUTE FUNCTION public.notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS planned_courses_cache_invalidation ON public.planned_courses;
+CREATE TRIGGER planned_courses_cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON public.planned_courses
+    FOR EACH ROW EXECUTE FUNCTION public.notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS courses_cache_invalidation ON public.courses;
+CREATE TRIGGER courses_cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.courses
+    FOR EACH STATEMENT EXECUTE FUNCTION public.notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS degree_requirements_cache_invalidation ON public.degree_requirements;
+CREATE TRIGGER degree_requirements_cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.degree_requirements
+    FOR EACH STATEMENT EXECUTE FUNCTION public.notify_cache_invalidation();
+
+DROP TRIGGER IF EXISTS requirement_criteria_cache_invalidation ON public.requirement_criteria;
+CREATE TRIGGER requirement_criteria_cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON public.requirement_criteria
+    FOR EACH STATEMENT EXECUTE FUNCTION public.notify_cache_invalidation();
@@ -0,0 +1,27 @@
+-- Indexes behind the hot read paths. SchemaIndexVerifier checks for them by name at startup, and
+-- QueryPlanIndexTests asserts that the queries below are planned without sequential scans.
+
+-- PlannedSemesterRepository.findByUserId and the dashboard's semester load
+CREATE INDEX IF NOT EXISTS planned_semesters_user_created_idx
+    ON public.planned_semesters (user_id, created_at);
+
+-- PlannedCourseRepository.findByPlannedSemester_UserIdOrderByCreatedAtAsc: semesters by user, then their courses
+-- in creation order
+CREATE INDEX IF NOT EXISTS planned_courses_semester_created_idx
+    ON public.planned_courses (semester_id, created_at);
+
+-- DegreeRequirementRepository.findByDegreeCodeOrderByPriorityAsc, already in the requested order
+CREATE INDEX IF NOT EXISTS degree_requirements_degree_priority_idx
+    ON public.degree_requirements (degree_code, priority);
+
+-- Loading each requirement's criteria for the audit: covers every mapped column, so the join is answered from the
+-- index without visiting the table
+CREATE INDEX IF NOT EXISTS requirement_criteria_requirement_covering_idx
+    ON public.requirement_criteria (requirement_id)
+    INCLUDE (id, type, subject, course_number, attribute, min_level, group_id);
+
+-- DemoAccountSweeper's expired-user search; demo users are a small slice of the table. The predicate must match
+-- the sweeper's WHERE clause exactly for the planner to use it
+CREATE INDEX IF NOT EXISTS users_demo_created_idx
+    ON public.users (created_at)
+    WHERE email LIKE '%@demo.app';
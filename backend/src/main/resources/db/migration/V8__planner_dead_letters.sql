@@ -0,0 +1,16 @@
+-- Buffered planner writes that the database rejected on their own (e.g. a constraint violation) after the batch
+-- they belonged to kept failing. The write was already acknowledged to the client, so it is kept here for an
+-- operator to inspect and replay instead of being discarded; see PlannerWriteBuffer.
+
+CREATE TABLE IF NOT EXISTS public.planner_dead_letters
+(
+    id           BIGSERIAL PRIMARY KEY,
+    user_id      UUID        NOT NULL,
+    kind         TEXT        NOT NULL,
+    semester_id  UUID        NOT NULL,
+    payload      JSONB       NOT NULL,
+    last_error   TEXT,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS planner_dead_letters_user_idx ON public.planner_dead_letters (user_id, created_at);
@@ -0,0 +1,20 @@
+-- Per-user counter for plan_events.seq. Taking MAX(seq) + 1 lets two concurrent edits by the same user pick the same
+-- number and fail on plan_events_user_seq_key; the upsert below row-locks the user's counter until the edit commits,
+-- so concurrent edits queue up instead, and a rolled-back edit gives its number back (the sequence stays gapless).
+
+CREATE TABLE IF NOT EXISTS public.plan_event_seqs
+(
+    user_id  UUID PRIMARY KEY,
+    seq      BIGINT NOT NULL
+);
+
+INSERT INTO public.plan_event_seqs (user_id, seq)
+SELECT user_id, MAX(seq) FROM public.plan_events GROUP BY user_id
+ON CONFLICT (user_id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION public.next_plan_event_seq(p_user_id UUID) RETURNS BIGINT AS
+$$
+    INSERT INTO public.plan_event_seqs (user_id, seq) VALUES (p_user_id, 1)
+    ON CONFLICT (user_id) DO UPDATE SET seq = public.plan_event_seqs.seq + 1
+    RETURNING seq;
+$$ LANGUAGE sql;
@@ -0,0 +1,86 @@
+package app.ospreyplan.backend.audit;
+
+import app.ospreyplan.backend.observability.SqlStatementCounter;
+import app.ospreyplan.backend.observability.StatementBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keeps the audit's statement count independent of plan and degree size: with every cache cold it reads the user,
+ * the requirements, their criteria, the planned courses and the catalogue entries once each.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ DegreeAuditService.class, SqlStatementCounter.class })
+@Testcontainers(disabledWithoutDocker = true)
+class DegreeAuditStatementBudgetTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	private static final int COURSES = 12;
+	private static final int REQUIREMENTS = 6;
+
+	@Autowired
+	private DegreeAuditService auditService;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private final UUID userId = UUID.randomUUID();
+
+	@BeforeEach
+	void seed() {
+		jdbc.update("INSERT INTO users (id, email, degree) VALUES (?, 'student@example.edu', 'BUDGET')", userId);
+		UUID semesterId = jdbc.queryForObject(
+				"INSERT INTO planned_semesters (user_id, title) VALUES (?, 'Fall 2025') RETURNING id", UUID.class, userId);
+		for (int i = 0; i < COURSES; i++) {
+			jdbc.update("INSERT INTO courses (subject, course_number, name, min_credits, max_credits) VALUES ('CSCI', ?, 'Course', 4, 4)",
+					1000 + i);
+			jdbc.update("INSERT INTO planned_courses (semester_id, subject, course_number, credits) VALUES (?, 'CSCI', ?, 4)",
+					semesterId, 1000 + i);
+		}
+		for (int r = 0; r < REQUIREMENTS; r++) {
+			String requirementId = "BUDGET-" + r;
+			jdbc.update("INSERT INTO degree_requirements (id, degree_code, category, name, required_count, priority) VALUES (?, 'BUDGET', 'Core', ?, 2, ?)",
+					requirementId, "Requirement " + r, r);
+			for (int c = 0; c < 2; c++) {
+				jdbc.update("INSERT INTO requirement_criteria (requirement_id, type, subject, course_number) VALUES (?, 'COURSE', 'CSCI', ?)",
+						requirementId, 1000 + 2 * r + c);
+			}
+		}
+		entityManager.clear();
+	}
+
+	@Test
+	void auditStaysWithinItsStatementBudget() {
+		DegreeAuditResponse audit = StatementBudget.atMost(5, () -> auditService.audit(userId));
+
+		assertThat(audit).isNotNull();
+	}
+}
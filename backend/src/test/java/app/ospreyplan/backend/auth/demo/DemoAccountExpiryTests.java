@@ -0,0 +1,101 @@
+package app.ospreyplan.backend.auth.demo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.Year;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Which demo users the sweeper considers expired, checked against the real query.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DemoAccountExpiryTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final int THIS_YEAR = Year.now().getValue();
+
+	private static SingleConnectionDataSource dataSource;
+	private static JdbcTemplate jdbc;
+	private static DemoAccountSweeper sweeper;
+
+	@BeforeAll
+	static void migrate() {
+		dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbc = new JdbcTemplate(dataSource);
+
+		sweeper = new DemoAccountSweeper(jdbc, null, null, null, null, null, mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(sweeper, "batchSize", 100);
+	}
+
+	@AfterAll
+	static void close() {
+		dataSource.destroy();
+	}
+
+	@Test
+	void neverPooledDemoUserExpiresWithItsSession() {
+		UUID expired = user("old@demo.app", "2 days");
+		UUID active = user("new@demo.app", "1 hour");
+
+		assertThat(expiredNow()).contains(expired).doesNotContain(active);
+	}
+
+	@Test
+	void claimedDemoUserExpiresBySessionStartNotCreation() {
+		UUID expired = user("claimed-old@demo.app", "10 days");
+		jdbc.update("INSERT INTO demo_accounts (user_id, start_year, claimed_at) VALUES (?, ?, now() - interval '2 days')",
+				expired, THIS_YEAR);
+		UUID active = user("claimed-new@demo.app", "10 days");
+		jdbc.update("INSERT INTO demo_accounts (user_id, start_year, claimed_at) VALUES (?, ?, now() - interval '1 hour')",
+				active, THIS_YEAR);
+
+		assertThat(expiredNow()).contains(expired).doesNotContain(active);
+	}
+
+	@Test
+	void unclaimedPoolAccountIsKeptUntilItsYearPasses() {
+		UUID current = user("pool-current@demo.app", "10 days");
+		jdbc.update("INSERT INTO demo_accounts (user_id, start_year) VALUES (?, ?)", current, THIS_YEAR);
+		UUID stale = user("pool-stale@demo.app", "10 days");
+		jdbc.update("INSERT INTO demo_accounts (user_id, start_year) VALUES (?, ?)", stale, THIS_YEAR - 1);
+
+		assertThat(expiredNow()).contains(stale).doesNotContain(current);
+	}
+
+	@Test
+	void realUsersAreNeverExpired() {
+		UUID student = user("student@example.edu", "400 days");
+
+		assertThat(expiredNow()).doesNotContain(student);
+	}
+
+	private static List<UUID> expiredNow() {
+		return sweeper.findExpired(Instant.now().minus(DemoAccountSweeper.SESSION_LIFETIME));
+	}
+
+	private static UUID user(String email, String age) {
+		UUID id = UUID.randomUUID();
+		jdbc.update("INSERT INTO users (id, email, created_at) VALUES (?, ?, now() - CAST(? AS interval))", id, email, age);
+		return id;
+	}
+}
@@ -0,0 +1,138 @@
+package app.ospreyplan.backend.auth.demo;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DemoAccountPoolTests {
+
+	private static final UUID POOLED = UUID.randomUUID();
+	private static final UUID PROVISIONED = UUID.randomUUID();
+
+	private final int year = Year.now().getValue();
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final DemoAccountProvisioner provisioner = mock(DemoAccountProvisioner.class);
+	private final ReplicaRouter replicaRouter = mock(ReplicaRouter.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private DemoAccountPool pool;
+
+	@BeforeEach
+	void setUp() {
+		when(provisioner.provision(1, year, false)).thenReturn(List.of(PROVISIONED));
+		// A full pool unless a test says otherwise, so background refills stay out of the way
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(year))).thenReturn(50);
+
+		pool = new DemoAccountPool(jdbcTemplate, provisioner,
+				new StaticListableBeanFactory(Map.of("replicaRouter", replicaRouter)).getBeanProvider(ReplicaRouter.class),
+				registry);
+		ReflectionTestUtils.setField(pool, "enabled", true);
+		ReflectionTestUtils.setField(pool, "poolSize", 50);
+		ReflectionTestUtils.setField(pool, "batchSize", 20);
+	}
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdown();
+	}
+
+	@Test
+	void claimsAPooledAccount() {
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), eq(year))).thenReturn(List.of(POOLED));
+
+		assertThat(pool.claim()).isEqualTo(POOLED);
+
+		verify(provisioner, never()).provision(anyInt(), anyInt(), eq(false));
+		assertThat(registry.counter("demo.accounts.claimed").count()).isEqualTo(1);
+		verify(replicaRouter).recordWrite(POOLED);
+		assertThat(registry.counter("demo.accounts.provisioned_on_demand").count()).isZero();
+	}
+
+	@Test
+	void provisionsOnDemandWhenThePoolIsEmpty() {
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), eq(year))).thenReturn(List.of());
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(year))).thenReturn(0);
+
+		assertThat(pool.claim()).isEqualTo(PROVISIONED);
+
+		assertThat(registry.counter("demo.accounts.provisioned_on_demand").count()).isEqualTo(1);
+		verify(replicaRouter).recordWrite(PROVISIONED);
+		// The empty pool is refilled in the background
+		verify(provisioner, timeout(1000).times(2)).provision(20, year, true);
+		verify(provisioner, timeout(1000)).provision(10, year, true);
+	}
+
+	@Test
+	void provisionsOnDemandWhenClaimingFails() {
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), eq(year)))
+				.thenThrow(new DataAccessResourceFailureException("relation \"demo_accounts\" does not exist"));
+
+		assertThat(pool.claim()).isEqualTo(PROVISIONED);
+	}
+
+	@Test
+	void disabledPoolAlwaysProvisions() {
+		ReflectionTestUtils.setField(pool, "enabled", false);
+
+		assertThat(pool.claim()).isEqualTo(PROVISIONED);
+
+		verify(jdbcTemplate, never()).queryForList(anyString(), eq(UUID.class), anyInt());
+	}
+
+	@Test
+	void refillWaitsUntilThePoolIsHalfEmpty() {
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(year))).thenReturn(26);
+
+		pool.refill();
+
+		verify(provisioner, never()).provision(anyInt(), anyInt(), anyBoolean());
+	}
+
+	@Test
+	void refillTopsThePoolUpInBatches() {
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(year))).thenReturn(5);
+
+		pool.refill();
+
+		verify(provisioner, times(2)).provision(20, year, true);
+		verify(provisioner).provision(5, year, true);
+	}
+
+	@Test
+	void failedRefillIsRetriedLater() {
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(year))).thenReturn(0);
+		when(provisioner.provision(20, year, true))
+				.thenThrow(new DataAccessResourceFailureException("connection refused"))
+				.thenReturn(List.of());
+
+		pool.refill();
+		verify(provisioner).provision(20, year, true);
+
+		pool.refill();
+		verify(provisioner, times(3)).provision(20, year, true);
+		verify(provisioner).provision(10, year, true);
+	}
+}
@@ -0,0 +1,116 @@
+package app.ospreyplan.backend.auth.demo;
+
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
+import app.ospreyplan.backend.planner.sync.PlanSyncService;
+import app.ospreyplan.backend.usersettings.UserSettingsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DemoAccountSweeperTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final PlannedSemesterRepository semesterRepository = mock(PlannedSemesterRepository.class);
+	private final UserSettingsService userSettingsService = mock(UserSettingsService.class);
+	private final PlannerWriteBuffer writeBuffer = mock(PlannerWriteBuffer.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private DemoAccountSweeper sweeper;
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+		when(userSettingsService.deleteSettings(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+		sweeper = new DemoAccountSweeper(jdbcTemplate, semesterRepository, userSettingsService,
+				mock(PlanHistoryService.class), mock(PlanSyncService.class), writeBuffer, transactionManager, registry);
+		ReflectionTestUtils.setField(sweeper, "enabled", true);
+		ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+		ReflectionTestUtils.setField(sweeper, "maxBatches", 3);
+		ReflectionTestUtils.setField(sweeper, "pauseMs", 0L);
+	}
+
+	@Test
+	void stopsAfterAPartialBatch() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		UUID c = UUID.randomUUID();
+		expiredBatches(List.of(a, b), List.of(c));
+
+		assertThat(sweeper.purgeExpired()).isEqualTo(3);
+
+		verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(UUID.class), any(Object[].class));
+		verify(semesterRepository).deleteSemestersByUserIdIn(List.of(a, b));
+		verify(semesterRepository).deleteSemestersByUserIdIn(List.of(c));
+		assertThat(registry.counter("demo.sweeper.rows.purged", "table", "users").count()).isEqualTo(3);
+	}
+
+	@Test
+	void stopsAfterMaxBatchesEvenWithMoreExpired() {
+		expiredBatches(List.of(UUID.randomUUID(), UUID.randomUUID()), List.of(UUID.randomUUID(), UUID.randomUUID()),
+				List.of(UUID.randomUUID(), UUID.randomUUID()), List.of(UUID.randomUUID(), UUID.randomUUID()));
+
+		assertThat(sweeper.purgeExpired()).isEqualTo(6);
+
+		verify(jdbcTemplate, times(3)).queryForList(anyString(), eq(UUID.class), any(Object[].class));
+		verify(semesterRepository, times(3)).deleteSemestersByUserIdIn(anyList());
+	}
+
+	@Test
+	void nothingExpiredDeletesNothing() {
+		expiredBatches(List.of());
+
+		assertThat(sweeper.purgeExpired()).isZero();
+
+		verify(semesterRepository, never()).deleteSemestersByUserIdIn(anyList());
+	}
+
+	@Test
+	void failedLookupEndsTheRun() {
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(Object[].class)))
+				.thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+		assertThat(sweeper.purgeExpired()).isZero();
+	}
+
+	@Test
+	void bufferedWritesAreDiscardedBeforeThePlanIsDeleted() {
+		UUID a = UUID.randomUUID();
+		expiredBatches(List.of(a));
+
+		sweeper.purgeExpired();
+
+		InOrder order = inOrder(writeBuffer, semesterRepository);
+		order.verify(writeBuffer).discard(a);
+		order.verify(semesterRepository).deleteCoursesByUserIdIn(List.of(a));
+	}
+
+	@SafeVarargs
+	private void expiredBatches(List<UUID> first, List<UUID>... rest) {
+		when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(Object[].class))).thenReturn(first, rest);
+	}
+}
@@ -0,0 +1,115 @@
+package app.ospreyplan.backend.auth.outbox;
+
+import app.ospreyplan.backend.supabase.SupabaseAdminClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthOutboxTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final SupabaseAdminClient adminClient = mock(SupabaseAdminClient.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AuthOutbox outbox = new AuthOutbox(jdbcTemplate, adminClient, registry);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(outbox, "batchSize", 20);
+		ReflectionTestUtils.setField(outbox, "leaseSeconds", 60);
+		ReflectionTestUtils.setField(outbox, "maxBackoffSeconds", 3600L);
+		ReflectionTestUtils.setField(outbox, "retentionDays", 30);
+	}
+
+	@Test
+	void backoffDoublesFromFiveSecondsWithJitterUpToTheCap() {
+		for (int i = 0; i < 100; i++) {
+			assertThat(outbox.backoffSeconds(1)).isBetween(4L, 6L);
+			assertThat(outbox.backoffSeconds(2)).isBetween(8L, 12L);
+			assertThat(outbox.backoffSeconds(4)).isBetween(32L, 48L);
+			assertThat(outbox.backoffSeconds(30)).isBetween(2880L, 4320L);
+		}
+	}
+
+	@Test
+	void deliveredEntryIsMarkedCompleted() throws Exception {
+		lease(7, AuthOutbox.DELETE_USER, 0);
+
+		outbox.drain();
+
+		verify(adminClient).deleteUser(USER_ID);
+		verify(jdbcTemplate).update(contains("completed_at = now()"), eq(7L));
+		assertThat(registry.counter("auth.outbox.attempts", "outcome", "completed").count()).isEqualTo(1);
+	}
+
+	@Test
+	void failedDeliveryIsRescheduledWithBackoff() throws Exception {
+		lease(7, AuthOutbox.DELETE_USER, 2);
+		doThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)).when(adminClient).deleteUser(USER_ID);
+
+		outbox.drain();
+
+		// Third attempt: 20s +/- 20%
+		verify(jdbcTemplate).update(contains("next_attempt_at = now() + make_interval"), eq(3), eq("502 BAD_GATEWAY"),
+				longThat(delay -> delay >= 16 && delay <= 24), eq(7L));
+		verify(jdbcTemplate, never()).update(contains("completed_at = now()"), anyLong());
+		assertThat(registry.counter("auth.outbox.attempts", "outcome", "failed").count()).isEqualTo(1);
+	}
+
+	@Test
+	void unknownKindIsKeptAndRetriedRatherThanCompleted() throws Exception {
+		lease(7, "RENAME_USER", 0);
+
+		outbox.drain();
+
+		verify(adminClient, never()).deleteUser(any());
+		verify(jdbcTemplate).update(contains("last_error = ?"), eq(1), startsWith("Unknown auth outbox entry kind"),
+				anyLong(), eq(7L));
+		verify(jdbcTemplate, never()).update(contains("completed_at = now()"), anyLong());
+	}
+
+	@Test
+	void purgeDeletesOnlyCompletedRowsPastTheRetention() {
+		outbox.purgeCompleted();
+
+		verify(jdbcTemplate).update("DELETE FROM auth_outbox WHERE completed_at < now() - make_interval(days => ?)", 30);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void lease(long id, String kind, int attempts) throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getLong("id")).thenReturn(id);
+		when(rs.getString("kind")).thenReturn(kind);
+		when(rs.getObject("user_id", UUID.class)).thenReturn(USER_ID);
+		when(rs.getInt("attempts")).thenReturn(attempts);
+		when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyInt(), anyInt())).thenAnswer(invocation -> {
+			RowMapper<?> mapper = invocation.getArgument(1);
+			return List.of(mapper.mapRow(rs, 0));
+		});
+	}
+}
@@ -0,0 +1,72 @@
+package app.ospreyplan.backend.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationBusTests {
+
+	private final RecordingListener users = new RecordingListener(Set.of("users"));
+	private final RecordingListener reference = new RecordingListener(Set.of("courses", "degree_requirements"));
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final CacheInvalidationBus bus = new CacheInvalidationBus(new DataSourceProperties(), List.of(users, reference), registry);
+
+	@Test
+	void routesNotificationsToListenersOfTheChangedTable() {
+		bus.dispatch("users:2d1b8c4e-8f0a-4a63-9a57-0c7e7f5a1b11");
+		bus.dispatch("courses:*");
+		bus.dispatch("planned_semesters:2d1b8c4e-8f0a-4a63-9a57-0c7e7f5a1b11");
+
+		assertThat(users.invalidated).containsExactly("users:2d1b8c4e-8f0a-4a63-9a57-0c7e7f5a1b11");
+		assertThat(reference.invalidated).containsExactly("courses:*");
+		assertThat(registry.counter("cache.invalidation.notifications", "table", "planned_semesters").count()).isEqualTo(1);
+	}
+
+	@Test
+	void flushesAListenerThatCannotHandleANotification() {
+		users.failNext = true;
+
+		bus.dispatch("users:not-a-uuid");
+		bus.dispatch("malformed");
+
+		assertThat(users.flushes).isEqualTo(1);
+		assertThat(reference.flushes).isZero();
+	}
+
+	private static final class RecordingListener implements CacheInvalidationListener {
+
+		private final Set<String> tables;
+		private final List<String> invalidated = new ArrayList<>();
+		private int flushes;
+		private boolean failNext;
+
+		RecordingListener(Set<String> tables) {
+			this.tables = tables;
+		}
+
+		@Override
+		public Set<String> tables() {
+			return tables;
+		}
+
+		@Override
+		public void invalidate(String table, String key) {
+			if (failNext) {
+				failNext = false;
+				throw new IllegalArgumentException("bad key " + key);
+			}
+			invalidated.add(table + ":" + key);
+		}
+
+		@Override
+		public void invalidateAll() {
+			flushes++;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package app.ospreyplan.backend.config;
+
+import app.ospreyplan.backend.audit.DegreeRequirement;
+import app.ospreyplan.backend.audit.DegreeRequirementRepository;
+import app.ospreyplan.backend.audit.RequirementCriteria;
+import app.ospreyplan.backend.courses.Course;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.annotations.Cache;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hibernate runs with missing_cache_strategy=fail, so a region used in an annotation but not declared in
+ * hibernate-cache.conf only shows up at startup. Catch it here instead.
+ */
+class ReferenceDataCacheConfigTests {
+
+	@Test
+	void everyAnnotatedRegionIsDeclared() throws Exception {
+		List<String> regions = new ArrayList<>();
+		regions.add(Course.class.getAnnotation(Cache.class).region());
+		regions.add(DegreeRequirement.class.getAnnotation(Cache.class).region());
+		regions.add(DegreeRequirement.class.getDeclaredField("criteria").getAnnotation(Cache.class).region());
+		regions.add(RequirementCriteria.class.getAnnotation(Cache.class).region());
+		regions.add(DegreeRequirementRepository.BY_DEGREE_REGION);
+		regions.add("default-update-timestamps-region");
+		regions.add("default-query-results-region");
+
+		assertThat(regions).containsAll(ReferenceDataCache.DOMAIN_REGIONS);
+
+		CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+		try (CacheManager manager = provider.getCacheManager(new URI("classpath:hibernate-cache.conf"), getClass().getClassLoader())) {
+			for (String region : regions) {
+				assertThat(manager.getCache(region)).as(region).isNotNull();
+			}
+			assertThat(manager.getCache("reference-not-declared")).isNull();
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package app.ospreyplan.backend.dashboard;
+
+import app.ospreyplan.backend.audit.DegreeAuditResponse;
+import app.ospreyplan.backend.audit.DegreeAuditService;
+import app.ospreyplan.backend.audit.DegreeRequirement;
+import app.ospreyplan.backend.observability.RequestScopeTaskDecorator;
+import app.ospreyplan.backend.planner.course.PlannedCourse;
+import app.ospreyplan.backend.planner.semester.PlannedSemester;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import app.ospreyplan.backend.usersettings.UserSettingsService;
+import app.ospreyplan.backend.usersettings.UserSettingsService.VersionedSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTests {
+
+	private final UUID userId = UUID.randomUUID();
+	private final AuthenticatedUser user = new AuthenticatedUser(userId, "osprey@stockton.edu", false, Map.of());
+	private final UserSettingsService settingsService = mock(UserSettingsService.class);
+	private final PlannedSemesterRepository semesterRepository = mock(PlannedSemesterRepository.class);
+	private final DegreeAuditService auditService = mock(DegreeAuditService.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private DashboardService service;
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+		service = dashboard(10_000);
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void skipsTheAuditWithoutADegree() {
+		when(settingsService.getUserSettings(userId)).thenReturn(new VersionedSettings(null, null, 0));
+		when(semesterRepository.findByUserId(userId)).thenReturn(List.of(semester()));
+
+		DashboardResponse response = service.load(user);
+
+		assertThat(response.audit().getDegreeCode()).isNull();
+		assertThat(response.audit().getResults()).isEmpty();
+		assertThat(response.semesters()).hasSize(1);
+		verify(auditService, never()).requirementsFor(anyString());
+		verify(auditService, never()).audit(any(), any(), any());
+	}
+
+	@Test
+	void auditsTheCoursesAlreadyLoadedForThePlannerInCreationOrder() {
+		PlannedCourse later = course("CSCI", 2102, OffsetDateTime.parse("2025-09-02T10:00:00Z"));
+		PlannedCourse earlier = course("CSCI", 2101, OffsetDateTime.parse("2025-09-01T10:00:00Z"));
+		PlannedCourse undated = course("MATH", 2215, null);
+		List<DegreeRequirement> requirements = List.of(mock(DegreeRequirement.class));
+		DegreeAuditResponse audit = new DegreeAuditResponse("CSCI", List.of());
+		when(settingsService.getUserSettings(userId)).thenReturn(new VersionedSettings("CSCI", 2025, 3));
+		when(semesterRepository.findByUserId(userId)).thenReturn(List.of(semester(later, undated), semester(earlier)));
+		when(auditService.requirementsFor("CSCI")).thenReturn(requirements);
+		when(auditService.audit("CSCI", requirements, List.of(earlier, later, undated))).thenReturn(audit);
+
+		DashboardResponse response = service.load(user);
+
+		assertThat(response.audit()).isSameAs(audit);
+		assertThat(response.settings().getDegree()).isEqualTo("CSCI");
+		assertThat(response.user()).containsEntry("id", userId.toString());
+		verify(semesterRepository, times(1)).findByUserId(userId);
+		verify(auditService, never()).audit(any(UUID.class));
+	}
+
+	@Test
+	void timeoutCancelsEveryPartAndInterruptsTheRunningOnes() throws Exception {
+		service.shutdown();
+		service = dashboard(100);
+		CompletableFuture<Boolean> settingsInterrupted = new CompletableFuture<>();
+		CompletableFuture<Boolean> semestersInterrupted = new CompletableFuture<>();
+		when(settingsService.getUserSettings(userId)).thenAnswer(invocation -> {
+			block(settingsInterrupted);
+			return new VersionedSettings("CSCI", 2025, 3);
+		});
+		when(semesterRepository.findByUserId(userId)).thenAnswer(invocation -> {
+			block(semestersInterrupted);
+			return List.of();
+		});
+
+		assertThatThrownBy(() -> service.load(user))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("longer than 100 ms");
+
+		assertThat(settingsInterrupted.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(semestersInterrupted.get(5, TimeUnit.SECONDS)).isTrue();
+		// The requirements and the audit depended on the interrupted reads and never start
+		verify(auditService, never()).requirementsFor(anyString());
+		verify(auditService, never()).audit(any(), any(), any());
+	}
+
+	@Test
+	void failureOfOnePartIsRethrownAndStopsTheOthers() throws Exception {
+		CompletableFuture<Boolean> settingsInterrupted = new CompletableFuture<>();
+		when(settingsService.getUserSettings(userId)).thenAnswer(invocation -> {
+			block(settingsInterrupted);
+			return new VersionedSettings("CSCI", 2025, 3);
+		});
+		when(semesterRepository.findByUserId(userId)).thenThrow(new IllegalArgumentException("plan unreadable"));
+
+		assertThatThrownBy(() -> service.load(user))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("plan unreadable");
+
+		assertThat(settingsInterrupted.get(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	private DashboardService dashboard(long timeoutMs) {
+		return new DashboardService(settingsService, semesterRepository, auditService, transactionManager,
+				new RequestScopeTaskDecorator(), timeoutMs);
+	}
+
+	private static void block(CompletableFuture<Boolean> interrupted) {
+		try {
+			Thread.sleep(10_000);
+			interrupted.complete(false);
+		}
+		catch (InterruptedException e) {
+			interrupted.complete(true);
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static PlannedSemester semester(PlannedCourse... courses) {
+		PlannedSemester semester = new PlannedSemester();
+		semester.setId(UUID.randomUUID());
+		semester.setTitle("Fall 2025");
+		semester.setPlannedCourses(new ArrayList<>(List.of(courses)));
+		return semester;
+	}
+
+	private static PlannedCourse course(String subject, int number, OffsetDateTime createdAt) {
+		PlannedCourse course = new PlannedCourse();
+		course.setId(UUID.randomUUID());
+		course.setSubject(subject);
+		course.setCourseNumber(number);
+		course.setCreatedAt(createdAt);
+		return course;
+	}
+}
@@ -0,0 +1,78 @@
+package app.ospreyplan.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlFilterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final HikariPoolMXBean mxBean = mock(HikariPoolMXBean.class);
+	private final Timer acquire = Timer.builder("hikaricp.connections.acquire").tag("pool", "primary").register(registry);
+	private AdmissionControlFilter filter;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		HikariDataSource pool = mock(HikariDataSource.class);
+		when(pool.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+		when(pool.unwrap(HikariDataSource.class)).thenReturn(pool);
+		when(pool.getHikariPoolMXBean()).thenReturn(mxBean);
+		when(pool.getPoolName()).thenReturn("primary");
+
+		filter = new AdmissionControlFilter(pool, new StaticListableBeanFactory().getBeanProvider(JdbcConcurrencyLimiter.class), registry, true, 10, 500, 0, 2, List.of("/actuator/**", "/auth/me"));
+	}
+
+	@Test
+	void rejectsWhileTooManyThreadsWaitForAConnection() throws Exception {
+		when(mxBean.getThreadsAwaitingConnection()).thenReturn(11);
+
+		MockHttpServletResponse response = call("/api/dashboard");
+
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+		assertThat(registry.counter("admission.rejected", "reason", "pending").count()).isEqualTo(1);
+	}
+
+	@Test
+	void letsExemptPathsThroughWhileSaturated() throws Exception {
+		when(mxBean.getThreadsAwaitingConnection()).thenReturn(50);
+
+		assertThat(call("/auth/me").getStatus()).isEqualTo(200);
+		assertThat(call("/api/courses").getStatus()).isEqualTo(503);
+		assertThat(call("/actuator/health").getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void followsTheRecentMeanAcquireTime() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			acquire.record(Duration.ofMillis(800));
+		}
+		assertThat(call("/api/dashboard").getStatus()).isEqualTo(503);
+
+		for (int i = 0; i < 20; i++) {
+			acquire.record(Duration.ofMillis(2));
+		}
+		assertThat(call("/api/dashboard").getStatus()).isEqualTo(200);
+	}
+
+	private MockHttpServletResponse call(String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,88 @@
+package app.ospreyplan.backend.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JdbcConcurrencyLimiterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(2, 50);
+	private final DataSource target = mock(DataSource.class);
+
+	@Test
+	void givesUpWhenAllPermitsAreHeldAndReleasesThemOnClose() throws Exception {
+		limiter.bindTo(registry);
+		when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+		DataSource limited = limiter.limit(target);
+
+		Connection first = limited.getConnection();
+		Connection second = limited.getConnection();
+		assertThatThrownBy(limited::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+		assertThat(registry.get("jdbc.limiter.timeouts").tag("pool", "primary").counter().count()).isEqualTo(1);
+
+		first.close();
+		first.close();
+		Connection third = limited.getConnection();
+		assertThat(registry.get("jdbc.limiter.active").gauge().value()).isEqualTo(2);
+
+		second.close();
+		third.close();
+		assertThat(registry.get("jdbc.limiter.active").gauge().value()).isZero();
+	}
+
+	@Test
+	void replicaPoolsHaveTheirOwnPermits() throws Exception {
+		JdbcConcurrencyLimiter replica = limiter.forPool("replica-1", 1);
+		limiter.bindTo(registry);
+		replica.bindTo(registry);
+		when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+		DataSource primaryPool = limiter.limit(target);
+		DataSource replicaPool = replica.limit(target);
+
+		primaryPool.getConnection();
+		primaryPool.getConnection();
+		Connection read = replicaPool.getConnection();
+		assertThatThrownBy(replicaPool::getConnection).hasMessageContaining("replica-1");
+
+		assertThat(registry.get("jdbc.limiter.active").tag("pool", "primary").gauge().value()).isEqualTo(2);
+		assertThat(registry.get("jdbc.limiter.active").tag("pool", "replica-1").gauge().value()).isEqualTo(1);
+		assertThat(registry.get("jdbc.limiter.timeouts").tag("pool", "replica-1").counter().count()).isEqualTo(1);
+		assertThat(registry.get("jdbc.limiter.timeouts").tag("pool", "primary").counter().count()).isZero();
+		read.close();
+	}
+
+	@Test
+	void returnsThePermitWhenThePoolFails() throws Exception {
+		when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+		DataSource limited = limiter.limit(target);
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(limited::getConnection).hasMessage("pool exhausted");
+		}
+	}
+
+	@Test
+	void delegatesEverythingElseToTheConnection() throws Exception {
+		Connection connection = mock(Connection.class);
+		when(target.getConnection()).thenReturn(connection);
+
+		try (Connection limited = limiter.limit(target).getConnection()) {
+			limited.prepareStatement("SELECT 1");
+		}
+
+		verify(connection).prepareStatement(any());
+		verify(connection).close();
+	}
+}
@@ -0,0 +1,116 @@
+package app.ospreyplan.backend.datasource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the migrations against a real Postgres and checks the plans of the hot queries. Sequential scans are priced
+ * out of the planner's reach, so a plan that still contains one means no usable index exists.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanIndexTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private static SingleConnectionDataSource dataSource;
+	private static JdbcTemplate jdbc;
+
+	@BeforeAll
+	static void migrateAndSeed() {
+		dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbc = new JdbcTemplate(dataSource);
+
+		jdbc.update("INSERT INTO users (id, email) VALUES (?, 'student@example.edu')", USER_ID);
+		jdbc.update("INSERT INTO users (id, email) VALUES (?, 'guest@demo.app')", UUID.randomUUID());
+		UUID semesterId = jdbc.queryForObject(
+				"INSERT INTO planned_semesters (user_id, title) VALUES (?, 'Fall 2025') RETURNING id", UUID.class, USER_ID);
+		jdbc.update("INSERT INTO planned_courses (semester_id, subject, course_number, credits) VALUES (?, 'CSCI', 2101, 4)",
+				semesterId);
+		jdbc.update("INSERT INTO degree_requirements (id, degree_code, name, required_count, priority) VALUES ('CS-CORE', 'CS', 'Core', 1, 1)");
+		jdbc.update("INSERT INTO requirement_criteria (requirement_id, type, subject, course_number) VALUES ('CS-CORE', 'COURSE', 'CSCI', 2101)");
+
+		jdbc.execute("VACUUM ANALYZE");
+		jdbc.execute("SET enable_seqscan = off");
+	}
+
+	@AfterAll
+	static void close() {
+		dataSource.destroy();
+	}
+
+	@Test
+	void semestersByUser() {
+		// Ordered like the plan loads, which planned_semesters_user_change_idx cannot answer without a sort
+		assertThat(plan("SELECT * FROM planned_semesters WHERE user_id = '" + USER_ID + "' ORDER BY created_at"))
+				.doesNotContain("Seq Scan")
+				.contains("planned_semesters_user_created_idx");
+	}
+
+	@Test
+	void coursesByUserInCreationOrder() {
+		assertThat(plan("""
+				SELECT pc.* FROM planned_courses pc
+				JOIN planned_semesters ps ON ps.id = pc.semester_id
+				WHERE ps.user_id = '%s'
+				ORDER BY pc.created_at
+				""".formatted(USER_ID)))
+				.doesNotContain("Seq Scan");
+	}
+
+	@Test
+	void requirementsByDegreeInPriorityOrder() {
+		assertThat(plan("SELECT * FROM degree_requirements WHERE degree_code = 'CS' ORDER BY priority"))
+				.doesNotContain("Seq Scan")
+				.contains("degree_requirements_degree_priority_idx");
+	}
+
+	@Test
+	void criteriaForRequirementsComeFromTheCoveringIndex() {
+		assertThat(plan("""
+				SELECT id, requirement_id, type, subject, course_number, attribute, min_level, group_id
+				FROM requirement_criteria WHERE requirement_id IN ('CS-CORE', 'CS-MATH')
+				"""))
+				.doesNotContain("Seq Scan")
+				.contains("requirement_criteria_requirement_covering_idx");
+	}
+
+	@Test
+	void expiredDemoUsers() {
+		assertThat(plan("""
+				SELECT u.id FROM users u
+				LEFT JOIN demo_accounts d ON d.user_id = u.id
+				WHERE u.email LIKE '%@demo.app'
+				  AND CASE WHEN d.user_id IS NULL THEN u.created_at < now()
+				           WHEN d.claimed_at IS NOT NULL THEN d.claimed_at < now()
+				           ELSE d.start_year < 2020
+				      END
+				LIMIT 200
+				"""))
+				.doesNotContain("Seq Scan")
+				.contains("users_demo_created_idx");
+	}
+
+	@Test
+	void verifierFindsEveryRequiredIndex() {
+		assertThat(new SchemaIndexVerifier(jdbc, true, true).missingIndexes()).isEmpty();
+	}
+
+	private static String plan(String sql) {
+		return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+	}
+}
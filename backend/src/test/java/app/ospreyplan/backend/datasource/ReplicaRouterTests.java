@@ -0,0 +1,166 @@
+package app.ospreyplan.backend.datasource;
+
+import app.ospreyplan.backend.security.AuthenticatedUser;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRouterTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection firstConnection = mock(Connection.class);
+	private final Connection secondConnection = mock(Connection.class);
+	private final DataSource primary = dataSource(primaryConnection);
+	private final DataSource first = dataSource(firstConnection);
+	private final DataSource second = dataSource(secondConnection);
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void spreadsReadsOverReplicas() throws SQLException {
+		ReplicaRouter router = router(true);
+
+		assertThat(List.of(router.getConnection(), router.getConnection(), router.getConnection()))
+				.containsExactly(firstConnection, secondConnection, firstConnection);
+	}
+
+	@Test
+	void takesAFailingReplicaOutOfRotationAndFallsBackToThePrimary() throws SQLException {
+		ReplicaRouter router = router(true);
+		when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+		when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+
+		assertThat(router.getConnection()).isSameAs(primaryConnection);
+		assertThat(router.getConnection()).isSameAs(primaryConnection);
+		assertThat(registry.counter("datasource.reads.routed", "target", "primary", "reason", "no-healthy-replica").count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	void failsReadsWithoutAHealthyReplicaWhenFallbackIsOff() throws SQLException {
+		ReplicaRouter router = router(false);
+		when(first.getConnection()).thenThrow(new SQLException("connection refused"));
+		when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+
+		assertThatThrownBy(router::getConnection).isInstanceOf(SQLException.class);
+	}
+
+	@Test
+	void readsFromThePrimaryRightAfterTheSameUserWrote() throws SQLException {
+		ReplicaRouter router = router(true);
+		UUID userId = UUID.randomUUID();
+		signIn(userId);
+
+		assertThat(router.getConnection()).isSameAs(firstConnection);
+
+		router.trackingWrites(primary).getConnection();
+		assertThat(router.getConnection()).isSameAs(primaryConnection);
+
+		signIn(UUID.randomUUID());
+		assertThat(router.getConnection()).isSameAs(secondConnection);
+	}
+
+	@Test
+	void replicaJoinsTheRotationOnlyAfterItsFirstSuccessfulProbe() throws SQLException {
+		ReplicaRouter router = unprobedRouter(true, "SELECT 0");
+
+		assertThat(router.getConnection()).isSameAs(primaryConnection);
+
+		stubLag(firstConnection, 0);
+		when(second.getConnection()).thenThrow(new SQLException("connection refused"));
+		router.probeReplicas();
+
+		assertThat(List.of(router.getConnection(), router.getConnection())).containsOnly(firstConnection);
+	}
+
+	@Test
+	void probesWithThePostgresReplayLagQueryByDefault() throws SQLException {
+		ReplicaRouter router = unprobedRouter(true, "");
+		Statement firstStatement = stubLag(firstConnection, 9000);
+		Statement secondStatement = stubLag(secondConnection, 10);
+
+		router.probeReplicas();
+
+		verify(firstStatement).executeQuery(ReplicaRouter.LAG_QUERY);
+		verify(secondStatement).executeQuery(ReplicaRouter.LAG_QUERY);
+		// replica-1 lags more than the 5000 ms allowed
+		assertThat(List.of(router.getConnection(), router.getConnection())).containsOnly(secondConnection);
+	}
+
+	@Test
+	void closesReplicaPoolsBehindTheirLimiters() throws Exception {
+		HikariDataSource pool = mock(HikariDataSource.class);
+		when(pool.isWrapperFor(AutoCloseable.class)).thenReturn(true);
+		when(pool.unwrap(AutoCloseable.class)).thenReturn(pool);
+		DataSource limited = new JdbcConcurrencyLimiter("replica-1", 1, 50).limit(pool);
+		ReplicaRouter router = new ReplicaRouter(primary, List.of(new ReplicaRouter.Replica("replica-1", limited)),
+				registry, true, 5000, 60000, "SELECT 0");
+
+		router.close();
+
+		verify(pool).close();
+	}
+
+	private ReplicaRouter router(boolean fallbackToPrimary) throws SQLException {
+		ReplicaRouter router = unprobedRouter(fallbackToPrimary, "SELECT 0");
+		stubLag(firstConnection, 0);
+		stubLag(secondConnection, 0);
+		router.probeReplicas();
+		return router;
+	}
+
+	private ReplicaRouter unprobedRouter(boolean fallbackToPrimary, String lagQuery) {
+		return new ReplicaRouter(primary,
+				List.of(new ReplicaRouter.Replica("replica-1", first), new ReplicaRouter.Replica("replica-2", second)),
+				registry, fallbackToPrimary, 5000, 60000, lagQuery);
+	}
+
+	private static Statement stubLag(Connection connection, double lagMs) throws SQLException {
+		Statement statement = mock(Statement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(connection.createStatement()).thenReturn(statement);
+		when(statement.executeQuery(anyString())).thenReturn(rs);
+		when(rs.next()).thenReturn(true);
+		when(rs.getDouble(1)).thenReturn(lagMs);
+		return statement;
+	}
+
+	private static DataSource dataSource(Connection connection) {
+		DataSource dataSource = mock(DataSource.class);
+		try {
+			when(dataSource.getConnection()).thenReturn(connection);
+		}
+		catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+		return dataSource;
+	}
+
+	private static void signIn(UUID userId) {
+		AuthenticatedUser user = new AuthenticatedUser(userId, "student@example.edu", false, Map.of());
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+	}
+}
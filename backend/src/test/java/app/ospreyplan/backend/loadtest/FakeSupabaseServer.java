@@ -0,0 +1,279 @@
+package app.ospreyplan.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the parts of the Supabase auth API the backend calls, so the backend can be run and
+ * load-tested offline. Point {@code SUPABASE_PROJECT_URL} at {@link #baseUrl()} and use the same
+ * {@code SUPABASE_JWT_SECRET}; tokens issued here then pass the backend's local verification.
+ *
+ * Implemented endpoints:
+ * - {@code POST /auth/v1/token?grant_type=refresh_token|password|pkce} – issues a session; refresh tokens are
+ *   single-use, like Supabase's rotating refresh tokens
+ * - {@code GET /auth/v1/user} – returns the user behind a bearer token, 401 for anything else
+ * - {@code DELETE /auth/v1/admin/users/{id}} – 200, or 404 for unknown users
+ *
+ * Latency ({@link #latency(Duration, Duration)}) and failures ({@link #failures(double, int)}) can be injected and
+ * changed while the server runs. Run {@link #main(String[])} to start it on its own.
+ */
+public class FakeSupabaseServer implements AutoCloseable {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final int ACCESS_TOKEN_SECONDS = 3600;
+
+	private final HttpServer server;
+	private final Key key;
+	private final Map<String, UUID> refreshTokens = new ConcurrentHashMap<>();
+	private final Set<UUID> users = ConcurrentHashMap.newKeySet();
+	private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+
+	private volatile long baseLatencyNanos;
+	private volatile long jitterNanos;
+	private volatile double failureRate;
+	private volatile int failureStatus = 503;
+
+	public FakeSupabaseServer(int port, String jwtSecret) throws IOException {
+		this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		this.server.createContext("/auth/v1/token", exchange -> handle(exchange, "token", this::token));
+		this.server.createContext("/auth/v1/user", exchange -> handle(exchange, "user", this::user));
+		this.server.createContext("/auth/v1/admin/users/", exchange -> handle(exchange, "admin-delete", this::deleteUser));
+	}
+
+	public FakeSupabaseServer start() {
+		server.start();
+		return this;
+	}
+
+	public String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	/**
+	 * Delays every response by {@code base} plus a uniformly random extra of up to {@code jitter}.
+	 */
+	public FakeSupabaseServer latency(Duration base, Duration jitter) {
+		this.baseLatencyNanos = base.toNanos();
+		this.jitterNanos = jitter.toNanos();
+		return this;
+	}
+
+	/**
+	 * Answers the given fraction of requests with {@code status} instead of handling them.
+	 */
+	public FakeSupabaseServer failures(double rate, int status) {
+		this.failureRate = rate;
+		this.failureStatus = status;
+		return this;
+	}
+
+	public long requestCount(String endpoint) {
+		AtomicLong count = requestCounts.get(endpoint);
+		return count == null ? 0 : count.get();
+	}
+
+	/**
+	 * Creates a session for the user directly, without going through HTTP. Used to seed load-test users.
+	 */
+	public Session issueSession(UUID userId, String email) {
+		users.add(userId);
+		String refreshToken = UUID.randomUUID().toString();
+		refreshTokens.put(refreshToken, userId);
+		return new Session(accessToken(userId, email), refreshToken);
+	}
+
+	public record Session(String accessToken, String refreshToken) {
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	@FunctionalInterface
+	private interface Handler {
+		Response handle(HttpExchange exchange) throws IOException;
+	}
+
+	private record Response(int status, Object body) {
+	}
+
+	private void handle(HttpExchange exchange, String endpoint, Handler handler) throws IOException {
+		requestCounts.computeIfAbsent(endpoint, e -> new AtomicLong()).incrementAndGet();
+		try (exchange) {
+			injectLatency();
+
+			Response response = ThreadLocalRandom.current().nextDouble() < failureRate
+					? new Response(failureStatus, Map.of("msg", "injected failure"))
+					: handler.handle(exchange);
+
+			byte[] body = response.body() == null ? new byte[0] : MAPPER.writeValueAsBytes(response.body());
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+			if (body.length > 0) {
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+		}
+	}
+
+	private void injectLatency() {
+		long delay = baseLatencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+		if (delay > 0) {
+			try {
+				Thread.sleep(Duration.ofNanos(delay));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private Response token(HttpExchange exchange) throws IOException {
+		if (!"POST".equals(exchange.getRequestMethod())) {
+			return new Response(405, null);
+		}
+		String grantType = queryParameter(exchange.getRequestURI(), "grant_type");
+		JsonNode body = MAPPER.readTree(exchange.getRequestBody());
+
+		UUID userId;
+		String email;
+		switch (grantType == null ? "" : grantType) {
+			case "refresh_token" -> {
+				userId = refreshTokens.remove(body.path("refresh_token").asText(""));
+				if (userId == null) {
+					return new Response(400, Map.of("error", "invalid_grant", "error_description", "Invalid Refresh Token"));
+				}
+				email = userId + "@loadtest.local";
+			}
+			case "password" -> {
+				email = body.path("email").asText("");
+				userId = UUID.nameUUIDFromBytes(email.getBytes(StandardCharsets.UTF_8));
+			}
+			case "pkce" -> {
+				userId = UUID.nameUUIDFromBytes(body.path("auth_code").asText("").getBytes(StandardCharsets.UTF_8));
+				email = userId + "@loadtest.local";
+			}
+			default -> {
+				return new Response(400, Map.of("error", "unsupported_grant_type"));
+			}
+		}
+
+		Session session = issueSession(userId, email);
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("access_token", session.accessToken());
+		result.put("token_type", "bearer");
+		result.put("expires_in", ACCESS_TOKEN_SECONDS);
+		result.put("refresh_token", session.refreshToken());
+		result.put("user", userJson(userId, email));
+		return new Response(200, result);
+	}
+
+	private Response user(HttpExchange exchange) {
+		String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+		if (authorization == null || !authorization.startsWith("Bearer ")) {
+			return new Response(401, Map.of("msg", "missing token"));
+		}
+		try {
+			Claims claims = Jwts.parserBuilder().setSigningKey(key).build()
+					.parseClaimsJws(authorization.substring("Bearer ".length())).getBody();
+			return new Response(200, userJson(UUID.fromString(claims.getSubject()), claims.get("email", String.class)));
+		}
+		catch (RuntimeException e) {
+			return new Response(401, Map.of("msg", "invalid JWT"));
+		}
+	}
+
+	private Response deleteUser(HttpExchange exchange) {
+		if (!"DELETE".equals(exchange.getRequestMethod())) {
+			return new Response(405, null);
+		}
+		String path = exchange.getRequestURI().getPath();
+		try {
+			UUID userId = UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+			return users.remove(userId) ? new Response(200, Map.of()) : new Response(404, Map.of("msg", "User not found"));
+		}
+		catch (IllegalArgumentException e) {
+			return new Response(404, Map.of("msg", "User not found"));
+		}
+	}
+
+	private String accessToken(UUID userId, String email) {
+		long now = System.currentTimeMillis();
+		return Jwts.builder()
+				.setSubject(userId.toString())
+				.claim("email", email)
+				.claim("role", "authenticated")
+				.setAudience("authenticated")
+				.setIssuer(baseUrl() + "/auth/v1")
+				.setIssuedAt(new Date(now))
+				.setExpiration(new Date(now + ACCESS_TOKEN_SECONDS * 1000L))
+				.signWith(key, SignatureAlgorithm.HS256)
+				.compact();
+	}
+
+	private static Map<String, Object> userJson(UUID userId, String email) {
+		return Map.of("id", userId.toString(), "aud", "authenticated", "role", "authenticated",
+				"email", email == null ? "" : email, "user_metadata", Map.of());
+	}
+
+	private static String queryParameter(URI uri, String name) {
+		String query = uri.getRawQuery();
+		if (query == null) {
+			return null;
+		}
+		for (String pair : query.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0 && pair.substring(0, eq).equals(name)) {
+				return pair.substring(eq + 1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Usage: {@code FakeSupabaseServer <port> <jwt-secret> [latency-ms] [jitter-ms] [failure-rate]}
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: FakeSupabaseServer <port> <jwt-secret> [latency-ms] [jitter-ms] [failure-rate]");
+			System.exit(2);
+		}
+		FakeSupabaseServer fake = new FakeSupabaseServer(Integer.parseInt(args[0]), args[1]).start();
+		if (args.length > 3) {
+			fake.latency(Duration.ofMillis(Long.parseLong(args[2])), Duration.ofMillis(Long.parseLong(args[3])));
+		}
+		if (args.length > 4) {
+			fake.failures(Double.parseDouble(args[4]), 503);
+		}
+		System.out.println("Fake Supabase listening on " + fake.baseUrl());
+		Runtime.getRuntime().addShutdownHook(new Thread(fake::close));
+		Thread.currentThread().join();
+	}
+}
@@ -0,0 +1,99 @@
+package app.ospreyplan.backend.loadtest;
+
+import app.ospreyplan.backend.security.RefreshThrottle;
+import app.ospreyplan.backend.security.RejectedTokenCache;
+import app.ospreyplan.backend.security.SupabaseTokenVerifier;
+import app.ospreyplan.backend.security.TokenRefresher;
+import app.ospreyplan.backend.security.TokenRefresher.RefreshedSession;
+import app.ospreyplan.backend.supabase.SupabaseAdminClient;
+import app.ospreyplan.backend.supabase.SupabaseBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the backend's own auth clients against {@link FakeSupabaseServer}, so the stand-in stays faithful to what the
+ * backend expects from Supabase.
+ */
+class FakeSupabaseServerTests {
+
+	private static final String SECRET = "test-secret-that-is-long-enough-for-hs256-signing";
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final FakeSupabaseServer fake = start();
+	private final RestTemplate client = new RestTemplate();
+
+	@AfterEach
+	void stop() {
+		fake.close();
+	}
+
+	@Test
+	void issuedTokensPassLocalVerification() {
+		UUID userId = UUID.randomUUID();
+		String token = fake.issueSession(userId, "student@example.edu").accessToken();
+
+		SupabaseTokenVerifier verifier = new SupabaseTokenVerifier(client, new RejectedTokenCache(registry, 60, 100),
+				bulkhead(), fake.baseUrl(), "anon", SECRET, 100, false);
+
+		assertThat(verifier.verify(token)).hasValueSatisfying(verified -> {
+			assertThat(verified.user().userId()).isEqualTo(userId);
+			assertThat(verified.user().demo()).isFalse();
+		});
+	}
+
+	@Test
+	void refreshTokensRotateAndCanBeUsedOnce() {
+		String refreshToken = fake.issueSession(UUID.randomUUID(), "student@example.edu").refreshToken();
+
+		Optional<RefreshedSession> first = refresher(0).refresh(refreshToken, "client");
+		// A second refresher has no grace cache, so it really asks the provider again
+		Optional<RefreshedSession> replay = refresher(0).refresh(refreshToken, "client");
+
+		assertThat(first).hasValueSatisfying(session -> assertThat(session.refreshToken()).isNotEqualTo(refreshToken));
+		assertThat(replay).isEmpty();
+		assertThat(fake.requestCount("token")).isEqualTo(2);
+	}
+
+	@Test
+	void adminDeleteTreatsUnknownUsersAsDeletedAndSurfacesInjectedFailures() {
+		UUID userId = UUID.randomUUID();
+		fake.issueSession(userId, "student@example.edu");
+		SupabaseAdminClient admin = new SupabaseAdminClient(client, fake.baseUrl(), "anon", SECRET);
+
+		admin.deleteUser(userId);
+		admin.deleteUser(userId);
+
+		fake.failures(1.0, 503).latency(Duration.ofMillis(20), Duration.ZERO);
+		assertThatThrownBy(() -> admin.deleteUser(userId)).isInstanceOf(HttpServerErrorException.class);
+		assertThat(fake.requestCount("admin-delete")).isEqualTo(3);
+	}
+
+	private TokenRefresher refresher(long graceSeconds) {
+		return new TokenRefresher(client, new RejectedTokenCache(registry, 60, 100), new RefreshThrottle(registry, 10),
+				bulkhead(), registry, fake.baseUrl(), "anon", graceSeconds, 5000);
+	}
+
+	private SupabaseBulkhead bulkhead() {
+		return new SupabaseBulkhead(registry, 20, 50, 250, 4000);
+	}
+
+	private static FakeSupabaseServer start() {
+		try {
+			return new FakeSupabaseServer(0, SECRET).start();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
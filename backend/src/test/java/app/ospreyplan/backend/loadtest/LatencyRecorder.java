@@ -0,0 +1,62 @@
+package app.ospreyplan.backend.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples for one operation. Each load-test worker owns its own recorder; they are merged once the
+ * run is over, so recording needs no synchronization. Percentiles are exact (computed from the sorted samples).
+ */
+class LatencyRecorder {
+
+	private long[] samples = new long[1024];
+	private int size;
+	private long errors;
+
+	void record(long nanos) {
+		if (size == samples.length) {
+			samples = Arrays.copyOf(samples, size * 2);
+		}
+		samples[size++] = nanos;
+	}
+
+	void recordError() {
+		errors++;
+	}
+
+	int count() {
+		return size;
+	}
+
+	long errors() {
+		return errors;
+	}
+
+	void merge(LatencyRecorder other) {
+		if (size + other.size > samples.length) {
+			samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+		}
+		System.arraycopy(other.samples, 0, samples, size, other.size);
+		size += other.size;
+		errors += other.errors;
+	}
+
+	/**
+	 * Returns the latency at the given quantile (0..1) in milliseconds. Sorts the samples, so call it after the run.
+	 */
+	double percentileMillis(double quantile) {
+		if (size == 0) {
+			return Double.NaN;
+		}
+		Arrays.sort(samples, 0, size);
+		int index = (int) Math.ceil(quantile * size) - 1;
+		return samples[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+	}
+
+	double maxMillis() {
+		long max = 0;
+		for (int i = 0; i < size; i++) {
+			max = Math.max(max, samples[i]);
+		}
+		return max / 1_000_000.0;
+	}
+}
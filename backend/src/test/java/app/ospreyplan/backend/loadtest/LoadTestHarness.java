@@ -0,0 +1,451 @@
+package app.ospreyplan.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mix of planner traffic against a running backend and reports latency percentiles and throughput.
+ *
+ * Typical offline setup on one machine:
+ * 1. a local Postgres with the schema and seeds applied,
+ * 2. the backend started with {@code SUPABASE_PROJECT_URL=http://127.0.0.1:54321} and any {@code SUPABASE_JWT_SECRET}
+ *    of at least 32 bytes,
+ * 3. this harness, run with the same secret; it starts a {@link FakeSupabaseServer} on port 54321 itself.
+ *
+ * Build the test classpath once with {@code ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt}
+ * and run {@code java -cp target/classes:target/test-classes:$(cat cp.txt) app.ospreyplan.backend.loadtest.LoadTestHarness
+ * --jwt-secret <secret>}.
+ *
+ * Users are seeded with demo logins by default, which needs nothing beyond the backend. With {@code --db-url} the
+ * harness instead inserts regular users and signs them in through the fake provider, so requests take the same
+ * token path as real accounts.
+ *
+ * Options (defaults in brackets):
+ * - {@code --base-url} – backend under test [http://localhost:8080]
+ * - {@code --jwt-secret} – shared with the backend (required)
+ * - {@code --fake-port} – port for the fake provider, 0 to not start one [54321]
+ * - {@code --fake-latency-ms}, {@code --fake-jitter-ms}, {@code --fake-failure-rate} – fault injection [0, 0, 0]
+ * - {@code --users} – number of seeded users [100]
+ * - {@code --concurrency} – concurrent workers (virtual threads) [32]
+ * - {@code --rate} – total requests per second; 0 runs closed-loop as fast as the workers go [0]
+ * - {@code --warmup-seconds} [10] and {@code --duration-seconds} [60]
+ * - {@code --mix} – operation weights, e.g. {@code semesters=40,audit=25,courses=10} [see {@link Operation}]
+ * - {@code --db-url}, {@code --db-user}, {@code --db-password} – seed regular users directly in the database
+ *
+ * With {@code --rate} set, latency is measured from each request's scheduled start rather than its actual start, so
+ * a stall shows up in the percentiles instead of silently lowering the request rate.
+ *
+ * Comparing platform and virtual threads: run the same open-loop scenario against the backend started once with
+ * {@code VIRTUAL_THREADS=false} and once with {@code VIRTUAL_THREADS=true}, restarting it in between, with provider
+ * latency injected (e.g. {@code --fake-latency-ms 150 --fake-jitter-ms 50}) so requests spend most of their time
+ * waiting as they do against Supabase. Step {@code --rate} up across runs until p99 or the error count breaks away;
+ * the highest rate each mode sustains and the p99 at equal rates are the numbers to compare. Keep the pool size and
+ * every other setting identical, and watch {@code jdbc.limiter.waiting} and {@code admission.rejected} on
+ * /actuator/metrics, since a mode that sheds more load can look faster on latency alone.
+ */
+public class LoadTestHarness {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * Operations and their default weights, roughly what a signed-in planner session produces.
+	 */
+	enum Operation {
+		COURSES("courses", 10),
+		SEMESTERS("semesters", 35),
+		SEMESTER_RENAME("semester-rename", 5),
+		COURSE_ADD_REMOVE("course-add-remove", 5),
+		AUDIT("audit", 25),
+		SETTINGS("settings", 15),
+		SETTINGS_UPDATE("settings-update", 5);
+
+		final String key;
+		final int defaultWeight;
+
+		Operation(String key, int defaultWeight) {
+			this.key = key;
+			this.defaultWeight = defaultWeight;
+		}
+	}
+
+	record User(UUID id, String cookie, List<UUID> semesterIds) {
+	}
+
+	record CourseRef(String subject, int courseNumber, int credits) {
+	}
+
+	private final Map<String, String> options;
+	private final String baseUrl;
+	private final HttpClient client;
+	private final Operation[] schedule;
+
+	private List<User> users;
+	private List<CourseRef> catalog;
+
+	LoadTestHarness(Map<String, String> options) {
+		this.options = options;
+		this.baseUrl = option("base-url", "http://localhost:8080");
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.build();
+		this.schedule = schedule(option("mix", ""));
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+		}
+		if (!options.containsKey("jwt-secret")) {
+			System.err.println("--jwt-secret is required (the backend's SUPABASE_JWT_SECRET)");
+			System.exit(2);
+		}
+
+		LoadTestHarness harness = new LoadTestHarness(options);
+		int fakePort = Integer.parseInt(harness.option("fake-port", "54321"));
+		FakeSupabaseServer fake = null;
+		if (fakePort > 0) {
+			fake = new FakeSupabaseServer(fakePort, options.get("jwt-secret")).start()
+					.latency(Duration.ofMillis(Long.parseLong(harness.option("fake-latency-ms", "0"))),
+							Duration.ofMillis(Long.parseLong(harness.option("fake-jitter-ms", "0"))))
+					.failures(Double.parseDouble(harness.option("fake-failure-rate", "0")), 503);
+			System.out.println("Fake Supabase listening on " + fake.baseUrl());
+		}
+
+		try {
+			harness.seed(fake);
+			Map<Operation, LatencyRecorder> results = harness.run();
+			harness.report(results);
+			if (fake != null) {
+				System.out.printf(Locale.ROOT, "fake provider requests: token=%d user=%d admin-delete=%d%n",
+						fake.requestCount("token"), fake.requestCount("user"), fake.requestCount("admin-delete"));
+			}
+		}
+		finally {
+			if (fake != null) {
+				fake.close();
+			}
+		}
+		System.exit(0);
+	}
+
+	private String option(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+
+	private static Operation[] schedule(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			weights.put(operation, mix.isBlank() ? operation.defaultWeight : 0);
+		}
+		for (String entry : mix.split(",")) {
+			if (entry.isBlank()) {
+				continue;
+			}
+			String[] parts = entry.split("=");
+			Operation operation = null;
+			for (Operation candidate : Operation.values()) {
+				if (candidate.key.equals(parts[0].trim())) {
+					operation = candidate;
+				}
+			}
+			if (operation == null || parts.length != 2) {
+				throw new IllegalArgumentException("Unknown mix entry: " + entry);
+			}
+			weights.put(operation, Integer.parseInt(parts[1].trim()));
+		}
+
+		List<Operation> slots = new ArrayList<>();
+		weights.forEach((operation, weight) -> {
+			for (int i = 0; i < weight; i++) {
+				slots.add(operation);
+			}
+		});
+		if (slots.isEmpty()) {
+			throw new IllegalArgumentException("The mix has no operations");
+		}
+		return slots.toArray(new Operation[0]);
+	}
+
+	// ---- seeding ----
+
+	void seed(FakeSupabaseServer fake) throws Exception {
+		int userCount = Integer.parseInt(option("users", "100"));
+		users = new ArrayList<>(userCount);
+		String dbUrl = options.get("db-url");
+		if (dbUrl != null) {
+			if (fake == null) {
+				throw new IllegalArgumentException("--db-url seeding signs users in through the fake provider; set --fake-port");
+			}
+			seedProviderUsers(fake, userCount, dbUrl);
+		}
+		else {
+			for (int i = 0; i < userCount; i++) {
+				users.add(seedDemoUser());
+			}
+			catalog = fetchCatalog(users.get(0).cookie());
+		}
+		System.out.printf(Locale.ROOT, "seeded %d users, %d catalog courses%n", users.size(), catalog.size());
+	}
+
+	private List<CourseRef> fetchCatalog(String cookie) throws Exception {
+		HttpResponse<String> response = send(get("/api/courses"), cookie);
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("Fetching the course catalog failed with " + response.statusCode());
+		}
+		List<CourseRef> courses = new ArrayList<>();
+		for (JsonNode course : MAPPER.readTree(response.body())) {
+			JsonNode id = course.path("courseId");
+			courses.add(new CourseRef(id.path("subject").asText(course.path("subject").asText()),
+					id.path("courseNumber").asInt(course.path("courseNumber").asInt()),
+					Math.max(1, course.path("minCredits").asInt(4))));
+		}
+		return courses;
+	}
+
+	private User seedDemoUser() throws Exception {
+		HttpResponse<String> login = send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/demo-login"))
+				.POST(HttpRequest.BodyPublishers.noBody()), null);
+		if (login.statusCode() != 200) {
+			throw new IllegalStateException("Demo login failed with " + login.statusCode() + ": " + login.body());
+		}
+		String cookie = login.headers().allValues("Set-Cookie").stream()
+				.filter(value -> value.startsWith("sb-access-token="))
+				.map(value -> value.substring(0, value.indexOf(';')))
+				.findFirst()
+				.orElseThrow(() -> new IllegalStateException("Demo login did not set an access token"));
+
+		HttpResponse<String> me = send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/me")).GET(), cookie);
+		UUID userId = UUID.fromString(MAPPER.readTree(me.body()).path("id").asText());
+		return new User(userId, cookie, semesterIds(userId, cookie));
+	}
+
+	private void seedProviderUsers(FakeSupabaseServer fake, int userCount, String dbUrl) throws Exception {
+		List<UUID> ids = new ArrayList<>(userCount);
+		try (Connection connection = DriverManager.getConnection(dbUrl, option("db-user", "postgres"), option("db-password", ""));
+				PreparedStatement insert = connection.prepareStatement("""
+						INSERT INTO users (id, email, full_name, degree, start_year, created_at, updated_at)
+						VALUES (?, ?, ?, ?, ?, ?, ?)
+						""")) {
+			OffsetDateTime now = OffsetDateTime.now();
+			for (int i = 0; i < userCount; i++) {
+				UUID id = UUID.randomUUID();
+				ids.add(id);
+				insert.setObject(1, id);
+				insert.setString(2, id + "@loadtest.local");
+				insert.setString(3, "Load Test " + i);
+				insert.setString(4, "bs-computer-science");
+				insert.setInt(5, now.getYear());
+				insert.setObject(6, now);
+				insert.setObject(7, now);
+				insert.addBatch();
+			}
+			insert.executeBatch();
+		}
+
+		Map<UUID, String> cookies = new HashMap<>();
+		for (UUID id : ids) {
+			cookies.put(id, "sb-access-token=" + fake.issueSession(id, id + "@loadtest.local").accessToken());
+		}
+		catalog = fetchCatalog(cookies.get(ids.get(0)));
+
+		for (UUID id : ids) {
+			String cookie = cookies.get(id);
+			for (int s = 1; s <= 4; s++) {
+				HttpResponse<String> created = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/semesters?userId=" + id
+						+ "&title=Semester%20" + s)).POST(HttpRequest.BodyPublishers.noBody()), cookie);
+				UUID semesterId = UUID.fromString(MAPPER.readTree(created.body()).path("id").asText());
+				for (int c = 0; c < 3 && c < catalog.size(); c++) {
+					CourseRef course = catalog.get((s * 3 + c) % catalog.size());
+					send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/semesters/" + semesterId + "/courses?subject="
+							+ course.subject() + "&courseNumber=" + course.courseNumber() + "&credits=" + course.credits()))
+							.POST(HttpRequest.BodyPublishers.noBody()), cookie);
+				}
+			}
+			users.add(new User(id, cookie, semesterIds(id, cookie)));
+		}
+	}
+
+	private List<UUID> semesterIds(UUID userId, String cookie) throws Exception {
+		HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/semesters/user/" + userId)).GET(), cookie);
+		List<UUID> ids = new ArrayList<>();
+		for (JsonNode semester : MAPPER.readTree(response.body())) {
+			ids.add(UUID.fromString(semester.path("id").asText()));
+		}
+		return ids;
+	}
+
+	// ---- load ----
+
+	Map<Operation, LatencyRecorder> run() throws Exception {
+		int concurrency = Integer.parseInt(option("concurrency", "32"));
+		double rate = Double.parseDouble(option("rate", "0"));
+		long warmupNanos = Duration.ofSeconds(Long.parseLong(option("warmup-seconds", "10"))).toNanos();
+		long durationNanos = Duration.ofSeconds(Long.parseLong(option("duration-seconds", "60"))).toNanos();
+		long intervalNanos = rate > 0 ? (long) (concurrency * 1_000_000_000L / rate) : 0;
+
+		long start = System.nanoTime();
+		long measureFrom = start + warmupNanos;
+		long end = measureFrom + durationNanos;
+
+		List<Future<Map<Operation, LatencyRecorder>>> workers = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int w = 0; w < concurrency; w++) {
+				// Stagger open-loop workers so their requests don't all fire on the same tick
+				long firstStart = start + (intervalNanos > 0 ? intervalNanos * w / concurrency : 0);
+				workers.add(executor.submit(() -> work(firstStart, intervalNanos, measureFrom, end)));
+			}
+
+			Map<Operation, LatencyRecorder> merged = new EnumMap<>(Operation.class);
+			for (Future<Map<Operation, LatencyRecorder>> worker : workers) {
+				worker.get().forEach((operation, recorder) ->
+						merged.computeIfAbsent(operation, o -> new LatencyRecorder()).merge(recorder));
+			}
+			return merged;
+		}
+	}
+
+	private Map<Operation, LatencyRecorder> work(long firstStart, long intervalNanos, long measureFrom, long end) {
+		Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long intendedStart = firstStart;
+
+		while (true) {
+			long now = System.nanoTime();
+			if (intervalNanos > 0) {
+				if (intendedStart > now) {
+					LockSupport.parkNanos(intendedStart - now);
+				}
+			}
+			else {
+				intendedStart = now;
+			}
+			if (intendedStart >= end) {
+				return recorders;
+			}
+
+			Operation operation = schedule[random.nextInt(schedule.length)];
+			User user = users.get(random.nextInt(users.size()));
+			boolean ok;
+			try {
+				ok = execute(operation, user, random);
+			}
+			catch (Exception e) {
+				ok = false;
+			}
+			long finished = System.nanoTime();
+
+			if (intendedStart >= measureFrom) {
+				LatencyRecorder recorder = recorders.computeIfAbsent(operation, o -> new LatencyRecorder());
+				recorder.record(finished - intendedStart);
+				if (!ok) {
+					recorder.recordError();
+				}
+			}
+			if (intervalNanos > 0) {
+				intendedStart += intervalNanos;
+			}
+		}
+	}
+
+	private boolean execute(Operation operation, User user, ThreadLocalRandom random) throws Exception {
+		String cookie = user.cookie();
+		return switch (operation) {
+			case COURSES -> ok(send(get("/api/courses"), cookie));
+			case SEMESTERS -> ok(send(get("/api/semesters/user/" + user.id()), cookie));
+			case AUDIT -> ok(send(get("/api/audit/" + user.id()), cookie));
+			case SETTINGS -> ok(send(get("/api/settings"), cookie));
+			case SETTINGS_UPDATE -> ok(send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/settings"))
+					.header("Content-Type", "application/json")
+					.PUT(HttpRequest.BodyPublishers.ofString("{\"degree\":\"bs-computer-science\",\"startYear\":"
+							+ (2022 + random.nextInt(4)) + "}")), cookie));
+			case SEMESTER_RENAME -> user.semesterIds().isEmpty() || ok(send(HttpRequest.newBuilder(URI.create(baseUrl
+					+ "/api/semesters/" + pick(user.semesterIds(), random) + "?title=Semester%20" + random.nextInt(1000)))
+					.method("PATCH", HttpRequest.BodyPublishers.noBody()), cookie));
+			case COURSE_ADD_REMOVE -> addAndRemoveCourse(user, random);
+		};
+	}
+
+	private boolean addAndRemoveCourse(User user, ThreadLocalRandom random) throws Exception {
+		if (user.semesterIds().isEmpty() || catalog.isEmpty()) {
+			return true;
+		}
+		UUID semesterId = pick(user.semesterIds(), random);
+		CourseRef course = pick(catalog, random);
+		HttpResponse<String> added = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/semesters/" + semesterId
+				+ "/courses?subject=" + course.subject() + "&courseNumber=" + course.courseNumber() + "&credits=" + course.credits()))
+				.POST(HttpRequest.BodyPublishers.noBody()), user.cookie());
+		if (added.statusCode() != 200) {
+			// Usually the course is already in that semester; that is a valid answer, not a failure
+			return added.statusCode() < 500;
+		}
+		String courseId = MAPPER.readTree(added.body()).path("id").asText();
+		return ok(send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/semesters/" + semesterId + "/courses/" + courseId))
+				.DELETE(), user.cookie()));
+	}
+
+	private HttpRequest.Builder get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+	}
+
+	private HttpResponse<String> send(HttpRequest.Builder request, String cookie) throws Exception {
+		request.timeout(Duration.ofSeconds(30));
+		if (cookie != null) {
+			request.header("Cookie", cookie);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static boolean ok(HttpResponse<?> response) {
+		return response.statusCode() < 400;
+	}
+
+	private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+		return values.get(random.nextInt(values.size()));
+	}
+
+	// ---- reporting ----
+
+	void report(Map<Operation, LatencyRecorder> results) {
+		double seconds = Long.parseLong(option("duration-seconds", "60"));
+		LatencyRecorder total = new LatencyRecorder();
+
+		System.out.printf(Locale.ROOT, "%-18s %9s %7s %9s %9s %9s %9s %9s%n",
+				"operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+		for (Map.Entry<Operation, LatencyRecorder> entry : results.entrySet()) {
+			print(entry.getKey().key, entry.getValue(), seconds);
+			total.merge(entry.getValue());
+		}
+		print("total", total, seconds);
+	}
+
+	private static void print(String name, LatencyRecorder recorder, double seconds) {
+		System.out.printf(Locale.ROOT, "%-18s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, recorder.count(),
+				recorder.errors(), recorder.count() / seconds, recorder.percentileMillis(0.50),
+				recorder.percentileMillis(0.99), recorder.percentileMillis(0.999), recorder.maxMillis());
+	}
+}
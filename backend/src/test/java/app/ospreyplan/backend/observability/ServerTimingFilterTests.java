@@ -0,0 +1,70 @@
+package app.ospreyplan.backend.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingFilterTests {
+
+	private final ServerTimingFilter filter = new ServerTimingFilter("https://ospreyplan.app");
+	private final TimedJacksonHttpMessageConverter converter = new TimedJacksonHttpMessageConverter(new ObjectMapper());
+
+	@Test
+	void reportsEveryPhaseBeforeTheJsonBodyIsWritten() throws Exception {
+		MockHttpServletResponse response = call(new HttpServlet() {
+			@Override
+			protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
+				RequestTiming.record(RequestTiming.Phase.AUTH, TimeUnit.MILLISECONDS.toNanos(3));
+				RequestTiming.record(RequestTiming.Phase.DB, TimeUnit.MILLISECONDS.toNanos(7));
+				converter.write(Map.of("degree", "CSCI"), MediaType.APPLICATION_JSON, new ServletServerHttpResponse(res));
+			}
+		});
+
+		assertThat(response.getContentAsString()).isEqualTo("{\"degree\":\"CSCI\"}");
+		assertThat(response.getHeader("Server-Timing"))
+				.contains("auth;dur=3.0;desc=\"Authentication\"")
+				.contains("db;dur=7.0;desc=\"Database\"")
+				.contains("serialization;dur=")
+				.contains("app;dur=")
+				.contains("total;dur=");
+		assertThat(response.getHeader("Timing-Allow-Origin")).isEqualTo("https://ospreyplan.app");
+	}
+
+	@Test
+	void addsTheHeaderToResponsesWithoutABody() throws Exception {
+		MockHttpServletResponse response = call(new HttpServlet() {
+			@Override
+			protected void doGet(HttpServletRequest req, HttpServletResponse res) {
+				res.setStatus(204);
+			}
+		});
+
+		assertThat(response.getHeader("Server-Timing")).startsWith("auth;dur=0.0");
+	}
+
+	@Test
+	void recordsNothingOutsideARequest() throws Exception {
+		RequestTiming.record(RequestTiming.Phase.DB, 1_000_000);
+
+		assertThat(RequestTiming.current()).isNull();
+	}
+
+	private MockHttpServletResponse call(HttpServlet servlet) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/settings"), response, new MockFilterChain(servlet));
+		return response;
+	}
+}
@@ -0,0 +1,41 @@
+package app.ospreyplan.backend.observability;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Fails a test when the code under test issues more SQL statements through Hibernate than its budget allows, e.g.
+ *
+ * <pre>
+ * DegreeAuditResponse audit = StatementBudget.atMost(4, () -> auditService.audit(userId));
+ * </pre>
+ *
+ * The failure lists the statements that were issued, so an N+1 loop shows up as the same query repeated.
+ */
+public final class StatementBudget {
+
+	private StatementBudget() {
+	}
+
+	public static <T> T atMost(int maxStatements, Supplier<T> work) {
+		try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+			T result = work.get();
+			check(maxStatements, scope.count(), scope.statements());
+			return result;
+		}
+	}
+
+	public static void atMost(int maxStatements, Runnable work) {
+		atMost(maxStatements, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	private static void check(int maxStatements, int count, List<String> statements) {
+		if (count > maxStatements) {
+			throw new AssertionError("Expected at most " + maxStatements + " SQL statements but " + count
+					+ " were issued:\n  " + String.join("\n  ", statements));
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package app.ospreyplan.backend.observability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementBudgetTests {
+
+	private final SqlStatementCounter counter = new SqlStatementCounter();
+
+	@Test
+	void passesWithinBudget() {
+		String result = StatementBudget.atMost(2, () -> {
+			counter.inspect("select * from planned_semesters where user_id=?");
+			counter.inspect("select * from planned_courses where semester_id = any(?)");
+			return "ok";
+		});
+
+		assertThat(result).isEqualTo("ok");
+	}
+
+	@Test
+	void failsOverBudgetAndListsTheStatements() {
+		assertThatThrownBy(() -> StatementBudget.atMost(1, () -> {
+			for (int i = 0; i < 3; i++) {
+				counter.inspect("select * from courses where subject=? and course_number=?");
+			}
+		}))
+				.isInstanceOf(AssertionError.class)
+				.hasMessageContaining("at most 1 SQL statements but 3")
+				.hasMessageContaining("select * from courses");
+	}
+
+	@Test
+	void countsNestedScopesAndStatementsOfDecoratedTasks() throws Exception {
+		RequestScopeTaskDecorator decorator = new RequestScopeTaskDecorator();
+		try (SqlStatementCounter.Scope outer = SqlStatementCounter.open()) {
+			counter.inspect("select 1");
+			try (SqlStatementCounter.Scope inner = SqlStatementCounter.open();
+					ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				CompletableFuture.runAsync(decorator.decorate(() -> counter.inspect("select 2")), executor).get();
+				assertThat(inner.count()).isEqualTo(1);
+			}
+			counter.inspect("select 3");
+
+			assertThat(outer.count()).isEqualTo(3);
+		}
+
+		counter.inspect("select 4");
+	}
+
+	@Test
+	void threadsStartedInsideAScopeDoNotInheritIt() throws Exception {
+		try (SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+				ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			CompletableFuture.runAsync(() -> counter.inspect("select 1"), executor).get();
+
+			assertThat(scope.count()).isZero();
+		}
+	}
+
+	@Test
+	void decoratedTaskLeavesNoScopeBehindOnItsThread() throws Exception {
+		RequestScopeTaskDecorator decorator = new RequestScopeTaskDecorator();
+		try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+			try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+				executor.submit(decorator.decorate(() -> counter.inspect("select 1"))).get();
+				assertThat(scope.count()).isEqualTo(1);
+
+				// The pooled thread's next, undecorated task runs outside the request's scope
+				executor.submit(() -> counter.inspect("select 2")).get();
+				assertThat(scope.count()).isEqualTo(1);
+			}
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package app.ospreyplan.backend.observability;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimedDataSourceTests {
+
+	private static final Pattern DB = Pattern.compile("db;dur=([0-9.]+)");
+
+	private final Connection connection = mock(Connection.class);
+	private final PreparedStatement statement = mock(PreparedStatement.class);
+	private final DataSource target = mock(DataSource.class);
+
+	@AfterEach
+	void endTiming() {
+		RequestTiming.end();
+	}
+
+	@Test
+	void countsJdbcTemplateStatementsAsDatabaseTime() throws Exception {
+		when(target.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeUpdate()).thenAnswer(invocation -> {
+			Thread.sleep(20);
+			return 1;
+		});
+		RequestTiming timing = RequestTiming.start();
+
+		int updated = new JdbcTemplate(new TimedDataSource(target)).update("UPDATE users SET degree = ? WHERE id = ?", "CSCI", 1);
+
+		assertThat(updated).isEqualTo(1);
+		assertThat(dbMillis(timing)).isGreaterThanOrEqualTo(20);
+		verify(statement).close();
+		verify(connection).close();
+	}
+
+	@Test
+	void countsFailedStatementsAndRethrowsTheirError() throws Exception {
+		when(target.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeQuery()).thenAnswer(invocation -> {
+			Thread.sleep(20);
+			throw new SQLException("canceling statement due to statement timeout");
+		});
+		RequestTiming timing = RequestTiming.start();
+
+		try (Connection timed = new TimedDataSource(target).getConnection();
+				PreparedStatement query = timed.prepareStatement("SELECT 1")) {
+			assertThatThrownBy(query::executeQuery).hasMessageContaining("statement timeout");
+		}
+
+		assertThat(dbMillis(timing)).isGreaterThanOrEqualTo(20);
+	}
+
+	@Test
+	void leavesResultSetsAndOtherCallsUntimed() throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(target.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.getResultSet()).thenAnswer(invocation -> {
+			Thread.sleep(20);
+			return rs;
+		});
+		RequestTiming timing = RequestTiming.start();
+
+		try (Connection timed = new TimedDataSource(target).getConnection()) {
+			assertThat(timed.prepareStatement("SELECT 1").getResultSet()).isSameAs(rs);
+		}
+
+		assertThat(dbMillis(timing)).isLessThan(20);
+	}
+
+	private static double dbMillis(RequestTiming timing) {
+		Matcher matcher = DB.matcher(timing.headerValue());
+		assertThat(matcher.find()).isTrue();
+		return Double.parseDouble(matcher.group(1));
+	}
+}
@@ -0,0 +1,182 @@
+package app.ospreyplan.backend.planner.buffer;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import app.ospreyplan.backend.planner.course.PlannedCourseRepository;
+import app.ospreyplan.backend.planner.history.PlanEventType;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import app.ospreyplan.backend.planner.semester.PlannedSemesterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlannerWriteBufferTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final PlanHistoryService historyService = mock(PlanHistoryService.class);
+	private final ReplicaRouter replicaRouter = mock(ReplicaRouter.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicReference<RuntimeException> poison = new AtomicReference<>();
+
+	private PlannerWriteBuffer writeBuffer;
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+		// Any batch containing the semester titled "poison" fails with whatever poison currently holds
+		doAnswer(invocation -> {
+			Collection<?> rows = invocation.getArgument(1);
+			RuntimeException failure = poison.get();
+			if (failure != null && rows.stream().anyMatch(r -> r instanceof BufferedWrite.CreateSemester c && "poison".equals(c.title()))) {
+				throw failure;
+			}
+			return new int[0][];
+		}).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+		writeBuffer = new PlannerWriteBuffer(mock(PlannedSemesterRepository.class), mock(PlannedCourseRepository.class),
+				historyService, jdbcTemplate, transactionManager, new ObjectMapper(),
+				new StaticListableBeanFactory(Map.of("replicaRouter", replicaRouter)).getBeanProvider(ReplicaRouter.class),
+				registry);
+		ReflectionTestUtils.setField(writeBuffer, "enabled", true);
+		ReflectionTestUtils.setField(writeBuffer, "maxPending", 200);
+	}
+
+	@Test
+	void rejectedWriteIsDeadLetteredWithoutDroppingTheRestOfTheBatch() {
+		poison.set(new DataIntegrityViolationException("planned_semesters_title_check"));
+		writeBuffer.createSemester(USER_ID, "Fall 2025");
+		writeBuffer.createSemester(USER_ID, "poison");
+
+		for (int i = 0; i < 3; i++) {
+			writeBuffer.flush(USER_ID);
+		}
+
+		assertThat(count("written")).isEqualTo(1);
+		assertThat(count("dead_lettered")).isEqualTo(1);
+		assertThat(semesterOwners()).isEmpty();
+
+		// Nothing is left to retry
+		poison.set(null);
+		writeBuffer.flush(USER_ID);
+		assertThat(count("written")).isEqualTo(1);
+	}
+
+	@Test
+	void transientlyFailingWriteStaysBufferedUntilItSucceeds() {
+		poison.set(new QueryTimeoutException("canceling statement due to lock timeout"));
+		writeBuffer.createSemester(USER_ID, "Fall 2025");
+		writeBuffer.createSemester(USER_ID, "poison");
+
+		for (int i = 0; i < 3; i++) {
+			writeBuffer.flush(USER_ID);
+		}
+
+		assertThat(count("written")).isEqualTo(1);
+		assertThat(count("dead_lettered")).isZero();
+		assertThat(semesterOwners()).hasSize(1);
+
+		poison.set(null);
+		writeBuffer.flush(USER_ID);
+
+		assertThat(count("written")).isEqualTo(2);
+		assertThat(semesterOwners()).isEmpty();
+	}
+
+	@Test
+	void flushPinsTheOwnersReadsToThePrimary() {
+		writeBuffer.createSemester(USER_ID, "Fall 2025");
+
+		writeBuffer.flushDue();
+
+		verify(replicaRouter).recordWrite(USER_ID);
+	}
+
+	@Test
+	void discardedWritesNeverReachTheDatabase() {
+		writeBuffer.createSemester(USER_ID, "Fall 2025");
+		writeBuffer.createSemester(USER_ID, "Spring 2026");
+
+		writeBuffer.discard(USER_ID);
+		writeBuffer.flush(USER_ID);
+		writeBuffer.flushAll();
+
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+		assertThat(count("written")).isZero();
+		assertThat(semesterOwners()).isEmpty();
+	}
+
+	@Test
+	void semesterCreatedAndDeletedInOneBurstIsGone() {
+		UUID semesterId = writeBuffer.createSemester(USER_ID, "Fall 2025").getId();
+		writeBuffer.deleteSemester(semesterId);
+
+		assertThat(semesterOwners()).isEmpty();
+		assertThatThrownBy(() -> writeBuffer.updateSemesterTitle(semesterId, "Spring 2026"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Semester not found: " + semesterId);
+		assertThatThrownBy(() -> writeBuffer.addCourseToSemester(semesterId, "CSCI", 2101, 4))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> writeBuffer.deleteSemester(semesterId))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		writeBuffer.flushDue();
+		writeBuffer.flush(USER_ID);
+		assertThat(count("written")).isZero();
+	}
+
+	@Test
+	void historyIsRecordedInTheOrderTheWritesWereMade() {
+		UUID fall = writeBuffer.createSemester(USER_ID, "Fall 2025").getId();
+		writeBuffer.addCourseToSemester(fall, "CSCI", 2101, 4);
+		UUID spring = writeBuffer.createSemester(USER_ID, "Spring 2026").getId();
+		writeBuffer.addCourseToSemester(spring, "CSCI", 2102, 4);
+
+		writeBuffer.flush(USER_ID);
+
+		InOrder order = inOrder(historyService);
+		order.verify(historyService).record(eq(USER_ID), eq(PlanEventType.SEMESTER_CREATED), argThat(p -> fall.equals(p.semesterId())));
+		order.verify(historyService).record(eq(USER_ID), eq(PlanEventType.COURSE_ADDED), argThat(p -> fall.equals(p.semesterId())));
+		order.verify(historyService).record(eq(USER_ID), eq(PlanEventType.SEMESTER_CREATED), argThat(p -> spring.equals(p.semesterId())));
+		order.verify(historyService).record(eq(USER_ID), eq(PlanEventType.COURSE_ADDED), argThat(p -> spring.equals(p.semesterId())));
+	}
+
+	private double count(String outcome) {
+		return registry.counter("planner.write_buffer.writes", "outcome", outcome).count();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<UUID, UUID> semesterOwners() {
+		return (Map<UUID, UUID>) ReflectionTestUtils.getField(writeBuffer, "semesterOwners");
+	}
+}
@@ -0,0 +1,92 @@
+package app.ospreyplan.backend.planner.buffer;
+
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.AddCourse;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.CreateSemester;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.DeleteSemester;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.RemoveCourse;
+import app.ospreyplan.backend.planner.buffer.BufferedWrite.RenameSemester;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserWriteBufferTests {
+
+	private final UUID semesterId = UUID.randomUUID();
+
+	@Test
+	void addThenRemoveOfSameCourseCancelsOut() {
+		UserWriteBuffer buffer = new UserWriteBuffer();
+		UUID courseId = UUID.randomUUID();
+
+		buffer.enqueue(new AddCourse(semesterId, courseId, "CSCI", 2101, 4, OffsetDateTime.now()), 0);
+		int coalesced = buffer.enqueue(new RemoveCourse(semesterId, courseId, "CSCI", 2101, 4), 1);
+
+		assertThat(coalesced).isEqualTo(2);
+		assertThat(buffer.drain()).isEmpty();
+	}
+
+	@Test
+	void repeatedRenamesKeepOriginalPreviousTitleAndLatestTitle() {
+		UserWriteBuffer buffer = new UserWriteBuffer();
+
+		buffer.enqueue(new RenameSemester(semesterId, "Fall 2025", "Spring 2026"), 0);
+		buffer.enqueue(new RenameSemester(semesterId, "Spring 2026", "Summer 2026"), 1);
+
+		assertThat(buffer.drain()).containsExactly(new RenameSemester(semesterId, "Fall 2025", "Summer 2026"));
+	}
+
+	@Test
+	void renameOfPendingSemesterIsFoldedIntoCreate() {
+		UserWriteBuffer buffer = new UserWriteBuffer();
+
+		buffer.enqueue(new CreateSemester(semesterId, "Fall 2025"), 0);
+		buffer.enqueue(new RenameSemester(semesterId, "Fall 2025", "Spring 2026"), 1);
+
+		assertThat(buffer.drain()).containsExactly(new CreateSemester(semesterId, "Spring 2026"));
+	}
+
+	@Test
+	void deletingPendingSemesterDropsEverythingForIt() {
+		UserWriteBuffer buffer = new UserWriteBuffer();
+		UUID otherSemesterId = UUID.randomUUID();
+		AddCourse otherAdd = new AddCourse(otherSemesterId, UUID.randomUUID(), "MATH", 2215, 5, OffsetDateTime.now());
+
+		buffer.enqueue(new CreateSemester(semesterId, "Fall 2025"), 0);
+		buffer.enqueue(new AddCourse(semesterId, UUID.randomUUID(), "CSCI", 2101, 4, OffsetDateTime.now()), 1);
+		buffer.enqueue(otherAdd, 2);
+		int coalesced = buffer.enqueue(new DeleteSemester(semesterId), 3);
+
+		assertThat(coalesced).isEqualTo(3);
+		assertThat(buffer.drain()).isEqualTo(List.of(otherAdd));
+	}
+
+	@Test
+	void cancelledSemesterCountsAsDeletedUntilTheNextDrain() {
+		UserWriteBuffer buffer = new UserWriteBuffer();
+
+		buffer.enqueue(new CreateSemester(semesterId, "Fall 2025"), 0);
+		buffer.enqueue(new DeleteSemester(semesterId), 1);
+
+		assertThat(buffer.isEmpty()).isTrue();
+		assertThat(buffer.isDeleted(semesterId)).isTrue();
+		assertThat(buffer.isDue(10, 5)).isTrue();
+
+		assertThat(buffer.drain()).isEmpty();
+		assertThat(buffer.isDeleted(semesterId)).isFalse();
+		assertThat(buffer.isDue(20, 5)).isFalse();
+	}
+
+	@Test
+	void deletingExistingSemesterKeepsOnlyTheDelete() {
+		UserWriteBuffer buffer = new UserWriteBuffer();
+
+		buffer.enqueue(new RenameSemester(semesterId, "Fall 2025", "Spring 2026"), 0);
+		buffer.enqueue(new DeleteSemester(semesterId), 1);
+
+		assertThat(buffer.drain()).containsExactly(new DeleteSemester(semesterId));
+	}
+}
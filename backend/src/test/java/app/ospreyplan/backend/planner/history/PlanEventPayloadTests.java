@@ -0,0 +1,65 @@
+package app.ospreyplan.backend.planner.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanEventPayloadTests {
+
+	private final UUID fall = UUID.randomUUID();
+	private final UUID spring = UUID.randomUUID();
+	private final CourseState course = new CourseState(UUID.randomUUID(), "CSCI", 3103, 4);
+
+	@Test
+	void inverseOfAMoveMovesTheCourseBack() {
+		PlanEventPayload inverse = PlanEventPayload.move(fall, spring, course).inverse(PlanEventType.COURSE_MOVED);
+
+		assertThat(inverse).isEqualTo(PlanEventPayload.move(spring, fall, course));
+	}
+
+	@Test
+	void inverseOfARenameSwapsTheTitles() {
+		PlanEventPayload inverse = PlanEventPayload.rename(fall, "Fall 2025", "Fall 2026").inverse(PlanEventType.SEMESTER_RENAMED);
+
+		assertThat(inverse).isEqualTo(PlanEventPayload.rename(fall, "Fall 2026", "Fall 2025"));
+	}
+
+	@Test
+	void addsRemovesCreatesAndDeletesKeepTheirPayload() {
+		PlanEventPayload added = PlanEventPayload.course(fall, course);
+		PlanEventPayload created = PlanEventPayload.semester(fall, "Fall 2025", List.of(course));
+
+		assertThat(added.inverse(PlanEventType.COURSE_ADDED)).isEqualTo(added);
+		assertThat(added.inverse(PlanEventType.COURSE_REMOVED)).isEqualTo(added);
+		assertThat(created.inverse(PlanEventType.SEMESTER_CREATED)).isEqualTo(created);
+		assertThat(created.inverse(PlanEventType.SEMESTER_DELETED)).isEqualTo(created);
+	}
+
+	@Test
+	void applyingAnEventAndThenItsInverseRestoresThePlan() {
+		List<SemesterState> before = List.of(
+				new SemesterState(fall, "Fall 2025", List.of(course)),
+				new SemesterState(spring, "Spring 2026", List.of()));
+
+		for (Edit edit : List.of(
+				new Edit(PlanEventType.COURSE_MOVED, PlanEventPayload.move(fall, spring, course)),
+				new Edit(PlanEventType.SEMESTER_RENAMED, PlanEventPayload.rename(fall, "Fall 2025", "Fall 2026")),
+				new Edit(PlanEventType.COURSE_REMOVED, PlanEventPayload.course(fall, course)),
+				new Edit(PlanEventType.SEMESTER_DELETED, PlanEventPayload.semester(fall, "Fall 2025", List.of(course))))) {
+			PlanEventType type = edit.type();
+			PlanEventPayload payload = edit.payload();
+			PlanState state = PlanState.of(before);
+
+			state.apply(type, payload);
+			state.apply(type.inverse(), payload.inverse(type));
+
+			assertThat(state.toSemesters()).as(type.name()).containsExactlyInAnyOrderElementsOf(before);
+		}
+	}
+
+	private record Edit(PlanEventType type, PlanEventPayload payload) {
+	}
+}
@@ -0,0 +1,122 @@
+package app.ospreyplan.backend.planner.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlanHistoryServiceTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final PlanEventRepository eventRepository = mock(PlanEventRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final PlanHistoryService service = new PlanHistoryService(eventRepository, mock(PlanSnapshotRepository.class),
+			jdbcTemplate, mock(EntityManager.class), objectMapper);
+
+	private final UUID semesterId = UUID.randomUUID();
+	private final CourseState course = new CourseState(UUID.randomUUID(), "CSCI", 3103, 4);
+	private final List<PlanEvent> log = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(eventRepository.findByUserIdOrderBySeqDesc(eq(USER_ID), any(Pageable.class))).thenAnswer(invocation -> {
+			List<PlanEvent> newestFirst = new ArrayList<>(log);
+			Collections.reverse(newestFirst);
+			return newestFirst;
+		});
+		when(eventRepository.save(any(PlanEvent.class))).thenAnswer(invocation -> {
+			PlanEvent event = invocation.getArgument(0);
+			log.add(event);
+			return event;
+		});
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(USER_ID))).thenAnswer(invocation -> log.size() + 10L);
+	}
+
+	@Test
+	void undoRevertsTheLatestEditNotYetUndone() throws JsonProcessingException {
+		edit(PlanEventType.COURSE_ADDED, PlanEventPayload.course(semesterId, course));
+		edit(PlanEventType.SEMESTER_RENAMED, PlanEventPayload.rename(semesterId, "Fall 2025", "Fall 2026"));
+
+		PlanEvent firstUndo = service.undo(USER_ID).orElseThrow();
+		assertThat(firstUndo.getOrigin()).isEqualTo(PlanEventOrigin.UNDO);
+		assertThat(firstUndo.getType()).isEqualTo(PlanEventType.SEMESTER_RENAMED);
+		assertThat(payload(firstUndo)).isEqualTo(PlanEventPayload.rename(semesterId, "Fall 2026", "Fall 2025"));
+
+		PlanEvent secondUndo = service.undo(USER_ID).orElseThrow();
+		assertThat(secondUndo.getType()).isEqualTo(PlanEventType.COURSE_REMOVED);
+
+		assertThat(service.undo(USER_ID)).isEmpty();
+	}
+
+	@Test
+	void redoReappliesUndoneEditsInReverseOrderOfUndoing() throws JsonProcessingException {
+		edit(PlanEventType.COURSE_ADDED, PlanEventPayload.course(semesterId, course));
+		edit(PlanEventType.SEMESTER_RENAMED, PlanEventPayload.rename(semesterId, "Fall 2025", "Fall 2026"));
+		service.undo(USER_ID);
+		service.undo(USER_ID);
+
+		PlanEvent firstRedo = service.redo(USER_ID).orElseThrow();
+		assertThat(firstRedo.getOrigin()).isEqualTo(PlanEventOrigin.REDO);
+		assertThat(firstRedo.getType()).isEqualTo(PlanEventType.COURSE_ADDED);
+
+		PlanEvent secondRedo = service.redo(USER_ID).orElseThrow();
+		assertThat(payload(secondRedo)).isEqualTo(PlanEventPayload.rename(semesterId, "Fall 2025", "Fall 2026"));
+		assertThat(service.redo(USER_ID)).isEmpty();
+
+		// A redone edit can be undone again
+		assertThat(service.undo(USER_ID).orElseThrow().getType()).isEqualTo(PlanEventType.SEMESTER_RENAMED);
+	}
+
+	@Test
+	void undoAndRedoLockTheHistoryBeforeReadingIt() {
+		edit(PlanEventType.COURSE_ADDED, PlanEventPayload.course(semesterId, course));
+
+		service.undo(USER_ID);
+		service.redo(USER_ID);
+
+		InOrder order = inOrder(jdbcTemplate, eventRepository);
+		for (int i = 0; i < 2; i++) {
+			order.verify(jdbcTemplate).query(contains("FOR UPDATE"), any(RowCallbackHandler.class), eq(USER_ID));
+			order.verify(eventRepository).findByUserIdOrderBySeqDesc(eq(USER_ID), any(Pageable.class));
+		}
+	}
+
+	@Test
+	void aFreshEditDiscardsTheRedoStack() {
+		edit(PlanEventType.COURSE_ADDED, PlanEventPayload.course(semesterId, course));
+		service.undo(USER_ID);
+		edit(PlanEventType.SEMESTER_RENAMED, PlanEventPayload.rename(semesterId, "Fall 2025", "Fall 2026"));
+
+		assertThat(service.redo(USER_ID)).isEmpty();
+		assertThat(service.undo(USER_ID).orElseThrow().getType()).isEqualTo(PlanEventType.SEMESTER_RENAMED);
+	}
+
+	private void edit(PlanEventType type, PlanEventPayload payload) {
+		service.record(USER_ID, type, payload);
+	}
+
+	private PlanEventPayload payload(PlanEvent event) throws JsonProcessingException {
+		return objectMapper.readValue(event.getPayload(), PlanEventPayload.class);
+	}
+}
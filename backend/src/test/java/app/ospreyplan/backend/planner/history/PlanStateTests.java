@@ -0,0 +1,55 @@
+package app.ospreyplan.backend.planner.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanStateTests {
+
+	private final UUID fall = UUID.randomUUID();
+	private final UUID spring = UUID.randomUUID();
+	private final CourseState algorithms = new CourseState(UUID.randomUUID(), "CSCI", 3103, 4);
+	private final CourseState calculus = new CourseState(UUID.randomUUID(), "MATH", 2215, 4);
+
+	@Test
+	void foldsEditsOnTopOfASnapshot() {
+		PlanState state = PlanState.of(List.of(new SemesterState(fall, "Fall 2025", List.of(algorithms))));
+
+		state.apply(PlanEventType.SEMESTER_CREATED, PlanEventPayload.semester(spring, "Spring 2026", List.of()));
+		state.apply(PlanEventType.COURSE_ADDED, PlanEventPayload.course(spring, calculus));
+		state.apply(PlanEventType.SEMESTER_RENAMED, PlanEventPayload.rename(fall, "Fall 2025", "Fall 2026"));
+
+		assertThat(state.toSemesters()).containsExactly(
+				new SemesterState(fall, "Fall 2026", List.of(algorithms)),
+				new SemesterState(spring, "Spring 2026", List.of(calculus)));
+	}
+
+	@Test
+	void moveKeepsTheStoredCourseAndRemoveDropsIt() {
+		CourseState stored = new CourseState(algorithms.id(), "CSCI", 3103, 3);
+		PlanState state = PlanState.of(List.of(
+				new SemesterState(fall, "Fall 2025", List.of(stored, calculus)),
+				new SemesterState(spring, "Spring 2026", List.of())));
+
+		state.apply(PlanEventType.COURSE_MOVED, PlanEventPayload.move(fall, spring, algorithms));
+		state.apply(PlanEventType.COURSE_REMOVED, PlanEventPayload.course(fall, calculus));
+
+		assertThat(state.toSemesters()).containsExactly(
+				new SemesterState(fall, "Fall 2025", List.of()),
+				new SemesterState(spring, "Spring 2026", List.of(stored)));
+	}
+
+	@Test
+	void deletingASemesterDropsItsCoursesAndRecreatingRestoresThem() {
+		PlanState state = PlanState.of(List.of(new SemesterState(fall, "Fall 2025", List.of(algorithms))));
+
+		state.apply(PlanEventType.SEMESTER_DELETED, PlanEventPayload.semester(fall, "Fall 2025", List.of(algorithms)));
+		assertThat(state.toSemesters()).isEmpty();
+
+		state.apply(PlanEventType.SEMESTER_CREATED, PlanEventPayload.semester(fall, "Fall 2025", List.of(algorithms)));
+		assertThat(state.toSemesters()).containsExactly(new SemesterState(fall, "Fall 2025", List.of(algorithms)));
+	}
+}
@@ -0,0 +1,174 @@
+package app.ospreyplan.backend.planner.sync;
+
+import app.ospreyplan.backend.planner.sync.PlanDelta.CourseChange;
+import app.ospreyplan.backend.planner.sync.PlanDelta.SemesterChange;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a real Postgres, since the change sequence and tombstones are maintained by the triggers in
+ * {@code V2__plan_sync.sql}.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PlanSyncServiceTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static SingleConnectionDataSource dataSource;
+	private static JdbcTemplate jdbc;
+	private static PlanSyncService service;
+
+	private UUID userId;
+
+	@BeforeAll
+	static void migrate() {
+		dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbc = new JdbcTemplate(dataSource);
+		service = new PlanSyncService(jdbc, new DataSourceTransactionManager(dataSource), 30, 2);
+	}
+
+	@AfterAll
+	static void close() {
+		dataSource.destroy();
+	}
+
+	@BeforeEach
+	void newUser() {
+		userId = UUID.randomUUID();
+		jdbc.update("INSERT INTO users (id, email) VALUES (?, 'student@example.edu')", userId);
+	}
+
+	@Test
+	void clientWithoutAVersionGetsTheWholePlan() {
+		UUID fall = semester("Fall 2025");
+		UUID course = course(fall, "CSCI", 2101);
+
+		PlanDelta delta = service.getChangesSince(userId, 0);
+
+		assertThat(delta.reset()).isTrue();
+		assertThat(delta.semesters()).extracting(SemesterChange::id).containsExactly(fall);
+		assertThat(delta.courses()).extracting(CourseChange::id).containsExactly(course);
+	}
+
+	@Test
+	void deltaContainsOnlyRowsChangedAfterTheClientsVersion() {
+		UUID fall = semester("Fall 2025");
+		UUID spring = semester("Spring 2026");
+		course(fall, "CSCI", 2101);
+		long version = service.getChangesSince(userId, 0).version();
+
+		jdbc.update("UPDATE planned_semesters SET title = 'Spring 2027' WHERE id = ?", spring);
+		UUID added = course(fall, "MATH", 2215);
+		PlanDelta delta = service.getChangesSince(userId, version);
+
+		assertThat(delta.reset()).isFalse();
+		assertThat(delta.version()).isGreaterThan(version);
+		assertThat(delta.semesters()).containsExactly(new SemesterChange(spring, "Spring 2027"));
+		assertThat(delta.courses()).extracting(CourseChange::id).containsExactly(added);
+		assertThat(delta.deletedSemesterIds()).isEmpty();
+		assertThat(delta.deletedCourseIds()).isEmpty();
+	}
+
+	@Test
+	void upToDateClientGetsAnEmptyDelta() {
+		semester("Fall 2025");
+		long version = service.getChangesSince(userId, 0).version();
+
+		PlanDelta delta = service.getChangesSince(userId, version);
+
+		assertThat(delta).isEqualTo(new PlanDelta(version, false, List.of(), List.of(),
+				List.of(), List.of()));
+	}
+
+	@Test
+	void deletionsArriveAsTombstones() {
+		UUID fall = semester("Fall 2025");
+		UUID spring = semester("Spring 2026");
+		UUID course = course(fall, "CSCI", 2101);
+		long version = service.getChangesSince(userId, 0).version();
+
+		jdbc.update("DELETE FROM planned_courses WHERE id = ?", course);
+		jdbc.update("DELETE FROM planned_semesters WHERE id = ?", spring);
+		PlanDelta delta = service.getChangesSince(userId, version);
+
+		assertThat(delta.reset()).isFalse();
+		assertThat(delta.deletedCourseIds()).containsExactly(course);
+		assertThat(delta.deletedSemesterIds()).containsExactly(spring);
+	}
+
+	@Test
+	void versionFromTheFutureForcesAResync() {
+		semester("Fall 2025");
+		long version = service.getChangesSince(userId, 0).version();
+
+		assertThat(service.getChangesSince(userId, version + 100).reset()).isTrue();
+	}
+
+	@Test
+	void clientOlderThanThePrunedTombstonesIsResynced() {
+		UUID fall = semester("Fall 2025");
+		UUID first = course(fall, "CSCI", 2101);
+		UUID second = course(fall, "CSCI", 2102);
+		UUID third = course(fall, "CSCI", 2103);
+		long staleVersion = service.getChangesSince(userId, 0).version();
+
+		jdbc.update("DELETE FROM planned_courses WHERE id = ?", first);
+		long recentVersion = service.getChangesSince(userId, staleVersion).version();
+		jdbc.update("DELETE FROM planned_courses WHERE id IN (?, ?)", second, third);
+		// Only the first deletion is past the retention period
+		jdbc.update("UPDATE plan_tombstones SET created_at = now() - interval '31 days' WHERE entity_id = ?", first);
+
+		service.pruneTombstones();
+
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM plan_tombstones WHERE user_id = ?", Integer.class, userId))
+				.isEqualTo(2);
+		PlanDelta stale = service.getChangesSince(userId, staleVersion);
+		assertThat(stale.reset()).isTrue();
+		assertThat(stale.courses()).isEmpty();
+
+		PlanDelta recent = service.getChangesSince(userId, recentVersion);
+		assertThat(recent.reset()).isFalse();
+		assertThat(recent.deletedCourseIds()).containsExactlyInAnyOrder(second, third);
+	}
+
+	@Test
+	void pruningWorksThroughMoreTombstonesThanOneBatch() {
+		UUID fall = semester("Fall 2025");
+		for (int i = 0; i < 5; i++) {
+			jdbc.update("DELETE FROM planned_courses WHERE id = ?", course(fall, "CSCI", 3000 + i));
+		}
+		jdbc.update("UPDATE plan_tombstones SET created_at = now() - interval '31 days' WHERE user_id = ?", userId);
+
+		service.pruneTombstones();
+
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM plan_tombstones WHERE user_id = ?", Integer.class, userId))
+				.isZero();
+	}
+
+	private UUID semester(String title) {
+		return jdbc.queryForObject("INSERT INTO planned_semesters (user_id, title) VALUES (?, ?) RETURNING id",
+				UUID.class, userId, title);
+	}
+
+	private UUID course(UUID semesterId, String subject, int number) {
+		return jdbc.queryForObject(
+				"INSERT INTO planned_courses (semester_id, subject, course_number, credits) VALUES (?, ?, ?, 4) RETURNING id",
+				UUID.class, semesterId, subject, number);
+	}
+}
@@ -0,0 +1,182 @@
+package app.ospreyplan.backend.planner.template;
+
+import app.ospreyplan.backend.planner.history.PlanEvent;
+import app.ospreyplan.backend.planner.history.PlanEventType;
+import app.ospreyplan.backend.planner.history.PlanHistoryService;
+import app.ospreyplan.backend.planner.template.PlanTemplateService.Target;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ PlanTemplateService.class, PlanHistoryService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class PlanTemplateServiceTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	@Autowired
+	private PlanTemplateService service;
+
+	@Autowired
+	private PlanHistoryService historyService;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private UUID templateId;
+
+	@BeforeEach
+	void insertTemplate() {
+		templateId = jdbc.queryForObject("INSERT INTO plan_templates (degree_code, name) VALUES ('CS', 'Standard') RETURNING id",
+				UUID.class);
+		UUID fall = templateSemester(1, "Fall", 0);
+		UUID spring = templateSemester(2, "Spring", 1);
+		templateCourse(fall, 1, "CSCI", 2101);
+		templateCourse(fall, 2, "MATH", 2215);
+		templateCourse(spring, 1, "CSCI", 2102);
+	}
+
+	@Test
+	void fillsAnEmptyPlanAndRecordsEachSemester() {
+		UUID userId = UUID.randomUUID();
+
+		assertThat(service.instantiate(templateId, userId, 2025)).isTrue();
+
+		assertThat(jdbc.queryForList("SELECT title FROM planned_semesters WHERE user_id = ? ORDER BY created_at", String.class,
+				userId)).containsExactly("Fall 2025", "Spring 2026");
+		assertThat(courseCount(userId)).isEqualTo(3);
+		assertThat(historyService.getHistory(userId, 10))
+				.extracting(PlanEvent::getType)
+				.containsExactly(PlanEventType.SEMESTER_CREATED, PlanEventType.SEMESTER_CREATED);
+	}
+
+	@Test
+	void recordsSemestersInTemplateOrder() {
+		UUID userId = UUID.randomUUID();
+		for (int position = 3; position <= 8; position++) {
+			templateSemester(position, position % 2 == 0 ? "Spring" : "Fall", position - 1);
+		}
+
+		service.instantiate(templateId, userId, 2025);
+
+		List<UUID> inTemplateOrder = jdbc.queryForList(
+				"SELECT id FROM planned_semesters WHERE user_id = ? ORDER BY created_at", UUID.class, userId);
+		// Newest first
+		assertThat(historyService.getHistory(userId, 20))
+				.extracting(PlanEvent::getSemesterId)
+				.containsExactlyElementsOf(inTemplateOrder.reversed());
+		assertThat(jdbc.queryForList("SELECT title FROM planned_semesters WHERE user_id = ? ORDER BY created_at",
+				String.class, userId)).startsWith("Fall 2025", "Spring 2026", "Fall 2027");
+	}
+
+	@Test
+	void leavesANonEmptyPlanAlone() {
+		UUID userId = UUID.randomUUID();
+		jdbc.update("INSERT INTO planned_semesters (user_id, title) VALUES (?, 'Fall 2024')", userId);
+
+		assertThat(service.instantiate(templateId, userId, 2025)).isFalse();
+
+		assertThat(jdbc.queryForList("SELECT title FROM planned_semesters WHERE user_id = ?", String.class, userId))
+				.containsExactly("Fall 2024");
+		assertThat(historyService.getHistory(userId, 10)).isEmpty();
+	}
+
+	@Test
+	void batchSkipsNonEmptyPlansAndRecordsHistoryForTheRest() {
+		UUID first = UUID.randomUUID();
+		UUID busy = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		jdbc.update("INSERT INTO planned_semesters (user_id, title) VALUES (?, 'Fall 2024')", busy);
+
+		List<UUID> filled = service.instantiate(templateId,
+				List.of(new Target(first, 2025), new Target(busy, 2025), new Target(second, 2026), new Target(first, 2030)));
+
+		assertThat(filled).containsExactly(first, second);
+		assertThat(jdbc.queryForList("SELECT title FROM planned_semesters WHERE user_id = ?", String.class, second))
+				.containsExactlyInAnyOrder("Fall 2026", "Spring 2027");
+		assertThat(courseCount(first)).isEqualTo(3);
+		assertThat(courseCount(busy)).isZero();
+		assertThat(historyService.getHistory(first, 10)).hasSize(2);
+		assertThat(historyService.getHistory(second, 10)).hasSize(2);
+		assertThat(historyService.getHistory(busy, 10)).isEmpty();
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void concurrentInstantiationsFillThePlanOnce() throws Exception {
+		UUID userId = UUID.randomUUID();
+		CountDownLatch start = new CountDownLatch(1);
+		Callable<Boolean> instantiate = () -> {
+			start.await();
+			return service.instantiate(templateId, userId, 2025);
+		};
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Boolean> a = executor.submit(instantiate);
+			Future<Boolean> b = executor.submit(instantiate);
+			start.countDown();
+
+			assertThat(List.of(a.get(), b.get())).containsExactlyInAnyOrder(true, false);
+			assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM planned_semesters WHERE user_id = ?", Integer.class, userId))
+					.isEqualTo(2);
+		}
+		finally {
+			executor.shutdownNow();
+			jdbc.update("DELETE FROM planned_semesters WHERE user_id = ?", userId);
+			jdbc.update("DELETE FROM plan_templates WHERE id = ?", templateId);
+		}
+	}
+
+	private UUID templateSemester(int position, String term, int yearOffset) {
+		return jdbc.queryForObject(
+				"INSERT INTO plan_template_semesters (template_id, position, term, year_offset) VALUES (?, ?, ?, ?) RETURNING id",
+				UUID.class, templateId, position, term, yearOffset);
+	}
+
+	private void templateCourse(UUID templateSemesterId, int position, String subject, int number) {
+		jdbc.update(
+				"INSERT INTO plan_template_courses (template_semester_id, position, subject, course_number, credits) VALUES (?, ?, ?, ?, 4)",
+				templateSemesterId, position, subject, number);
+	}
+
+	private int courseCount(UUID userId) {
+		return jdbc.queryForObject(
+				"SELECT COUNT(*) FROM planned_courses c JOIN planned_semesters s ON s.id = c.semester_id WHERE s.user_id = ?",
+				Integer.class, userId);
+	}
+}
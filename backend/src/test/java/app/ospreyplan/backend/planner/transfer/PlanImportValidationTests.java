@@ -0,0 +1,79 @@
+package app.ospreyplan.backend.planner.transfer;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Rows are validated as they are read, before anything reaches the database.
+ */
+class PlanImportValidationTests {
+
+	private static final String USER = UUID.randomUUID().toString();
+	private static final String SEMESTER = UUID.randomUUID().toString();
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final PlanTransferService service = new PlanTransferService(mock(DataSource.class), jdbcTemplate,
+			mock(PlannerWriteBuffer.class), new StaticListableBeanFactory().getBeanProvider(ReplicaRouter.class),
+			mock(PlatformTransactionManager.class), new ObjectMapper(), 1000, 500);
+
+	@Test
+	void malformedJsonNamesTheLine() {
+		assertThatThrownBy(() -> importLines("", "{\"userId\":"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("Invalid plan row on line 2:");
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void rowWithoutASemesterIsRejected() {
+		assertThatThrownBy(() -> importLines("{\"userId\":\"" + USER + "\",\"semesterTitle\":\"Fall 2025\"}"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Plan row on line 1 is missing userId or semesterId");
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void courseWithoutACourseNumberIsRejected() {
+		assertThatThrownBy(() -> importLines("{\"userId\":\"" + USER + "\",\"semesterId\":\"" + SEMESTER
+				+ "\",\"courseId\":\"" + UUID.randomUUID() + "\",\"subject\":\"CSCI\"}"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Plan row on line 1 is missing subject or courseNumber");
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	@Test
+	void malformedIdIsRejected() {
+		assertThatThrownBy(() -> importLines("{\"userId\":\"not-a-uuid\",\"semesterId\":\"" + SEMESTER + "\"}"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageStartingWith("Invalid plan row on line 1:");
+	}
+
+	@Test
+	void semesterUnderTwoUsersIsRejected() {
+		String other = UUID.randomUUID().toString();
+		assertThatThrownBy(() -> importLines("{\"userId\":\"" + USER + "\",\"semesterId\":\"" + SEMESTER + "\"}",
+				"{\"userId\":\"" + other + "\",\"semesterId\":\"" + SEMESTER + "\"}"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Plan row on line 2 puts semester " + SEMESTER + " under a second user");
+		verifyNoInteractions(jdbcTemplate);
+	}
+
+	private void importLines(String... lines) {
+		String body = String.join("\n", lines) + "\n";
+		service.importPlans(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,217 @@
+package app.ospreyplan.backend.planner.transfer;
+
+import app.ospreyplan.backend.datasource.ReplicaRouter;
+import app.ospreyplan.backend.planner.buffer.PlannerWriteBuffer;
+import app.ospreyplan.backend.planner.transfer.PlanTransferService.ImportResult;
+import app.ospreyplan.backend.planner.transfer.PlanTransferService.Scope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PlanTransferServiceTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private static SingleConnectionDataSource dataSource;
+	private static JdbcTemplate jdbc;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final PlannerWriteBuffer writeBuffer = mock(PlannerWriteBuffer.class);
+
+	private PlanTransferService service;
+	private UUID userId;
+
+	@BeforeAll
+	static void migrate() {
+		dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbc = new JdbcTemplate(dataSource);
+	}
+
+	@AfterAll
+	static void close() {
+		dataSource.destroy();
+	}
+
+	@BeforeEach
+	void setUp() {
+		// Small fetch and batch sizes so the tests cross cursor and batch boundaries
+		service = new PlanTransferService(dataSource, jdbc, writeBuffer,
+				new StaticListableBeanFactory().getBeanProvider(ReplicaRouter.class),
+				new DataSourceTransactionManager(dataSource), objectMapper, 2, 2);
+
+		userId = UUID.randomUUID();
+		UUID fall = semester("Fall 2025");
+		course(fall, "CSCI", 2101);
+		course(fall, "MATH", 2215);
+		course(fall, "CSCI", 2102);
+		semester("Spring, \"honors\" 2026");
+	}
+
+	@Test
+	void ndjsonExportImportsBackIntoTheSamePlan() throws IOException {
+		byte[] exported = export(PlanExportFormat.NDJSON);
+		List<PlanRow> rows = ndjson(exported);
+		assertThat(rows).hasSize(4);
+
+		deletePlan();
+		ImportResult result = service.importPlans(new ByteArrayInputStream(exported));
+
+		assertThat(result).isEqualTo(new ImportResult(2, 3));
+		assertThat(ndjson(export(PlanExportFormat.NDJSON))).containsExactlyInAnyOrderElementsOf(rows);
+		assertThat(jdbc.queryForList("""
+				SELECT c.course_number FROM planned_courses c JOIN planned_semesters s ON s.id = c.semester_id
+				WHERE s.user_id = ? ORDER BY c.created_at
+				""", Integer.class, userId)).containsExactly(2101, 2215, 2102);
+	}
+
+	@Test
+	void importingTheSameFileTwiceAddsNothing() throws IOException {
+		byte[] exported = export(PlanExportFormat.NDJSON);
+
+		assertThat(service.importPlans(new ByteArrayInputStream(exported))).isEqualTo(new ImportResult(0, 0));
+	}
+
+	@Test
+	void csvExportHasTheSameRowsAsNdjson() throws IOException {
+		List<String> lines = new String(export(PlanExportFormat.CSV), StandardCharsets.UTF_8).lines().toList();
+
+		assertThat(lines.get(0)).isEqualTo(PlanRow.CSV_HEADER);
+		assertThat(lines.subList(1, lines.size()).stream().map(PlanTransferServiceTests::csvRow).toList())
+				.containsExactlyElementsOf(ndjson(export(PlanExportFormat.NDJSON)));
+	}
+
+	@Test
+	void invalidRowRollsBackTheRowsBeforeIt() throws IOException {
+		byte[] exported = export(PlanExportFormat.NDJSON);
+		deletePlan();
+		byte[] broken = (new String(exported, StandardCharsets.UTF_8) + "{\"userId\":\"" + userId + "\"}\n")
+				.getBytes(StandardCharsets.UTF_8);
+
+		assertThatThrownBy(() -> service.importPlans(new ByteArrayInputStream(broken)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Plan row on line 5 is missing userId or semesterId");
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM planned_semesters WHERE user_id = ?", Integer.class, userId))
+				.isZero();
+	}
+
+	@Test
+	void semesterOfAnotherUserIsNotTakenOver() throws IOException {
+		UUID semesterId = jdbc.queryForObject("SELECT id FROM planned_semesters WHERE user_id = ? AND title = 'Fall 2025'",
+				UUID.class, userId);
+		UUID intruder = UUID.randomUUID();
+		byte[] file = objectMapper.writeValueAsBytes(new PlanRow(intruder, semesterId, "Fall 2025", UUID.randomUUID(),
+				"HACK", 1000, 4));
+
+		assertThatThrownBy(() -> service.importPlans(new ByteArrayInputStream(file)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Semester " + semesterId + " belongs to a different user");
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM planned_courses WHERE semester_id = ?", Integer.class, semesterId))
+				.isEqualTo(3);
+	}
+
+	@Test
+	void userExportIncludesBufferedWrites() throws IOException {
+		doAnswer(invocation -> semester("Summer 2026")).when(writeBuffer).flush(userId);
+
+		assertThat(ndjson(export(PlanExportFormat.NDJSON))).extracting(PlanRow::semesterTitle).contains("Summer 2026");
+	}
+
+	@Test
+	void cohortExportFlushesEveryBuffer() throws IOException {
+		service.export(Scope.ALL, null, PlanExportFormat.NDJSON, new ByteArrayOutputStream());
+
+		verify(writeBuffer).flushAll();
+	}
+
+	private byte[] export(PlanExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.export(Scope.USER, userId, format, out);
+		return out.toByteArray();
+	}
+
+	private List<PlanRow> ndjson(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8).lines().map(line -> {
+			try {
+				return objectMapper.readValue(line, PlanRow.class);
+			}
+			catch (IOException e) {
+				throw new AssertionError(e);
+			}
+		}).toList();
+	}
+
+	// Just enough CSV for the export's own quoting: quoted fields with doubled quotes, no embedded newlines
+	private static PlanRow csvRow(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+				field.append('"');
+				i++;
+			}
+			else if (c == '"') {
+				quoted = !quoted;
+			}
+			else if (c == ',' && !quoted) {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+
+		return new PlanRow(UUID.fromString(fields.get(0)), UUID.fromString(fields.get(1)), emptyToNull(fields.get(2)),
+				fields.get(3).isEmpty() ? null : UUID.fromString(fields.get(3)), emptyToNull(fields.get(4)),
+				fields.get(5).isEmpty() ? null : Integer.valueOf(fields.get(5)),
+				fields.get(6).isEmpty() ? null : Integer.valueOf(fields.get(6)));
+	}
+
+	private static String emptyToNull(String value) {
+		return value.isEmpty() ? null : value;
+	}
+
+	private void deletePlan() {
+		jdbc.update("DELETE FROM planned_semesters WHERE user_id = ?", userId);
+	}
+
+	private UUID semester(String title) {
+		return jdbc.queryForObject("INSERT INTO planned_semesters (user_id, title) VALUES (?, ?) RETURNING id",
+				UUID.class, userId, title);
+	}
+
+	private void course(UUID semesterId, String subject, int number) {
+		jdbc.update("INSERT INTO planned_courses (semester_id, subject, course_number, credits) VALUES (?, ?, ?, 4)",
+				semesterId, subject, number);
+	}
+}
@@ -0,0 +1,40 @@
+package app.ospreyplan.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthenticatedUserTests {
+
+	@Test
+	void keepsMetadataClaimsWithNullValues() {
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("full_name", "Sam Student");
+		metadata.put("avatar_url", null);
+
+		AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), "student@example.edu", false, metadata);
+
+		assertThat(user.userMetadata()).containsEntry("full_name", "Sam Student").containsEntry("avatar_url", null);
+	}
+
+	@Test
+	void metadataIsAnUnmodifiableCopy() {
+		Map<String, Object> metadata = new HashMap<>(Map.of("full_name", "Sam Student"));
+		AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), "student@example.edu", false, metadata);
+
+		metadata.put("full_name", "Someone Else");
+
+		assertThat(user.userMetadata()).containsEntry("full_name", "Sam Student");
+		assertThatThrownBy(() -> user.userMetadata().put("avatar_url", "x")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	void missingMetadataIsEmpty() {
+		assertThat(new AuthenticatedUser(UUID.randomUUID(), "guest@demo.app", true, null).userMetadata()).isEmpty();
+	}
+}
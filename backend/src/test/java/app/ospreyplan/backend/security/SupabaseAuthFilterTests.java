@@ -0,0 +1,69 @@
+package app.ospreyplan.backend.security;
+
+import app.ospreyplan.backend.supabase.SupabaseBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SupabaseAuthFilterTests {
+
+	private final SupabaseTokenVerifier verifier = mock(SupabaseTokenVerifier.class);
+	private final TokenRefresher refresher = mock(TokenRefresher.class);
+	private final SupabaseAuthFilter filter = new SupabaseAuthFilter(verifier, refresher);
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void throttledRefreshMarksTheProviderUnavailableInsteadOfFailingAuthentication() throws Exception {
+		when(verifier.verify(anyString())).thenReturn(Optional.empty());
+		when(refresher.refresh("refresh", "203.0.113.7")).thenThrow(new RefreshThrottledException("throttled"));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard");
+		request.setRemoteAddr("203.0.113.7");
+		request.setCookies(new Cookie("sb-access-token", "expired"), new Cookie("sb-refresh-token", "refresh"));
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(request.getAttribute(SupabaseAuthFilter.AUTH_PROVIDER_UNAVAILABLE_ATTRIBUTE)).isEqualTo(Boolean.TRUE);
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+		assertThat(chain.getRequest()).isSameAs(request);
+	}
+
+	@Test
+	void refreshMissingTheBulkheadDeadlineIsAnsweredAsProviderUnavailable() throws Exception {
+		SupabaseBulkhead bulkhead = new SupabaseBulkhead(new SimpleMeterRegistry(), 1, 0, 50, 100);
+		when(verifier.verify(anyString())).thenReturn(Optional.empty());
+		when(refresher.refresh(anyString(), anyString())).thenAnswer(invocation -> bulkhead.call(() -> {
+			try {
+				Thread.sleep(10_000);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Optional.empty();
+		}));
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dashboard");
+		request.setCookies(new Cookie("sb-access-token", "expired"), new Cookie("sb-refresh-token", "refresh"));
+
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+		// SecurityConfig answers these requests with 503 and Retry-After instead of 401
+		assertThat(request.getAttribute(SupabaseAuthFilter.AUTH_PROVIDER_UNAVAILABLE_ATTRIBUTE)).isEqualTo(Boolean.TRUE);
+		assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+	}
+}
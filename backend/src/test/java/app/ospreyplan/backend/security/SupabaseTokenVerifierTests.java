@@ -0,0 +1,71 @@
+package app.ospreyplan.backend.security;
+
+import app.ospreyplan.backend.supabase.SupabaseBulkhead;
+import io.jsonwebtoken.JwtBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SupabaseTokenVerifierTests {
+
+	private static final String PROJECT_URL = "https://example.supabase.co";
+	private static final String SECRET = "test-secret-that-is-long-enough-for-hs256-signing";
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private final SupabaseTokenVerifier verifier = new SupabaseTokenVerifier(new RestTemplate(),
+			new RejectedTokenCache(new SimpleMeterRegistry(), 60, 100),
+			new SupabaseBulkhead(new SimpleMeterRegistry(), 20, 50, 250, 4000), PROJECT_URL, "anon", SECRET, 100, false);
+
+	@Test
+	void acceptsSupabaseTokenWithMatchingIssuerAndAudience() {
+		String token = token(SECRET, 60_000).setIssuer(PROJECT_URL + "/auth/v1").setAudience("authenticated")
+				.claim("user_metadata", Map.of("full_name", "Test User")).compact();
+
+		assertThat(verifier.verify(token)).hasValueSatisfying(verified -> {
+			assertThat(verified.user().userId()).isEqualTo(USER_ID);
+			assertThat(verified.user().demo()).isFalse();
+			assertThat(verified.user().userMetadata()).containsEntry("full_name", "Test User");
+		});
+	}
+
+	@Test
+	void rejectsTokenFromAnotherIssuer() {
+		String token = token(SECRET, 60_000).setIssuer("https://other.supabase.co/auth/v1").setAudience("authenticated").compact();
+
+		assertThat(verifier.verify(token)).isEmpty();
+	}
+
+	@Test
+	void rejectsExpiredAndForeignlySignedTokens() {
+		String expired = token(SECRET, -1_000).setIssuer(PROJECT_URL + "/auth/v1").setAudience("authenticated").compact();
+		String forged = token("another-secret-that-is-long-enough-for-hs256-signing", 60_000)
+				.setIssuer(PROJECT_URL + "/auth/v1").setAudience("authenticated").compact();
+
+		assertThat(verifier.verify(expired)).isEmpty();
+		assertThat(verifier.verify(forged)).isEmpty();
+	}
+
+	@Test
+	void acceptsDemoTokenWithoutIssuer() {
+		String token = token(SECRET, 60_000).claim("email", "demo-1@demo.app").compact();
+
+		assertThat(verifier.verify(token)).hasValueSatisfying(verified -> assertThat(verified.user().demo()).isTrue());
+	}
+
+	private static JwtBuilder token(String secret, long expiresInMillis) {
+		return Jwts.builder()
+				.setSubject(USER_ID.toString())
+				.setExpiration(new Date(System.currentTimeMillis() + expiresInMillis))
+				.signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256);
+	}
+}
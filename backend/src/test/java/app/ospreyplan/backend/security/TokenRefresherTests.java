@@ -0,0 +1,102 @@
+package app.ospreyplan.backend.security;
+
+import app.ospreyplan.backend.security.TokenRefresher.RefreshedSession;
+import app.ospreyplan.backend.supabase.SupabaseBulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRefresherTests {
+
+	private static final String SESSION_JSON = "{\"access_token\":\"new-access\",\"refresh_token\":\"new-refresh\",\"expires_in\":3600}";
+
+	private final RestTemplate client = mock(RestTemplate.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final TokenRefresher refresher = new TokenRefresher(client, new RejectedTokenCache(registry, 60, 100),
+			new RefreshThrottle(registry, 10), new SupabaseBulkhead(registry, 20, 50, 250, 4000), registry, "https://example.supabase.co", "anon", 30, 5000);
+
+	@Test
+	void concurrentRefreshesOfOneTokenShareASingleExchange() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(client.postForEntity(anyString(), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return ResponseEntity.ok(SESSION_JSON);
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Optional<RefreshedSession>>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(executor.submit(() -> refresher.refresh("old-refresh", "client")));
+		}
+		Thread.sleep(200);
+		release.countDown();
+
+		for (Future<Optional<RefreshedSession>> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).hasValueSatisfying(
+					session -> assertThat(session.refreshToken()).isEqualTo("new-refresh"));
+		}
+		executor.shutdown();
+		verify(client, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(String.class));
+	}
+
+	@Test
+	void laterRefreshWithinGracePeriodReusesResult() {
+		when(client.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+				.thenReturn(ResponseEntity.ok(SESSION_JSON));
+
+		refresher.refresh("old-refresh", "client");
+		Optional<RefreshedSession> again = refresher.refresh("old-refresh", "client");
+
+		assertThat(again).isPresent();
+		verify(client, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(String.class));
+	}
+
+	@Test
+	void refusedRefreshTokenIsNotSentAgain() {
+		when(client.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+				.thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "invalid_grant", null, null, null));
+
+		assertThat(refresher.refresh("revoked-refresh", "client")).isEmpty();
+		assertThat(refresher.refresh("revoked-refresh", "client")).isEmpty();
+
+		verify(client, times(1)).postForEntity(anyString(), any(HttpEntity.class), eq(String.class));
+	}
+
+	@Test
+	void throttledRefreshIsReportedAsUnavailableRatherThanInvalid() {
+		when(client.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+				.thenReturn(ResponseEntity.ok(SESSION_JSON));
+		TokenRefresher throttled = new TokenRefresher(client, new RejectedTokenCache(registry, 60, 100),
+				new RefreshThrottle(registry, 1), new SupabaseBulkhead(registry, 20, 50, 250, 4000), registry, "https://example.supabase.co", "anon", 30, 5000);
+
+		assertThat(throttled.refresh("first-refresh", "203.0.113.7")).isPresent();
+		assertThatThrownBy(() -> throttled.refresh("second-refresh", "203.0.113.7"))
+				.isInstanceOf(RefreshThrottledException.class);
+		assertThat(throttled.refresh("second-refresh", "198.51.100.4")).isPresent();
+
+		assertThat(registry.counter("auth.refresh.throttled").count()).isEqualTo(1);
+	}
+}
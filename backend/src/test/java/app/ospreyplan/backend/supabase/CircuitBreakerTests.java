@@ -0,0 +1,113 @@
+package app.ospreyplan.backend.supabase;
+
+import app.ospreyplan.backend.supabase.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+	private final MutableClock clock = new MutableClock();
+	private final CircuitBreaker breaker = new CircuitBreaker(3, 1000, clock);
+
+	@Test
+	void opensAfterConsecutiveFailuresOnly() {
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+		breaker.onFailure();
+		assertThat(breaker.getState()).isEqualTo(State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void letsASingleProbeThroughOnceTheOpenPeriodEnds() {
+		open();
+		clock.advance(1000);
+
+		assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void successfulProbeClosesTheCircuit() {
+		open();
+		clock.advance(1000);
+		breaker.tryAcquire();
+
+		breaker.onSuccess();
+
+		assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void failedProbeReopensTheCircuit() {
+		open();
+		clock.advance(1000);
+		breaker.tryAcquire();
+
+		breaker.onFailure();
+
+		assertThat(breaker.getState()).isEqualTo(State.OPEN);
+		clock.advance(1000);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void unreportedProbeStopsBlockingAfterAnotherOpenPeriod() {
+		open();
+		clock.advance(1000);
+		assertThat(breaker.tryAcquire()).isTrue();
+
+		clock.advance(999);
+		assertThat(breaker.tryAcquire()).isFalse();
+		clock.advance(1);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	private void open() {
+		for (int i = 0; i < 3; i++) {
+			breaker.onFailure();
+		}
+	}
+
+	static final class MutableClock extends Clock {
+
+		private long millis;
+
+		void advance(long deltaMillis) {
+			millis += deltaMillis;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+}
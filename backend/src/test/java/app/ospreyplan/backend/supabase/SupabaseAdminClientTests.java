@@ -0,0 +1,61 @@
+package app.ospreyplan.backend.supabase;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class SupabaseAdminClientTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+	private static final String USER_URL = "https://project.supabase.co/auth/v1/admin/users/" + USER_ID;
+
+	private final RestTemplate restTemplate = new RestTemplate();
+	private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+	private final SupabaseAdminClient client = new SupabaseAdminClient(restTemplate, "https://project.supabase.co",
+			"anon-key", "a-test-jwt-secret-that-is-at-least-32-bytes-long");
+
+	@Test
+	void deletesTheUser() {
+		server.expect(requestTo(USER_URL)).andExpect(method(HttpMethod.DELETE)).andExpect(header("apikey", "anon-key"))
+				.andRespond(withSuccess());
+
+		client.deleteUser(USER_ID);
+
+		server.verify();
+	}
+
+	@Test
+	void userThatIsAlreadyGoneCountsAsDeleted() {
+		server.expect(requestTo(USER_URL)).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+		assertThatCode(() -> client.deleteUser(USER_ID)).doesNotThrowAnyException();
+	}
+
+	@Test
+	void otherClientErrorsAreThrown() {
+		server.expect(requestTo(USER_URL)).andRespond(withStatus(HttpStatus.FORBIDDEN));
+
+		assertThatThrownBy(() -> client.deleteUser(USER_ID)).isInstanceOf(HttpClientErrorException.Forbidden.class);
+	}
+
+	@Test
+	void serverErrorsAreThrown() {
+		server.expect(requestTo(USER_URL)).andRespond(withStatus(HttpStatus.BAD_GATEWAY));
+
+		assertThatThrownBy(() -> client.deleteUser(USER_ID)).isInstanceOf(HttpServerErrorException.class);
+	}
+}
@@ -0,0 +1,117 @@
+package app.ospreyplan.backend.supabase;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SupabaseBulkheadTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void stopCallers() {
+		release.countDown();
+		callers.shutdownNow();
+	}
+
+	@Test
+	void rejectsCallersBeyondTheQueueWithoutWaiting() throws Exception {
+		SupabaseBulkhead bulkhead = new SupabaseBulkhead(registry, 1, 1, 10_000, 10_000);
+		Future<String> inFlight = occupy(bulkhead);
+		Future<String> queued = callers.submit(() -> bulkhead.call(() -> "queued"));
+		awaitWaiting(1);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> bulkhead.call(() -> "rejected"))
+				.isInstanceOf(AuthProviderUnavailableException.class)
+				.hasMessageContaining("bulkhead is full");
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+		assertThat(registry.get("supabase.bulkhead.rejected").counter().count()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("in flight");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+	}
+
+	@Test
+	void queuedCallerGivesUpAfterTheQueueTimeout() throws Exception {
+		SupabaseBulkhead bulkhead = new SupabaseBulkhead(registry, 1, 5, 50, 10_000);
+		occupy(bulkhead);
+
+		assertThatThrownBy(() -> bulkhead.call(() -> "late"))
+				.isInstanceOf(AuthProviderUnavailableException.class)
+				.hasMessageContaining("Timed out waiting");
+		assertThat(registry.get("supabase.bulkhead.rejected").counter().count()).isEqualTo(1);
+		assertThat(registry.get("supabase.bulkhead.waiting").gauge().value()).isZero();
+	}
+
+	@Test
+	void missedDeadlineInterruptsTheCallAndFreesItsSlot() throws Exception {
+		SupabaseBulkhead bulkhead = new SupabaseBulkhead(registry, 1, 0, 50, 100);
+		CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+
+		assertThatThrownBy(() -> bulkhead.call(() -> {
+			try {
+				Thread.sleep(10_000);
+				interrupted.complete(false);
+			}
+			catch (InterruptedException e) {
+				interrupted.complete(true);
+			}
+			return "too late";
+		})).isInstanceOf(AuthProviderUnavailableException.class).hasMessageContaining("100 ms deadline");
+
+		assertThat(interrupted.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(registry.get("supabase.bulkhead.timeouts").counter().count()).isEqualTo(1);
+		assertThat(bulkhead.call(() -> "next")).isEqualTo("next");
+	}
+
+	@Test
+	void rethrowsFailuresOfTheCallItself() {
+		SupabaseBulkhead bulkhead = new SupabaseBulkhead(registry, 1, 0, 50, 1000);
+
+		assertThatThrownBy(() -> bulkhead.call(() -> {
+			throw new IllegalStateException("401 from provider");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("401 from provider");
+		assertThat(registry.get("supabase.bulkhead.in_flight").gauge().value()).isZero();
+	}
+
+	/**
+	 * Holds the bulkhead's only slot until the test releases it.
+	 */
+	private Future<String> occupy(SupabaseBulkhead bulkhead) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		Future<String> call = callers.submit(() -> bulkhead.call(() -> {
+			started.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return "in flight";
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		return call;
+	}
+
+	private void awaitWaiting(int callers) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (registry.get("supabase.bulkhead.waiting").gauge().value() < callers && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(registry.get("supabase.bulkhead.waiting").gauge().value()).isEqualTo(callers);
+	}
+}
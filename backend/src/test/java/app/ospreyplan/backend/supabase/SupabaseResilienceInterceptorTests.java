@@ -0,0 +1,130 @@
+package app.ospreyplan.backend.supabase;
+
+import app.ospreyplan.backend.supabase.CircuitBreakerTests.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SupabaseResilienceInterceptorTests {
+
+	private static final byte[] BODY = new byte[0];
+
+	private final MutableClock clock = new MutableClock();
+	private final CircuitBreaker breaker = new CircuitBreaker(5, 1000, clock);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SupabaseResilienceInterceptor interceptor = new SupabaseResilienceInterceptor(breaker, 3, 1, 2, registry);
+	private final ClientHttpRequestExecution execution = mock(ClientHttpRequestExecution.class);
+
+	@Test
+	void retriesIdempotentCallsOnTransientStatusUntilOneSucceeds() throws IOException {
+		ClientHttpResponse unavailable = response(503);
+		ClientHttpResponse ok = response(200);
+		when(execution.execute(any(), any())).thenReturn(unavailable, unavailable, ok);
+
+		assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution)).isSameAs(ok);
+
+		verify(unavailable, times(2)).close();
+		assertThat(registry.counter("supabase.client.retries").count()).isEqualTo(2);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void returnsTheLastTransientResponseOnceAttemptsRunOut() throws IOException {
+		ClientHttpResponse unavailable = response(503);
+		when(execution.execute(any(), any())).thenReturn(unavailable);
+
+		assertThat(interceptor.intercept(request(HttpMethod.DELETE), BODY, execution)).isSameAs(unavailable);
+
+		verify(execution, times(3)).execute(any(), any());
+	}
+
+	@Test
+	void neverRetriesNonIdempotentCalls() throws IOException {
+		when(execution.execute(any(), any())).thenThrow(new IOException("connection reset"));
+
+		assertThatThrownBy(() -> interceptor.intercept(request(HttpMethod.POST), BODY, execution))
+				.isInstanceOf(IOException.class);
+
+		verify(execution, times(1)).execute(any(), any());
+		assertThat(registry.counter("supabase.client.retries").count()).isZero();
+	}
+
+	@Test
+	void clientErrorsCountAsAHealthyProvider() throws IOException {
+		ClientHttpResponse notFound = response(404);
+		when(execution.execute(any(), any())).thenReturn(notFound);
+
+		assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution)).isSameAs(notFound);
+
+		verify(execution, times(1)).execute(any(), any());
+	}
+
+	@Test
+	void refusesCallsWhileTheCircuitIsOpen() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			breaker.onFailure();
+		}
+
+		assertThatThrownBy(() -> interceptor.intercept(request(HttpMethod.GET), BODY, execution))
+				.isInstanceOf(SupabaseUnavailableException.class);
+
+		verify(execution, times(0)).execute(any(), any());
+		assertThat(registry.counter("supabase.client.rejected").count()).isEqualTo(1);
+	}
+
+	@Test
+	void unexpectedExceptionDuringAProbeReleasesIt() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			breaker.onFailure();
+		}
+		clock.advance(1000);
+		when(execution.execute(any(), any())).thenThrow(new IllegalStateException("bad URI template"));
+
+		assertThatThrownBy(() -> interceptor.intercept(request(HttpMethod.GET), BODY, execution))
+				.isInstanceOf(IllegalStateException.class);
+
+		// The failed probe reopened the circuit; after the open period the next probe is allowed through
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		clock.advance(1000);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void backoffIsFullJitterCappedAtTheMaximum() {
+		SupabaseResilienceInterceptor slow = new SupabaseResilienceInterceptor(breaker, 5, 100, 250, new SimpleMeterRegistry());
+
+		for (int i = 0; i < 200; i++) {
+			assertThat(slow.backoffMillis(1)).isBetween(0L, 100L);
+			assertThat(slow.backoffMillis(2)).isBetween(0L, 200L);
+			assertThat(slow.backoffMillis(5)).isBetween(0L, 250L);
+		}
+	}
+
+	private static HttpRequest request(HttpMethod method) {
+		HttpRequest request = mock(HttpRequest.class);
+		when(request.getMethod()).thenReturn(method);
+		when(request.getURI()).thenReturn(URI.create("https://example.supabase.co/auth/v1/user"));
+		return request;
+	}
+
+	private static ClientHttpResponse response(int status) throws IOException {
+		ClientHttpResponse response = mock(ClientHttpResponse.class);
+		when(response.getStatusCode()).thenReturn(HttpStatusCode.valueOf(status));
+		return response;
+	}
+}
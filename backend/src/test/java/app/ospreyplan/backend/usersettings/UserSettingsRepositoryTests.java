@@ -0,0 +1,99 @@
+package app.ospreyplan.backend.usersettings;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the settings version handed to clients is the {@code updated_at} actually stored, which the entity's
+ * own {@code @PreUpdate} hook must not overwrite.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserSettingsService.class)
+@Testcontainers(disabledWithoutDocker = true)
+class UserSettingsRepositoryTests {
+
+	@Container
+	static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	@DynamicPropertySource
+	static void datasource(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	private static final OffsetDateTime LAST_YEAR = OffsetDateTime.now(ZoneOffset.UTC).minusYears(1);
+
+	@Autowired
+	private UserSettingsRepository repository;
+
+	@Autowired
+	private UserSettingsService service;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private final UUID userId = UUID.randomUUID();
+
+	@BeforeEach
+	void insertUser() {
+		UserSettings settings = new UserSettings();
+		settings.setId(userId);
+		settings.setEmail("student@example.edu");
+		settings.setUpdatedAt(LAST_YEAR);
+		entityManager.persistAndFlush(settings);
+		entityManager.clear();
+	}
+
+	@Test
+	void storedUpdatedAtIsTheVersionReturnedByTheService() {
+		UserSettingsDTO dto = new UserSettingsDTO();
+		dto.setDegree("bs-computer-science");
+		dto.setStartYear(2025);
+
+		long version = service.updateSettings(userId, dto).version();
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(repository.findById(userId).orElseThrow().getUpdatedAt().toInstant().toEpochMilli()).isEqualTo(version);
+	}
+
+	@Test
+	void explicitlyAssignedUpdatedAtSurvivesTheUpdate() {
+		OffsetDateTime assigned = OffsetDateTime.of(2030, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+		UserSettings settings = repository.findById(userId).orElseThrow();
+		settings.setDegree("bs-computer-science");
+		settings.setUpdatedAt(assigned);
+		repository.saveAndFlush(settings);
+		entityManager.clear();
+
+		assertThat(repository.findById(userId).orElseThrow().getUpdatedAt()).isAtSameInstantAs(assigned);
+	}
+
+	@Test
+	void otherUpdatesStillTouchUpdatedAt() {
+		UserSettings settings = repository.findById(userId).orElseThrow();
+		settings.setDegree("bs-computer-science");
+		repository.saveAndFlush(settings);
+		entityManager.clear();
+
+		assertThat(repository.findById(userId).orElseThrow().getUpdatedAt()).isAfter(LAST_YEAR);
+	}
+}
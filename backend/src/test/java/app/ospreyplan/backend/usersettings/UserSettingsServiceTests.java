@@ -0,0 +1,62 @@
+package app.ospreyplan.backend.usersettings;
+
+import app.ospreyplan.backend.usersettings.UserSettingsService.VersionedSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSettingsServiceTests {
+
+	private static final UUID USER_ID = UUID.randomUUID();
+
+	private final UserSettingsRepository repository = mock(UserSettingsRepository.class);
+	private final UserSettingsService service = new UserSettingsService(repository, 100, 300);
+
+	@Test
+	void repeatedReadsAreServedFromTheCache() {
+		when(repository.findById(USER_ID)).thenReturn(Optional.of(settings("bs-computer-science", 2024)));
+
+		VersionedSettings first = service.getUserSettings(USER_ID);
+		VersionedSettings second = service.getUserSettings(USER_ID);
+
+		assertThat(second).isEqualTo(first);
+		assertThat(service.cachedVersion(USER_ID)).hasValue(first.version());
+		verify(repository, times(1)).findById(USER_ID);
+	}
+
+	@Test
+	void updateMovesTheVersionForwardAndWritesThrough() {
+		UserSettings stored = settings("bs-computer-science", 2024);
+		stored.setUpdatedAt(OffsetDateTime.now().plusDays(1));
+		when(repository.findById(USER_ID)).thenReturn(Optional.of(stored));
+		when(repository.save(any(UserSettings.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		long before = service.getUserSettings(USER_ID).version();
+		UserSettingsDTO dto = new UserSettingsDTO();
+		dto.setDegree("bs-computer-information-systems");
+		dto.setStartYear(2025);
+		VersionedSettings updated = service.updateSettings(USER_ID, dto);
+
+		assertThat(updated.version()).isGreaterThan(before);
+		assertThat(service.getUserSettings(USER_ID)).isEqualTo(updated);
+		assertThat(service.cachedVersion(USER_ID)).hasValue(updated.version());
+	}
+
+	private static UserSettings settings(String degree, int startYear) {
+		UserSettings settings = new UserSettings();
+		settings.setId(USER_ID);
+		settings.setDegree(degree);
+		settings.setStartYear(startYear);
+		settings.setUpdatedAt(OffsetDateTime.now().minusDays(1));
+		return settings;
+	}
+}
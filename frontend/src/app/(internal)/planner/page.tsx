@@ -2,16 +2,20 @@ import React from "react";
 import Planner from "@/components/Planner";
 import { fetchFromServer } from "@/lib/server-api";
 import { BackendSemester } from "@/types/planner.types";
+import { DegreeAuditResponse } from "@/types/audit.types";
 
 export default async function PlannerPage() {
     let initialSemesters: BackendSemester[] | null = null;
+    let initialAudit: DegreeAuditResponse | null = null;
     let userId: string | null = null;
     
     try {
-        const user = await fetchFromServer("/auth/me");
-        if (user && user.id) {
-            userId = user.id;
-            initialSemesters = await fetchFromServer(`/api/semesters/user/${user.id}`);
+        // One round trip for the user, their semesters and the audit
+        const dashboard = await fetchFromServer("/api/dashboard");
+        if (dashboard && dashboard.user && dashboard.user.id) {
+            userId = dashboard.user.id;
+            initialSemesters = dashboard.semesters;
+            initialAudit = dashboard.audit;
         }
     } catch(e) {
         console.error("Server fetch failed in PlannerPage", e);
@@ -20,7 +24,7 @@ export default async function PlannerPage() {
     return (
         <main className="p-8 space-y-6">
             <h1 className="text-2xl font-semibold">Planner</h1>
-            <Planner initialSemesters={initialSemesters || []} initialUserId={userId} />
+            <Planner initialSemesters={initialSemesters || []} initialUserId={userId} initialAudit={initialAudit} />
         </main>
     );
 }
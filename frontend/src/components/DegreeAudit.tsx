@@ -15,15 +15,23 @@ interface DegreeAuditProps {
   userId: string;
   refreshTrigger?: number;
   totalCredits: number;
+  initialData?: DegreeAuditResponse | null;
 }
 
-export function DegreeAudit({ userId, refreshTrigger, totalCredits }: DegreeAuditProps) {
-  const [data, setData] = useState<DegreeAuditResponse | null>(null);
-  const [loading, setLoading] = useState(true);
+export function DegreeAudit({ userId, refreshTrigger, totalCredits, initialData }: DegreeAuditProps) {
+  const [data, setData] = useState<DegreeAuditResponse | null>(initialData ?? null);
+  const [loading, setLoading] = useState(!initialData);
   const [isUpdating, setIsUpdating] = useState(false);
-  const loadedUserId = useRef<string | null>(null);
+  const loadedUserId = useRef<string | null>(initialData ? userId : null);
+  // The server already rendered the audit from /api/dashboard; only refetch once the plan changes
+  const skipInitialFetch = useRef(!!initialData);
 
   useEffect(() => {
+    if (skipInitialFetch.current) {
+      skipInitialFetch.current = false;
+      return;
+    }
+
     const fetchAudit = async () => {
       const isFirstLoad = loadedUserId.current !== userId;
 
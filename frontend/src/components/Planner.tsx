@@ -22,13 +22,15 @@ import { usePlannerApi } from "@/hooks/usePlannerApi";
 import { calculateTotalCredits } from "@/lib/planner-utils";
 import { Course, BackendSemester } from "@/types/planner.types";
 import { DegreeAudit } from "./DegreeAudit";
+import { DegreeAuditResponse } from "@/types/audit.types";
 
 interface PlannerProps {
   initialSemesters?: BackendSemester[] | null;
   initialUserId?: string | null;
+  initialAudit?: DegreeAuditResponse | null;
 }
 
-export default function Planner({ initialSemesters, initialUserId }: PlannerProps) {
+export default function Planner({ initialSemesters, initialUserId, initialAudit }: PlannerProps) {
   const {
     semesters,
     userId,
@@ -315,7 +317,7 @@ export default function Planner({ initialSemesters, initialUserId }: PlannerProp
       {userId && (
         <div className="mt-12 border-t pt-8">
           <h2 className="text-2xl font-semibold mb-6">Degree Audit</h2>
-          <DegreeAudit userId={userId} refreshTrigger={refreshTrigger} totalCredits={totalPlannedCredits} />
+          <DegreeAudit userId={userId} refreshTrigger={refreshTrigger} totalCredits={totalPlannedCredits} initialData={initialAudit} />
         </div>
       )}
     </div>
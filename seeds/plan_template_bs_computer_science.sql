@@ -0,0 +1,37 @@
+--------------------------------------------------------------------------------
+-- Recommended four-year roadmap: BS Computer Science (major and math core)
+--------------------------------------------------------------------------------
+DELETE FROM public.plan_templates WHERE degree_code = 'bs-computer-science';
+
+INSERT INTO public.plan_templates (id, degree_code, name)
+VALUES ('6f1c2a4e-0000-4000-8000-000000000001', 'bs-computer-science', 'Recommended Four-Year Roadmap');
+
+INSERT INTO public.plan_template_semesters (id, template_id, position, term, year_offset)
+VALUES
+  ('6f1c2a4e-0000-4000-8000-000000000101', '6f1c2a4e-0000-4000-8000-000000000001', 1, 'Fall', 0),
+  ('6f1c2a4e-0000-4000-8000-000000000102', '6f1c2a4e-0000-4000-8000-000000000001', 2, 'Spring', 1),
+  ('6f1c2a4e-0000-4000-8000-000000000103', '6f1c2a4e-0000-4000-8000-000000000001', 3, 'Fall', 1),
+  ('6f1c2a4e-0000-4000-8000-000000000104', '6f1c2a4e-0000-4000-8000-000000000001', 4, 'Spring', 2),
+  ('6f1c2a4e-0000-4000-8000-000000000105', '6f1c2a4e-0000-4000-8000-000000000001', 5, 'Fall', 2),
+  ('6f1c2a4e-0000-4000-8000-000000000106', '6f1c2a4e-0000-4000-8000-000000000001', 6, 'Spring', 3),
+  ('6f1c2a4e-0000-4000-8000-000000000107', '6f1c2a4e-0000-4000-8000-000000000001', 7, 'Fall', 3),
+  ('6f1c2a4e-0000-4000-8000-000000000108', '6f1c2a4e-0000-4000-8000-000000000001', 8, 'Spring', 4);
+
+INSERT INTO public.plan_template_courses (template_semester_id, position, subject, course_number, credits)
+VALUES
+  ('6f1c2a4e-0000-4000-8000-000000000101', 1, 'CSCI', 2101, 4), -- Programming and Problem Solving I
+  ('6f1c2a4e-0000-4000-8000-000000000101', 2, 'MATH', 2215, 5), -- Calculus I
+  ('6f1c2a4e-0000-4000-8000-000000000102', 1, 'CSCI', 2102, 4), -- Programming and Problem Solving II
+  ('6f1c2a4e-0000-4000-8000-000000000102', 2, 'MATH', 2216, 5), -- Calculus II
+  ('6f1c2a4e-0000-4000-8000-000000000103', 1, 'CSCI', 3103, 4), -- Data Structures and Algorithms I
+  ('6f1c2a4e-0000-4000-8000-000000000103', 2, 'MATH', 2225, 4), -- Discrete Mathematics
+  ('6f1c2a4e-0000-4000-8000-000000000104', 1, 'CSCI', 2226, 4), -- Foundations of Computer Science
+  ('6f1c2a4e-0000-4000-8000-000000000104', 2, 'CSCI', 3250, 4), -- Computer Organization
+  ('6f1c2a4e-0000-4000-8000-000000000105', 1, 'CSCI', 4104, 4), -- Data Structures and Algorithms II
+  ('6f1c2a4e-0000-4000-8000-000000000105', 2, 'CSCI', 3327, 4), -- Probability and Applied Statistics
+  ('6f1c2a4e-0000-4000-8000-000000000106', 1, 'CIST', 3230, 4), -- Computer Networking Principles
+  ('6f1c2a4e-0000-4000-8000-000000000106', 2, 'CIST', 3222, 4), -- Database Systems
+  ('6f1c2a4e-0000-4000-8000-000000000107', 1, 'CSCI', 4485, 4), -- Software Engineering
+  ('6f1c2a4e-0000-4000-8000-000000000107', 2, 'CSCI', 4251, 4), -- Operating Systems
+  ('6f1c2a4e-0000-4000-8000-000000000108', 1, 'CSCI', 4600, 4), -- Senior Seminar
+  ('6f1c2a4e-0000-4000-8000-000000000108', 2, 'CSCI', 4463, 4); -- Artificial Intelligence